@@ -0,0 +1,120 @@
+#!/usr/bin/env bash
+# Starts a cluster of N nodes as separate JVMs on localhost, creates clients through one node and reads them
+# through another, then adds a node and stops one to show the clients moving. Needs only a JDK and curl:
+#   ./gradlew bootJar && scripts/cluster-smoke.sh [nodes] [clients]
+set -euo pipefail
+
+NODES=${1:-3}
+CLIENTS=${2:-200}
+BASE_PORT=${BASE_PORT:-18180}
+SECRET=${CLUSTER_SECRET:-smoke-$$}
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+JAVA=${JAVA_HOME:+$JAVA_HOME/bin/}java
+BOOT_JAR=$ROOT/build/libs/insured-process-0.0.1-SNAPSHOT.jar
+LOGS=$(mktemp -d)
+declare -A PIDS
+
+if [[ ! -f $BOOT_JAR ]]; then
+  echo "Build first: ./gradlew bootJar" >&2
+  exit 1
+fi
+
+cleanup() {
+  for pid in "${PIDS[@]}"; do
+    kill "$pid" 2>/dev/null || true
+  done
+  wait 2>/dev/null || true
+}
+trap cleanup EXIT
+
+url() { echo "http://localhost:$((BASE_PORT + $1))"; }
+
+start() {
+  local node=$1 members=$2
+  "$JAVA" -jar "$BOOT_JAR" --server.port=$((BASE_PORT + node)) \
+    --insured-process.cluster.enabled=true --insured-process.cluster.self-url="$(url "$node")" \
+    --insured-process.cluster.secret="$SECRET" \
+    --insured-process.cluster.members="$members" >"$LOGS/node-$node.log" 2>&1 &
+  PIDS[$node]=$!
+}
+
+await() {
+  local description=$1; shift
+  for _ in $(seq 900); do
+    if "$@"; then
+      return 0
+    fi
+    sleep 0.1
+  done
+  echo "Timed out waiting for $description (logs in $LOGS)" >&2
+  exit 1
+}
+
+# Number of live nodes in the ring of a node
+live_nodes() { curl -sf -H "X-Cluster-Secret: $SECRET" "$(url "$1")/internal/cluster/members" | grep -o '"live":\[[^]]*\]' | grep -o 'http' | wc -l; }
+ring_of() { [[ $(live_nodes "$1" 2>/dev/null || echo 0) -eq $2 ]]; }
+clients_on() { curl -sf -H "X-Cluster-Secret: $SECRET" "$(url "$1")/internal/cluster/members" | sed -E 's/.*"clients":([0-9]+).*/\1/'; }
+
+# Every synthetic client readable through the given node
+all_readable() {
+  for i in $(seq "$CLIENTS"); do
+    [[ $(curl -s -o /dev/null -w '%{http_code}' "$(url "$1")/api/clients/K$i/products") == 200 ]] || return 1
+  done
+}
+
+distribution() {
+  local line="" total=0
+  for node in "$@"; do
+    local count
+    count=$(clients_on "$node")
+    line+=" node $node: $count"
+    total=$((total + count))
+  done
+  echo "  clients per node:$line (total $total)"
+}
+
+seeds=$(url 1)
+start 1 ""
+await "node 1" curl -sf -o /dev/null "$(url 1)/actuator/health"
+nodes=(1)
+for node in $(seq 2 "$NODES"); do
+  start "$node" "$seeds"
+  nodes+=("$node")
+done
+for node in "${nodes[@]}"; do
+  await "node $node to see the whole cluster" ring_of "$node" "$NODES"
+done
+echo "$NODES nodes up"
+
+for i in $(seq "$CLIENTS"); do
+  curl -sf -o /dev/null -H 'Content-Type: application/json' \
+    -d "{\"clientId\":\"K$i\",\"contactType\":\"email\",\"contactValue\":\"k$i@example.com\"}" "$(url 1)/api/clients"
+  curl -sf -o /dev/null -X POST "$(url 1)/api/products/P00$(( i % 3 + 1 ))/buy?clientId=K$i"
+done
+curl -sf -o /dev/null -H 'Content-Type: application/json' \
+  -d '{"id":"P900","name":"Cluster Insurance","description":"Created on the last node"}' "$(url "$NODES")/api/products"
+echo "created $CLIENTS clients through node 1"
+distribution "${nodes[@]}"
+await "every client through node $NODES" all_readable "$NODES"
+await "the new product on node 1" curl -sf -o /dev/null "$(url 1)/api/products/search?q=cluster"
+echo "  every client readable through node $NODES, product created on node $NODES searchable on node 1"
+
+joined=$((NODES + 1))
+start "$joined" "$seeds"
+nodes+=("$joined")
+for node in "${nodes[@]}"; do
+  await "node $node to see node $joined" ring_of "$node" "$joined"
+done
+sleep 3
+echo "node $joined joined"
+distribution "${nodes[@]}"
+await "every client through node $joined" all_readable "$joined"
+
+kill "${PIDS[2]}"
+wait "${PIDS[2]}" 2>/dev/null || true
+unset 'PIDS[2]'
+remaining=(1 $(seq 3 "$joined"))
+echo "node 2 stopped"
+distribution "${remaining[@]}"
+await "every client through node 1" all_readable 1
+echo "  every client still readable"
@@ -0,0 +1,82 @@
+#!/usr/bin/env bash
+# Starts a leader and N followers as separate JVMs on localhost, writes through the leader and checks that every
+# follower serves the change. Needs only a JDK and curl:
+#   ./gradlew bootJar && scripts/replication-smoke.sh [followers]
+set -euo pipefail
+
+FOLLOWERS=${1:-2}
+HTTP_PORT=${HTTP_PORT:-18080}
+REPLICATION_PORT=${REPLICATION_PORT:-17600}
+SECRET=${REPLICATION_SECRET:-smoke-$$}
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+JAVA=${JAVA_HOME:+$JAVA_HOME/bin/}java
+BOOT_JAR=$ROOT/build/libs/insured-process-0.0.1-SNAPSHOT.jar
+LOGS=$(mktemp -d)
+PIDS=()
+
+if [[ ! -f $BOOT_JAR ]]; then
+  echo "Build first: ./gradlew bootJar" >&2
+  exit 1
+fi
+
+cleanup() {
+  for pid in "${PIDS[@]}"; do
+    kill "$pid" 2>/dev/null || true
+  done
+  wait 2>/dev/null || true
+}
+trap cleanup EXIT
+
+start() {
+  local name=$1; shift
+  "$JAVA" -jar "$BOOT_JAR" "$@" >"$LOGS/$name.log" 2>&1 &
+  PIDS+=($!)
+}
+
+await() {
+  local description=$1; shift
+  for _ in $(seq 600); do
+    if "$@"; then
+      return 0
+    fi
+    sleep 0.1
+  done
+  echo "Timed out waiting for $description (logs in $LOGS)" >&2
+  exit 1
+}
+
+healthy() { curl -sf -o /dev/null "http://localhost:$1/actuator/health"; }
+
+authenticates() {
+  [[ $(curl -s -o /dev/null -w '%{http_code}' -H 'Content-Type: application/json' \
+    -d '{"clientId":"R001","contactType":"email","contactValue":"replica@example.com"}' \
+    "http://localhost:$1/api/clients/authenticate") == 200 ]]
+}
+
+owns() { curl -sf "http://localhost:$1/api/clients/R001/products" | grep -q '"P001"'; }
+
+start leader --server.port="$HTTP_PORT" \
+  --insured-process.replication.role=leader --insured-process.replication.port="$REPLICATION_PORT" \
+  --insured-process.replication.secret="$SECRET"
+await "leader" healthy "$HTTP_PORT"
+for i in $(seq "$FOLLOWERS"); do
+  start "follower-$i" --server.port=$((HTTP_PORT + i)) \
+    --insured-process.replication.role=follower --insured-process.replication.leader-port="$REPLICATION_PORT" \
+    --insured-process.replication.secret="$SECRET"
+done
+for i in $(seq "$FOLLOWERS"); do
+  await "follower $i" healthy $((HTTP_PORT + i))
+done
+
+curl -sf -o /dev/null -H 'Content-Type: application/json' \
+  -d '{"clientId":"R001","contactType":"email","contactValue":"replica@example.com"}' "http://localhost:$HTTP_PORT/api/clients"
+curl -sf -o /dev/null -X POST "http://localhost:$HTTP_PORT/api/products/P001/buy?clientId=R001"
+
+for i in $(seq "$FOLLOWERS"); do
+  port=$((HTTP_PORT + i))
+  await "follower $i to replicate" authenticates "$port"
+  await "follower $i to replicate" owns "$port"
+  write=$(curl -s -o /dev/null -w '%{http_code}' -X POST "http://localhost:$port/api/products/P002/buy?clientId=R001")
+  lag=$(curl -s "http://localhost:$port/actuator/metrics/insured.replication.lag.events" | sed -E 's/.*"value":([0-9.]+).*/\1/')
+  echo "follower $i (port $port): authenticate ok, portfolio ok, write answered $write, lag $lag events"
+done
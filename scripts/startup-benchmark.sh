@@ -0,0 +1,66 @@
+#!/usr/bin/env bash
+# Compares startup time and first-request latency of the plain boot jar, the extracted jar with an AppCDS
+# archive and the same with Spring AOT enabled. Needs only a JDK and curl, so it runs offline once built:
+#   ./gradlew -Paot cdsArchive && scripts/startup-benchmark.sh [runs]
+set -euo pipefail
+
+RUNS=${1:-5}
+PORT=${PORT:-18080}
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+JAVA=${JAVA_HOME:+$JAVA_HOME/bin/}java
+JAR_NAME=insured-process-0.0.1-SNAPSHOT.jar
+BOOT_JAR=$ROOT/build/libs/$JAR_NAME
+CDS_DIR=$ROOT/build/cds
+
+if [[ ! -f $BOOT_JAR || ! -f $CDS_DIR/application.jsa ]]; then
+  echo "Build first: ./gradlew -Paot cdsArchive" >&2
+  exit 1
+fi
+
+now_ms() { echo $(( $(date +%s%N) / 1000000 )); }
+
+median() { sort -n | awk '{ v[NR] = $1 } END { print (NR % 2) ? v[(NR + 1) / 2] : (v[NR / 2] + v[NR / 2 + 1]) / 2 }'; }
+
+# Prints "<ms until /actuator/health answers> <first authenticate ms> <first list ms>"
+measure() {
+  local dir=$1; shift
+  local log
+  log=$(mktemp)
+  local started
+  started=$(now_ms)
+  (cd "$dir" && exec "$JAVA" "$@" --server.port="$PORT" >"$log" 2>&1) &
+  local pid=$!
+  until curl -sf -o /dev/null "http://localhost:$PORT/actuator/health"; do
+    if ! kill -0 "$pid" 2>/dev/null; then
+      cat "$log" >&2
+      exit 1
+    fi
+    sleep 0.02
+  done
+  local ready=$(( $(now_ms) - started ))
+  local authenticate list
+  authenticate=$(curl -s -o /dev/null -w '%{time_total}' -H 'Content-Type: application/json' \
+    -d '{"clientId":"C001","contactType":"email","contactValue":"john@example.com"}' \
+    "http://localhost:$PORT/api/clients/authenticate")
+  list=$(curl -s -o /dev/null -w '%{time_total}' "http://localhost:$PORT/api/clients/C001/products")
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+  rm -f "$log"
+  awk -v r="$ready" -v a="$authenticate" -v l="$list" 'BEGIN { printf "%d %.1f %.1f\n", r, a * 1000, l * 1000 }'
+}
+
+run_variant() {
+  local name=$1; shift
+  local results
+  results=$(for _ in $(seq "$RUNS"); do measure "$@"; done)
+  printf "%-10s %12s %18s %14s\n" "$name" \
+    "$(cut -d' ' -f1 <<<"$results" | median)" \
+    "$(cut -d' ' -f2 <<<"$results" | median)" \
+    "$(cut -d' ' -f3 <<<"$results" | median)"
+}
+
+echo "Median of $RUNS runs"
+printf "%-10s %12s %18s %14s\n" "variant" "ready ms" "authenticate ms" "products ms"
+run_variant "jar" "$ROOT" -jar "$BOOT_JAR"
+run_variant "cds" "$CDS_DIR" -XX:SharedArchiveFile=application.jsa -Xlog:cds=error -jar "$JAR_NAME"
+run_variant "cds+aot" "$CDS_DIR" -XX:SharedArchiveFile=application.jsa -Xlog:cds=error -Dspring.aot.enabled=true -jar "$JAR_NAME"
@@ -0,0 +1,226 @@
+package com.assignment.insuredprocess.loadtest;
+
+import com.assignment.insuredprocess.model.ContactMethod;
+import com.assignment.insuredprocess.seed.SyntheticBook;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+//Closed-loop load driver for a running instance seeded with the same synthetic book
+//(insured-process.seed.* on the app must match the load.* book settings given here).
+//Run with ./gradlew loadTest -Pload.threads=32 -Pload.duration=60 -Pload.mix=authenticate=40,list=40,buy=15,update=5
+public final class LoadDriver {
+
+    enum Operation { AUTHENTICATE, LIST, BUY, UPDATE, SEARCH }
+
+    private final Settings settings;
+    private final SyntheticBook book;
+    private final HttpClient http;
+    private final Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+
+    LoadDriver(Settings settings) {
+        this.settings = settings;
+        this.book = new SyntheticBook(settings.clients(), settings.products(), settings.maxProductsPerClient(),
+                settings.ownershipSkew(), settings.secondContactRatio(), settings.randomSeed());
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new Stats());
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Settings settings = Settings.fromSystemProperties();
+        System.out.printf("Driving %s with %d threads for %ds (+%ds warm-up), mix %s, book of %d clients / %d products%n",
+                settings.baseUrl(), settings.threads(), settings.durationSeconds(), settings.warmupSeconds(),
+                settings.mix(), settings.clients(), settings.products());
+        new LoadDriver(settings).run();
+    }
+
+    void run() throws InterruptedException {
+        long warmupEnds = System.nanoTime() + Duration.ofSeconds(settings.warmupSeconds()).toNanos();
+        long runEnds = warmupEnds + Duration.ofSeconds(settings.durationSeconds()).toNanos();
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < settings.threads(); i++) {
+            workers.add(Thread.ofPlatform().name("load-" + i).start(() -> drive(warmupEnds, runEnds)));
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        report(settings.durationSeconds());
+    }
+
+    private void drive(long warmupEnds, long runEnds) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long now;
+        while ((now = System.nanoTime()) < runEnds) {
+            Operation operation = settings.pick(random.nextInt(settings.totalWeight()));
+            HttpRequest request = requestFor(operation, random);
+            int status;
+            long started = System.nanoTime();
+            try {
+                status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (IOException e) {
+                status = -1;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            long micros = (System.nanoTime() - started) / 1_000;
+            if (now >= warmupEnds) {
+                stats.get(operation).record(status, micros);
+            }
+        }
+    }
+
+    HttpRequest requestFor(Operation operation, ThreadLocalRandom random) {
+        int clientIndex = random.nextInt(book.clients());
+        String clientId = book.clientId(clientIndex);
+        return switch (operation) {
+            case AUTHENTICATE -> {
+                List<ContactMethod> contactMethods = book.contactMethods(clientIndex);
+                ContactMethod contact = contactMethods.get(random.nextInt(contactMethods.size()));
+                String value = random.nextDouble() < settings.wrongCredentialRatio() ? "wrong-" + contact.getValue() : contact.getValue();
+                String body = "{\"clientId\":\"" + clientId + "\",\"contactType\":\"" + contact.getType()
+                        + "\",\"contactValue\":\"" + value + "\"}";
+                yield request("/api/clients/authenticate")
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build();
+            }
+            case LIST -> request("/api/clients/" + clientId + "/products").GET().build();
+            case SEARCH -> {
+                //type-ahead style: a prefix of one word of a random product name
+                String[] words = book.product(random.nextInt(book.products())).getName().split(" ");
+                String word = words[random.nextInt(words.length)];
+                String prefix = word.substring(0, Math.min(word.length(), 2 + random.nextInt(4)));
+                yield request("/api/products/search?limit=10&q=" + URLEncoder.encode(prefix, StandardCharsets.UTF_8)).GET().build();
+            }
+            case BUY -> request("/api/products/" + book.productId(random.nextInt(book.products())) + "/buy?clientId=" + clientId)
+                    .POST(HttpRequest.BodyPublishers.noBody())
+                    .build();
+            case UPDATE -> {
+                int[] owned = book.ownedProductIndexes(clientIndex);
+                String productId = book.productId(owned.length == 0 ? 0 : owned[random.nextInt(owned.length)]);
+                String body = "{\"description\":\"Load test revision " + random.nextInt(1_000_000) + "\"}";
+                yield request("/api/products/" + productId + "?clientId=" + clientId)
+                        .header("Content-Type", "application/json")
+                        .PUT(HttpRequest.BodyPublishers.ofString(body))
+                        .build();
+            }
+        };
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(settings.baseUrl() + path)).timeout(Duration.ofSeconds(30));
+    }
+
+    private void report(long seconds) {
+        System.out.printf("%n%-13s %10s %10s %10s %8s %12s %9s %9s %9s %9s%n",
+                "operation", "requests", "ok", "rejected", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        Stats all = new Stats();
+        stats.forEach((operation, operationStats) -> {
+            print(operation.name().toLowerCase(), operationStats, seconds);
+            all.addAll(operationStats);
+        });
+        print("all", all, seconds);
+    }
+
+    private static void print(String name, Stats stats, long seconds) {
+        LatencyHistogram latency = stats.latency;
+        System.out.printf("%-13s %10d %10d %10d %8d %12.1f %9.2f %9.2f %9.2f %9.2f%n",
+                name, latency.count(), stats.ok.sum(), stats.rejected.sum(), stats.errors.sum(),
+                latency.count() / (double) Math.max(1, seconds),
+                latency.percentile(0.50) / 1000.0, latency.percentile(0.99) / 1000.0,
+                latency.percentile(0.999) / 1000.0, latency.max() / 1000.0);
+    }
+
+    //4xx answers (duplicate purchase, wrong credentials, throttling) are expected business outcomes, not errors
+    private static final class Stats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder ok = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+        final LongAdder errors = new LongAdder();
+
+        void record(int status, long micros) {
+            latency.record(micros);
+            if (status >= 200 && status < 300) {
+                ok.increment();
+            } else if (status >= 400 && status < 500) {
+                rejected.increment();
+            } else {
+                errors.increment();
+            }
+        }
+
+        void addAll(Stats other) {
+            latency.addAll(other.latency);
+            ok.add(other.ok.sum());
+            rejected.add(other.rejected.sum());
+            errors.add(other.errors.sum());
+        }
+    }
+
+    record Settings(String baseUrl, int threads, long warmupSeconds, long durationSeconds, Map<Operation, Integer> mix,
+                    double wrongCredentialRatio, int clients, int products, int maxProductsPerClient,
+                    double ownershipSkew, double secondContactRatio, long randomSeed) {
+
+        static Settings fromSystemProperties() {
+            return new Settings(
+                    System.getProperty("load.baseUrl", "http://localhost:8080"),
+                    Integer.getInteger("load.threads", 16),
+                    Long.getLong("load.warmup", 5),
+                    Long.getLong("load.duration", 30),
+                    parseMix(System.getProperty("load.mix", "authenticate=40,list=40,buy=15,update=5")),
+                    Double.parseDouble(System.getProperty("load.wrongCredentialRatio", "0.1")),
+                    Integer.getInteger("load.clients", 10_000),
+                    Integer.getInteger("load.products", 1000),
+                    Integer.getInteger("load.maxProductsPerClient", 50),
+                    Double.parseDouble(System.getProperty("load.ownershipSkew", "1.1")),
+                    Double.parseDouble(System.getProperty("load.secondContactRatio", "0.3")),
+                    Long.getLong("load.randomSeed", 42));
+        }
+
+        int totalWeight() {
+            return mix.values().stream().mapToInt(Integer::intValue).sum();
+        }
+
+        Operation pick(int ticket) {
+            int remaining = ticket;
+            for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+                remaining -= entry.getValue();
+                if (remaining < 0) {
+                    return entry.getKey();
+                }
+            }
+            throw new IllegalStateException("Ticket outside of the operation mix: " + ticket);
+        }
+
+        static Map<Operation, Integer> parseMix(String mix) {
+            Map<Operation, Integer> weights = new LinkedHashMap<>();
+            for (String part : mix.split(",")) {
+                String[] weight = part.trim().split("=");
+                weights.put(Operation.valueOf(weight[0].trim().toUpperCase()), Integer.parseInt(weight[1].trim()));
+            }
+            if (weights.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+                throw new IllegalArgumentException("Operation mix needs a positive total weight: " + mix);
+            }
+            return weights;
+        }
+    }
+}
\ No newline at end of file
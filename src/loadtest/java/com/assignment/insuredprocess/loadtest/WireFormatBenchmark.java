@@ -0,0 +1,98 @@
+package com.assignment.insuredprocess.loadtest;
+
+import com.assignment.insuredprocess.dto.ClientAuthRequest;
+import com.assignment.insuredprocess.dto.ProductUpdateRequest;
+import com.assignment.insuredprocess.model.Product;
+import com.assignment.insuredprocess.seed.SyntheticBook;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+//Compares bytes on the wire and serialise/parse cost of the payloads the API exchanges most often in JSON,
+//CBOR and Smile. Single-threaded, fixed iteration counts after a warm-up, so the numbers are comparable
+//between formats on one machine rather than absolute.
+//Run with ./gradlew wireFormatBenchmark [-Pwire.iterations=200000]
+public final class WireFormatBenchmark {
+
+    private static final Map<String, ObjectMapper> FORMATS = new LinkedHashMap<>();
+
+    static {
+        FORMATS.put("json", new ObjectMapper());
+        FORMATS.put("cbor", new CBORMapper());
+        FORMATS.put("smile", new SmileMapper());
+    }
+
+    private static volatile Object sink;
+
+    private WireFormatBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int iterations = Integer.getInteger("wire.iterations", 200_000);
+        SyntheticBook book = new SyntheticBook(1000, 1000, 50, 1.1, 0.3, 42);
+        List<Product> portfolio = new ArrayList<>();
+        for (int index = 0; index < 20; index++) {
+            portfolio.add(book.product(index));
+        }
+
+        Map<String, Payload> payloads = new LinkedHashMap<>();
+        payloads.put("auth request", new Payload(new ClientAuthRequest("SC4711", "email", "client4711@example.com"),
+                ClientAuthRequest.class, iterations));
+        payloads.put("update request", new Payload(new ProductUpdateRequest("Health Insurance Plus", "Plus health coverage, revised"),
+                ProductUpdateRequest.class, iterations));
+        payloads.put("product", new Payload(book.product(17), Product.class, iterations));
+        payloads.put("portfolio(20)", new Payload(portfolio, new TypeReference<List<Product>>() { }, iterations / 10));
+
+        System.out.printf("%-15s %-6s %8s %8s %12s %12s%n", "payload", "format", "bytes", "vs json", "write ns/op", "read ns/op");
+        for (Map.Entry<String, Payload> entry : payloads.entrySet()) {
+            Payload payload = entry.getValue();
+            int jsonBytes = FORMATS.get("json").writeValueAsBytes(payload.value()).length;
+            for (Map.Entry<String, ObjectMapper> format : FORMATS.entrySet()) {
+                ObjectMapper mapper = format.getValue();
+                JavaType type = mapper.getTypeFactory().constructType(payload.type());
+                byte[] encoded = mapper.writeValueAsBytes(payload.value());
+                if (!mapper.readValue(encoded, type).equals(payload.value())) {
+                    throw new IllegalStateException(format.getKey() + " does not round-trip " + entry.getKey());
+                }
+                measureWrite(mapper, payload.value(), payload.iterations());
+                measureRead(mapper, encoded, type, payload.iterations());
+                double writeNanos = measureWrite(mapper, payload.value(), payload.iterations());
+                double readNanos = measureRead(mapper, encoded, type, payload.iterations());
+                System.out.printf("%-15s %-6s %8d %7.0f%% %12.0f %12.0f%n", entry.getKey(), format.getKey(),
+                        encoded.length, 100.0 * encoded.length / jsonBytes, writeNanos, readNanos);
+            }
+        }
+    }
+
+    private static double measureWrite(ObjectMapper mapper, Object value, int iterations) throws IOException {
+        long started = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink = mapper.writeValueAsBytes(value);
+        }
+        return (System.nanoTime() - started) / (double) iterations;
+    }
+
+    private static double measureRead(ObjectMapper mapper, byte[] encoded, JavaType type, int iterations) throws IOException {
+        long started = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink = mapper.readValue(encoded, type);
+        }
+        return (System.nanoTime() - started) / (double) iterations;
+    }
+
+    private record Payload(Object value, Type type, int iterations) {
+
+        Payload(Object value, TypeReference<?> type, int iterations) {
+            this(value, type.getType(), iterations);
+        }
+    }
+}
\ No newline at end of file
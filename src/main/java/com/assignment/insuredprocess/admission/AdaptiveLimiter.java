@@ -0,0 +1,104 @@
+package com.assignment.insuredprocess.admission;
+
+import com.assignment.insuredprocess.config.AdmissionProperties;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleUnaryOperator;
+
+//AIMD concurrency limit: every request that finishes within the latency threshold while the limit is in real use
+//raises it by 1/limit (about one per limit's worth of requests), a slower one cuts it by backoffRatio. Only
+//requests admitted after the last cut can cut again, so one slow burst backs off once instead of collapsing the
+//limit. Each lane may fill its share of the limit, which keeps the remainder for the lanes above it. Bulk requests
+//are slow by design, so their latency says nothing about overload: they hold a permit but never move the limit.
+public final class AdaptiveLimiter {
+
+    public enum Lane { CRITICAL, NORMAL, BULK }
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+    private final double[] shares;
+    private final AtomicLong limitBits;
+    private final AtomicLong lastBackoff;
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final LongAdder[] admitted = new LongAdder[Lane.values().length];
+    private final LongAdder[] rejected = new LongAdder[Lane.values().length];
+
+    public AdaptiveLimiter(AdmissionProperties properties) {
+        this.minLimit = properties.minLimit();
+        this.maxLimit = properties.maxLimit();
+        this.latencyThresholdNanos = properties.latencyThreshold().toNanos();
+        this.backoffRatio = properties.backoffRatio();
+        this.shares = new double[]{1.0, properties.normalShare(), properties.bulkShare()};
+        this.limitBits = new AtomicLong(Double.doubleToLongBits(properties.initialLimit()));
+        this.lastBackoff = new AtomicLong(System.nanoTime());
+        for (Lane lane : Lane.values()) {
+            admitted[lane.ordinal()] = new LongAdder();
+            rejected[lane.ordinal()] = new LongAdder();
+        }
+    }
+
+    public boolean tryAcquire(Lane lane) {
+        int allowed = allowed(lane);
+        while (true) {
+            int current = inflight.get();
+            if (current >= allowed) {
+                rejected[lane.ordinal()].increment();
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                admitted[lane.ordinal()].increment();
+                return true;
+            }
+        }
+    }
+
+    //started and finished are System.nanoTime() readings taken around the admitted request
+    public void release(Lane lane, long started, long finished) {
+        int busy = inflight.getAndDecrement();
+        if (lane == Lane.BULK) {
+            return;
+        }
+        if (finished - started > latencyThresholdNanos) {
+            long last = lastBackoff.get();
+            if (started - last >= 0 && lastBackoff.compareAndSet(last, finished)) {
+                updateLimit(limit -> Math.max(minLimit, limit * backoffRatio));
+            }
+        } else if (busy * 2 >= limit()) {
+            updateLimit(limit -> Math.min(maxLimit, limit + 1 / limit));
+        }
+    }
+
+    public double limit() {
+        return Double.longBitsToDouble(limitBits.get());
+    }
+
+    public int allowed(Lane lane) {
+        return Math.max(1, (int) (limit() * shares[lane.ordinal()]));
+    }
+
+    public int inflight() {
+        return inflight.get();
+    }
+
+    public long admitted(Lane lane) {
+        return admitted[lane.ordinal()].sum();
+    }
+
+    public long rejected(Lane lane) {
+        return rejected[lane.ordinal()].sum();
+    }
+
+    private void updateLimit(DoubleUnaryOperator update) {
+        while (true) {
+            long current = limitBits.get();
+            long next = Double.doubleToLongBits(update.applyAsDouble(Double.longBitsToDouble(current)));
+            if (current == next || limitBits.compareAndSet(current, next)) {
+                return;
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,162 @@
+package com.assignment.insuredprocess.admission;
+
+import com.assignment.insuredprocess.admission.AdaptiveLimiter.Lane;
+import com.assignment.insuredprocess.config.AdmissionProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+//Admits API requests through the adaptive limiter before anything else runs (cluster forwarding included) and
+//answers the excess with 503 right away. Authentication and reads go in the critical lane, bulk updates, catalog
+//reloads and change feed pages in the bulk lane, other writes in between. Change streams are long-lived and not
+//limited; actuator and /internal calls never reach this filter.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnProperty(prefix = "insured-process.admission", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class LoadSheddingFilter extends OncePerRequestFilter implements MeterBinder {
+
+    private static final Set<String> READ_METHODS = Set.of(HttpMethod.GET.name(), HttpMethod.HEAD.name(), HttpMethod.OPTIONS.name());
+    private static final Set<String> BULK_PATHS = Set.of("/api/catalog", "/api/catalog/updates", "/api/changes");
+    private static final String AUTHENTICATE_PATH = "/api/clients/authenticate";
+    private static final String STREAM_PATH = "/api/changes/stream";
+
+    private final AdaptiveLimiter limiter;
+    private final String retryAfterSeconds;
+
+    public LoadSheddingFilter(AdmissionProperties properties) {
+        this.limiter = new AdaptiveLimiter(properties);
+        this.retryAfterSeconds = String.valueOf(Math.max(1, properties.retryAfter().toSeconds()));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = pathOf(request);
+        return !path.startsWith("/api/") || path.equals(STREAM_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Lane lane = laneOf(request.getMethod(), pathOf(request));
+        if (!limiter.tryAcquire(lane)) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+            response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+            response.getWriter().write("Service overloaded, retry later");
+            return;
+        }
+        long started = System.nanoTime();
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseOnCompletion(lane, started));
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                limiter.release(lane, started, System.nanoTime());
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("insured.admission.limit", limiter, AdaptiveLimiter::limit)
+                .description("Current adaptive concurrency limit of API requests")
+                .register(registry);
+        Gauge.builder("insured.admission.inflight", limiter, AdaptiveLimiter::inflight)
+                .description("API requests currently admitted")
+                .register(registry);
+        for (Lane lane : Lane.values()) {
+            String name = lane.name().toLowerCase();
+            Gauge.builder("insured.admission.lane.limit", limiter, current -> current.allowed(lane))
+                    .description("Concurrent requests a lane may currently fill")
+                    .tag("lane", name)
+                    .register(registry);
+            FunctionCounter.builder("insured.admission.requests", limiter, current -> current.admitted(lane))
+                    .description("API requests by admission lane and outcome")
+                    .tags("lane", name, "result", "admitted")
+                    .register(registry);
+            FunctionCounter.builder("insured.admission.requests", limiter, current -> current.rejected(lane))
+                    .description("API requests by admission lane and outcome")
+                    .tags("lane", name, "result", "rejected")
+                    .register(registry);
+        }
+    }
+
+    AdaptiveLimiter limiter() {
+        return limiter;
+    }
+
+    static Lane laneOf(String method, String path) {
+        if (BULK_PATHS.contains(path)) {
+            return Lane.BULK;
+        }
+        if (READ_METHODS.contains(method) || path.equals(AUTHENTICATE_PATH)) {
+            return Lane.CRITICAL;
+        }
+        return Lane.NORMAL;
+    }
+
+    private static String pathOf(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    //Asynchronous purchases hold their permit until the response is actually written
+    private final class ReleaseOnCompletion implements AsyncListener {
+        private final Lane lane;
+        private final long started;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        ReleaseOnCompletion(Lane lane, long started) {
+            this.lane = lane;
+            this.started = started;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                limiter.release(lane, started, System.nanoTime());
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,55 @@
+package com.assignment.insuredprocess.cluster;
+
+import com.assignment.insuredprocess.config.ClusterProperties;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+//Node-to-node calls carry the cluster secret (ClusterClient adds it to every request). Internal calls without
+//it are refused, and the router only trusts forwarding headers on requests that carry it.
+@Component
+@ConditionalOnProperty(prefix = "insured-process.cluster", name = "enabled", havingValue = "true")
+public class ClusterAuthFilter extends OncePerRequestFilter {
+
+    static final String SECRET_HEADER = "X-Cluster-Secret";
+    private static final String INTERNAL_PATH = "/internal/cluster/";
+
+    private final byte[] secret;
+
+    public ClusterAuthFilter(ClusterProperties properties) {
+        this.secret = properties.secret().getBytes(StandardCharsets.UTF_8);
+    }
+
+    //True if the request comes from a node that knows the cluster secret
+    public boolean isFromMember(HttpServletRequest request) {
+        String presented = request.getHeader(SECRET_HEADER);
+        return presented != null && MessageDigest.isEqual(secret, presented.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().substring(request.getContextPath().length()).startsWith(INTERNAL_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (isFromMember(request)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        response.setStatus(HttpStatus.UNAUTHORIZED.value());
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.getWriter().write("Cluster secret required");
+    }
+}
\ No newline at end of file
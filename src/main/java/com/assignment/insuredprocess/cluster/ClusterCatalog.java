@@ -0,0 +1,163 @@
+package com.assignment.insuredprocess.cluster;
+
+import com.assignment.insuredprocess.event.CatalogReloaded;
+import com.assignment.insuredprocess.event.DomainEvent;
+import com.assignment.insuredprocess.event.ProductCreated;
+import com.assignment.insuredprocess.event.ProductUpdated;
+import com.assignment.insuredprocess.replication.ReplicaApplier;
+import com.assignment.insuredprocess.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+//The product catalog is small and read by every portfolio, so every node holds all of it. Products created or
+//updated on a node, and reloaded catalogs, are pushed to the other live nodes, and a node pulls the full catalog from every node that
+//appears on its ring, which covers nodes that were started later or were unreachable for a while.
+//Both directions go through the replica applier, so a product arriving twice changes nothing. Pushes to one
+//node leave in publication order from a queue of their own, so a node never sees an older change after a newer one.
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "insured-process.cluster", name = "enabled", havingValue = "true")
+public class ClusterCatalog implements DisposableBean {
+
+    private static final TypeReference<List<ClusterEvent>> EVENTS = new TypeReference<>() {
+    };
+    private static final ThreadLocal<Boolean> APPLYING_REMOTE = ThreadLocal.withInitial(() -> false);
+
+    private final ClusterMembership membership;
+    private final ClusterClient clusterClient;
+    private final ReplicaApplier applier;
+    private final ProductRepository productRepository;
+    private final ObjectMapper objectMapper;
+    private final Set<String> synced = new HashSet<>();
+    private final Map<String, ExecutorService> pushQueues = new ConcurrentHashMap<>();
+
+    public ClusterCatalog(ClusterMembership membership, ClusterClient clusterClient, ReplicaApplier applier,
+                          ProductRepository productRepository, ObjectMapper objectMapper) {
+        this.membership = membership;
+        this.clusterClient = clusterClient;
+        this.applier = applier;
+        this.productRepository = productRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @EventListener
+    public void onProductCreated(ProductCreated event) {
+        push(event);
+    }
+
+    @EventListener
+    public void onProductUpdated(ProductUpdated event) {
+        push(event);
+    }
+
+    @EventListener
+    public void onCatalogReloaded(CatalogReloaded event) {
+        push(event);
+    }
+
+    @EventListener
+    public synchronized void onRingChanged(ClusterRingChanged event) {
+        if (event.leaving()) {
+            return;
+        }
+        for (String node : event.ring().nodes()) {
+            if (!node.equals(membership.self()) && !synced.contains(node)) {
+                try {
+                    int applied = applyRemote(clusterClient.get(node, "/internal/cluster/catalog", EVENTS));
+                    synced.add(node);
+                    log.info("Pulled the product catalog from {}, {} products changed", node, applied);
+                } catch (IOException e) {
+                    log.warn("Pulling the product catalog from {} failed: {}", node, e.getMessage());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+        synced.retainAll(event.ring().nodes());
+        pushQueues.keySet().removeIf(node -> {
+            if (event.ring().nodes().contains(node)) {
+                return false;
+            }
+            pushQueues.get(node).shutdown();
+            return true;
+        });
+    }
+
+    @Override
+    public void destroy() {
+        pushQueues.values().forEach(ExecutorService::shutdownNow);
+    }
+
+    public List<ClusterEvent> snapshot() {
+        return productRepository.findAll().stream()
+                .map(product -> ClusterEvent.of(new ProductCreated(product.getId(), product.getName(), product.getDescription()), objectMapper))
+                .toList();
+    }
+
+    //Returns how many of the events changed the local catalog
+    public int applyRemote(List<ClusterEvent> events) throws JsonProcessingException {
+        APPLYING_REMOTE.set(true);
+        try {
+            int applied = 0;
+            for (ClusterEvent event : events) {
+                DomainEvent domainEvent = event.toDomainEvent(objectMapper);
+                if (!(domainEvent instanceof ProductCreated) && !(domainEvent instanceof ProductUpdated)
+                        && !(domainEvent instanceof CatalogReloaded)) {
+                    throw new IllegalArgumentException("Not a catalog event: " + event.type());
+                }
+                if (applier.apply(domainEvent)) {
+                    applied++;
+                }
+            }
+            return applied;
+        } finally {
+            APPLYING_REMOTE.remove();
+        }
+    }
+
+    //Fire and forget through the node's queue; a node that misses a push pulls the catalog when it is back.
+    //Product writes publish under their product's lock and reloads exclusively, so the queue order is the commit order.
+    private void push(DomainEvent event) {
+        if (APPLYING_REMOTE.get()) {
+            return;
+        }
+        List<ClusterEvent> events = List.of(ClusterEvent.of(event, objectMapper));
+        for (String node : membership.ring().nodes()) {
+            if (!node.equals(membership.self())) {
+                try {
+                    pushQueues.computeIfAbsent(node, ignored -> Executors.newSingleThreadExecutor(
+                            Thread.ofVirtual().name("cluster-catalog-push").factory())).execute(() -> send(node, events));
+                } catch (RejectedExecutionException e) {
+                    //the node left the ring meanwhile
+                }
+            }
+        }
+    }
+
+    private void send(String node, List<ClusterEvent> events) {
+        try {
+            clusterClient.post(node, "/internal/cluster/catalog", events);
+        } catch (IOException e) {
+            log.warn("Pushing a catalog change to {} failed: {}", node, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,67 @@
+package com.assignment.insuredprocess.cluster;
+
+import com.assignment.insuredprocess.config.ClusterProperties;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+//HTTP between cluster nodes: the internal membership, catalog and hand-off calls (JSON) and forwarded API requests,
+//all of them carrying the cluster secret
+@Component
+@ConditionalOnProperty(prefix = "insured-process.cluster", name = "enabled", havingValue = "true")
+public class ClusterClient {
+
+    private final HttpClient http;
+    private final ObjectMapper objectMapper;
+    private final Duration timeout;
+    private final String secret;
+
+    public ClusterClient(ClusterProperties properties, ObjectMapper objectMapper) {
+        this.timeout = properties.forwardTimeout();
+        this.secret = properties.secret();
+        this.objectMapper = objectMapper;
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .build();
+    }
+
+    public <T> T get(String member, String path, TypeReference<T> type) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = send(request(member, path).GET().build());
+        return objectMapper.readValue(response.body(), type);
+    }
+
+    public void post(String member, String path, Object body) throws IOException, InterruptedException {
+        send(request(member, path)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                .build());
+    }
+
+    //Any status is passed back as-is; only transport failures throw
+    public HttpResponse<byte[]> forward(HttpRequest request) throws IOException, InterruptedException {
+        return http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    public HttpRequest.Builder request(String member, String pathAndQuery) {
+        return HttpRequest.newBuilder(URI.create(member + pathAndQuery))
+                .timeout(timeout)
+                .header(ClusterAuthFilter.SECRET_HEADER, secret);
+    }
+
+    private HttpResponse<byte[]> send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException(request.method() + " " + request.uri() + " answered " + response.statusCode());
+        }
+        return response;
+    }
+}
\ No newline at end of file
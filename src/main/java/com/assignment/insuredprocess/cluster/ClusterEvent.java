@@ -0,0 +1,19 @@
+package com.assignment.insuredprocess.cluster;
+
+import com.assignment.insuredprocess.event.DomainEvent;
+import com.assignment.insuredprocess.event.DomainEventTypes;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+//A domain event as exchanged between cluster nodes (catalog changes, client hand-offs)
+public record ClusterEvent(String type, JsonNode payload) {
+
+    static ClusterEvent of(DomainEvent event, ObjectMapper objectMapper) {
+        return new ClusterEvent(DomainEventTypes.nameOf(event), objectMapper.valueToTree(event));
+    }
+
+    DomainEvent toDomainEvent(ObjectMapper objectMapper) throws JsonProcessingException {
+        return objectMapper.treeToValue(payload, DomainEventTypes.forName(type));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,223 @@
+package com.assignment.insuredprocess.cluster;
+
+import com.assignment.insuredprocess.config.ClusterProperties;
+import com.assignment.insuredprocess.dto.ClusterView;
+import com.assignment.insuredprocess.repository.ClientRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+//Which nodes form the cluster and which of them are up. Every probe interval each known member is asked for
+//its own view: an answer marks it live and adds the members it knows of (so a node joining through any one
+//member becomes known everywhere), probeFailures missed answers in a row take it off the ring. Members that
+//announced their departure are not re-learnt from others until they join again. The ring only ever contains
+//live nodes and this one; every change is published as a ClusterRingChanged event.
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "insured-process.cluster", name = "enabled", havingValue = "true")
+public class ClusterMembership implements SmartLifecycle, MeterBinder {
+
+    private static final TypeReference<ClusterView> VIEW = new TypeReference<>() {
+    };
+
+    private final ClusterProperties properties;
+    private final ClusterClient clusterClient;
+    private final ClientRepository clientRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final String self;
+    private final Set<String> known = ConcurrentHashMap.newKeySet();
+    private final Set<String> departed = ConcurrentHashMap.newKeySet();
+    private final Set<String> live = ConcurrentHashMap.newKeySet();
+    private final Map<String, Integer> failures = new ConcurrentHashMap<>();
+    private final Object ringLock = new Object();
+    private volatile HashRing ring;
+    private volatile boolean running;
+    private volatile Thread prober;
+
+    public ClusterMembership(ClusterProperties properties, ClusterClient clusterClient, ClientRepository clientRepository,
+                             ApplicationEventPublisher eventPublisher) {
+        this.properties = properties;
+        this.clusterClient = clusterClient;
+        this.clientRepository = clientRepository;
+        this.eventPublisher = eventPublisher;
+        this.self = normalize(properties.selfUrl());
+        properties.members().stream().map(ClusterMembership::normalize).filter(member -> !member.equals(self)).forEach(known::add);
+        this.ring = new HashRing(Set.of(self), properties.virtualNodes());
+    }
+
+    public String self() {
+        return self;
+    }
+
+    public HashRing ring() {
+        return ring;
+    }
+
+    public String ownerOf(String clientId) {
+        return ring.ownerOf(clientId);
+    }
+
+    public ClusterView view() {
+        return new ClusterView(self, List.copyOf(new TreeSet<>(known)), List.copyOf(new TreeSet<>(ring.nodes())),
+                clientRepository.count());
+    }
+
+    public void join(String member) {
+        String joined = normalize(member);
+        if (!joined.equals(self)) {
+            departed.remove(joined);
+            if (known.add(joined)) {
+                log.info("Cluster member {} joined", joined);
+            }
+        }
+    }
+
+    public void leave(String member) {
+        String left = normalize(member);
+        departed.add(left);
+        known.remove(left);
+        failures.remove(left);
+        if (live.remove(left)) {
+            log.info("Cluster member {} left", left);
+            publishRing();
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        prober = Thread.ofPlatform().name("cluster-membership").daemon().start(this::probeLoop);
+        log.info("Cluster node {} starting with members {}", self, known);
+    }
+
+    //Runs before the web server stops: hands this node's clients to their next owners while it can still
+    //forward requests for them, then tells the others it is gone
+    @Override
+    public void stop() {
+        running = false;
+        Thread current = prober;
+        if (current != null) {
+            current.interrupt();
+            try {
+                current.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        Set<String> remaining = new HashSet<>(live);
+        if (!remaining.isEmpty()) {
+            HashRing without = new HashRing(remaining, properties.virtualNodes());
+            ring = without;
+            eventPublisher.publishEvent(new ClusterRingChanged(without, true));
+        }
+        for (String member : remaining) {
+            try {
+                clusterClient.post(member, "/internal/cluster/leave?member=" + encodedSelf(), Map.of());
+            } catch (IOException e) {
+                log.debug("Announcing the departure to {} failed: {}", member, e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("insured.cluster.members", known, members -> members.size() + 1)
+                .description("Cluster nodes known to this node, itself included")
+                .tag("state", "known")
+                .register(registry);
+        Gauge.builder("insured.cluster.members", this, membership -> membership.ring().nodes().size())
+                .description("Cluster nodes known to this node, itself included")
+                .tag("state", "live")
+                .register(registry);
+    }
+
+    private void probeLoop() {
+        while (running) {
+            for (String member : List.copyOf(known)) {
+                probe(member);
+            }
+            try {
+                Thread.sleep(properties.probeInterval());
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void probe(String member) {
+        boolean changed;
+        try {
+            ClusterView view = clusterClient.get(member, "/internal/cluster/members", VIEW);
+            failures.remove(member);
+            if (!view.members().contains(self)) {
+                clusterClient.post(member, "/internal/cluster/join?member=" + encodedSelf(), Map.of());
+            }
+            view.members().stream()
+                    .filter(other -> !other.equals(self) && !departed.contains(other))
+                    .forEach(known::add);
+            changed = live.add(member);
+        } catch (IOException e) {
+            changed = failures.merge(member, 1, Integer::sum) >= properties.probeFailures() && live.remove(member);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (changed) {
+            publishRing();
+        }
+    }
+
+    private void publishRing() {
+        HashRing updated;
+        synchronized (ringLock) {
+            if (!running) {
+                return;
+            }
+            Set<String> nodes = new HashSet<>(live);
+            nodes.add(self);
+            updated = new HashRing(nodes, properties.virtualNodes());
+            ring = updated;
+        }
+        log.info("Cluster ring of {} now has nodes {}", self, new TreeSet<>(updated.nodes()));
+        eventPublisher.publishEvent(new ClusterRingChanged(updated, false));
+    }
+
+    private String encodedSelf() {
+        return URLEncoder.encode(self, StandardCharsets.UTF_8);
+    }
+
+    private static String normalize(String member) {
+        String trimmed = member.trim();
+        return trimmed.endsWith("/") ? trimmed.substring(0, trimmed.length() - 1) : trimmed;
+    }
+}
\ No newline at end of file
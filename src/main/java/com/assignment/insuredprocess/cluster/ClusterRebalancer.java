@@ -0,0 +1,225 @@
+package com.assignment.insuredprocess.cluster;
+
+import com.assignment.insuredprocess.config.ClusterProperties;
+import com.assignment.insuredprocess.event.ClientCreated;
+import com.assignment.insuredprocess.event.ContactMethodAdded;
+import com.assignment.insuredprocess.event.DomainEvent;
+import com.assignment.insuredprocess.event.ProductCancelled;
+import com.assignment.insuredprocess.event.ProductPurchased;
+import com.assignment.insuredprocess.model.Client;
+import com.assignment.insuredprocess.model.ClientProduct;
+import com.assignment.insuredprocess.model.ContactMethod;
+import com.assignment.insuredprocess.replication.ReplicaApplier;
+import com.assignment.insuredprocess.repository.ClientProductRepository;
+import com.assignment.insuredprocess.repository.ClientRepository;
+import com.assignment.insuredprocess.service.ClientService;
+import com.assignment.insuredprocess.service.WriteSequencer;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+//Moves clients to the node that owns them on the current ring. After every ring change (and every
+//rebalanceInterval, which also picks up clients a background seed added later) the local clients owned by
+//other nodes are sent to their owners in batches of client, contact method and ownership events and dropped
+//here once the owner confirmed them. Receiving is idempotent, so a batch resent after a lost confirmation is
+//harmless. A client written here while its batch was on the way is caught up under its write lock before it is
+//dropped, so the new owner gets every acknowledged write; later writes that still land here find no client.
+//Reads in that window may miss the client on its new owner.
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "insured-process.cluster", name = "enabled", havingValue = "true")
+public class ClusterRebalancer implements MeterBinder, DisposableBean {
+
+    private final ClusterMembership membership;
+    private final ClusterClient clusterClient;
+    private final ClientRepository clientRepository;
+    private final ClientProductRepository clientProductRepository;
+    private final ClientService clientService;
+    private final WriteSequencer writeSequencer;
+    private final ReplicaApplier applier;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final ScheduledExecutorService executor;
+    private final LongAdder handedOff = new LongAdder();
+    private final LongAdder received = new LongAdder();
+
+    public ClusterRebalancer(ClusterMembership membership, ClusterClient clusterClient, ClientRepository clientRepository,
+                             ClientProductRepository clientProductRepository, ClientService clientService,
+                             WriteSequencer writeSequencer, ReplicaApplier applier, ObjectMapper objectMapper,
+                             ClusterProperties properties) {
+        this.membership = membership;
+        this.clusterClient = clusterClient;
+        this.clientRepository = clientRepository;
+        this.clientProductRepository = clientProductRepository;
+        this.clientService = clientService;
+        this.writeSequencer = writeSequencer;
+        this.applier = applier;
+        this.objectMapper = objectMapper;
+        this.batchSize = properties.handoffBatchSize();
+        this.executor = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("cluster-rebalancer").daemon().factory());
+        long interval = properties.rebalanceInterval().toMillis();
+        executor.scheduleWithFixedDelay(() -> rebalance(membership.ring()), interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    //A departing node hands everything off before it stops; other ring changes are handled in the background
+    @EventListener
+    public void onRingChanged(ClusterRingChanged event) {
+        if (event.leaving()) {
+            rebalance(event.ring());
+        } else {
+            executor.execute(() -> rebalance(membership.ring()));
+        }
+    }
+
+    //Applies a batch handed over by another node
+    public void receive(List<ClusterEvent> events) throws JsonProcessingException {
+        for (ClusterEvent event : events) {
+            DomainEvent domainEvent = event.toDomainEvent(objectMapper);
+            applier.apply(domainEvent);
+            if (domainEvent instanceof ClientCreated) {
+                received.increment();
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("insured.cluster.handoff.clients", handedOff, LongAdder::sum)
+                .description("Clients moved between cluster nodes by rebalancing")
+                .tag("direction", "out")
+                .register(registry);
+        FunctionCounter.builder("insured.cluster.handoff.clients", received, LongAdder::sum)
+                .description("Clients moved between cluster nodes by rebalancing")
+                .tag("direction", "in")
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private synchronized void rebalance(HashRing ring) {
+        Map<String, List<String>> misplaced = new HashMap<>();
+        String self = membership.self();
+        clientRepository.forEach(client -> {
+            String owner = ring.ownerOf(client.getId());
+            if (!owner.equals(self)) {
+                misplaced.computeIfAbsent(owner, node -> new ArrayList<>()).add(client.getId());
+            }
+        });
+        misplaced.forEach((owner, clientIds) -> {
+            int moved = 0;
+            for (int from = 0; from < clientIds.size(); from += batchSize) {
+                List<String> batch = clientIds.subList(from, Math.min(from + batchSize, clientIds.size()));
+                if (!handOff(owner, batch)) {
+                    break;
+                }
+                moved += batch.size();
+            }
+            log.info("Handed {} of {} clients over to {}", moved, clientIds.size(), owner);
+        });
+    }
+
+    private boolean handOff(String owner, List<String> clientIds) {
+        List<ClusterEvent> events = new ArrayList<>();
+        Map<String, HandedOff> sent = new LinkedHashMap<>();
+        for (String clientId : clientIds) {
+            Client client = clientRepository.findById(clientId).orElse(null);
+            if (client == null) {
+                continue;
+            }
+            HandedOff state = new HandedOff(client, clientProductRepository.findProductIdsByClientId(clientId));
+            sent.put(clientId, state);
+            addEvents(events, clientId, state, Set.of());
+        }
+        if (!post(owner, events, sent.size())) {
+            return false;
+        }
+        int moved = 0;
+        for (Map.Entry<String, HandedOff> entry : sent.entrySet()) {
+            if (catchUpAndRemove(owner, entry.getKey(), entry.getValue())) {
+                moved++;
+            }
+        }
+        handedOff.add(moved);
+        return moved == sent.size();
+    }
+
+    //Under the client's write lock nothing can change it any more: whatever was written since the batch left
+    //(contact methods, purchases, cancellations) is sent once more before the client is dropped here
+    private boolean catchUpAndRemove(String owner, String clientId, HandedOff sent) {
+        return writeSequencer.call(clientId, () -> {
+            Client client = clientRepository.findById(clientId).orElse(null);
+            if (client == null) {
+                return true;
+            }
+            HandedOff current = new HandedOff(client, clientProductRepository.findProductIdsByClientId(clientId));
+            if (client != sent.client() || !current.productIds().equals(sent.productIds())) {
+                Set<String> cancelled = new HashSet<>(sent.productIds());
+                cancelled.removeAll(current.productIds());
+                List<ClusterEvent> events = new ArrayList<>();
+                addEvents(events, clientId, current, cancelled);
+                if (!post(owner, events, 1)) {
+                    return false;
+                }
+            }
+            clientService.removeClient(clientId);
+            return true;
+        });
+    }
+
+    private void addEvents(List<ClusterEvent> events, String clientId, HandedOff state, Set<String> cancelled) {
+        List<ContactMethod> contactMethods = state.client().getContactMethods();
+        ContactMethod first = contactMethods.isEmpty() ? new ContactMethod(null, null) : contactMethods.get(0);
+        events.add(ClusterEvent.of(new ClientCreated(clientId, first.getType(), first.getValue()), objectMapper));
+        for (ContactMethod additional : contactMethods.subList(Math.min(1, contactMethods.size()), contactMethods.size())) {
+            events.add(ClusterEvent.of(new ContactMethodAdded(clientId, additional.getType(), additional.getValue()), objectMapper));
+        }
+        for (ClientProduct row : clientProductRepository.findByClientId(clientId)) {
+            if (state.productIds().contains(row.getProductId())) {
+                events.add(ClusterEvent.of(new ProductPurchased(clientId, row.getProductId(), row.getPurchaseDate()), objectMapper));
+            }
+        }
+        for (String productId : cancelled) {
+            events.add(ClusterEvent.of(new ProductCancelled(clientId, productId), objectMapper));
+        }
+    }
+
+    private boolean post(String owner, List<ClusterEvent> events, int clients) {
+        try {
+            clusterClient.post(owner, "/internal/cluster/handoff", events);
+            return true;
+        } catch (IOException e) {
+            log.warn("Handing {} clients over to {} failed, keeping them for now: {}", clients, owner, e.getMessage());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    //What was sent for one client: the stored (immutable) client and the products it owned
+    private record HandedOff(Client client, Set<String> productIds) {
+    }
+}
\ No newline at end of file
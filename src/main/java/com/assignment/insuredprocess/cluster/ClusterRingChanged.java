@@ -0,0 +1,6 @@
+package com.assignment.insuredprocess.cluster;
+
+//Published whenever the set of live nodes changes; leaving marks the ring this node computes without itself
+//while shutting down, which must be acted on before the node stops
+public record ClusterRingChanged(HashRing ring, boolean leaving) {
+}
\ No newline at end of file
@@ -0,0 +1,285 @@
+package com.assignment.insuredprocess.cluster;
+
+import com.assignment.insuredprocess.service.SessionTokens;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+//Sends every client-scoped API request to the node owning the client on the hash ring and relays the answer
+//unchanged, so any node accepts any request and the controller contracts stay the same. The client id comes
+//from the path (/api/clients/{id}/...), the clientId parameter or session token (product operations) or the request body
+//(client creation and authentication). Catalog requests without a client are served locally. A forwarded
+//request may be forwarded once more (the nodes' rings can briefly disagree), after that it is served where it is.
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "insured-process.cluster", name = "enabled", havingValue = "true")
+public class ClusterRouter extends OncePerRequestFilter implements MeterBinder {
+
+    static final String HOPS_HEADER = "X-Cluster-Hops";
+    static final String ORIGIN_HEADER = "X-Cluster-Origin";
+    private static final int MAX_HOPS = 2;
+    private static final Set<String> UNFORWARDED_HEADERS = Set.of("host", "connection", "content-length", "expect",
+            "upgrade", "keep-alive", "transfer-encoding", "te", "trailer", "proxy-connection", "http2-settings",
+            HOPS_HEADER.toLowerCase(), ORIGIN_HEADER.toLowerCase(), ClusterAuthFilter.SECRET_HEADER.toLowerCase());
+    private static final Set<String> UNRELAYED_HEADERS = Set.of("connection", "content-length", "transfer-encoding",
+            "keep-alive", "date", "server");
+    private static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+
+    private final ClusterMembership membership;
+    private final ClusterClient clusterClient;
+    private final ClusterAuthFilter clusterAuth;
+    private final ObjectMapper json;
+    private final ObjectMapper cbor = new CBORMapper();
+    private final ObjectMapper smile = new SmileMapper();
+    private final LongAdder forwarded = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public ClusterRouter(ClusterMembership membership, ClusterClient clusterClient, ClusterAuthFilter clusterAuth,
+                         ObjectMapper objectMapper) {
+        this.membership = membership;
+        this.clusterClient = clusterClient;
+        this.clusterAuth = clusterAuth;
+        this.json = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = pathOf(request);
+        return !path.startsWith("/api/clients") && !path.startsWith("/api/products") && !path.startsWith("/api/catalog");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        HttpServletRequest current = forwardedFor(request);
+        byte[] body = null;
+        String clientId = pathClientId(pathOf(request));
+        if (clientId == null) {
+            clientId = request.getParameter("clientId");
+        }
+        if (clientId == null) {
+            clientId = SessionTokens.unverifiedClientIdOf(request.getHeader(HttpHeaders.AUTHORIZATION));
+        }
+        if (clientId == null && bodyNamesClient(request)) {
+            body = request.getInputStream().readAllBytes();
+            clientId = bodyClientId(request.getContentType(), body);
+            current = new CachedBodyRequest(current, body);
+        }
+
+        int hops = hopsOf(request);
+        String owner = clientId == null ? membership.self() : membership.ownerOf(clientId);
+        if (owner.equals(membership.self()) || hops >= MAX_HOPS) {
+            filterChain.doFilter(current, response);
+            return;
+        }
+        forward(request, body, owner, hops, response);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("insured.cluster.forwarded", forwarded, LongAdder::sum)
+                .description("API requests relayed to the node owning the client")
+                .tag("result", "ok")
+                .register(registry);
+        FunctionCounter.builder("insured.cluster.forwarded", failed, LongAdder::sum)
+                .description("API requests relayed to the node owning the client")
+                .tag("result", "unavailable")
+                .register(registry);
+    }
+
+    private void forward(HttpServletRequest request, byte[] body, String owner, int hops, HttpServletResponse response)
+            throws IOException {
+        byte[] payload = body != null ? body : request.getInputStream().readAllBytes();
+        String query = request.getQueryString();
+        HttpRequest.Builder forwardedRequest = clusterClient.request(owner, pathOf(request) + (query != null ? "?" + query : ""))
+                .method(request.getMethod(), payload.length == 0 ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofByteArray(payload))
+                .header(HOPS_HEADER, Integer.toString(hops + 1))
+                .header(ORIGIN_HEADER, originOf(request));
+        for (String name : Collections.list(request.getHeaderNames())) {
+            if (!UNFORWARDED_HEADERS.contains(name.toLowerCase())) {
+                for (String value : Collections.list(request.getHeaders(name))) {
+                    forwardedRequest.header(name, value);
+                }
+            }
+        }
+
+        HttpResponse<byte[]> answer;
+        try {
+            answer = clusterClient.forward(forwardedRequest.build());
+        } catch (IOException e) {
+            failed.increment();
+            log.warn("Forwarding {} {} to {} failed: {}", request.getMethod(), pathOf(request), owner, e.getMessage());
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+            response.getWriter().write("Owning cluster node unavailable");
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            return;
+        }
+        forwarded.increment();
+        response.setStatus(answer.statusCode());
+        answer.headers().map().forEach((name, values) -> {
+            if (!UNRELAYED_HEADERS.contains(name.toLowerCase()) && !name.startsWith(":")) {
+                values.forEach(value -> response.addHeader(name, value));
+            }
+        });
+        response.setContentLength(answer.body().length);
+        response.getOutputStream().write(answer.body());
+    }
+
+    //Forwarded requests carry the caller's address, honoured only when they carry the cluster secret
+    private HttpServletRequest forwardedFor(HttpServletRequest request) {
+        String origin = request.getHeader(ORIGIN_HEADER);
+        if (origin == null || request.getHeader(HOPS_HEADER) == null || !clusterAuth.isFromMember(request)) {
+            return request;
+        }
+        return new HttpServletRequestWrapper(request) {
+            @Override
+            public String getRemoteAddr() {
+                return origin;
+            }
+        };
+    }
+
+    private String originOf(HttpServletRequest request) {
+        String origin = request.getHeader(ORIGIN_HEADER);
+        return origin != null && clusterAuth.isFromMember(request) ? origin : request.getRemoteAddr();
+    }
+
+    //A caller outside the cluster cannot claim its request was forwarded already
+    private int hopsOf(HttpServletRequest request) {
+        if (!clusterAuth.isFromMember(request)) {
+            return 0;
+        }
+        try {
+            String hops = request.getHeader(HOPS_HEADER);
+            return hops == null ? 0 : Integer.parseInt(hops);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    //GET /api/clients/{clientId}/products
+    private static String pathClientId(String path) {
+        String prefix = "/api/clients/";
+        if (!path.startsWith(prefix)) {
+            return null;
+        }
+        int end = path.indexOf('/', prefix.length());
+        return end > prefix.length() ? path.substring(prefix.length(), end) : null;
+    }
+
+    //POST /api/clients and POST /api/clients/authenticate
+    private static boolean bodyNamesClient(HttpServletRequest request) {
+        String path = pathOf(request);
+        return HttpMethod.POST.matches(request.getMethod()) && (path.equals("/api/clients") || path.equals("/api/clients/authenticate"));
+    }
+
+    //Unreadable bodies are left to the controller, which answers them as before
+    private String bodyClientId(String contentType, byte[] body) {
+        try {
+            MediaType mediaType = contentType == null ? MediaType.APPLICATION_JSON : MediaType.parseMediaType(contentType);
+            ObjectMapper mapper = MediaType.APPLICATION_CBOR.equalsTypeAndSubtype(mediaType) ? cbor
+                    : SMILE.equalsTypeAndSubtype(mediaType) ? smile : json;
+            JsonNode clientId = mapper.readTree(body).get("clientId");
+            return clientId != null && clientId.isTextual() ? clientId.asText() : null;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static String pathOf(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    //Replays a body the router already had to read to find the client
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException("Cached request bodies are read synchronously");
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return in.read(buffer, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(new ByteArrayInputStream(body),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
\ No newline at end of file
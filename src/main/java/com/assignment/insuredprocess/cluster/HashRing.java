@@ -0,0 +1,77 @@
+package com.assignment.insuredprocess.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Set;
+import java.util.TreeSet;
+
+//Immutable consistent-hash ring. Every node is placed at virtualNodes points; a key belongs to the node at
+//the first point at or after the key's hash. Adding or removing a node only moves the keys between its points
+//and their predecessors, about 1/n of all keys. The hash is computed from the UTF-8 bytes, so every JVM
+//agrees on the owner of a key given the same set of nodes.
+public final class HashRing {
+
+    private final Set<String> nodes;
+    private final long[] points;
+    private final String[] owners;
+
+    public HashRing(Collection<String> nodes, int virtualNodes) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("A hash ring needs at least one node");
+        }
+        TreeSet<String> sorted = new TreeSet<>(nodes);
+        this.nodes = Set.copyOf(sorted);
+        Point[] placed = new Point[sorted.size() * virtualNodes];
+        int index = 0;
+        for (String node : sorted) {
+            for (int replica = 0; replica < virtualNodes; replica++) {
+                placed[index++] = new Point(hash(node + "#" + replica), node);
+            }
+        }
+        //ties are broken by node name, so equal hashes still give one owner on every JVM
+        Arrays.sort(placed, (a, b) -> a.hash != b.hash ? Long.compareUnsigned(a.hash, b.hash) : a.node.compareTo(b.node));
+        this.points = new long[placed.length];
+        this.owners = new String[placed.length];
+        for (int i = 0; i < placed.length; i++) {
+            points[i] = placed[i].hash;
+            owners[i] = placed[i].node;
+        }
+    }
+
+    public Set<String> nodes() {
+        return nodes;
+    }
+
+    public String ownerOf(String key) {
+        long hash = hash(key);
+        int low = 0;
+        int high = points.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (Long.compareUnsigned(points[middle], hash) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return owners[low == points.length ? 0 : low];
+    }
+
+    //FNV-1a over the UTF-8 bytes followed by the SplitMix64 finaliser to spread similar ids over the ring
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 30;
+        hash *= 0xbf58476d1ce4e5b9L;
+        hash ^= hash >>> 27;
+        hash *= 0x94d049bb133111ebL;
+        return hash ^ (hash >>> 31);
+    }
+
+    private record Point(long hash, String node) {
+    }
+}
\ No newline at end of file
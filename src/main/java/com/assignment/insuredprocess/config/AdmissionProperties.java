@@ -0,0 +1,36 @@
+package com.assignment.insuredprocess.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+//The limit moves between minLimit and maxLimit; normal and bulk requests may only take their share of it,
+//so the rest stays free for authentication and reads
+@ConfigurationProperties(prefix = "insured-process.admission")
+public record AdmissionProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("64") int initialLimit,
+        @DefaultValue("4") int minLimit,
+        @DefaultValue("512") int maxLimit,
+        @DefaultValue("500ms") Duration latencyThreshold,
+        @DefaultValue("0.8") double backoffRatio,
+        @DefaultValue("0.8") double normalShare,
+        @DefaultValue("0.5") double bulkShare,
+        @DefaultValue("1s") Duration retryAfter) {
+
+    public AdmissionProperties {
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("insured-process.admission limits need 1 <= min-limit <= initial-limit <= max-limit");
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("insured-process.admission.backoff-ratio must be between 0 and 1");
+        }
+        if (normalShare <= 0 || normalShare > 1 || bulkShare <= 0 || bulkShare > normalShare) {
+            throw new IllegalArgumentException("insured-process.admission shares need 0 < bulk-share <= normal-share <= 1");
+        }
+        if (latencyThreshold.isNegative() || latencyThreshold.isZero()) {
+            throw new IllegalArgumentException("insured-process.admission.latency-threshold must be positive");
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.assignment.insuredprocess.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "insured-process.auth")
+public record AuthProperties(@DefaultValue Cache cache, @DefaultValue Throttle throttle) {
+
+    public record Cache(
+            @DefaultValue("10000") int maxEntries,
+            @DefaultValue("30s") Duration ttl,
+            @DefaultValue("5s") Duration negativeTtl) {
+    }
+
+    //A bucket holds up to "capacity" attempts and gets one attempt back every "refillPeriod"
+    public record Throttle(
+            @DefaultValue("10") int clientCapacity,
+            @DefaultValue("6s") Duration clientRefillPeriod,
+            @DefaultValue("100") int sourceCapacity,
+            @DefaultValue("100ms") Duration sourceRefillPeriod,
+            @DefaultValue("100000") int maxBuckets) {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,57 @@
+package com.assignment.insuredprocess.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+//CBOR (application/cbor) and Smile (application/x-jackson-smile) next to JSON for partner integrations.
+//Both converters reuse the JSON mapper configuration, so the same DTOs are exchanged with the same field
+//names and date handling; clients opt in per request with Content-Type and Accept.
+@Configuration
+public class BinaryFormatConfig implements WebMvcConfigurer {
+
+    private static final List<MediaType> BINARY_TYPES = List.of(MediaType.APPLICATION_CBOR, new MediaType("application", "x-jackson-smile"));
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    //The plain string converter accepts any media type and comes first, so without this a String body
+    //(e.g. the authentication outcome) would be sent as raw text labelled application/cbor
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.replaceAll(converter -> converter instanceof StringHttpMessageConverter
+                ? new TextStringHttpMessageConverter()
+                : converter);
+    }
+
+    private static final class TextStringHttpMessageConverter extends StringHttpMessageConverter {
+
+        TextStringHttpMessageConverter() {
+            super(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        protected boolean canWrite(MediaType mediaType) {
+            return (mediaType == null || BINARY_TYPES.stream().noneMatch(mediaType::equalsTypeAndSubtype))
+                    && super.canWrite(mediaType);
+        }
+    }
+}
\ No newline at end of file
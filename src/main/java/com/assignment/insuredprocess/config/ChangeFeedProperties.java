@@ -0,0 +1,21 @@
+package com.assignment.insuredprocess.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "insured-process.change-feed")
+public record ChangeFeedProperties(
+        @DefaultValue("65536") int capacity,
+        @DefaultValue("256") int batchSize,
+        @DefaultValue("100") int maxSubscribers,
+        @DefaultValue("30m") Duration streamTimeout,
+        @DefaultValue("15s") Duration heartbeat) {
+
+    public ChangeFeedProperties {
+        if (capacity < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("insured-process.change-feed capacity and batch-size must be positive");
+        }
+    }
+}
\ No newline at end of file
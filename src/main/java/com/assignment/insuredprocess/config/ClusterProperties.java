@@ -0,0 +1,33 @@
+package com.assignment.insuredprocess.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+//Client-partitioned cluster: every node is identified by the base URL other nodes reach it at (selfUrl) and
+//starts from the members it is told about; more are learnt from the members themselves. Every node-to-node call
+//carries the shared secret, without which internal calls are refused and forwarding headers are ignored.
+@ConfigurationProperties(prefix = "insured-process.cluster")
+public record ClusterProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("http://localhost:8080") String selfUrl,
+        @DefaultValue List<String> members,
+        @DefaultValue("") String secret,
+        @DefaultValue("128") int virtualNodes,
+        @DefaultValue("1s") Duration probeInterval,
+        @DefaultValue("3") int probeFailures,
+        @DefaultValue("5s") Duration forwardTimeout,
+        @DefaultValue("10s") Duration rebalanceInterval,
+        @DefaultValue("500") int handoffBatchSize) {
+
+    public ClusterProperties {
+        if (virtualNodes < 1 || probeFailures < 1 || handoffBatchSize < 1) {
+            throw new IllegalArgumentException("insured-process.cluster virtual-nodes, probe-failures and handoff-batch-size must be positive");
+        }
+        if (enabled && (secret == null || secret.isBlank())) {
+            throw new IllegalArgumentException("insured-process.cluster.secret is required when the cluster is enabled");
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.assignment.insuredprocess.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "insured-process.coalescing")
+public record CoalescingProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("10000") int maxTrackedClients) {
+}
\ No newline at end of file
@@ -0,0 +1,27 @@
+package com.assignment.insuredprocess.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+//An empty directory puts the cold file in java.io.tmpdir; it only spills this run's data and is deleted on shutdown
+@ConfigurationProperties(prefix = "insured-process.storage.cold-tier")
+public record ColdTierProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("100000") int maxHotClients,
+        @DefaultValue("2") int admissionFrequency,
+        @DefaultValue("") String directory,
+        @DefaultValue("1s") Duration sweepInterval,
+        @DefaultValue("64MB") DataSize compactionThreshold) {
+
+    public ColdTierProperties {
+        if (maxHotClients < 1 || admissionFrequency < 1 || admissionFrequency > 15) {
+            throw new IllegalArgumentException("insured-process.storage.cold-tier needs max-hot-clients >= 1 and admission-frequency 1..15");
+        }
+        if (sweepInterval.isNegative() || sweepInterval.isZero()) {
+            throw new IllegalArgumentException("insured-process.storage.cold-tier.sweep-interval must be positive");
+        }
+    }
+}
\ No newline at end of file
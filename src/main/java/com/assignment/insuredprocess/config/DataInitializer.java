@@ -1,5 +1,6 @@
 package com.assignment.insuredprocess.config;
 
+import com.assignment.insuredprocess.seed.SyntheticBookLoader;
 import com.assignment.insuredprocess.service.ClientService;
 import com.assignment.insuredprocess.service.ProductService;
 import lombok.RequiredArgsConstructor;
@@ -14,16 +15,36 @@ public class DataInitializer implements CommandLineRunner {
 
     private final ClientService clientService;
     private final ProductService productService;
+    private final SyntheticBookLoader syntheticBookLoader;
+    private final SeedProperties seedProperties;
+    private final ReplicationProperties replicationProperties;
 
     @Override
     public void run(String... args) {
-        productService.createProduct("P001", "Health Insurance", "Comprehensive health coverage");
-        productService.createProduct("P002", "Auto Insurance", "Vehicle protection coverage");
-        productService.createProduct("P003", "Life Insurance", "Life protection for your family");
+        if (replicationProperties.role() == ReplicationProperties.Role.FOLLOWER) {
+            log.info("Replication follower: data comes from the leader, skipping sample data and seeding");
+            return;
+        }
+        createSample(() -> productService.createProduct("P001", "Health Insurance", "Comprehensive health coverage"));
+        createSample(() -> productService.createProduct("P002", "Auto Insurance", "Vehicle protection coverage"));
+        createSample(() -> productService.createProduct("P003", "Life Insurance", "Life protection for your family"));
 
-        clientService.createClient("C001", "email", "john@example.com");
-        clientService.createClient("C002", "phone", "555-1234");
+        createSample(() -> clientService.createClient("C001", "email", "john@example.com"));
+        createSample(() -> clientService.createClient("C002", "phone", "555-1234"));
 
         log.info("Sample data initialized successfully!");
+
+        if (seedProperties.clients() > 0) {
+            syntheticBookLoader.start();
+        }
+    }
+
+    //In cluster mode another node may already have pushed or handed over the same sample entry
+    private void createSample(Runnable creation) {
+        try {
+            creation.run();
+        } catch (IllegalArgumentException e) {
+            log.debug("Sample entry already present: {}", e.getMessage());
+        }
     }
 }
\ No newline at end of file
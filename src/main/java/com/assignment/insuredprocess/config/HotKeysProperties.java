@@ -0,0 +1,26 @@
+package com.assignment.insuredprocess.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+//capacity keys per kind are tracked exactly from the moment they turn hot; the sketch (width x depth counters)
+//estimates everything else and decides which key is hot enough to take a tracked slot
+@ConfigurationProperties(prefix = "insured-process.hot-keys")
+public record HotKeysProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("100") int capacity,
+        @DefaultValue("1m") Duration window,
+        @DefaultValue("4096") int sketchWidth,
+        @DefaultValue("4") int sketchDepth) {
+
+    public HotKeysProperties {
+        if (capacity < 1 || sketchWidth < 16 || sketchDepth < 1 || sketchDepth > 8) {
+            throw new IllegalArgumentException("insured-process.hot-keys needs capacity >= 1, sketch-width >= 16 and sketch-depth 1..8");
+        }
+        if (window.isNegative() || window.isZero()) {
+            throw new IllegalArgumentException("insured-process.hot-keys.window must be positive");
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.assignment.insuredprocess.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+@ConfigurationProperties(prefix = "insured-process.id-filter")
+public record IdFilterProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("1000000") long expectedClients,
+        @DefaultValue("10000") long expectedProducts,
+        @DefaultValue("0.01") double falsePositiveRate,
+        @DefaultValue("8MB") DataSize maxMemory) {
+
+    public IdFilterProperties {
+        if (expectedClients < 1 || expectedProducts < 1) {
+            throw new IllegalArgumentException("insured-process.id-filter.expected-clients and expected-products must be positive");
+        }
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("insured-process.id-filter.false-positive-rate must be between 0 and 1");
+        }
+        if (maxMemory.toBytes() < Long.BYTES) {
+            throw new IllegalArgumentException("insured-process.id-filter.max-memory must be at least 8 bytes");
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.assignment.insuredprocess.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "insured-process.idempotency")
+public record IdempotencyProperties(
+        @DefaultValue("100000") int maxEntries,
+        @DefaultValue("24h") Duration ttl,
+        @DefaultValue("64") int stripes) {
+
+    public IdempotencyProperties {
+        if (maxEntries < 1 || stripes < 1) {
+            throw new IllegalArgumentException("insured-process.idempotency.max-entries and stripes must be positive");
+        }
+    }
+}
\ No newline at end of file
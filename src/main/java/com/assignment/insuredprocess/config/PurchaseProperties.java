@@ -0,0 +1,10 @@
+package com.assignment.insuredprocess.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "insured-process.purchase")
+public record PurchaseProperties(
+        @DefaultValue("256") int batchSize,
+        @DefaultValue("10000") int queueCapacity) {
+}
\ No newline at end of file
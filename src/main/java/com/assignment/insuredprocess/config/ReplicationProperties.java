@@ -0,0 +1,33 @@
+package com.assignment.insuredprocess.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+//A leader serves its change feed to followers on bindAddress:port (0 picks a free port); a follower connects to
+//leaderHost:leaderPort, applies what it receives and serves reads only. The stream carries client credentials,
+//so both sides must share "secret": a follower proves it knows it before the leader sends anything else.
+@ConfigurationProperties(prefix = "insured-process.replication")
+public record ReplicationProperties(
+        @DefaultValue("standalone") Role role,
+        @DefaultValue("7600") int port,
+        @DefaultValue("127.0.0.1") String bindAddress,
+        @DefaultValue("localhost") String leaderHost,
+        @DefaultValue("7600") int leaderPort,
+        @DefaultValue("") String secret,
+        @DefaultValue("1s") Duration heartbeat,
+        @DefaultValue("1s") Duration reconnectDelay,
+        @DefaultValue("256") int batchSize) {
+
+    public ReplicationProperties {
+        if (batchSize < 1 || heartbeat.isNegative() || heartbeat.isZero()) {
+            throw new IllegalArgumentException("insured-process.replication batch-size and heartbeat must be positive");
+        }
+        if (role != Role.STANDALONE && (secret == null || secret.isBlank())) {
+            throw new IllegalArgumentException("insured-process.replication.secret is required for a leader or follower");
+        }
+    }
+
+    public enum Role { STANDALONE, LEADER, FOLLOWER }
+}
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.assignment.insuredprocess.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+//Synthetic insurance book loaded on top of the sample data; clients=0 keeps only the sample data.
+//Clients are loaded in the background in partitions of partitionSize ids; parallelism=0 uses all cores.
+@ConfigurationProperties(prefix = "insured-process.seed")
+public record SeedProperties(
+        @DefaultValue("0") int clients,
+        @DefaultValue("1000") int products,
+        @DefaultValue("50") int maxProductsPerClient,
+        @DefaultValue("1.1") double ownershipSkew,
+        @DefaultValue("0.3") double secondContactRatio,
+        @DefaultValue("42") long randomSeed,
+        @DefaultValue("10000") int partitionSize,
+        @DefaultValue("0") int parallelism) {
+}
\ No newline at end of file
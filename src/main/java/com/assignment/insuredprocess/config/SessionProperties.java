@@ -0,0 +1,24 @@
+package com.assignment.insuredprocess.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+//An empty secret makes every start pick a random one; nodes that must accept each other's tokens
+//(cluster members, a replication leader and its followers) need the same configured secret
+@ConfigurationProperties(prefix = "insured-process.session")
+public record SessionProperties(
+        @DefaultValue("") String secret,
+        @DefaultValue("30m") Duration ttl,
+        @DefaultValue("false") boolean required) {
+
+    public SessionProperties {
+        if (!secret.isEmpty() && secret.length() < 32) {
+            throw new IllegalArgumentException("insured-process.session.secret must be at least 32 characters");
+        }
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("insured-process.session.ttl must be positive");
+        }
+    }
+}
\ No newline at end of file
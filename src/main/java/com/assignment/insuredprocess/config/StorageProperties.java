@@ -0,0 +1,14 @@
+package com.assignment.insuredprocess.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "insured-process.storage")
+public record StorageProperties(@DefaultValue("16") int shards) {
+
+    public StorageProperties {
+        if (shards < 1) {
+            throw new IllegalArgumentException("insured-process.storage.shards must be positive");
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.assignment.insuredprocess.controller;
+
+import com.assignment.insuredprocess.dto.ProductUpdateOrder;
+import com.assignment.insuredprocess.dto.ProductUpdateOutcome;
+import com.assignment.insuredprocess.model.Product;
+import com.assignment.insuredprocess.service.ProductService;
+import com.assignment.insuredprocess.service.SessionTokens;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+//Bulk calls over many products. They live outside /api/products so that no product id, such as "catalog" or
+//"batch", is shadowed by a bulk route
+@RestController
+@RequestMapping("/api/catalog")
+@RequiredArgsConstructor
+public class CatalogController {
+
+    private final ProductService productService;
+    private final SessionTokens sessionTokens;
+
+    //Bulk catalog load: the body is the complete new catalog, published to readers in one step
+    @PutMapping
+    public ResponseEntity<String> reloadCatalog(@RequestBody List<Product> products) {
+        try {
+            int loaded = productService.reloadCatalog(products);
+            return ResponseEntity.ok("Catalog reloaded with " + loaded + " products");
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    //Bulk form of PUT /api/products/{productId} for sync jobs: one client, many products, one outcome per item in
+    //request order
+    @PutMapping("/updates")
+    public ResponseEntity<List<ProductUpdateOutcome>> updateProducts(
+            @RequestParam(required = false) String clientId,
+            @RequestHeader(name = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @RequestBody List<ProductUpdateOrder> orders) {
+        String caller = sessionTokens.callerOf(authorization, clientId).clientId();
+        try {
+            return ResponseEntity.ok(productService.updateProducts(caller, orders));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
\ No newline at end of file
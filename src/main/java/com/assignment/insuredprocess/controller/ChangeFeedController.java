@@ -0,0 +1,55 @@
+package com.assignment.insuredprocess.controller;
+
+import com.assignment.insuredprocess.config.ChangeFeedProperties;
+import com.assignment.insuredprocess.dto.ChangeFeedPage;
+import com.assignment.insuredprocess.event.ChangeFeed;
+import com.assignment.insuredprocess.event.ChangeFeedStreams;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.concurrent.RejectedExecutionException;
+
+@RestController
+@RequestMapping("/api/changes")
+@RequiredArgsConstructor
+public class ChangeFeedController {
+
+    private final ChangeFeed changeFeed;
+    private final ChangeFeedStreams changeFeedStreams;
+    private final ChangeFeedProperties properties;
+
+    //Polling form: pass the returned nextOffset as fromOffset of the following call. Like the stream it serves
+    //the public view of the events, without contact values
+    @GetMapping
+    public ResponseEntity<ChangeFeedPage> readChanges(
+            @RequestParam(defaultValue = "0") long fromOffset,
+            @RequestParam(required = false) Integer limit) {
+        int pageSize = limit != null ? limit : properties.batchSize();
+        if (fromOffset < 0 || pageSize < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(changeFeed.read(fromOffset, Math.min(pageSize, properties.batchSize())).publicView());
+    }
+
+    //Reconnecting EventSource clients send Last-Event-ID, which takes precedence over fromOffset
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamChanges(
+            @RequestParam(required = false) Long fromOffset,
+            @RequestHeader(name = "Last-Event-ID", required = false) String lastEventId) {
+        try {
+            Long offset = fromOffset;
+            if (lastEventId != null) {
+                offset = Long.parseLong(lastEventId.trim()) + 1;
+            }
+            return ResponseEntity.ok(changeFeedStreams.subscribe(offset));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+}
\ No newline at end of file
@@ -3,8 +3,11 @@ package com.assignment.insuredprocess.controller;
 import com.assignment.insuredprocess.dto.ClientAuthRequest;
 import com.assignment.insuredprocess.model.Client;
 import com.assignment.insuredprocess.model.Product;
+import com.assignment.insuredprocess.service.AuthenticationThrottle;
 import com.assignment.insuredprocess.service.ClientService;
-import com.assignment.insuredprocess.service.ProductService;
+import com.assignment.insuredprocess.service.PortfolioReads;
+import com.assignment.insuredprocess.service.SessionTokens;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -18,7 +21,9 @@ import java.util.List;
 public class ClientController {
 
     private final ClientService clientService;
-    private final ProductService productService;
+    private final PortfolioReads portfolioReads;
+    private final AuthenticationThrottle authenticationThrottle;
+    private final SessionTokens sessionTokens;
 
     @PostMapping
     public ResponseEntity<Client> createClient(@RequestBody ClientAuthRequest request) {
@@ -34,9 +39,14 @@ public class ClientController {
         }
     }
 
-    //The auth mechanism could be replaced by using Spring Security
+    //The auth mechanism could be replaced by using Spring Security. A successful authentication returns a
+    //session token in X-Session-Token that product calls can send as a bearer token instead of clientId
     @PostMapping("/authenticate")
-    public ResponseEntity<String> authenticateClient(@RequestBody ClientAuthRequest request) {
+    public ResponseEntity<String> authenticateClient(@RequestBody ClientAuthRequest request, HttpServletRequest httpRequest) {
+        if (!authenticationThrottle.tryAcquire(request.getClientId(), httpRequest.getRemoteAddr())) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body("Too many authentication attempts");
+        }
+
         boolean isAuthenticated = clientService.authenticateClient(
             request.getClientId(),
             request.getContactType(),
@@ -44,19 +54,19 @@ public class ClientController {
         );
         
         if (isAuthenticated) {
-            return ResponseEntity.ok("Client authenticated successfully");
+            return ResponseEntity.ok()
+                    .header(SessionTokens.HEADER, sessionTokens.issue(request.getClientId()))
+                    .body("Client authenticated successfully");
         } else {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Authentication failed");
         }
     }
 
+    //Concurrent reads of the same portfolio share one lookup
     @GetMapping("/{clientId}/products")
     public ResponseEntity<List<Product>> getClientProducts(@PathVariable String clientId) {
-        if (clientService.findClientById(clientId).isEmpty()) {
-            return ResponseEntity.notFound().build();
-        }
-        
-        List<Product> products = productService.getClientProducts(clientId);
-        return ResponseEntity.ok(products);
+        return portfolioReads.findPortfolio(clientId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 }
\ No newline at end of file
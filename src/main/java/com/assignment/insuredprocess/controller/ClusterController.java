@@ -0,0 +1,68 @@
+package com.assignment.insuredprocess.controller;
+
+import com.assignment.insuredprocess.cluster.ClusterCatalog;
+import com.assignment.insuredprocess.cluster.ClusterEvent;
+import com.assignment.insuredprocess.cluster.ClusterMembership;
+import com.assignment.insuredprocess.cluster.ClusterRebalancer;
+import com.assignment.insuredprocess.dto.ClusterView;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+//Node-to-node calls of the cluster; meant for the cluster's private network, not for API clients
+@RestController
+@RequestMapping("/internal/cluster")
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "insured-process.cluster", name = "enabled", havingValue = "true")
+public class ClusterController {
+
+    private final ClusterMembership membership;
+    private final ClusterCatalog catalog;
+    private final ClusterRebalancer rebalancer;
+
+    @GetMapping("/members")
+    public ClusterView members() {
+        return membership.view();
+    }
+
+    @PostMapping("/join")
+    public ResponseEntity<Void> join(@RequestParam String member) {
+        membership.join(member);
+        return ResponseEntity.ok().build();
+    }
+
+    @PostMapping("/leave")
+    public ResponseEntity<Void> leave(@RequestParam String member) {
+        membership.leave(member);
+        return ResponseEntity.ok().build();
+    }
+
+    @GetMapping("/catalog")
+    public List<ClusterEvent> catalog() {
+        return catalog.snapshot();
+    }
+
+    @PostMapping("/catalog")
+    public ResponseEntity<Void> applyCatalog(@RequestBody List<ClusterEvent> events) {
+        try {
+            catalog.applyRemote(events);
+            return ResponseEntity.ok().build();
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/handoff")
+    public ResponseEntity<Void> handoff(@RequestBody List<ClusterEvent> events) {
+        try {
+            rebalancer.receive(events);
+            return ResponseEntity.ok().build();
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
\ No newline at end of file
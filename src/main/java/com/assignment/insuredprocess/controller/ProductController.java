@@ -2,18 +2,30 @@ package com.assignment.insuredprocess.controller;
 
 import com.assignment.insuredprocess.dto.ProductUpdateRequest;
 import com.assignment.insuredprocess.model.Product;
+import com.assignment.insuredprocess.service.IdempotencyStore;
 import com.assignment.insuredprocess.service.ProductService;
+import com.assignment.insuredprocess.service.PurchasePipeline;
+import com.assignment.insuredprocess.service.SessionTokens;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
 @RestController
 @RequestMapping("/api/products")
 @RequiredArgsConstructor
 public class ProductController {
 
     private final ProductService productService;
+    private final PurchasePipeline purchasePipeline;
+    private final IdempotencyStore idempotencyStore;
+    private final SessionTokens sessionTokens;
 
     @PostMapping
     public ResponseEntity<Product> createProduct(@RequestBody Product product) {
@@ -29,28 +41,92 @@ public class ProductController {
         }
     }
 
+    //Type-ahead search: every word of q matches a word (or word prefix) of the product name or description
+    @GetMapping("/search")
+    public ResponseEntity<List<Product>> searchProducts(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        try {
+            return ResponseEntity.ok(productService.searchProducts(q, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    //A retry with the same Idempotency-Key gets the original answer instead of "already owns this product".
+    //Product calls identify the client by a session bearer token or, without one, by the clientId parameter.
     @PostMapping("/{productId}/buy")
     public ResponseEntity<Product> buyProduct(
             @PathVariable String productId,
-            @RequestParam String clientId) {
+            @RequestParam(required = false) String clientId,
+            @RequestHeader(name = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @RequestHeader(name = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        SessionTokens.Caller caller = sessionTokens.callerOf(authorization, clientId);
+        return idempotencyStore.execute(idempotencyKey, caller.clientId(), "buy " + productId, () -> {
+            try {
+                Product product = caller.authenticated()
+                        ? productService.buyProductAsAuthenticated(caller.clientId(), productId)
+                        : productService.buyProduct(caller.clientId(), productId);
+                //products are immutable, so a replay still shows the product as it was bought
+                return ResponseEntity.ok(product);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().build();
+            }
+        });
+    }
+
+    //Same contract as /buy, but the request thread is released while the purchase waits for its batch
+    @PostMapping("/{productId}/buy-async")
+    public CompletableFuture<ResponseEntity<Product>> buyProductAsync(
+            @PathVariable String productId,
+            @RequestParam(required = false) String clientId,
+            @RequestHeader(name = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        return purchasePipeline.buyProductAsync(sessionTokens.callerOf(authorization, clientId).clientId(), productId)
+                .thenApply(ResponseEntity::ok)
+                .exceptionally(this::purchaseFailed);
+    }
+
+    @PostMapping("/{productId}/cancel")
+    public ResponseEntity<String> cancelProduct(
+            @PathVariable String productId,
+            @RequestParam(required = false) String clientId,
+            @RequestHeader(name = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        String caller = sessionTokens.callerOf(authorization, clientId).clientId();
         try {
-            Product product = productService.buyProduct(clientId, productId);
-            return ResponseEntity.ok(product);
+            productService.cancelProduct(caller, productId);
+            return ResponseEntity.ok("Product cancelled successfully");
         } catch (IllegalArgumentException e) {
-            return ResponseEntity.badRequest().build();
+            return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
 
     @PutMapping("/{productId}")
     public ResponseEntity<String> updateProduct(
             @PathVariable String productId,
-            @RequestParam String clientId,
-            @RequestBody ProductUpdateRequest request) {
-        try {
-            productService.updateProduct(clientId, productId, request.getName(), request.getDescription());
-            return ResponseEntity.ok("Product updated successfully");
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
+            @RequestParam(required = false) String clientId,
+            @RequestHeader(name = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @RequestBody ProductUpdateRequest request,
+            @RequestHeader(name = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        String caller = sessionTokens.callerOf(authorization, clientId).clientId();
+        String fingerprint = "update " + productId + '\u0000' + request.getName() + '\u0000' + request.getDescription();
+        return idempotencyStore.execute(idempotencyKey, caller, fingerprint, () -> {
+            try {
+                productService.updateProduct(caller, productId, request.getName(), request.getDescription());
+                return ResponseEntity.ok("Product updated successfully");
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
+        });
+    }
+
+    private ResponseEntity<Product> purchaseFailed(Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+        if (cause instanceof IllegalArgumentException) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (cause instanceof RejectedExecutionException) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
         }
+        throw new CompletionException(cause);
     }
 }
\ No newline at end of file
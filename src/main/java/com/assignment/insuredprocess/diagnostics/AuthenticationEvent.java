@@ -0,0 +1,19 @@
+package com.assignment.insuredprocess.diagnostics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("insured.Authenticate")
+@Label("Client Authentication")
+@Description("ClientService.authenticateClient")
+public class AuthenticationEvent extends ServiceEvent {
+
+    @Label("Answered From Cache")
+    boolean cached;
+
+    public void record(String clientId, boolean cached, boolean authenticated) {
+        this.cached = cached;
+        record(clientId, authenticated ? "authenticated" : "rejected");
+    }
+}
\ No newline at end of file
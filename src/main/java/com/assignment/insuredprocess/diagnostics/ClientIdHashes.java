@@ -0,0 +1,46 @@
+package com.assignment.insuredprocess.diagnostics;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.HexFormat;
+
+//Client ids as diagnostics report them: the first 64 bits of an HMAC-SHA256 under a secret drawn at startup, in
+//hex. The same id gives the same hash in every report and recording of one process, but without the secret a
+//hash can't be matched to an id by trying candidates, and collisions are as rare as for any 64-bit hash.
+public final class ClientIdHashes {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int BYTES = 8;
+    private static final HexFormat HEX = HexFormat.of();
+    private static final ThreadLocal<Mac> MACS = macs(randomSecret());
+
+    private ClientIdHashes() {
+    }
+
+    public static String of(String clientId) {
+        byte[] digest = MACS.get().doFinal(clientId.getBytes(StandardCharsets.UTF_8));
+        return HEX.formatHex(digest, 0, BYTES);
+    }
+
+    private static ThreadLocal<Mac> macs(byte[] secret) {
+        SecretKeySpec key = new SecretKeySpec(secret, ALGORITHM);
+        return ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(ALGORITHM);
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HMAC-SHA256 is not available", e);
+            }
+        });
+    }
+
+    private static byte[] randomSecret() {
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        return secret;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,155 @@
+package com.assignment.insuredprocess.diagnostics;
+
+import com.assignment.insuredprocess.dto.HotKeyReport;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+//Space-saving top-k gated by a count-min sketch. A tracked key costs one map lookup and a few adder increments.
+//An untracked key only bumps its sketch counters; it takes the lock only once its estimate beats the coldest
+//tracked key, which it then replaces, starting from its estimate. Hot keys are therefore tracked from the
+//first request that reveals them, while a long tail of cold keys never touches the lock.
+final class HeavyHitters {
+
+    private final int capacity;
+    private final int width;
+    private final int depth;
+    private final AtomicLongArray sketch;
+    private final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+    private final LongAdder total = new LongAdder();
+    private final Object lock = new Object();
+    //count of the coldest tracked key as of the last replacement; estimates at or below it cannot get in
+    private volatile long admissionThreshold;
+
+    HeavyHitters(int capacity, int width, int depth) {
+        this.capacity = capacity;
+        this.width = Integer.highestOneBit(width - 1) << 1;
+        this.depth = depth;
+        this.sketch = new AtomicLongArray(this.width * depth);
+    }
+
+    void record(String key, long latencyNanos) {
+        total.increment();
+        Counter counter = counters.get(key);
+        if (counter == null) {
+            long estimate = increment(key);
+            if (counters.size() >= capacity && estimate <= admissionThreshold) {
+                return;
+            }
+            counter = admit(key, estimate);
+            if (counter == null) {
+                return;
+            }
+        }
+        counter.record(latencyNanos);
+    }
+
+    long total() {
+        return total.sum();
+    }
+
+    List<HotKeyReport.Key> top(int limit, double seconds) {
+        List<Tracked> tracked = hottest(limit);
+        List<HotKeyReport.Key> top = new ArrayList<>(tracked.size());
+        for (Tracked entry : tracked) {
+            long hits = entry.counter().hits.sum();
+            top.add(new HotKeyReport.Key(entry.key(), entry.count(), entry.count() / seconds,
+                    hits == 0 ? 0 : entry.counter().latencyNanos.sum() / (hits * 1e6), entry.counter().maxLatencyNanos.get() / 1e6));
+        }
+        return top;
+    }
+
+    long topRequests(int limit) {
+        return hottest(limit).stream().mapToLong(Tracked::count).sum();
+    }
+
+    private List<Tracked> hottest(int limit) {
+        List<Tracked> tracked = new ArrayList<>(counters.size());
+        counters.forEach((key, counter) -> tracked.add(new Tracked(key, counter, counter.count())));
+        tracked.sort(Comparator.comparingLong(Tracked::count).reversed().thenComparing(Tracked::key));
+        return tracked.subList(0, Math.min(limit, tracked.size()));
+    }
+
+    private Counter admit(String key, long estimate) {
+        synchronized (lock) {
+            Counter existing = counters.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            if (counters.size() >= capacity) {
+                Map.Entry<String, Long> coldest = coldest();
+                if (estimate <= coldest.getValue()) {
+                    admissionThreshold = coldest.getValue();
+                    return null;
+                }
+                counters.remove(coldest.getKey());
+            }
+            //the request being recorded is added by the caller
+            Counter counter = new Counter(estimate - 1);
+            counters.put(key, counter);
+            if (counters.size() >= capacity) {
+                admissionThreshold = coldest().getValue();
+            }
+            return counter;
+        }
+    }
+
+    private Map.Entry<String, Long> coldest() {
+        String coldestKey = null;
+        long coldestCount = Long.MAX_VALUE;
+        for (Map.Entry<String, Counter> entry : counters.entrySet()) {
+            long count = entry.getValue().count();
+            if (count < coldestCount) {
+                coldestKey = entry.getKey();
+                coldestCount = count;
+            }
+        }
+        return Map.entry(coldestKey, coldestCount);
+    }
+
+    //Adds one to the key's counter in every row and returns the smallest of them, the sketch's estimate
+    private long increment(String key) {
+        long hash = key.hashCode() * 0x9E3779B97F4A7C15L;
+        hash ^= hash >>> 32;
+        int first = (int) hash;
+        int second = (int) (hash >>> 32) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int column = (first + row * second) & (width - 1);
+            estimate = Math.min(estimate, sketch.incrementAndGet(row * width + column));
+        }
+        return estimate;
+    }
+
+    private record Tracked(String key, Counter counter, long count) {
+    }
+
+    private static final class Counter {
+        private final long base;
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder latencyNanos = new LongAdder();
+        private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+        Counter(long base) {
+            this.base = base;
+        }
+
+        void record(long latency) {
+            hits.increment();
+            latencyNanos.add(latency);
+            if (latency > maxLatencyNanos.get()) {
+                maxLatencyNanos.accumulateAndGet(latency, Math::max);
+            }
+        }
+
+        long count() {
+            return base + hits.sum();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,139 @@
+package com.assignment.insuredprocess.diagnostics;
+
+import com.assignment.insuredprocess.config.HotKeysProperties;
+import com.assignment.insuredprocess.dto.HotKeyReport;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+//Heaviest client and product ids of the service calls, with their request rates and latencies, in tumbling
+//windows: the window still filling up and the last completed one. Each window starts from empty trackers, so a
+//key that cooled down drops out after one window. Client ids are reported as their keyed hashes (ClientIdHashes),
+//the same ones the Flight Recorder events carry, since the report is served without authentication.
+@Component
+public class HotKeys implements MeterBinder {
+
+    private static final int SHARE_OF_TOP = 10;
+
+    private final HotKeysProperties properties;
+    private final long windowNanos;
+    private final LongAdder clientRequests = new LongAdder();
+    private final LongAdder productRequests = new LongAdder();
+    private volatile Window current;
+    private volatile HotKeyReport.Window previous;
+
+    public HotKeys(HotKeysProperties properties) {
+        this.properties = properties;
+        this.windowNanos = properties.window().toNanos();
+        this.current = new Window(properties, System.nanoTime());
+    }
+
+    //Either id may be null; startedNanos is the System.nanoTime() the call began at
+    public void record(String clientId, String productId, long startedNanos) {
+        if (!properties.enabled()) {
+            return;
+        }
+        long now = System.nanoTime();
+        Window window = windowAt(now);
+        if (clientId != null) {
+            clientRequests.increment();
+            window.clients.record(clientId, now - startedNanos);
+        }
+        if (productId != null) {
+            productRequests.increment();
+            window.products.record(productId, now - startedNanos);
+        }
+    }
+
+    public HotKeyReport report(int top) {
+        long now = System.nanoTime();
+        HotKeyReport.Window last = previous;
+        return new HotKeyReport(windowAt(now).snapshot(now, top), last == null ? null : limit(last, top));
+    }
+
+    public synchronized void reset() {
+        current = new Window(properties, System.nanoTime());
+        previous = null;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("insured.hotkeys.requests", clientRequests, LongAdder::sum)
+                .description("Service calls tracked for hot keys")
+                .tag("kind", "client")
+                .register(registry);
+        FunctionCounter.builder("insured.hotkeys.requests", productRequests, LongAdder::sum)
+                .description("Service calls tracked for hot keys")
+                .tag("kind", "product")
+                .register(registry);
+        Gauge.builder("insured.hotkeys.top.share", this, hotKeys -> topShare(hotKeys.current.clients))
+                .description("Share of the current window's calls that went to the 10 hottest keys")
+                .tag("kind", "client")
+                .register(registry);
+        Gauge.builder("insured.hotkeys.top.share", this, hotKeys -> topShare(hotKeys.current.products))
+                .description("Share of the current window's calls that went to the 10 hottest keys")
+                .tag("kind", "product")
+                .register(registry);
+    }
+
+    private Window windowAt(long now) {
+        Window window = current;
+        if (now - window.startNanos < windowNanos) {
+            return window;
+        }
+        synchronized (this) {
+            window = current;
+            if (now - window.startNanos >= windowNanos) {
+                previous = window.snapshot(window.startNanos + windowNanos, properties.capacity());
+                //an idle stretch longer than a window leaves no empty windows behind
+                long start = now - (now - window.startNanos) % windowNanos;
+                window = new Window(properties, start);
+                current = window;
+            }
+            return window;
+        }
+    }
+
+    private static double topShare(HeavyHitters hitters) {
+        long total = hitters.total();
+        return total == 0 ? 0 : Math.min(1.0, hitters.topRequests(SHARE_OF_TOP) / (double) total);
+    }
+
+    private static HotKeyReport.Window limit(HotKeyReport.Window window, int top) {
+        return new HotKeyReport.Window(window.start(), window.seconds(), window.clientRequests(), window.productRequests(),
+                window.clients().subList(0, Math.min(top, window.clients().size())),
+                window.products().subList(0, Math.min(top, window.products().size())));
+    }
+
+    private static HotKeyReport.Key hashed(HotKeyReport.Key key) {
+        return new HotKeyReport.Key(ClientIdHashes.of(key.id()), key.requests(), key.requestsPerSecond(),
+                key.averageLatencyMillis(), key.maxLatencyMillis());
+    }
+
+    private static final class Window {
+        private final long startNanos;
+        private final Instant start;
+        private final HeavyHitters clients;
+        private final HeavyHitters products;
+
+        Window(HotKeysProperties properties, long startNanos) {
+            this.startNanos = startNanos;
+            this.start = Instant.now().minusNanos(System.nanoTime() - startNanos);
+            this.clients = new HeavyHitters(properties.capacity(), properties.sketchWidth(), properties.sketchDepth());
+            this.products = new HeavyHitters(properties.capacity(), properties.sketchWidth(), properties.sketchDepth());
+        }
+
+        HotKeyReport.Window snapshot(long endNanos, int top) {
+            double seconds = Math.max(1, Duration.ofNanos(endNanos - startNanos).toMillis()) / 1000.0;
+            return new HotKeyReport.Window(start, seconds, clients.total(), products.total(),
+                    clients.top(top, seconds).stream().map(HotKeys::hashed).toList(), List.copyOf(products.top(top, seconds)));
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.assignment.insuredprocess.diagnostics;
+
+import com.assignment.insuredprocess.dto.HotKeyReport;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+//GET /actuator/hotkeys[?top=] lists the hottest client id hashes and product ids of the current and the last
+//completed window. Read-only on purpose: it is exposed over the web, so the reset lives in HotKeysJmxExtension
+@Component
+@Endpoint(id = "hotkeys")
+@RequiredArgsConstructor
+public class HotKeysEndpoint {
+
+    private static final int DEFAULT_TOP = 20;
+
+    private final HotKeys hotKeys;
+
+    @ReadOperation
+    public HotKeyReport report(@Nullable Integer top) {
+        return hotKeys.report(top == null || top < 1 ? DEFAULT_TOP : top);
+    }
+}
\ No newline at end of file
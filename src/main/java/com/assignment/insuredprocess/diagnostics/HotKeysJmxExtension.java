@@ -0,0 +1,21 @@
+package com.assignment.insuredprocess.diagnostics;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.jmx.annotation.EndpointJmxExtension;
+import org.springframework.stereotype.Component;
+
+//Resetting the hot keys is offered over JMX only (spring.jmx.enabled plus hotkeys in
+//management.endpoints.jmx.exposure.include): it starts a new window and forgets the last completed one
+@Component
+@EndpointJmxExtension(endpoint = HotKeysEndpoint.class)
+@RequiredArgsConstructor
+public class HotKeysJmxExtension {
+
+    private final HotKeys hotKeys;
+
+    @DeleteOperation
+    public void reset() {
+        hotKeys.reset();
+    }
+}
\ No newline at end of file
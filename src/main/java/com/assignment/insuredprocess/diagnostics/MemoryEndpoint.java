@@ -0,0 +1,68 @@
+package com.assignment.insuredprocess.diagnostics;
+
+import com.assignment.insuredprocess.dto.MemoryFootprint;
+import com.assignment.insuredprocess.dto.MemoryReport;
+import com.assignment.insuredprocess.repository.ClientProductRepository;
+import com.assignment.insuredprocess.repository.ClientRepository;
+import com.assignment.insuredprocess.repository.ProductRepository;
+import com.assignment.insuredprocess.service.PortfolioViews;
+import com.assignment.insuredprocess.service.ProductSearchIndex;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+//GET /actuator/memory reports the estimated retained bytes of every store and index. The numbers are running
+//totals the stores keep as entries come and go (see MemoryEstimates), so the report is cheap enough to poll.
+@Component
+@Endpoint(id = "memory")
+@RequiredArgsConstructor
+public class MemoryEndpoint implements MeterBinder {
+
+    private final ClientRepository clientRepository;
+    private final ProductRepository productRepository;
+    private final ClientProductRepository clientProductRepository;
+    private final PortfolioViews portfolioViews;
+    private final ProductSearchIndex productSearchIndex;
+
+    @ReadOperation
+    public MemoryReport report() {
+        Map<String, MemoryFootprint> repositories = new LinkedHashMap<>();
+        repositories.put("clients", clientRepository.memoryFootprint());
+        repositories.put("products", productRepository.memoryFootprint());
+        repositories.put("ownership", clientProductRepository.memoryFootprint());
+        Map<String, MemoryFootprint> indexes = new LinkedHashMap<>();
+        indexes.put("clientIdFilter", clientRepository.idFilterFootprint());
+        indexes.put("productIdFilter", productRepository.idFilterFootprint());
+        indexes.put("portfolioViews", portfolioViews.memoryFootprint());
+        indexes.put("productSearch", productSearchIndex.memoryFootprint());
+        long total = repositories.values().stream().mapToLong(MemoryFootprint::estimatedBytes).sum()
+                + indexes.values().stream().mapToLong(MemoryFootprint::estimatedBytes).sum();
+        return new MemoryReport(total, repositories, indexes);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        register(registry, "repository", "clients", clientRepository::memoryFootprint);
+        register(registry, "repository", "products", productRepository::memoryFootprint);
+        register(registry, "repository", "ownership", clientProductRepository::memoryFootprint);
+        register(registry, "index", "portfolio-views", portfolioViews::memoryFootprint);
+        register(registry, "index", "product-search", productSearchIndex::memoryFootprint);
+    }
+
+    private static void register(MeterRegistry registry, String kind, String name, Supplier<MemoryFootprint> footprint) {
+        Gauge.builder("insured.memory.estimated", footprint, supplier -> supplier.get().estimatedBytes())
+                .description("Estimated retained bytes of a store or index")
+                .tags("kind", kind, "name", name)
+                .baseUnit(BaseUnits.BYTES)
+                .register(registry);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,55 @@
+package com.assignment.insuredprocess.diagnostics;
+
+//Shallow sizes on a 64-bit HotSpot with compressed oops and class pointers: 12-byte headers, 4-byte references,
+//objects padded to 8 bytes. The stores add these up as entries come and go, so the memory report is a running
+//estimate for capacity planning and spotting regressions, not a heap dump.
+public final class MemoryEstimates {
+
+    public static final int REFERENCE = 4;
+    //ConcurrentHashMap / HashMap node (hash, key, value, next) plus its share of a table kept at most 3/4 full
+    public static final long HASH_ENTRY = object(3, 4) + 6;
+    //ConcurrentSkipListMap data node plus its average share of index nodes (one per 4 data nodes, 24 bytes each)
+    public static final long SKIP_LIST_ENTRY = object(3, 0) + 6;
+    public static final long LOCAL_DATE_TIME = object(2, 0) + object(0, 8) + object(0, 8);
+
+    private MemoryEstimates() {
+    }
+
+    public static long object(int references, int primitiveBytes) {
+        return align(12 + (long) references * REFERENCE + primitiveBytes);
+    }
+
+    public static long array(long length, int elementBytes) {
+        return align(16 + length * elementBytes);
+    }
+
+    //Compact strings: one byte per character when every character is Latin-1, two otherwise
+    public static long string(String value) {
+        if (value == null) {
+            return 0;
+        }
+        int bytesPerChar = 1;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0xFF) {
+                bytesPerChar = 2;
+                break;
+            }
+        }
+        return object(1, 6) + array(value.length(), bytesPerChar);
+    }
+
+    public static long arrayList(int size) {
+        return object(1, 8) + array(size, REFERENCE);
+    }
+
+    //HashSet (or LinkedHashSet, which adds two links per entry) with its backing map, table and nodes
+    public static long hashSet(int size, boolean linked) {
+        int table = Integer.highestOneBit(Math.max(1, size * 4 / 3)) << 1;
+        long node = object(linked ? 5 : 3, 4);
+        return object(1, 0) + object(6, 16) + array(table, REFERENCE) + size * node;
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.assignment.insuredprocess.diagnostics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("insured.ClientProducts")
+@Label("Portfolio Read")
+@Description("ProductService.getClientProducts / findClientPortfolio")
+public class PortfolioReadEvent extends ServiceEvent {
+
+    @Label("Portfolio Size")
+    int portfolioSize;
+
+    public void record(String clientId, int portfolioSize, boolean found) {
+        this.portfolioSize = portfolioSize;
+        record(clientId, found ? "found" : "client-not-found");
+    }
+}
\ No newline at end of file
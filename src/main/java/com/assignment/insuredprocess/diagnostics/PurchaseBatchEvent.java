@@ -0,0 +1,24 @@
+package com.assignment.insuredprocess.diagnostics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+//One per batch of the purchase pipeline; the client id hash is that of the first order
+@Name("insured.BuyProducts")
+@Label("Product Purchase Batch")
+@Description("ProductService.buyProducts")
+public class PurchaseBatchEvent extends ServiceEvent {
+
+    @Label("Orders")
+    int orders;
+
+    @Label("Purchased")
+    int purchased;
+
+    public void record(String firstClientId, int orders, int purchased) {
+        this.orders = orders;
+        this.purchased = purchased;
+        record(firstClientId, purchased == orders ? "purchased" : purchased == 0 ? "rejected" : "partial");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.assignment.insuredprocess.diagnostics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("insured.BuyProduct")
+@Label("Product Purchase")
+@Description("ProductService.buyProduct")
+public class PurchaseEvent extends ServiceEvent {
+
+    @Label("Product Id")
+    String productId;
+
+    public void record(String clientId, String productId, boolean purchased) {
+        this.productId = productId;
+        record(clientId, purchased ? "purchased" : "rejected");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,27 @@
+package com.assignment.insuredprocess.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+
+@Name("insured.RepositorySizes")
+@Label("Repository Sizes")
+@Description("Entries held by the in-memory repositories of this node")
+@Category({"Insured Process", "Repository"})
+@StackTrace(false)
+@Period("10 s")
+public class RepositorySizesEvent extends Event {
+
+    @Label("Clients")
+    long clients;
+
+    @Label("Clients With Products")
+    long clientsWithProducts;
+
+    @Label("Products")
+    long products;
+}
\ No newline at end of file
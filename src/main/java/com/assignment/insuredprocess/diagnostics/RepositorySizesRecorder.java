@@ -0,0 +1,40 @@
+package com.assignment.insuredprocess.diagnostics;
+
+import com.assignment.insuredprocess.repository.ClientProductRepository;
+import com.assignment.insuredprocess.repository.ClientRepository;
+import com.assignment.insuredprocess.repository.ProductRepository;
+import jdk.jfr.FlightRecorder;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+//Emits insured.RepositorySizes at the period the active recording asks for; JFR only runs the hook while
+//a recording has the event enabled, so it costs nothing otherwise
+@Component
+public class RepositorySizesRecorder implements DisposableBean {
+
+    private final ClientRepository clientRepository;
+    private final ClientProductRepository clientProductRepository;
+    private final ProductRepository productRepository;
+    private final Runnable hook = this::emit;
+
+    public RepositorySizesRecorder(ClientRepository clientRepository, ClientProductRepository clientProductRepository,
+                                   ProductRepository productRepository) {
+        this.clientRepository = clientRepository;
+        this.clientProductRepository = clientProductRepository;
+        this.productRepository = productRepository;
+        FlightRecorder.addPeriodicEvent(RepositorySizesEvent.class, hook);
+    }
+
+    @Override
+    public void destroy() {
+        FlightRecorder.removePeriodicEvent(hook);
+    }
+
+    private void emit() {
+        RepositorySizesEvent event = new RepositorySizesEvent();
+        event.clients = clientRepository.count();
+        event.clientsWithProducts = clientProductRepository.countClients();
+        event.products = productRepository.count();
+        event.commit();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.assignment.insuredprocess.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+//Common shape of the service-layer Flight Recorder events. Callers do new/begin() up front and record() on the
+//way out; with recording off (or the call faster than the threshold) shouldCommit() is false and nothing else
+//runs, so the JIT can drop the event object altogether. Client ids are recorded as keyed hashes only.
+@Category({"Insured Process", "Service"})
+@StackTrace(false)
+@Threshold("1 ms")
+public abstract class ServiceEvent extends Event {
+
+    @Label("Client Id Hash")
+    String clientIdHash;
+
+    @Label("Outcome")
+    String outcome;
+
+    protected void record(String clientId, String outcome) {
+        if (shouldCommit()) {
+            this.clientIdHash = clientId == null ? null : ClientIdHashes.of(clientId);
+            this.outcome = outcome;
+            commit();
+        }
+    }
+}
\ No newline at end of file
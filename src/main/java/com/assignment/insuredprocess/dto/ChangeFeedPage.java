@@ -0,0 +1,14 @@
+package com.assignment.insuredprocess.dto;
+
+import com.assignment.insuredprocess.event.ChangeEvent;
+
+import java.util.List;
+
+//gap is set when events between the requested offset and the first returned one were already overwritten
+public record ChangeFeedPage(List<ChangeEvent> events, long nextOffset, long oldestOffset, boolean gap) {
+
+    //Without credentials, for the public feed
+    public ChangeFeedPage publicView() {
+        return new ChangeFeedPage(events.stream().map(ChangeEvent::publicView).toList(), nextOffset, oldestOffset, gap);
+    }
+}
\ No newline at end of file
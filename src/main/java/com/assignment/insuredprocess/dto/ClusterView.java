@@ -0,0 +1,7 @@
+package com.assignment.insuredprocess.dto;
+
+import java.util.List;
+
+//One node's view of the cluster: every member it knows of, those it currently routes to, and its own clients
+public record ClusterView(String self, List<String> members, List<String> live, long clients) {
+}
\ No newline at end of file
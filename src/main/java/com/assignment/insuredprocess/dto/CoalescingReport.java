@@ -0,0 +1,7 @@
+package com.assignment.insuredprocess.dto;
+
+import java.util.Map;
+
+//topClients maps keyed client id hashes (ClientIdHashes) to the number of portfolio reads that were served by another caller's computation
+public record CoalescingReport(long computed, long coalesced, int inFlight, int trackedClients, Map<String, Long> topClients) {
+}
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.assignment.insuredprocess.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+//previous is the last completed window (null until one completes), current the one still filling up
+public record HotKeyReport(Window current, Window previous) {
+
+    public record Window(Instant start, double seconds, long clientRequests, long productRequests,
+                         List<Key> clients, List<Key> products) {
+    }
+
+    //requests may overestimate a key by what the sketch counted before it was tracked; latencies cover the
+    //requests seen since
+    public record Key(String id, long requests, double requestsPerSecond, double averageLatencyMillis, double maxLatencyMillis) {
+    }
+}
\ No newline at end of file
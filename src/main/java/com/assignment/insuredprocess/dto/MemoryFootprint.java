@@ -0,0 +1,11 @@
+package com.assignment.insuredprocess.dto;
+
+import java.util.Map;
+
+//Estimated retained bytes of one store or index; details holds the counts the estimate is built from
+public record MemoryFootprint(long entries, long estimatedBytes, long averageEntryBytes, Map<String, Number> details) {
+
+    public static MemoryFootprint of(long entries, long estimatedBytes, Map<String, Number> details) {
+        return new MemoryFootprint(entries, estimatedBytes, entries == 0 ? 0 : estimatedBytes / entries, details);
+    }
+}
\ No newline at end of file
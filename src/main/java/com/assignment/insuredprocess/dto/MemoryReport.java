@@ -0,0 +1,6 @@
+package com.assignment.insuredprocess.dto;
+
+import java.util.Map;
+
+public record MemoryReport(long estimatedBytes, Map<String, MemoryFootprint> repositories, Map<String, MemoryFootprint> indexes) {
+}
\ No newline at end of file
@@ -0,0 +1,5 @@
+package com.assignment.insuredprocess.dto;
+
+//One item of a batch update; null fields are left unchanged, like in ProductUpdateRequest
+public record ProductUpdateOrder(String productId, String name, String description) {
+}
\ No newline at end of file
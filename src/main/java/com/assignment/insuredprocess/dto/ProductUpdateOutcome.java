@@ -0,0 +1,16 @@
+package com.assignment.insuredprocess.dto;
+
+public record ProductUpdateOutcome(String productId, String failure) {
+
+    public static ProductUpdateOutcome success(String productId) {
+        return new ProductUpdateOutcome(productId, null);
+    }
+
+    public static ProductUpdateOutcome failure(String productId, String failure) {
+        return new ProductUpdateOutcome(productId, failure);
+    }
+
+    public boolean isSuccess() {
+        return failure == null;
+    }
+}
\ No newline at end of file
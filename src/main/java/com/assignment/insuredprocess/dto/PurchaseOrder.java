@@ -0,0 +1,4 @@
+package com.assignment.insuredprocess.dto;
+
+public record PurchaseOrder(String clientId, String productId) {
+}
\ No newline at end of file
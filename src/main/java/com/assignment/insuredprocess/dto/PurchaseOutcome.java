@@ -0,0 +1,18 @@
+package com.assignment.insuredprocess.dto;
+
+import com.assignment.insuredprocess.model.Product;
+
+public record PurchaseOutcome(Product product, String failure) {
+
+    public static PurchaseOutcome success(Product product) {
+        return new PurchaseOutcome(product, null);
+    }
+
+    public static PurchaseOutcome failure(String failure) {
+        return new PurchaseOutcome(null, failure);
+    }
+
+    public boolean isSuccess() {
+        return failure == null;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.assignment.insuredprocess.event;
+
+import com.assignment.insuredprocess.model.Product;
+
+import java.util.List;
+
+//The complete product catalog after a bulk reload; products that are not listed are gone
+public record CatalogReloaded(List<Product> products) implements DomainEvent {
+}
\ No newline at end of file
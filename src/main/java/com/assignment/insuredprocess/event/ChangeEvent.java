@@ -0,0 +1,13 @@
+package com.assignment.insuredprocess.event;
+
+import java.time.Instant;
+
+//A domain event as stored in the change feed; offsets start at 0 and grow by one per event
+public record ChangeEvent(long offset, String type, Instant timestamp, DomainEvent payload) {
+
+    //Without credentials, for the public feed
+    public ChangeEvent publicView() {
+        DomainEvent view = payload.publicView();
+        return view == payload ? this : new ChangeEvent(offset, type, timestamp, view);
+    }
+}
\ No newline at end of file
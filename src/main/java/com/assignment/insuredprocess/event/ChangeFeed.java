@@ -0,0 +1,119 @@
+package com.assignment.insuredprocess.event;
+
+import com.assignment.insuredprocess.config.ChangeFeedProperties;
+import com.assignment.insuredprocess.dto.ChangeFeedPage;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+//Bounded in-memory log of domain events. Appending only takes a short lock among writers; readers never lock,
+//they walk the ring from their own offset and anything older than capacity events is simply overwritten.
+//A consumer that falls that far behind gets a page flagged as gap instead of slowing the writers down.
+@Component
+public class ChangeFeed implements MeterBinder {
+
+    private final AtomicReferenceArray<ChangeEvent> slots;
+    private final int mask;
+    private final Object appendLock = new Object();
+    private final Set<Thread> waiters = ConcurrentHashMap.newKeySet();
+    private volatile long head;
+
+    public ChangeFeed(ChangeFeedProperties properties) {
+        //rounded up to a power of two so an offset maps to its slot with a mask
+        int capacity = Math.min(properties.capacity(), 1 << 30);
+        this.slots = new AtomicReferenceArray<>(capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1);
+        this.mask = slots.length() - 1;
+    }
+
+    @EventListener
+    public void onDomainEvent(DomainEvent event) {
+        append(event);
+    }
+
+    public ChangeEvent append(DomainEvent event) {
+        ChangeEvent change;
+        synchronized (appendLock) {
+            long offset = head;
+            change = new ChangeEvent(offset, DomainEventTypes.nameOf(event), Instant.now(), event);
+            slots.set((int) (offset & mask), change);
+            head = offset + 1;
+        }
+        if (!waiters.isEmpty()) {
+            waiters.forEach(LockSupport::unpark);
+        }
+        return change;
+    }
+
+    //Offset the next appended event will get
+    public long headOffset() {
+        return head;
+    }
+
+    public long oldestOffset() {
+        return Math.max(0, head - slots.length());
+    }
+
+    //An offset beyond the head (e.g. kept by a consumer across a restart) restarts from the oldest retained event
+    public ChangeFeedPage read(long fromOffset, int limit) {
+        long end = head;
+        long oldest = Math.max(0, end - slots.length());
+        long start = fromOffset > end ? oldest : Math.max(fromOffset, oldest);
+        boolean gap = start != fromOffset;
+        List<ChangeEvent> events = new ArrayList<>((int) Math.min(Math.max(limit, 0), end - start));
+        long next = start;
+        while (next < end && events.size() < limit) {
+            ChangeEvent change = slots.get((int) (next & mask));
+            if (change == null || change.offset() != next) {
+                //lapped by the writers while reading; the next read reports the gap
+                break;
+            }
+            events.add(change);
+            next++;
+        }
+        return new ChangeFeedPage(events, next, oldest, gap);
+    }
+
+    //Parks the caller until an event at or beyond the offset exists; false if the timeout passed first
+    public boolean awaitOffset(long offset, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        Thread current = Thread.currentThread();
+        waiters.add(current);
+        try {
+            long remaining;
+            while (head <= offset) {
+                remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                LockSupport.parkNanos(this, remaining);
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+            return true;
+        } finally {
+            waiters.remove(current);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("insured.changes.head", this, ChangeFeed::headOffset)
+                .description("Offset the next change feed event will get")
+                .register(registry);
+        Gauge.builder("insured.changes.retained", this, feed -> feed.headOffset() - feed.oldestOffset())
+                .description("Events currently held by the change feed ring")
+                .register(registry);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,133 @@
+package com.assignment.insuredprocess.event;
+
+import com.assignment.insuredprocess.config.ChangeFeedProperties;
+import com.assignment.insuredprocess.dto.ChangeFeedPage;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//Server-sent event subscriptions of the change feed. Every subscriber gets its own virtual thread that reads
+//the feed from the subscriber's offset and blocks only on its own connection, so a slow consumer falls behind
+//(and eventually sees a gap event) without ever holding up the writers or the other consumers.
+@Slf4j
+@Component
+public class ChangeFeedStreams implements MeterBinder, DisposableBean {
+
+    private final ChangeFeed changeFeed;
+    private final ChangeFeedProperties properties;
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    //Slots are reserved before a subscription starts and given back when it ends, so the cap holds under concurrent subscribes
+    private final AtomicInteger reservedSlots = new AtomicInteger();
+
+    public ChangeFeedStreams(ChangeFeed changeFeed, ChangeFeedProperties properties) {
+        this.changeFeed = changeFeed;
+        this.properties = properties;
+    }
+
+    //Streams events from fromOffset on; null means only events appended from now
+    public SseEmitter subscribe(Long fromOffset) {
+        if (fromOffset != null && fromOffset < 0) {
+            throw new IllegalArgumentException("Offset must not be negative: " + fromOffset);
+        }
+        if (reservedSlots.incrementAndGet() > properties.maxSubscribers()) {
+            reservedSlots.decrementAndGet();
+            throw new RejectedExecutionException("Too many change feed subscribers");
+        }
+        try {
+            SseEmitter emitter = new SseEmitter(properties.streamTimeout().toMillis());
+            Subscription subscription = new Subscription(emitter, fromOffset != null ? fromOffset : changeFeed.headOffset());
+            subscriptions.add(subscription);
+            emitter.onCompletion(subscription::close);
+            emitter.onTimeout(subscription::close);
+            emitter.onError(failure -> subscription.close());
+            subscription.thread = Thread.ofVirtual().name("change-feed-subscriber").start(() -> pump(subscription));
+            return emitter;
+        } catch (RuntimeException e) {
+            reservedSlots.decrementAndGet();
+            throw e;
+        }
+    }
+
+    public int subscribers() {
+        return subscriptions.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("insured.changes.subscribers", subscriptions, Set::size)
+                .description("Open server-sent event subscriptions of the change feed")
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        subscriptions.forEach(subscription -> {
+            subscription.close();
+            subscription.emitter.complete();
+        });
+    }
+
+    private void pump(Subscription subscription) {
+        long next = subscription.fromOffset;
+        try {
+            while (!subscription.closed) {
+                ChangeFeedPage page = changeFeed.read(next, properties.batchSize());
+                if (page.gap()) {
+                    long resumedAt = page.events().isEmpty() ? page.nextOffset() : page.events().get(0).offset();
+                    subscription.emitter.send(SseEmitter.event()
+                            .name("gap")
+                            .data(Map.of("requestedOffset", next, "resumedAt", resumedAt)));
+                }
+                for (ChangeEvent change : page.events()) {
+                    subscription.emitter.send(SseEmitter.event()
+                            .id(Long.toString(change.offset()))
+                            .name(change.type())
+                            .data(change.publicView()));
+                }
+                next = page.nextOffset();
+                if (page.events().isEmpty() && !changeFeed.awaitOffset(next, properties.heartbeat())) {
+                    //keeps proxies from dropping an idle stream and detects consumers that went away
+                    subscription.emitter.send(SseEmitter.event().comment("heartbeat"));
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Change feed subscriber at offset {} disconnected: {}", next, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            subscriptions.remove(subscription);
+            reservedSlots.decrementAndGet();
+        }
+    }
+
+    private static final class Subscription {
+        private final SseEmitter emitter;
+        private final long fromOffset;
+        private volatile Thread thread;
+        private volatile boolean closed;
+
+        Subscription(SseEmitter emitter, long fromOffset) {
+            this.emitter = emitter;
+            this.fromOffset = fromOffset;
+        }
+
+        void close() {
+            closed = true;
+            Thread current = thread;
+            if (current != null) {
+                current.interrupt();
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.assignment.insuredprocess.event;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+//contactValue is the client's credential: replication and cluster handoff carry it, the public change feed doesn't
+public record ClientCreated(String clientId, String contactType,
+                            @JsonInclude(JsonInclude.Include.NON_NULL) String contactValue) implements DomainEvent {
+
+    @Override
+    public DomainEvent publicView() {
+        return contactValue == null ? this : new ClientCreated(clientId, contactType, null);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,6 @@
+package com.assignment.insuredprocess.event;
+
+//The client moved out of memory into this node's cold tier. Its state is unchanged, so this is no DomainEvent and
+//stays out of the change feed; it only tells in-memory caches to let go of the client
+public record ClientEvicted(String clientId) {
+}
\ No newline at end of file
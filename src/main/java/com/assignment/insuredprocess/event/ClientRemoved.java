@@ -0,0 +1,5 @@
+package com.assignment.insuredprocess.event;
+
+//The client and its portfolio left this node, e.g. because another cluster node owns it now
+public record ClientRemoved(String clientId) implements DomainEvent {
+}
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.assignment.insuredprocess.event;
+
+//State changes published by the services through Spring's ApplicationEventPublisher
+public sealed interface DomainEvent
+        permits ClientCreated, ContactMethodAdded, ClientRemoved, ProductCreated, ProductPurchased, ProductCancelled,
+        ProductUpdated, CatalogReloaded {
+
+    //Form of the event served to change feed consumers, which are not authenticated
+    default DomainEvent publicView() {
+        return this;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,32 @@
+package com.assignment.insuredprocess.event;
+
+import java.util.HashMap;
+import java.util.Map;
+
+//Names the domain events carry outside the JVM (change feed, replication, cluster traffic): the record's
+//simple name, resolved back through the permitted subtypes of DomainEvent
+public final class DomainEventTypes {
+
+    private static final Map<String, Class<? extends DomainEvent>> TYPES = new HashMap<>();
+
+    static {
+        for (Class<?> type : DomainEvent.class.getPermittedSubclasses()) {
+            TYPES.put(type.getSimpleName(), type.asSubclass(DomainEvent.class));
+        }
+    }
+
+    private DomainEventTypes() {
+    }
+
+    public static String nameOf(DomainEvent event) {
+        return event.getClass().getSimpleName();
+    }
+
+    public static Class<? extends DomainEvent> forName(String name) {
+        Class<? extends DomainEvent> type = TYPES.get(name);
+        if (type == null) {
+            throw new IllegalArgumentException("Unknown domain event type: " + name);
+        }
+        return type;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,4 @@
+package com.assignment.insuredprocess.event;
+
+public record ProductCancelled(String clientId, String productId) implements DomainEvent {
+}
\ No newline at end of file
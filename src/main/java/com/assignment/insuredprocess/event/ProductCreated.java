@@ -0,0 +1,4 @@
+package com.assignment.insuredprocess.event;
+
+public record ProductCreated(String productId, String name, String description) implements DomainEvent {
+}
\ No newline at end of file
@@ -0,0 +1,6 @@
+package com.assignment.insuredprocess.event;
+
+import java.time.LocalDateTime;
+
+public record ProductPurchased(String clientId, String productId, LocalDateTime purchaseDate) implements DomainEvent {
+}
\ No newline at end of file
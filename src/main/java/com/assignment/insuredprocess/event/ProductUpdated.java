@@ -0,0 +1,5 @@
+package com.assignment.insuredprocess.event;
+
+//Carries the product state after the update together with the owning client that changed it
+public record ProductUpdated(String productId, String clientId, String name, String description) implements DomainEvent {
+}
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.assignment.insuredprocess.exception;
+
+//A product call whose session token is missing, malformed, expired or issued to another client
+public class SessionRejectedException extends RuntimeException {
+
+    public SessionRejectedException(String message) {
+        super(message);
+    }
+}
\ No newline at end of file
@@ -1,29 +1,88 @@
 package com.assignment.insuredprocess.model;
 
-import lombok.Data;
-import lombok.NoArgsConstructor;
-
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
+
+//Immutable, so stored clients are shared between threads as they are; adding a contact method makes a copy.
+//Almost every client has a single contact method, which is held directly instead of in a list; a client with
+//more keeps them in an exactly sized array.
+public final class Client {
+    private static final ContactMethod[] NONE = new ContactMethod[0];
 
-@Data
-@NoArgsConstructor
-public class Client {
-    private String id;
-    private List<ContactMethod> contactMethods = new ArrayList<>();
+    private final String id;
+    //ContactMethod or ContactMethod[]
+    private final Object contactMethods;
 
     public Client(String id) {
+        this(id, NONE);
+    }
+
+    public Client(String id, ContactMethod contactMethod) {
+        this(id, (Object) Objects.requireNonNull(contactMethod));
+    }
+
+    private Client(String id, Object contactMethods) {
         this.id = id;
-        this.contactMethods = new ArrayList<>();
+        this.contactMethods = contactMethods;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public List<ContactMethod> getContactMethods() {
+        if (contactMethods instanceof ContactMethod single) {
+            return List.of(single);
+        }
+        return Collections.unmodifiableList(Arrays.asList((ContactMethod[]) contactMethods));
+    }
+
+    public int contactMethodCount() {
+        return contactMethods instanceof ContactMethod ? 1 : ((ContactMethod[]) contactMethods).length;
     }
 
-    public void addContactMethod(ContactMethod contactMethod) {
-        this.contactMethods.add(contactMethod);
+    public Client withContactMethod(ContactMethod contactMethod) {
+        Objects.requireNonNull(contactMethod);
+        if (contactMethods instanceof ContactMethod single) {
+            return new Client(id, new ContactMethod[]{single, contactMethod});
+        }
+        ContactMethod[] current = (ContactMethod[]) contactMethods;
+        if (current.length == 0) {
+            return new Client(id, contactMethod);
+        }
+        ContactMethod[] extended = Arrays.copyOf(current, current.length + 1);
+        extended[current.length] = contactMethod;
+        return new Client(id, extended);
     }
 
     //I kept it simple as possible
     public boolean hasContactMethod(String type, String value) {
-        return contactMethods.stream()
-                .anyMatch(contactMethod -> contactMethod.getType().equals(type) && contactMethod.getValue().equals(value));
+        if (contactMethods instanceof ContactMethod single) {
+            return single.matches(type, value);
+        }
+        for (ContactMethod contactMethod : (ContactMethod[]) contactMethods) {
+            if (contactMethod.matches(type, value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Client client && Objects.equals(id, client.id)
+                && getContactMethods().equals(client.getContactMethods());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, getContactMethods());
+    }
+
+    @Override
+    public String toString() {
+        return "Client(id=" + id + ", contactMethods=" + getContactMethods() + ")";
     }
 }
\ No newline at end of file
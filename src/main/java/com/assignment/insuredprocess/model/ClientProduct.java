@@ -1,20 +1,18 @@
 package com.assignment.insuredprocess.model;
 
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Value;
 
 import java.time.LocalDateTime;
 
-@Data
-@NoArgsConstructor
+@Value
+@AllArgsConstructor
 public class ClientProduct {
-    private String clientId;
-    private String productId;
-    private LocalDateTime purchaseDate;
+    String clientId;
+    String productId;
+    LocalDateTime purchaseDate;
 
     public ClientProduct(String clientId, String productId) {
-        this.clientId = clientId;
-        this.productId = productId;
-        this.purchaseDate = LocalDateTime.now();
+        this(clientId, productId, LocalDateTime.now());
     }
 }
\ No newline at end of file
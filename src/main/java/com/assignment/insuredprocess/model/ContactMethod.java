@@ -1,13 +1,41 @@
 package com.assignment.insuredprocess.model;
 
-import lombok.AllArgsConstructor;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import lombok.Value;
 
-@Data
-@AllArgsConstructor
-@NoArgsConstructor
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+//Every contact method of a given type points at one shared type string instead of carrying its own copy from
+//the request that created it. The pool is bounded so free-form types cannot grow it without limit.
+@Value
 public class ContactMethod {
-    private String type;
-    private String value;
+    private static final int MAX_CANONICAL_TYPES = 64;
+    private static final Map<String, String> CANONICAL_TYPES = new ConcurrentHashMap<>(Map.of("email", "email", "phone", "phone"));
+
+    String type;
+    String value;
+
+    public ContactMethod(String type, String value) {
+        this.type = canonicalType(type);
+        this.value = value;
+    }
+
+    public boolean matches(String type, String value) {
+        return this.type != null && this.value != null && this.type.equals(type) && this.value.equals(value);
+    }
+
+    static String canonicalType(String type) {
+        if (type == null) {
+            return null;
+        }
+        String canonical = CANONICAL_TYPES.get(type);
+        if (canonical != null) {
+            return canonical;
+        }
+        if (CANONICAL_TYPES.size() >= MAX_CANONICAL_TYPES) {
+            return type;
+        }
+        canonical = CANONICAL_TYPES.putIfAbsent(type, type);
+        return canonical != null ? canonical : type;
+    }
 }
\ No newline at end of file
@@ -1,14 +1,21 @@
 package com.assignment.insuredprocess.model;
 
-import lombok.AllArgsConstructor;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Value;
 
-@Data
-@AllArgsConstructor
-@NoArgsConstructor
+//Immutable: an update stores a new instance, so readers can hand out the stored one without copying it
+@Value
 public class Product {
-    private String id;
-    private String name;
-    private String description;
+    String id;
+    String name;
+    String description;
+
+    @JsonCreator
+    public Product(@JsonProperty("id") String id, @JsonProperty("name") String name,
+                   @JsonProperty("description") String description) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+    }
 }
\ No newline at end of file
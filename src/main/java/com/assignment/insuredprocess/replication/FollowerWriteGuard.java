@@ -0,0 +1,41 @@
+package com.assignment.insuredprocess.replication;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+
+//A follower only changes through replication, so API writes are turned away before they reach a controller.
+//Authentication is a POST but only reads, so it stays available on replicas.
+@Component
+@ConditionalOnProperty(prefix = "insured-process.replication", name = "role", havingValue = "follower")
+public class FollowerWriteGuard extends OncePerRequestFilter {
+
+    private static final Set<String> READ_METHODS = Set.of(HttpMethod.GET.name(), HttpMethod.HEAD.name(), HttpMethod.OPTIONS.name());
+    private static final String AUTHENTICATE_PATH = "/api/clients/authenticate";
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !path.startsWith("/api/")
+                || READ_METHODS.contains(request.getMethod())
+                || path.equals(AUTHENTICATE_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        response.setStatus(HttpStatus.FORBIDDEN.value());
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.getWriter().write("Read replica: send writes to the replication leader");
+    }
+}
\ No newline at end of file
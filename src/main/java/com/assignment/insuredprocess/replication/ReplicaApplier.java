@@ -0,0 +1,168 @@
+package com.assignment.insuredprocess.replication;
+
+import com.assignment.insuredprocess.event.CatalogReloaded;
+import com.assignment.insuredprocess.event.ClientCreated;
+import com.assignment.insuredprocess.event.ClientRemoved;
+import com.assignment.insuredprocess.event.ContactMethodAdded;
+import com.assignment.insuredprocess.event.DomainEvent;
+import com.assignment.insuredprocess.event.ProductCancelled;
+import com.assignment.insuredprocess.event.ProductCreated;
+import com.assignment.insuredprocess.event.ProductPurchased;
+import com.assignment.insuredprocess.event.ProductUpdated;
+import com.assignment.insuredprocess.model.Client;
+import com.assignment.insuredprocess.model.ClientProduct;
+import com.assignment.insuredprocess.model.ContactMethod;
+import com.assignment.insuredprocess.model.Product;
+import com.assignment.insuredprocess.repository.ClientProductRepository;
+import com.assignment.insuredprocess.repository.ClientRepository;
+import com.assignment.insuredprocess.repository.ProductRepository;
+import com.assignment.insuredprocess.service.AuthenticationCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+//Applies the leader's events to the local repositories. Every event describes the state it leads to (a contact
+//method exists, a product has this name, a client owns a product), so applying one twice or on top of a
+//snapshot that already contains it changes nothing. Events that did change something are published locally,
+//which keeps the follower's portfolio views, search index and own change feed current. A snapshot is applied
+//through beginSnapshot(), which afterwards removes whatever local state the snapshot did not re-create.
+@Component
+@RequiredArgsConstructor
+public class ReplicaApplier {
+
+    private final ClientRepository clientRepository;
+    private final ProductRepository productRepository;
+    private final ClientProductRepository clientProductRepository;
+    private final AuthenticationCache authenticationCache;
+    private final ApplicationEventPublisher eventPublisher;
+
+    //True if the event changed local state
+    public boolean apply(DomainEvent event) {
+        boolean changed = switch (event) {
+            case ClientCreated created -> applyContactMethod(created.clientId(), created.contactType(), created.contactValue());
+            case ContactMethodAdded added -> applyContactMethod(added.clientId(), added.contactType(), added.contactValue());
+            case ClientRemoved removed -> applyRemoval(removed.clientId());
+            case ProductCreated created -> applyProduct(created.productId(), created.name(), created.description());
+            case ProductUpdated updated -> applyProduct(updated.productId(), updated.name(), updated.description());
+            case CatalogReloaded reloaded -> applyCatalog(reloaded.products());
+            case ProductPurchased purchased -> applyPurchase(purchased);
+            case ProductCancelled cancelled ->
+                    clientProductRepository.deleteByClientIdAndProductId(cancelled.clientId(), cancelled.productId());
+        };
+        if (changed) {
+            eventPublisher.publishEvent(event);
+        }
+        return changed;
+    }
+
+    public Snapshot beginSnapshot() {
+        return new Snapshot();
+    }
+
+    private boolean applyContactMethod(String clientId, String contactType, String contactValue) {
+        Client existing = clientRepository.findById(clientId).orElse(null);
+        boolean hasContact = contactType != null && contactValue != null;
+        if (existing != null && (!hasContact || existing.hasContactMethod(contactType, contactValue))) {
+            return false;
+        }
+        Client updated = existing != null ? existing : new Client(clientId);
+        if (hasContact) {
+            updated = updated.withContactMethod(new ContactMethod(contactType, contactValue));
+        }
+        clientRepository.save(updated);
+        authenticationCache.invalidate(clientId);
+        return true;
+    }
+
+    private boolean applyRemoval(String clientId) {
+        boolean removed = clientRepository.deleteById(clientId);
+        clientProductRepository.deleteByClientId(clientId);
+        authenticationCache.invalidate(clientId);
+        return removed;
+    }
+
+    private boolean applyProduct(String productId, String name, String description) {
+        Product existing = productRepository.findById(productId).orElse(null);
+        if (existing != null && Objects.equals(existing.getName(), name) && Objects.equals(existing.getDescription(), description)) {
+            return false;
+        }
+        productRepository.save(new Product(productId, name, description));
+        return true;
+    }
+
+    private boolean applyCatalog(List<Product> products) {
+        List<Product> current = productRepository.findAll();
+        if (current.size() == products.size() && products.stream().allMatch(product -> productRepository.findById(product.getId())
+                .filter(existing -> Objects.equals(existing.getName(), product.getName())
+                        && Objects.equals(existing.getDescription(), product.getDescription()))
+                .isPresent())) {
+            return false;
+        }
+        productRepository.replaceAll(products);
+        return true;
+    }
+
+    private boolean applyPurchase(ProductPurchased purchased) {
+        ClientProduct clientProduct = purchased.purchaseDate() != null
+                ? new ClientProduct(purchased.clientId(), purchased.productId(), purchased.purchaseDate())
+                : new ClientProduct(purchased.clientId(), purchased.productId());
+        return clientProductRepository.saveIfAbsent(clientProduct);
+    }
+
+    //Remembers what the leader's snapshot re-creates while it is applied; finish() then removes the clients,
+    //purchases and products this replica still holds but the leader no longer has
+    public final class Snapshot {
+
+        private final Set<String> clientIds = new HashSet<>();
+        private final Set<String> productIds = new HashSet<>();
+        private final Map<String, Set<String>> ownedProductIds = new HashMap<>();
+
+        private Snapshot() {
+        }
+
+        public boolean apply(DomainEvent event) {
+            switch (event) {
+                case ClientCreated created -> clientIds.add(created.clientId());
+                case ContactMethodAdded added -> clientIds.add(added.clientId());
+                case ProductCreated created -> productIds.add(created.productId());
+                case ProductPurchased purchased ->
+                        ownedProductIds.computeIfAbsent(purchased.clientId(), id -> new HashSet<>()).add(purchased.productId());
+                default -> {
+                }
+            }
+            return ReplicaApplier.this.apply(event);
+        }
+
+        public void finish() {
+            List<String> staleClients = new ArrayList<>();
+            clientRepository.forEach(client -> {
+                if (!clientIds.contains(client.getId())) {
+                    staleClients.add(client.getId());
+                }
+            });
+            staleClients.forEach(clientId -> ReplicaApplier.this.apply(new ClientRemoved(clientId)));
+
+            List<ClientProduct> stalePurchases = new ArrayList<>();
+            clientProductRepository.forEach(row -> {
+                if (!ownedProductIds.getOrDefault(row.getClientId(), Set.of()).contains(row.getProductId())) {
+                    stalePurchases.add(row);
+                }
+            });
+            stalePurchases.forEach(row -> ReplicaApplier.this.apply(new ProductCancelled(row.getClientId(), row.getProductId())));
+
+            List<Product> catalog = productRepository.findAll();
+            List<Product> kept = catalog.stream().filter(product -> productIds.contains(product.getId())).toList();
+            if (kept.size() < catalog.size()) {
+                ReplicaApplier.this.apply(new CatalogReloaded(kept));
+            }
+        }
+    }
+}
\ No newline at end of file
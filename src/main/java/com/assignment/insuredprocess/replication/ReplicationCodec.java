@@ -0,0 +1,62 @@
+package com.assignment.insuredprocess.replication;
+
+import com.assignment.insuredprocess.event.ChangeEvent;
+import com.assignment.insuredprocess.event.DomainEvent;
+import com.assignment.insuredprocess.event.DomainEventTypes;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+//Frames travel as one JSON object per line; event payloads are tagged with the same type name the change feed reports
+final class ReplicationCodec {
+
+    private final ObjectMapper objectMapper;
+
+    ReplicationCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    String encode(ReplicationFrame frame) throws JsonProcessingException {
+        return objectMapper.writeValueAsString(frame);
+    }
+
+    ReplicationFrame decode(String line) throws JsonProcessingException {
+        return objectMapper.readValue(line, ReplicationFrame.class);
+    }
+
+    ReplicationFrame event(ChangeEvent change, long head) {
+        return new ReplicationFrame(ReplicationFrame.Kind.EVENT, change.offset(), head, change.type(), change.timestamp(),
+                objectMapper.valueToTree(change.payload()));
+    }
+
+    ReplicationFrame snapshot(DomainEvent event) {
+        return new ReplicationFrame(ReplicationFrame.Kind.SNAPSHOT, -1, -1, DomainEventTypes.nameOf(event), null,
+                objectMapper.valueToTree(event));
+    }
+
+    DomainEvent payloadOf(ReplicationFrame frame) throws JsonProcessingException {
+        return objectMapper.treeToValue(frame.payload(), DomainEventTypes.forName(frame.type()));
+    }
+
+    //Answer to a leader's challenge; the secret itself never goes over the wire
+    static String proof(String secret, String challenge) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return HexFormat.of().formatHex(mac.doFinal(challenge.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    static boolean verifies(String secret, String challenge, String proof) {
+        return proof != null && MessageDigest.isEqual(proof(secret, challenge).getBytes(StandardCharsets.UTF_8),
+                proof.getBytes(StandardCharsets.UTF_8));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,263 @@
+package com.assignment.insuredprocess.replication;
+
+import com.assignment.insuredprocess.config.ReplicationProperties;
+import com.assignment.insuredprocess.event.DomainEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+//Keeps this instance a read replica of the leader: one thread holds the connection, applies snapshot and
+//event frames in order and reconnects after any failure, asking for the offset after the last applied event.
+//A frame it cannot apply leaves the replica behind the leader, so it drops the connection and asks for a snapshot.
+//Lag is the distance between the leader's head (sent with every frame and heartbeat) and that offset.
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "insured-process.replication", name = "role", havingValue = "follower")
+public class ReplicationFollower implements SmartLifecycle, MeterBinder {
+
+    //missed heartbeats after which a silent connection is considered dead
+    private static final int HEARTBEAT_TOLERANCE = 5;
+
+    private final ReplicaApplier applier;
+    private final ReplicationProperties properties;
+    private final ReplicationCodec codec;
+    private final LongAdder appliedEvents = new LongAdder();
+    private final LongAdder appliedSnapshotItems = new LongAdder();
+    private volatile String epoch;
+    private volatile long nextOffset = -1;
+    private volatile long leaderHead;
+    private volatile Instant lastAppliedAt;
+    private volatile boolean connected;
+    private volatile boolean running;
+    private volatile Socket socket;
+    private volatile Thread worker;
+    //the snapshot being received; only touched by the worker
+    private ReplicaApplier.Snapshot snapshot;
+
+    public ReplicationFollower(ReplicaApplier applier, ReplicationProperties properties, ObjectMapper objectMapper) {
+        this.applier = applier;
+        this.properties = properties;
+        this.codec = new ReplicationCodec(objectMapper);
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    //Leader offset of the next event to apply; -1 until the first snapshot is complete
+    public long nextOffset() {
+        return nextOffset;
+    }
+
+    public long lagEvents() {
+        long next = nextOffset;
+        return next < 0 ? leaderHead : Math.max(0, leaderHead - next);
+    }
+
+    //Age of the last applied event while more are outstanding; 0 when caught up
+    public double lagSeconds() {
+        Instant appliedAt = lastAppliedAt;
+        if (lagEvents() == 0 || appliedAt == null) {
+            return 0;
+        }
+        return Math.max(0, Duration.between(appliedAt, Instant.now()).toNanos() / 1e9);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        worker = Thread.ofPlatform().name("replication-follower").daemon().start(this::followLoop);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        closeSocket();
+        Thread current = worker;
+        if (current != null) {
+            current.interrupt();
+            try {
+                current.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("insured.replication.lag.events", this, ReplicationFollower::lagEvents)
+                .description("Leader events this follower has not applied yet")
+                .register(registry);
+        Gauge.builder("insured.replication.lag.seconds", this, ReplicationFollower::lagSeconds)
+                .description("Age of the last applied leader event while more are outstanding")
+                .register(registry);
+        Gauge.builder("insured.replication.connected", this, follower -> follower.isConnected() ? 1 : 0)
+                .description("1 while this follower is connected to its leader")
+                .register(registry);
+        FunctionCounter.builder("insured.replication.applied", appliedEvents, LongAdder::sum)
+                .description("Replicated frames applied by this follower")
+                .tag("kind", "event")
+                .register(registry);
+        FunctionCounter.builder("insured.replication.applied", appliedSnapshotItems, LongAdder::sum)
+                .description("Replicated frames applied by this follower")
+                .tag("kind", "snapshot")
+                .register(registry);
+    }
+
+    private void followLoop() {
+        while (running) {
+            try {
+                follow();
+            } catch (IOException e) {
+                if (running) {
+                    log.warn("Replication from {}:{} interrupted: {}", properties.leaderHost(), properties.leaderPort(), e.getMessage());
+                }
+            } finally {
+                connected = false;
+                closeSocket();
+            }
+            try {
+                Thread.sleep(properties.reconnectDelay());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void follow() throws IOException {
+        snapshot = null;
+        Socket current = new Socket();
+        socket = current;
+        current.connect(new InetSocketAddress(properties.leaderHost(), properties.leaderPort()),
+                (int) properties.heartbeat().multipliedBy(HEARTBEAT_TOLERANCE).toMillis());
+        current.setSoTimeout((int) properties.heartbeat().multipliedBy(HEARTBEAT_TOLERANCE).toMillis());
+        current.setTcpNoDelay(true);
+        BufferedReader in = new BufferedReader(new InputStreamReader(current.getInputStream(), StandardCharsets.UTF_8));
+        BufferedWriter out = new BufferedWriter(new OutputStreamWriter(current.getOutputStream(), StandardCharsets.UTF_8));
+        out.write(codec.encode(ReplicationFrame.hello(epoch, nextOffset, -1)));
+        out.write('\n');
+        out.flush();
+
+        ReplicationFrame hello = readFrame(in);
+        if (hello.kind() != ReplicationFrame.Kind.HELLO) {
+            throw new IOException("Expected HELLO from the leader, got " + hello.kind());
+        }
+        if (hello.payload() == null || !hello.payload().isTextual()) {
+            throw new IOException("The leader sent no authentication challenge");
+        }
+        out.write(codec.encode(ReplicationFrame.auth(ReplicationCodec.proof(properties.secret(), hello.payload().asText()))));
+        out.write('\n');
+        out.flush();
+        if (!hello.type().equals(epoch)) {
+            log.info("Following leader {} at {}:{}", hello.type(), properties.leaderHost(), properties.leaderPort());
+            epoch = hello.type();
+            nextOffset = -1;
+        }
+        leaderHead = hello.head();
+        connected = true;
+        while (running) {
+            apply(readFrame(in));
+        }
+    }
+
+    private void apply(ReplicationFrame frame) throws IOException {
+        switch (frame.kind()) {
+            case SNAPSHOT -> {
+                nextOffset = -1;
+                if (snapshot == null) {
+                    snapshot = applier.beginSnapshot();
+                }
+                applyPayload(frame, snapshot::apply);
+                appliedSnapshotItems.increment();
+            }
+            case SNAPSHOT_END -> {
+                //an empty leader sends no SNAPSHOT frame at all, which still has to empty this replica
+                ReplicaApplier.Snapshot received = snapshot != null ? snapshot : applier.beginSnapshot();
+                snapshot = null;
+                try {
+                    received.finish();
+                } catch (RuntimeException e) {
+                    throw resync(frame, e);
+                }
+                nextOffset = frame.offset();
+                leaderHead = frame.head();
+            }
+            case EVENT -> {
+                if (frame.offset() < nextOffset) {
+                    return;
+                }
+                if (frame.offset() != nextOffset) {
+                    throw new IOException("Replication stream jumped from offset " + nextOffset + " to " + frame.offset());
+                }
+                applyPayload(frame, applier::apply);
+                appliedEvents.increment();
+                lastAppliedAt = frame.timestamp();
+                leaderHead = Math.max(frame.head(), frame.offset() + 1);
+                nextOffset = frame.offset() + 1;
+            }
+            case HEARTBEAT -> leaderHead = frame.head();
+            case HELLO, AUTH -> throw new IOException("Unexpected " + frame.kind() + " from the leader");
+        }
+    }
+
+    private void applyPayload(ReplicationFrame frame, Predicate<DomainEvent> target) throws IOException {
+        try {
+            target.test(codec.payloadOf(frame));
+        } catch (IOException | RuntimeException e) {
+            throw resync(frame, e);
+        }
+    }
+
+    //Streaming on would build on a state that misses this frame; the next connection starts over from a snapshot
+    private IOException resync(ReplicationFrame frame, Exception cause) {
+        log.error("Applying replicated {} at offset {} failed, resyncing from a snapshot", frame.kind(), frame.offset(), cause);
+        nextOffset = -1;
+        return new IOException("Applying a replicated " + frame.kind() + " frame failed", cause);
+    }
+
+    private ReplicationFrame readFrame(BufferedReader in) throws IOException {
+        String line = in.readLine();
+        if (line == null) {
+            throw new IOException("Leader closed the connection");
+        }
+        return codec.decode(line);
+    }
+
+    private void closeSocket() {
+        Socket current = socket;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException e) {
+                //already gone
+            }
+        }
+    }
+}
\ No newline at end of file
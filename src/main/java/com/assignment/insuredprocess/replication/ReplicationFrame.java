@@ -0,0 +1,33 @@
+package com.assignment.insuredprocess.replication;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+
+import java.time.Instant;
+
+//One line of the replication protocol (newline-delimited JSON over TCP).
+//HELLO: follower -> leader with the epoch it last synced with (type) and the next offset it needs (offset, -1 for none);
+//       leader -> follower with its own epoch (type), head and a one-off challenge (payload).
+//AUTH: follower -> leader with the HMAC of the challenge under the shared secret (type); nothing else is sent before it.
+//SNAPSHOT: one domain event re-creating existing state, SNAPSHOT_END: the offset the stream continues from.
+//EVENT: one change feed event, HEARTBEAT: nothing new, only the leader's head.
+record ReplicationFrame(Kind kind, long offset, long head, String type, Instant timestamp, JsonNode payload) {
+
+    enum Kind { HELLO, AUTH, SNAPSHOT, SNAPSHOT_END, EVENT, HEARTBEAT }
+
+    static ReplicationFrame hello(String epoch, long offset, long head) {
+        return new ReplicationFrame(Kind.HELLO, offset, head, epoch, null, null);
+    }
+
+    static ReplicationFrame challenge(String epoch, long head, String challenge) {
+        return new ReplicationFrame(Kind.HELLO, -1, head, epoch, null, TextNode.valueOf(challenge));
+    }
+
+    static ReplicationFrame auth(String proof) {
+        return new ReplicationFrame(Kind.AUTH, -1, -1, proof, null, null);
+    }
+
+    static ReplicationFrame heartbeat(long head) {
+        return new ReplicationFrame(Kind.HEARTBEAT, -1, head, null, Instant.now(), null);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,262 @@
+package com.assignment.insuredprocess.replication;
+
+import com.assignment.insuredprocess.config.ReplicationProperties;
+import com.assignment.insuredprocess.dto.ChangeFeedPage;
+import com.assignment.insuredprocess.event.ChangeEvent;
+import com.assignment.insuredprocess.event.ChangeFeed;
+import com.assignment.insuredprocess.event.ClientCreated;
+import com.assignment.insuredprocess.event.ContactMethodAdded;
+import com.assignment.insuredprocess.event.DomainEvent;
+import com.assignment.insuredprocess.event.ProductCreated;
+import com.assignment.insuredprocess.event.ProductPurchased;
+import com.assignment.insuredprocess.model.ContactMethod;
+import com.assignment.insuredprocess.repository.ClientProductRepository;
+import com.assignment.insuredprocess.repository.ClientRepository;
+import com.assignment.insuredprocess.repository.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+//Serves the change feed to followers over TCP. A follower that asks for an offset the feed still holds gets
+//the events from there; any other follower (new, lapped by the ring, or synced with an earlier run of this
+//leader) first gets a snapshot of the repositories expressed as events, then the feed from the head offset
+//taken before the snapshot started. Events in between may already be part of the snapshot; followers apply
+//them idempotently. Each follower is served by its own virtual thread and never slows down the writers.
+//A follower gets nothing but the leader's HELLO until it has answered that HELLO's challenge with the shared secret.
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "insured-process.replication", name = "role", havingValue = "leader")
+public class ReplicationLeader implements SmartLifecycle, MeterBinder {
+
+    //missed heartbeats after which a follower that has not answered the challenge is dropped
+    private static final int HEARTBEAT_TOLERANCE = 5;
+
+    private final ChangeFeed changeFeed;
+    private final ClientRepository clientRepository;
+    private final ProductRepository productRepository;
+    private final ClientProductRepository clientProductRepository;
+    private final ReplicationProperties properties;
+    private final ReplicationCodec codec;
+    private final String epoch = UUID.randomUUID().toString();
+    private final SecureRandom random = new SecureRandom();
+    private final Set<Socket> followers = ConcurrentHashMap.newKeySet();
+    private volatile ServerSocket serverSocket;
+    private volatile boolean running;
+
+    public ReplicationLeader(ChangeFeed changeFeed, ClientRepository clientRepository, ProductRepository productRepository,
+                             ClientProductRepository clientProductRepository, ReplicationProperties properties,
+                             ObjectMapper objectMapper) {
+        this.changeFeed = changeFeed;
+        this.clientRepository = clientRepository;
+        this.productRepository = productRepository;
+        this.clientProductRepository = clientProductRepository;
+        this.properties = properties;
+        this.codec = new ReplicationCodec(objectMapper);
+    }
+
+    //Port followers connect to; differs from the configured one when that was 0
+    public int port() {
+        ServerSocket current = serverSocket;
+        return current != null ? current.getLocalPort() : -1;
+    }
+
+    public int followers() {
+        return followers.size();
+    }
+
+    @Override
+    public void start() {
+        try {
+            ServerSocket socket = new ServerSocket();
+            socket.setReuseAddress(true);
+            socket.bind(new InetSocketAddress(properties.bindAddress(), properties.port()));
+            serverSocket = socket;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot listen for replication followers on "
+                    + properties.bindAddress() + ":" + properties.port(), e);
+        }
+        running = true;
+        Thread.ofPlatform().name("replication-leader").daemon().start(this::acceptLoop);
+        log.info("Replication leader {} listening on {}:{}", epoch, properties.bindAddress(), port());
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        ServerSocket current = serverSocket;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException e) {
+                log.debug("Closing the replication listener failed: {}", e.getMessage());
+            }
+        }
+        followers.forEach(ReplicationLeader::closeQuietly);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("insured.replication.followers", followers, Set::size)
+                .description("Followers currently connected to this replication leader")
+                .register(registry);
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket follower = serverSocket.accept();
+                follower.setTcpNoDelay(true);
+                follower.setSoTimeout((int) properties.heartbeat().multipliedBy(HEARTBEAT_TOLERANCE).toMillis());
+                followers.add(follower);
+                Thread.ofVirtual().name("replication-follower-" + follower.getRemoteSocketAddress()).start(() -> serve(follower));
+            } catch (IOException e) {
+                if (running) {
+                    log.warn("Accepting a replication follower failed: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void serve(Socket follower) {
+        try (follower;
+             BufferedReader in = new BufferedReader(new InputStreamReader(follower.getInputStream(), StandardCharsets.UTF_8));
+             BufferedWriter out = new BufferedWriter(new OutputStreamWriter(follower.getOutputStream(), StandardCharsets.UTF_8))) {
+            String helloLine = in.readLine();
+            if (helloLine == null) {
+                return;
+            }
+            ReplicationFrame hello = codec.decode(helloLine);
+            long next = hello.offset();
+            byte[] challengeBytes = new byte[32];
+            random.nextBytes(challengeBytes);
+            String challenge = HexFormat.of().formatHex(challengeBytes);
+            write(out, ReplicationFrame.challenge(epoch, changeFeed.headOffset(), challenge));
+            String authLine = in.readLine();
+            ReplicationFrame auth = authLine != null ? codec.decode(authLine) : null;
+            if (auth == null || auth.kind() != ReplicationFrame.Kind.AUTH
+                    || !ReplicationCodec.verifies(properties.secret(), challenge, auth.type())) {
+                log.warn("Replication follower {} failed to authenticate", follower.getRemoteSocketAddress());
+                return;
+            }
+            if (!epoch.equals(hello.type()) || next < changeFeed.oldestOffset() || next > changeFeed.headOffset()) {
+                next = sendSnapshot(out);
+            }
+            log.info("Replication follower {} streaming from offset {}", follower.getRemoteSocketAddress(), next);
+            stream(out, next);
+        } catch (IOException e) {
+            log.info("Replication follower {} disconnected: {}", follower.getRemoteSocketAddress(), e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            followers.remove(follower);
+        }
+    }
+
+    private void stream(Writer out, long from) throws IOException, InterruptedException {
+        long next = from;
+        while (running) {
+            ChangeFeedPage page = changeFeed.read(next, properties.batchSize());
+            if (page.gap()) {
+                //the ring overwrote events this follower has not seen yet
+                next = sendSnapshot(out);
+                continue;
+            }
+            List<ChangeEvent> events = page.events();
+            if (events.isEmpty()) {
+                if (!changeFeed.awaitOffset(next, properties.heartbeat())) {
+                    write(out, ReplicationFrame.heartbeat(changeFeed.headOffset()));
+                }
+                continue;
+            }
+            long head = changeFeed.headOffset();
+            for (ChangeEvent change : events) {
+                out.write(codec.encode(codec.event(change, head)));
+                out.write('\n');
+            }
+            out.flush();
+            next = page.nextOffset();
+        }
+    }
+
+    //Returns the offset the feed continues from; retried if the ring laps that offset while the snapshot is sent
+    private long sendSnapshot(Writer out) throws IOException {
+        while (true) {
+            long from = changeFeed.headOffset();
+            long[] items = new long[1];
+            try {
+                productRepository.findAll().forEach(product -> items[0] += send(out,
+                        new ProductCreated(product.getId(), product.getName(), product.getDescription())));
+                clientRepository.forEach(client -> {
+                    List<ContactMethod> contactMethods = client.getContactMethods();
+                    ContactMethod first = contactMethods.isEmpty() ? new ContactMethod(null, null) : contactMethods.get(0);
+                    items[0] += send(out, new ClientCreated(client.getId(), first.getType(), first.getValue()));
+                    for (ContactMethod additional : contactMethods.subList(Math.min(1, contactMethods.size()), contactMethods.size())) {
+                        items[0] += send(out, new ContactMethodAdded(client.getId(), additional.getType(), additional.getValue()));
+                    }
+                });
+                clientProductRepository.forEach(row -> items[0] += send(out,
+                        new ProductPurchased(row.getClientId(), row.getProductId(), row.getPurchaseDate())));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            if (changeFeed.oldestOffset() <= from) {
+                write(out, new ReplicationFrame(ReplicationFrame.Kind.SNAPSHOT_END, from, changeFeed.headOffset(), null, null, null));
+                log.info("Sent a replication snapshot of {} items, continuing from offset {}", items[0], from);
+                return from;
+            }
+            log.warn("Change feed lapped offset {} while a replication snapshot was sent, sending another", from);
+        }
+    }
+
+    private int send(Writer out, DomainEvent event) {
+        try {
+            out.write(codec.encode(codec.snapshot(event)));
+            out.write('\n');
+            return 1;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void write(Writer out, ReplicationFrame frame) throws IOException {
+        out.write(codec.encode(frame));
+        out.write('\n');
+        out.flush();
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            //already gone
+        }
+    }
+}
\ No newline at end of file
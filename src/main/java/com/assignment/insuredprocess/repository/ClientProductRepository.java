@@ -1,35 +1,379 @@
 package com.assignment.insuredprocess.repository;
 
+import com.assignment.insuredprocess.config.StorageProperties;
+import com.assignment.insuredprocess.diagnostics.MemoryEstimates;
+import com.assignment.insuredprocess.dto.MemoryFootprint;
 import com.assignment.insuredprocess.model.ClientProduct;
-import com.assignment.insuredprocess.model.Product;
 import org.springframework.stereotype.Repository;
 
+import java.util.AbstractSet;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 
 @Repository
 public class ClientProductRepository {
-    private final List<ClientProduct> clientProducts = new ArrayList<>();
+    private final Shards<Holdings> holdingsByClient;
+    private volatile ClientWarmup warmup = ClientWarmup.NONE;
+    private volatile ClientTier tier = ClientTier.NONE;
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder estimatedBytes = new LongAdder();
+
+    public ClientProductRepository(StorageProperties storageProperties) {
+        this.holdingsByClient = new Shards<>(storageProperties.shards());
+    }
 
     public ClientProduct save(ClientProduct clientProduct) {
-        clientProducts.add(clientProduct);
+        String clientId = clientProduct.getClientId();
+        ClientTier.Pin pin = tier.pin(clientId);
+        try {
+            holdingsByClient.forKey(clientId).compute(clientId, (id, holdings) ->
+                    account(holdings, (holdings == null ? Holdings.EMPTY : holdings).with(clientProduct)));
+        } finally {
+            pin.release();
+        }
         return clientProduct;
     }
 
+    //Ownership check and insert happen in one step on the owning shard, so concurrent buys of the same product can't both win
+    public boolean saveIfAbsent(ClientProduct clientProduct) {
+        String clientId = clientProduct.getClientId();
+        boolean[] inserted = new boolean[1];
+        ClientTier.Pin pin = tier.pin(clientId);
+        try {
+            holdingsByClient.forKey(clientId).compute(clientId, (id, holdings) -> {
+                Holdings current = holdings == null ? Holdings.EMPTY : holdings;
+                if (current.owns(clientProduct.getProductId())) {
+                    return holdings;
+                }
+                inserted[0] = true;
+                return account(holdings, current.with(clientProduct));
+            });
+        } finally {
+            pin.release();
+        }
+        return inserted[0];
+    }
+
+    //Batch variant of saveIfAbsent: rows of the same client are applied in one compute(), so the client's
+    //snapshot is rebuilt once per batch instead of once per row. The result holds one flag per input row.
+    public List<Boolean> saveAllIfAbsent(List<ClientProduct> clientProducts) {
+        Boolean[] inserted = new Boolean[clientProducts.size()];
+        Map<String, List<Integer>> indexesByClient = new LinkedHashMap<>();
+        for (int i = 0; i < clientProducts.size(); i++) {
+            indexesByClient.computeIfAbsent(clientProducts.get(i).getClientId(), id -> new ArrayList<>()).add(i);
+        }
+        indexesByClient.forEach((clientId, indexes) -> {
+            ClientTier.Pin pin = tier.pin(clientId);
+            try {
+                holdingsByClient.forKey(clientId).compute(clientId, (id, holdings) -> {
+                    Holdings current = holdings == null ? Holdings.EMPTY : holdings;
+                    List<ClientProduct> additions = new ArrayList<>();
+                    Set<String> added = new HashSet<>();
+                    for (int index : indexes) {
+                        ClientProduct clientProduct = clientProducts.get(index);
+                        boolean fresh = !current.owns(clientProduct.getProductId()) && added.add(clientProduct.getProductId());
+                        inserted[index] = fresh;
+                        if (fresh) {
+                            additions.add(clientProduct);
+                        }
+                    }
+                    return additions.isEmpty() ? holdings : account(holdings, current.withAll(additions));
+                });
+            } finally {
+                pin.release();
+            }
+        });
+        return Arrays.asList(inserted);
+    }
+
     public List<ClientProduct> findByClientId(String clientId) {
-        return clientProducts.stream()
-                .filter(clientProduct -> clientProduct.getClientId().equals(clientId))
-                .collect(Collectors.toList());
+        Holdings holdings = holdingsOf(clientId);
+        return holdings == null ? List.of() : holdings.rows();
     }
 
     public boolean existsByClientIdAndProductId(String clientId, String productId) {
-        return clientProducts.stream()
-                .anyMatch(clientProduct -> clientProduct.getClientId().equals(clientId) && clientProduct.getProductId().equals(productId));
+        Holdings holdings = holdingsOf(clientId);
+        return holdings != null && holdings.owns(productId);
+    }
+
+    //Ids of the products the client owns, from one snapshot; the set is shared and must not be modified
+    public Set<String> findProductIdsByClientId(String clientId) {
+        Holdings holdings = holdingsOf(clientId);
+        return holdings == null ? Set.of() : holdings.productIds();
+    }
+
+    //True if the client owned the product
+    public boolean deleteByClientIdAndProductId(String clientId, String productId) {
+        if (clientId == null) {
+            return false;
+        }
+        boolean[] removed = new boolean[1];
+        ClientTier.Pin pin = tier.pin(clientId);
+        try {
+            holdingsByClient.forKey(clientId).computeIfPresent(clientId, (id, holdings) -> {
+                removed[0] = holdings.owns(productId);
+                return account(holdings, holdings.without(productId));
+            });
+        } finally {
+            pin.release();
+        }
+        return removed[0];
+    }
+
+    //Visits every ownership row, those of cold clients included, without warming up any pending clients. Rows of
+    //a client that moves back into memory during the visit may be seen twice.
+    public void forEach(Consumer<ClientProduct> action) {
+        tier.visit(coldClient -> coldClient.rows().forEach(action),
+                () -> holdingsByClient.forEachValue(holdings -> holdings.rows().forEach(action)));
+    }
+
+    //Clients holding at least one product, in memory and in the cold tier
+    public long countClients() {
+        return holdingsByClient.size() + tier.coldHolders();
+    }
+
+    public void deleteByClientId(String clientId) {
+        if (clientId != null) {
+            ClientTier.Pin pin = tier.pin(clientId);
+            try {
+                account(holdingsByClient.forKey(clientId).remove(clientId), null);
+            } finally {
+                pin.release();
+            }
+        }
+    }
+
+    //Ownership rows in memory and their estimated size, kept up to date by every write
+    public MemoryFootprint memoryFootprint() {
+        long clients = holdingsByClient.size();
+        long ownershipRows = rows.sum();
+        return MemoryFootprint.of(ownershipRows, estimatedBytes.sum(), Map.of("clients", clients,
+                "rowsPerClient", clients == 0 ? 0.0 : (double) ownershipRows / clients));
+    }
+
+    public void setWarmup(ClientWarmup warmup) {
+        this.warmup = warmup;
+    }
+
+    void setTier(ClientTier tier) {
+        this.tier = tier;
+    }
+
+    List<ClientProduct> hotRows(String clientId) {
+        Holdings holdings = holdingsByClient.forKey(clientId).get(clientId);
+        return holdings == null ? List.of() : holdings.rows();
+    }
+
+    //Moves between the tiers, called by the tier under the client's lock
+    void evict(String clientId) {
+        account(holdingsByClient.forKey(clientId).remove(clientId), null);
+    }
+
+    //Writes move a cold client back before they touch it, so there is nothing in memory to merge with
+    void restore(String clientId, List<ClientProduct> rows) {
+        if (!rows.isEmpty()) {
+            holdingsByClient.forKey(clientId).computeIfAbsent(clientId, id -> account(null, Holdings.EMPTY.withAll(rows)));
+        }
     }
 
-    //Preparation for additional functionality
-    public void deleteByClientIdAndProductId(String clientId, String productId) {
-        clientProducts.removeIf(clientProduct -> clientProduct.getClientId().equals(clientId) && clientProduct.getProductId().equals(productId));
+    //Called inside compute() with the snapshot being replaced and its replacement, so every change is counted once
+    private Holdings account(Holdings before, Holdings after) {
+        if (before != after) {
+            rows.add(Holdings.sizeOf(after) - Holdings.sizeOf(before));
+            estimatedBytes.add(Holdings.bytesOf(after) - Holdings.bytesOf(before));
+        }
+        return after;
+    }
+
+    private Holdings holdingsOf(String clientId) {
+        if (clientId == null) {
+            return null;
+        }
+        Holdings holdings = holdingsByClient.forKey(clientId).get(clientId);
+        if (holdings != null) {
+            tier.recordAccess(clientId);
+            return holdings;
+        }
+        if (warmup.warmUp(clientId) && (holdings = holdingsByClient.forKey(clientId).get(clientId)) != null) {
+            return holdings;
+        }
+        //Looks in memory once more: the client may have moved back between the first look and the cold one
+        Optional<ClientTier.ColdClient> coldClient = tier.readCold(clientId);
+        if (coldClient.isEmpty()) {
+            return holdingsByClient.forKey(clientId).get(clientId);
+        }
+        List<ClientProduct> rows = coldClient.get().rows();
+        return rows.isEmpty() ? null : Holdings.EMPTY.withAll(rows);
+    }
+
+    //Immutable per-client snapshot: readers get the published instance as-is, writers replace it inside compute().
+    //Successive snapshots of a client share one append-only Rows store and each sees its first `size` rows, so a
+    //purchase appends in amortised O(1) instead of copying the whole portfolio; removals rebuild the store.
+    private static final class Holdings {
+        static final Holdings EMPTY = new Holdings(new Rows(0), 0, 0);
+
+        private final Rows store;
+        private final int size;
+        //Products among the rows; a product bought twice has two rows
+        private final int distinct;
+        private final List<ClientProduct> rows;
+        private final Set<String> productIds;
+
+        private Holdings(Rows store, int size, int distinct) {
+            this.store = store;
+            this.size = size;
+            this.distinct = distinct;
+            this.rows = Collections.unmodifiableList(Arrays.asList(store.rows).subList(0, size));
+            this.productIds = new ProductIds(this);
+        }
+
+        static int sizeOf(Holdings holdings) {
+            return holdings == null ? 0 : holdings.size;
+        }
+
+        //Ids are shared with the client and product stores; each row brings its purchase timestamp and index entry.
+        //The store is shared with older snapshots, which are no longer referenced once replaced.
+        static long bytesOf(Holdings holdings) {
+            if (holdings == null) {
+                return 0;
+            }
+            int size = holdings.size;
+            return MemoryEstimates.HASH_ENTRY + MemoryEstimates.object(4, 8) + 4 * MemoryEstimates.object(2, 4)
+                    + MemoryEstimates.object(2, 4) + MemoryEstimates.array(holdings.store.rows.length, MemoryEstimates.REFERENCE)
+                    + MemoryEstimates.hashSet(size, false) + size * MemoryEstimates.object(0, 4)
+                    + size * (MemoryEstimates.object(3, 0) + MemoryEstimates.LOCAL_DATE_TIME);
+        }
+
+        List<ClientProduct> rows() {
+            return rows;
+        }
+
+        //Shared view, must not be modified
+        Set<String> productIds() {
+            return productIds;
+        }
+
+        boolean owns(String productId) {
+            Integer position = store.positions.get(productId);
+            return position != null && position < size;
+        }
+
+        Holdings with(ClientProduct clientProduct) {
+            return withAll(List.of(clientProduct));
+        }
+
+        //Appends in place when this is the newest snapshot of its store and there is room, otherwise moves the
+        //rows to a store of twice the size
+        Holdings withAll(List<ClientProduct> clientProducts) {
+            int newSize = size + clientProducts.size();
+            Rows target = store;
+            if (store.used != size || store.rows.length < newSize) {
+                target = new Rows(Math.max(4, 2 * newSize));
+                target.append(rows);
+            }
+            target.append(clientProducts);
+            int added = 0;
+            for (int position = target.nextFirst(size, newSize); position < newSize; position = target.nextFirst(position + 1, newSize)) {
+                added++;
+            }
+            return new Holdings(target, newSize, distinct + added);
+        }
+
+        Holdings without(String productId) {
+            if (!owns(productId)) {
+                return this;
+            }
+            List<ClientProduct> remaining = rows.stream()
+                    .filter(clientProduct -> !clientProduct.getProductId().equals(productId))
+                    .toList();
+            if (remaining.isEmpty()) {
+                return null;
+            }
+            Rows target = new Rows(remaining.size());
+            target.append(remaining);
+            return new Holdings(target, remaining.size(), distinct - 1);
+        }
+    }
+
+    //Written only by the compute() that replaces the newest snapshot; older snapshots never read past their size
+    private static final class Rows {
+        final ClientProduct[] rows;
+        final ConcurrentHashMap<String, Integer> positions;
+        int used;
+
+        Rows(int capacity) {
+            this.rows = new ClientProduct[capacity];
+            this.positions = new ConcurrentHashMap<>(Math.max(1, capacity));
+        }
+
+        void append(List<ClientProduct> clientProducts) {
+            for (ClientProduct clientProduct : clientProducts) {
+                //The first row of a product keeps its position, so older snapshots that hold it still find it
+                rows[used] = clientProduct;
+                positions.putIfAbsent(clientProduct.getProductId(), used++);
+            }
+        }
+
+        //The first position at or after from, and before to, that holds the first row of its product; to if none
+        int nextFirst(int from, int to) {
+            int position = from;
+            while (position < to && positions.get(rows[position].getProductId()) != position) {
+                position++;
+            }
+            return position;
+        }
+    }
+
+    private static final class ProductIds extends AbstractSet<String> {
+        private final Holdings holdings;
+
+        ProductIds(Holdings holdings) {
+            this.holdings = holdings;
+        }
+
+        @Override
+        public boolean contains(Object productId) {
+            return productId instanceof String id && holdings.owns(id);
+        }
+
+        //Walks the snapshot's rows and yields each product at its first row, so no set of seen ids is built
+        @Override
+        public Iterator<String> iterator() {
+            return new Iterator<>() {
+                private int position = holdings.store.nextFirst(0, holdings.size);
+
+                @Override
+                public boolean hasNext() {
+                    return position < holdings.size;
+                }
+
+                @Override
+                public String next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    String productId = holdings.store.rows[position].getProductId();
+                    position = holdings.store.nextFirst(position + 1, holdings.size);
+                    return productId;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return holdings.distinct;
+        }
     }
 }
\ No newline at end of file
@@ -1,26 +1,224 @@
 package com.assignment.insuredprocess.repository;
 
+import com.assignment.insuredprocess.config.IdFilterProperties;
+import com.assignment.insuredprocess.config.StorageProperties;
+import com.assignment.insuredprocess.diagnostics.MemoryEstimates;
+import com.assignment.insuredprocess.dto.MemoryFootprint;
 import com.assignment.insuredprocess.model.Client;
+import com.assignment.insuredprocess.model.ContactMethod;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import org.springframework.stereotype.Repository;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
 
 @Repository
-public class ClientRepository {
-    private final Map<String, Client> clients = new HashMap<>();
+public class ClientRepository implements MeterBinder {
+    private final Shards<Client> clients;
+    private final IdFilter knownIds;
+    private volatile ClientWarmup warmup = ClientWarmup.NONE;
+    private volatile ClientTier tier = ClientTier.NONE;
+    private final LongAdder estimatedBytes = new LongAdder();
+    private final LongAdder contactMethods = new LongAdder();
 
+    public ClientRepository(StorageProperties storageProperties, IdFilterProperties idFilterProperties) {
+        this.clients = new Shards<>(storageProperties.shards());
+        this.knownIds = IdFilter.forClients(idFilterProperties);
+    }
+
+    //Ids enter the filter before the client becomes visible, so a reader that finds the client never gets a "no" from it
     public Client save(Client client) {
-        clients.put(client.getId(), client);
+        knownIds.add(client.getId());
+        ClientTier.Pin pin = tier.pin(client.getId());
+        try {
+            account(clients.forKey(client.getId()).put(client.getId(), client), client);
+        } finally {
+            pin.release();
+        }
         return client;
     }
 
+    //Atomic within the owning shard, so two concurrent creates of the same id cannot both succeed
+    public boolean saveIfAbsent(Client client) {
+        knownIds.add(client.getId());
+        ClientTier.Pin pin = tier.pin(client.getId());
+        try {
+            if (clients.forKey(client.getId()).putIfAbsent(client.getId(), client) != null) {
+                return false;
+            }
+            account(null, client);
+            return true;
+        } finally {
+            pin.release();
+        }
+    }
+
+    //Atomic read-modify-write within the owning shard, so concurrent changes of one client all land; empty if the client isn't stored
+    public Optional<Client> update(String id, UnaryOperator<Client> change) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        if (!clients.forKey(id).containsKey(id)) {
+            warmup.warmUp(id);
+        }
+        ClientTier.Pin pin = tier.pin(id);
+        try {
+            return Optional.ofNullable(clients.forKey(id).computeIfPresent(id, (key, current) -> {
+                Client updated = change.apply(current);
+                account(current, updated);
+                return updated;
+            }));
+        } finally {
+            pin.release();
+        }
+    }
+
     public Optional<Client> findById(String id) {
-        return Optional.ofNullable(clients.get(id));
+        if (id == null) {
+            return Optional.empty();
+        }
+        Client client = clients.forKey(id).get(id);
+        if (client != null) {
+            tier.recordAccess(id);
+            return Optional.of(client);
+        }
+        if (warmup.warmUp(id) && (client = clients.forKey(id).get(id)) != null) {
+            return Optional.of(client);
+        }
+        //Looks in memory once more: the client may have moved back between the first look and the cold one
+        return tier.readCold(id).map(ClientTier.ColdClient::client).or(() -> Optional.ofNullable(clients.forKey(id).get(id)));
     }
 
     public boolean existsById(String id) {
-        return clients.containsKey(id);
+        if (!contains(id)) {
+            return false;
+        }
+        tier.recordAccess(id);
+        return true;
+    }
+
+    //Presence that doesn't count as an access of the client, for callers whose next read of it counts already
+    public boolean contains(String id) {
+        if (id == null) {
+            return false;
+        }
+        return clients.forKey(id).containsKey(id) || warmup.warmUp(id) && clients.forKey(id).containsKey(id)
+                || tier.isCold(id) || clients.forKey(id).containsKey(id);
+    }
+
+    //Held in memory right now; with the cold tier off that is every stored client
+    public boolean isInMemory(String id) {
+        return id != null && clients.forKey(id).containsKey(id);
+    }
+
+    //True only when the client was never stored here; answered from the id filter without touching the shards.
+    //Clients of a pending warm-up are not in the filter yet, so nothing is ruled out until the warm-up is done.
+    public boolean isDefinitelyAbsent(String id) {
+        return id == null || warmup == ClientWarmup.NONE && !knownIds.mightContain(id);
+    }
+
+    //In memory and in the cold tier
+    public long count() {
+        return clients.size() + tier.coldClients();
+    }
+
+    //True if the client was stored on this node
+    public boolean deleteById(String id) {
+        if (id == null) {
+            return false;
+        }
+        ClientTier.Pin pin = tier.pin(id);
+        try {
+            Client removed = clients.forKey(id).remove(id);
+            account(removed, null);
+            return removed != null;
+        } finally {
+            pin.release();
+        }
+    }
+
+    //Visits the stored clients, cold ones included, without warming up any pending ones. A client that moves
+    //back into memory during the visit may be seen twice.
+    public void forEach(Consumer<Client> action) {
+        tier.visit(coldClient -> action.accept(coldClient.client()), () -> clients.forEachValue(action));
+    }
+
+    //Kept up to date by every write, so reading it costs nothing however many clients are stored
+    //Clients in memory only; cold ones cost their cold tier index entry
+    public MemoryFootprint memoryFootprint() {
+        long stored = clients.size();
+        long methods = contactMethods.sum();
+        return MemoryFootprint.of(stored, estimatedBytes.sum(), Map.of("contactMethods", methods,
+                "contactMethodsPerClient", stored == 0 ? 0.0 : (double) methods / stored));
+    }
+
+    public MemoryFootprint idFilterFootprint() {
+        return knownIds.footprint(count());
+    }
+
+    public void setWarmup(ClientWarmup warmup) {
+        this.warmup = warmup;
+    }
+
+    void setTier(ClientTier tier) {
+        this.tier = tier;
+    }
+
+    long hotCount() {
+        return clients.size();
+    }
+
+    Client hot(String id) {
+        return clients.forKey(id).get(id);
+    }
+
+    void forEachHot(Consumer<Client> action) {
+        clients.forEachValue(action);
+    }
+
+    //Moves between the tiers, called by the tier under the client's lock; the id stays in the filter
+    void evict(String id) {
+        account(clients.forKey(id).remove(id), null);
+    }
+
+    void restore(Client client) {
+        if (clients.forKey(client.getId()).putIfAbsent(client.getId(), client) == null) {
+            account(null, client);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        IdFilter.bindTo(registry, "clients", () -> knownIds);
+    }
+
+    //Stored clients are replaced rather than modified, so the replaced instance still has the size it was counted with
+    private void account(Client before, Client after) {
+        if (before != after) {
+            estimatedBytes.add(bytesOf(after) - bytesOf(before));
+            contactMethods.add(contactMethodsOf(after) - contactMethodsOf(before));
+        }
+    }
+
+    private static long bytesOf(Client client) {
+        if (client == null) {
+            return 0;
+        }
+        //A single contact method is referenced directly, more sit in an exact-size array; type strings are shared
+        int count = client.contactMethodCount();
+        long bytes = MemoryEstimates.HASH_ENTRY + MemoryEstimates.object(2, 0) + MemoryEstimates.string(client.getId())
+                + (count == 1 ? 0 : MemoryEstimates.array(count, MemoryEstimates.REFERENCE));
+        for (ContactMethod contactMethod : client.getContactMethods()) {
+            bytes += MemoryEstimates.object(2, 0) + MemoryEstimates.string(contactMethod.getValue());
+        }
+        return bytes;
+    }
+
+    private static int contactMethodsOf(Client client) {
+        return client == null ? 0 : client.contactMethodCount();
     }
 }
\ No newline at end of file
@@ -0,0 +1,80 @@
+package com.assignment.insuredprocess.repository;
+
+import com.assignment.insuredprocess.model.Client;
+import com.assignment.insuredprocess.model.ClientProduct;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+//Hook of the client and ownership stores into a cold tier that holds clients moved out of memory
+public interface ClientTier {
+
+    ClientTier NONE = new ClientTier() {
+        @Override
+        public void recordAccess(String clientId) {
+        }
+
+        @Override
+        public Optional<ColdClient> readCold(String clientId) {
+            return Optional.empty();
+        }
+
+        @Override
+        public boolean isCold(String clientId) {
+            return false;
+        }
+
+        @Override
+        public Pin pin(String clientId) {
+            return Pin.NONE;
+        }
+
+        @Override
+        public long coldClients() {
+            return 0;
+        }
+
+        @Override
+        public long coldHolders() {
+            return 0;
+        }
+
+        @Override
+        public void visit(Consumer<ColdClient> coldPass, Runnable hotPass) {
+            hotPass.run();
+        }
+    };
+
+    //Cheap, called on every lookup of a client held in memory
+    void recordAccess(String clientId);
+
+    //On a miss: the client's cold copy, which is moved back into memory if it is read often enough
+    Optional<ColdClient> readCold(String clientId);
+
+    //Existence check of a missed client that neither reads its record nor counts as an access
+    boolean isCold(String clientId);
+
+    //Held around every write to a client: brings a cold client back first and keeps it in memory until released
+    Pin pin(String clientId);
+
+    long coldClients();
+
+    //Cold clients owning at least one product
+    long coldHolders();
+
+    //Runs the cold pass and then the hot pass with no client moved out in between, so a client that moves back
+    //during the visit is seen twice at worst, never missed
+    void visit(Consumer<ColdClient> coldPass, Runnable hotPass);
+
+    @FunctionalInterface
+    interface Pin {
+        Pin NONE = () -> {
+        };
+
+        void release();
+    }
+
+    record ColdClient(Client client, List<ClientProduct> rows) {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,312 @@
+package com.assignment.insuredprocess.repository;
+
+import com.assignment.insuredprocess.config.ColdTierProperties;
+import com.assignment.insuredprocess.event.ClientEvicted;
+import com.assignment.insuredprocess.model.Client;
+import com.assignment.insuredprocess.model.ClientProduct;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+//Keeps at most maxHotClients clients (with their ownership rows) in memory and moves the least frequently used
+//rest to a ColdStore file. A sweeper evicts in the background, so hot reads and writes never wait for the disk.
+//A miss on a cold client reads its record; the client moves back into memory once its access frequency reaches
+//admissionFrequency (a one-off read of a dormant client doesn't push out an active one), and always before a
+//write. Each client's moves take its stripe's write lock, every write to it holds the read lock (see pin).
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "insured-process.storage.cold-tier", name = "enabled", havingValue = "true")
+public class ClientTiering implements ClientTier, MeterBinder, SmartLifecycle, DisposableBean {
+
+    private static final int STRIPES = 1024;
+    private static final int FREQUENCIES = 16;
+    //Hooked into the stores before the web server (DEFAULT_PHASE - 2048) takes writes, unhooked after it stopped
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+    private final ClientRepository clients;
+    private final ClientProductRepository clientProducts;
+    private final ColdStore cold;
+    private final FrequencySketch frequencies;
+    private final ReentrantReadWriteLock[] stripes = new ReentrantReadWriteLock[STRIPES];
+    //Held by the sweeper and by visit(), so no client moves out while the stores are visited
+    private final ReentrantLock sweepLock = new ReentrantLock();
+    private final int maxHotClients;
+    private final int admissionFrequency;
+    private final long compactionThreshold;
+    private final long sweepIntervalMillis;
+    private final ApplicationEventPublisher eventPublisher;
+    private volatile ScheduledExecutorService sweeper;
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder admissions = new LongAdder();
+    private final LongAdder coldReads = new LongAdder();
+
+    public ClientTiering(ClientRepository clients, ClientProductRepository clientProducts, ColdTierProperties properties,
+                         ApplicationEventPublisher eventPublisher) {
+        this.clients = clients;
+        this.clientProducts = clientProducts;
+        this.cold = new ColdStore(directoryOf(properties));
+        this.frequencies = new FrequencySketch(properties.maxHotClients());
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantReadWriteLock();
+        }
+        this.maxHotClients = properties.maxHotClients();
+        this.admissionFrequency = properties.admissionFrequency();
+        this.compactionThreshold = properties.compactionThreshold().toBytes();
+        this.sweepIntervalMillis = properties.sweepInterval().toMillis();
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public void start() {
+        clients.setTier(this);
+        clientProducts.setTier(this);
+        sweeper = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("client-tiering").daemon().factory());
+        sweeper.scheduleWithFixedDelay(this::sweepQuietly, sweepIntervalMillis, sweepIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    //Cold clients stay in the file until destroy(), so the stores keep the tier hooked in and only sweeping stops
+    @Override
+    public void stop() {
+        ScheduledExecutorService current = sweeper;
+        sweeper = null;
+        if (current != null) {
+            current.shutdownNow();
+            try {
+                current.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return sweeper != null;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    @Override
+    public void recordAccess(String clientId) {
+        frequencies.increment(clientId);
+    }
+
+    @Override
+    public Optional<ColdClient> readCold(String clientId) {
+        if (!cold.contains(clientId)) {
+            return Optional.empty();
+        }
+        frequencies.increment(clientId);
+        if (frequencies.frequency(clientId) >= admissionFrequency) {
+            return admit(clientId);
+        }
+        coldReads.increment();
+        return cold.read(clientId);
+    }
+
+    @Override
+    public boolean isCold(String clientId) {
+        return cold.contains(clientId);
+    }
+
+    @Override
+    public Pin pin(String clientId) {
+        frequencies.increment(clientId);
+        ReentrantReadWriteLock.ReadLock lock = stripeOf(clientId).readLock();
+        while (true) {
+            lock.lock();
+            if (!cold.contains(clientId)) {
+                return lock::unlock;
+            }
+            lock.unlock();
+            admit(clientId);
+        }
+    }
+
+    @Override
+    public long coldClients() {
+        return cold.size();
+    }
+
+    @Override
+    public long coldHolders() {
+        return cold.holders();
+    }
+
+    @Override
+    public void visit(Consumer<ColdClient> coldPass, Runnable hotPass) {
+        sweepLock.lock();
+        try {
+            cold.forEach(coldPass);
+            hotPass.run();
+        } finally {
+            sweepLock.unlock();
+        }
+    }
+
+    //Evicts the least frequently used clients down to 90% of maxHotClients, then compacts the file if it is
+    //mostly garbage. Runs on the sweeper thread; tests call it directly.
+    void sweep() {
+        sweepLock.lock();
+        try {
+            long excess = clients.hotCount() - (maxHotClients - maxHotClients / 10);
+            if (clients.hotCount() > maxHotClients && excess > 0) {
+                evictColdest((int) Math.min(excess, Integer.MAX_VALUE));
+            }
+            long garbage = cold.garbageBytes();
+            if (garbage >= compactionThreshold && garbage * 2 >= cold.fileBytes()) {
+                cold.compact();
+            }
+        } finally {
+            sweepLock.unlock();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("insured.storage.clients", clients, ClientRepository::hotCount)
+                .description("Clients held in memory (hot) and in the cold file")
+                .tag("tier", "hot")
+                .register(registry);
+        Gauge.builder("insured.storage.clients", cold, ColdStore::size)
+                .description("Clients held in memory (hot) and in the cold file")
+                .tag("tier", "cold")
+                .register(registry);
+        FunctionCounter.builder("insured.storage.tier.moves", evictions, LongAdder::sum)
+                .description("Clients moved between memory and the cold file")
+                .tag("direction", "out")
+                .register(registry);
+        FunctionCounter.builder("insured.storage.tier.moves", admissions, LongAdder::sum)
+                .description("Clients moved between memory and the cold file")
+                .tag("direction", "in")
+                .register(registry);
+        FunctionCounter.builder("insured.storage.tier.cold.reads", coldReads, LongAdder::sum)
+                .description("Reads served from the cold file without moving the client back into memory")
+                .register(registry);
+        Gauge.builder("insured.storage.tier.file.bytes", cold, ColdStore::fileBytes)
+                .description("Size of the cold file, including records of clients that moved back")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        stop();
+        clients.setTier(ClientTier.NONE);
+        clientProducts.setTier(ClientTier.NONE);
+        cold.close();
+    }
+
+    private void sweepQuietly() {
+        try {
+            sweep();
+        } catch (RuntimeException e) {
+            log.error("Client tiering sweep failed", e);
+        }
+    }
+
+    //Two passes over the hot clients: a frequency histogram picks the cutoff, the second pass evicts below it
+    private void evictColdest(int count) {
+        long[] histogram = new long[FREQUENCIES];
+        clients.forEachHot(client -> histogram[frequencies.frequency(client.getId())]++);
+        int cutoff = 0;
+        long below = 0;
+        while (cutoff < FREQUENCIES - 1 && below + histogram[cutoff] < count) {
+            below += histogram[cutoff++];
+        }
+        long atCutoff = count - below;
+        int finalCutoff = cutoff;
+        List<String> victims = new ArrayList<>(count);
+        long[] takenAtCutoff = new long[1];
+        clients.forEachHot(client -> {
+            int frequency = frequencies.frequency(client.getId());
+            if (frequency < finalCutoff || frequency == finalCutoff && takenAtCutoff[0]++ < atCutoff) {
+                victims.add(client.getId());
+            }
+        });
+        int evicted = 0;
+        for (String clientId : victims) {
+            if (evict(clientId)) {
+                evicted++;
+            }
+        }
+        log.debug("Moved {} of {} clients to the cold file (frequency cutoff {})", evicted, victims.size(), finalCutoff);
+    }
+
+    //Skips clients that are being written right now; the next sweep gets them
+    private boolean evict(String clientId) {
+        ReentrantReadWriteLock.WriteLock lock = stripeOf(clientId).writeLock();
+        if (!lock.tryLock()) {
+            return false;
+        }
+        try {
+            Client client = clients.hot(clientId);
+            if (client == null) {
+                return false;
+            }
+            List<ClientProduct> rows = clientProducts.hotRows(clientId);
+            //The record is indexed before the client leaves memory, so a reader always finds it in one of the two
+            if (!cold.append(client, rows)) {
+                return false;
+            }
+            clientProducts.evict(clientId);
+            clients.evict(clientId);
+            evictions.increment();
+            //Once the client is out of memory: a view built from here on sees it cold, an earlier one is dropped
+            eventPublisher.publishEvent(new ClientEvicted(clientId));
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Optional<ColdClient> admit(String clientId) {
+        ReentrantReadWriteLock.WriteLock lock = stripeOf(clientId).writeLock();
+        lock.lock();
+        try {
+            Optional<ColdClient> coldClient = cold.read(clientId);
+            coldClient.ifPresent(moved -> {
+                //Back in memory before the record is dropped, for the same reason as in evict()
+                clientProducts.restore(clientId, moved.rows());
+                clients.restore(moved.client());
+                cold.remove(moved);
+                admissions.increment();
+            });
+            return coldClient;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ReentrantReadWriteLock stripeOf(String clientId) {
+        return stripes[Shards.indexFor(clientId, STRIPES)];
+    }
+
+    private static Path directoryOf(ColdTierProperties properties) {
+        return properties.directory().isBlank()
+                ? Path.of(System.getProperty("java.io.tmpdir"), "insured-process")
+                : Path.of(properties.directory());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.assignment.insuredprocess.repository;
+
+//Hook for stores that are still being filled in the background: on a miss the repositories ask it to load
+//whatever part of the data set owns the client, then look again
+@FunctionalInterface
+public interface ClientWarmup {
+
+    ClientWarmup NONE = clientId -> false;
+
+    //Returns true when the client's data may have been loaded by this call and the lookup is worth repeating
+    boolean warmUp(String clientId);
+}
\ No newline at end of file
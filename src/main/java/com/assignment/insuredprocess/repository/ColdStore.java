@@ -0,0 +1,285 @@
+package com.assignment.insuredprocess.repository;
+
+import com.assignment.insuredprocess.model.Client;
+import com.assignment.insuredprocess.model.ClientProduct;
+import com.assignment.insuredprocess.model.ContactMethod;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+//Append-only file of evicted clients. A client's record holds its contact methods and ownership rows; the
+//in-memory index maps the id to the record's offset and length, so a read is one positional read. Records
+//of clients that moved back into memory become garbage, and compact() rewrites the live ones to a new file
+//once there is enough of it.
+final class ColdStore implements AutoCloseable {
+
+    private static final int LENGTH_BITS = 24;
+    static final int MAX_RECORD_BYTES = (1 << LENGTH_BITS) - 1;
+
+    private final Path directory;
+    private final Map<String, Long> index = new ConcurrentHashMap<>();
+    private final AtomicLong holders = new AtomicLong();
+    private final AtomicLong garbageBytes = new AtomicLong();
+    //Reads take the read side; compaction swaps the file under the write side
+    private final ReadWriteLock fileLock = new ReentrantReadWriteLock();
+    private Path file;
+    private FileChannel channel;
+    //Written by the sweeper under the read side, read by fileBytes() without a lock
+    private volatile long end;
+
+    ColdStore(Path directory) {
+        this.directory = directory;
+        try {
+            Files.createDirectories(directory);
+            this.file = Files.createTempFile(directory, "cold-clients-", ".log");
+            this.channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create the cold client file in " + directory, e);
+        }
+    }
+
+    boolean contains(String clientId) {
+        return index.containsKey(clientId);
+    }
+
+    long size() {
+        return index.size();
+    }
+
+    //Cold clients owning at least one product
+    long holders() {
+        return holders.get();
+    }
+
+    long fileBytes() {
+        return end;
+    }
+
+    long garbageBytes() {
+        return garbageBytes.get();
+    }
+
+    //Single writer: only the sweeper appends. False if the record is too large to be indexed.
+    boolean append(Client client, List<ClientProduct> rows) {
+        byte[] record = encode(client, rows);
+        if (record.length > MAX_RECORD_BYTES) {
+            return false;
+        }
+        fileLock.readLock().lock();
+        try {
+            long offset = end;
+            writeFully(channel, ByteBuffer.wrap(record), offset);
+            end = offset + record.length;
+            index.put(client.getId(), offset << LENGTH_BITS | record.length);
+        } finally {
+            fileLock.readLock().unlock();
+        }
+        if (!rows.isEmpty()) {
+            holders.incrementAndGet();
+        }
+        return true;
+    }
+
+    Optional<ClientTier.ColdClient> read(String clientId) {
+        fileLock.readLock().lock();
+        try {
+            Long location = index.get(clientId);
+            return location == null ? Optional.empty() : Optional.of(readAt(location));
+        } finally {
+            fileLock.readLock().unlock();
+        }
+    }
+
+    //Drops the client's record after it moved back into memory. Holds the read side so it never runs during a
+    //compaction, which would otherwise write the record's new location back after the removal
+    void remove(ClientTier.ColdClient coldClient) {
+        fileLock.readLock().lock();
+        try {
+            Long location = index.remove(coldClient.client().getId());
+            if (location != null) {
+                garbageBytes.addAndGet(location & MAX_RECORD_BYTES);
+                if (!coldClient.rows().isEmpty()) {
+                    holders.decrementAndGet();
+                }
+            }
+        } finally {
+            fileLock.readLock().unlock();
+        }
+    }
+
+    void forEach(Consumer<ClientTier.ColdClient> action) {
+        for (String clientId : index.keySet()) {
+            read(clientId).ifPresent(action);
+        }
+    }
+
+    //Called by the sweeper only, so no append runs concurrently; the write side keeps removals out as well
+    void compact() {
+        fileLock.writeLock().lock();
+        try {
+            Path compacted = Files.createTempFile(directory, "cold-clients-", ".log");
+            long written = 0;
+            try (FileChannel target = FileChannel.open(compacted, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                for (Map.Entry<String, Long> entry : index.entrySet()) {
+                    long location = entry.getValue();
+                    int length = (int) (location & MAX_RECORD_BYTES);
+                    ByteBuffer record = ByteBuffer.allocate(length);
+                    readFully(channel, record, location >>> LENGTH_BITS);
+                    record.flip();
+                    writeFully(target, record, written);
+                    entry.setValue(written << LENGTH_BITS | length);
+                    written += length;
+                }
+            }
+            channel.close();
+            Files.delete(file);
+            file = compacted;
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            end = written;
+            garbageBytes.set(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Compacting the cold client file failed", e);
+        } finally {
+            fileLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        fileLock.writeLock().lock();
+        try {
+            channel.close();
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Closing the cold client file failed", e);
+        } finally {
+            fileLock.writeLock().unlock();
+        }
+    }
+
+    private ClientTier.ColdClient readAt(long location) {
+        ByteBuffer record = ByteBuffer.allocate((int) (location & MAX_RECORD_BYTES));
+        try {
+            readFully(channel, record, location >>> LENGTH_BITS);
+            return decode(record.array());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Reading the cold client file failed", e);
+        }
+    }
+
+    static byte[] encode(Client client, List<ClientProduct> rows) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + rows.size() * 24);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeString(out, client.getId());
+            out.writeInt(client.contactMethodCount());
+            for (ContactMethod contactMethod : client.getContactMethods()) {
+                writeNullable(out, contactMethod.getType());
+                writeNullable(out, contactMethod.getValue());
+            }
+            out.writeInt(rows.size());
+            for (ClientProduct row : rows) {
+                writeString(out, row.getProductId());
+                LocalDateTime purchaseDate = row.getPurchaseDate();
+                out.writeBoolean(purchaseDate != null);
+                if (purchaseDate != null) {
+                    out.writeLong(purchaseDate.toEpochSecond(ZoneOffset.UTC));
+                    out.writeInt(purchaseDate.getNano());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static ClientTier.ColdClient decode(byte[] record) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(record))) {
+            String clientId = readString(in);
+            Client client = new Client(clientId);
+            for (int i = in.readInt(); i > 0; i--) {
+                client = client.withContactMethod(new ContactMethod(readNullable(in), readNullable(in)));
+            }
+            int rowCount = in.readInt();
+            List<ClientProduct> rows = new ArrayList<>(rowCount);
+            for (int i = 0; i < rowCount; i++) {
+                String productId = readString(in);
+                LocalDateTime purchaseDate = in.readBoolean()
+                        ? LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC)
+                        : null;
+                rows.add(new ClientProduct(clientId, productId, purchaseDate));
+            }
+            return new ClientTier.ColdClient(client, rows);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Corrupt cold client record", e);
+        }
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            writeString(out, value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? readString(in) : null;
+    }
+
+    //Length-prefixed UTF-8 rather than writeUTF, which refuses strings over 64 KB
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > in.available()) {
+            throw new IOException("Cold client record holds a string of " + length + " bytes past its end");
+        }
+        return new String(in.readNBytes(length), StandardCharsets.UTF_8);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) {
+        try {
+            long at = position;
+            while (buffer.hasRemaining()) {
+                at += channel.write(buffer, at);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Writing the cold client file failed", e);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long at = position;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, at);
+            if (read < 0) {
+                throw new IOException("Cold client record ends past the end of the file");
+            }
+            at += read;
+        }
+    }
+}
\ No newline at end of file
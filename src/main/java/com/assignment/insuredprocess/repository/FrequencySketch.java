@@ -0,0 +1,60 @@
+package com.assignment.insuredprocess.repository;
+
+//Approximate access counts per client id, capped at 15 and halved every sampleSize accesses so that old
+//popularity fades. Increments are plain, racy writes: a lost update only makes an estimate slightly low,
+//and the hot path pays no atomic operation.
+final class FrequencySketch {
+
+    private static final int DEPTH = 4;
+    //Wide enough that small tiers don't mistake collisions for popularity
+    private static final int MIN_WIDTH = 4096;
+    private static final int MAX_FREQUENCY = 15;
+
+    private final int[] counters;
+    private final int mask;
+    private final long sampleSize;
+    private long accesses;
+
+    FrequencySketch(int expectedKeys) {
+        int width = Integer.highestOneBit(Math.max(MIN_WIDTH, expectedKeys) - 1) << 1;
+        this.counters = new int[width * DEPTH];
+        this.mask = width - 1;
+        this.sampleSize = 10L * width;
+    }
+
+    void increment(String key) {
+        int hash = spread(key);
+        int step = (hash >>> 16) | 1;
+        for (int row = 0; row < DEPTH; row++) {
+            int index = row * (mask + 1) + ((hash + row * step) & mask);
+            if (counters[index] < MAX_FREQUENCY) {
+                counters[index]++;
+            }
+        }
+        if (++accesses >= sampleSize) {
+            age();
+        }
+    }
+
+    int frequency(String key) {
+        int hash = spread(key);
+        int step = (hash >>> 16) | 1;
+        int frequency = MAX_FREQUENCY;
+        for (int row = 0; row < DEPTH; row++) {
+            frequency = Math.min(frequency, counters[row * (mask + 1) + ((hash + row * step) & mask)]);
+        }
+        return frequency;
+    }
+
+    private void age() {
+        accesses = 0;
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] >>>= 1;
+        }
+    }
+
+    private static int spread(String key) {
+        int hash = key.hashCode() * 0x9E3779B9;
+        return hash ^ (hash >>> 15);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,159 @@
+package com.assignment.insuredprocess.repository;
+
+import com.assignment.insuredprocess.config.IdFilterProperties;
+import com.assignment.insuredprocess.dto.MemoryFootprint;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+//Bloom filter over the ids a repository has stored: "no" is definite, "yes" means look it up. Sized for the
+//expected number of ids at the configured false positive rate, capped by the memory budget (a tighter budget
+//or more ids than expected only raise the false positive rate). Bits are set with a CAS on their word and
+//never cleared, so adds from any thread are safe and removed ids merely stay possible positives.
+public final class IdFilter {
+
+    private static final IdFilter DISABLED = new IdFilter(null, 0, new LongAdder(), new LongAdder());
+    private static final int MAX_HASHES = 16;
+
+    private final AtomicLongArray words;
+    private final long bits;
+    private final int hashes;
+    private final LongAdder setBits = new LongAdder();
+    private final LongAdder rejected;
+    private final LongAdder passed;
+
+    private IdFilter(AtomicLongArray words, int hashes, LongAdder rejected, LongAdder passed) {
+        this.words = words;
+        this.bits = words == null ? 0 : (long) words.length() * Long.SIZE;
+        this.hashes = hashes;
+        this.rejected = rejected;
+        this.passed = passed;
+    }
+
+    public static IdFilter forClients(IdFilterProperties properties) {
+        return properties.enabled() ? sized(properties.expectedClients(), properties.falsePositiveRate(), properties.maxMemory().toBytes()) : DISABLED;
+    }
+
+    public static IdFilter forProducts(IdFilterProperties properties) {
+        return properties.enabled() ? sized(properties.expectedProducts(), properties.falsePositiveRate(), properties.maxMemory().toBytes()) : DISABLED;
+    }
+
+    static IdFilter sized(long expectedIds, double falsePositiveRate, long maxBytes) {
+        double optimalBits = -expectedIds * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        long maxWords = Math.min(Integer.MAX_VALUE - 8, maxBytes / Long.BYTES);
+        int wordCount = (int) Math.max(1, Math.min(maxWords, (long) Math.ceil(optimalBits / Long.SIZE)));
+        long bits = (long) wordCount * Long.SIZE;
+        int hashes = (int) Math.max(1, Math.min(MAX_HASHES, Math.round((double) bits / expectedIds * Math.log(2))));
+        return new IdFilter(new AtomicLongArray(wordCount), hashes, new LongAdder(), new LongAdder());
+    }
+
+    //An empty filter of the same size that keeps counting checks where this one left off, for rebuilding the
+    //filter of a replaced id set
+    IdFilter emptyCopy() {
+        return words == null ? DISABLED : new IdFilter(new AtomicLongArray(words.length()), hashes, rejected, passed);
+    }
+
+    void add(String id) {
+        if (words == null) {
+            return;
+        }
+        long first = hash(id);
+        long second = mix(first ^ 0xC2B2AE3D27D4EB4FL) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = ((first + i * second) & Long.MAX_VALUE) % bits;
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = words.get(word);
+            while ((current & mask) == 0) {
+                if (words.compareAndSet(word, current, current | mask)) {
+                    setBits.increment();
+                    break;
+                }
+                current = words.get(word);
+            }
+        }
+    }
+
+    boolean mightContain(String id) {
+        if (words == null) {
+            return true;
+        }
+        long first = hash(id);
+        long second = mix(first ^ 0xC2B2AE3D27D4EB4FL) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = ((first + i * second) & Long.MAX_VALUE) % bits;
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                rejected.increment();
+                return false;
+            }
+        }
+        passed.increment();
+        return true;
+    }
+
+    //Probability that an id never added passes, given how many bits are set by now
+    public double estimatedFalsePositiveRate() {
+        return words == null ? 1 : Math.pow(setBits.sum() / (double) bits, hashes);
+    }
+
+    public long memoryBytes() {
+        return bits / Byte.SIZE;
+    }
+
+    //ids is the size of the id set the filter covers
+    MemoryFootprint footprint(long ids) {
+        if (words == null) {
+            return MemoryFootprint.of(0, 0, Map.of());
+        }
+        return MemoryFootprint.of(ids, memoryBytes(), Map.of("hashes", hashes, "bitsSet", setBits.sum(),
+                "estimatedFalsePositiveRate", estimatedFalsePositiveRate()));
+    }
+
+    //Meters follow whichever filter the supplier currently returns
+    static void bindTo(MeterRegistry registry, String filter, Supplier<IdFilter> current) {
+        IdFilter initial = current.get();
+        if (initial.words == null) {
+            return;
+        }
+        LongAdder rejected = initial.rejected;
+        LongAdder passed = initial.passed;
+        FunctionCounter.builder("insured.id.filter.checks", rejected, LongAdder::sum)
+                .description("Id lookups answered by the id filter (rejected) or passed on to the store")
+                .tags("filter", filter, "result", "rejected")
+                .register(registry);
+        FunctionCounter.builder("insured.id.filter.checks", passed, LongAdder::sum)
+                .description("Id lookups answered by the id filter (rejected) or passed on to the store")
+                .tags("filter", filter, "result", "passed")
+                .register(registry);
+        Gauge.builder("insured.id.filter.false.positive.rate", current, filters -> filters.get().estimatedFalsePositiveRate())
+                .description("Estimated share of unknown ids the id filter lets through")
+                .tag("filter", filter)
+                .register(registry);
+        Gauge.builder("insured.id.filter.memory", current, filters -> filters.get().memoryBytes())
+                .description("Size of the id filter bit set")
+                .tag("filter", filter)
+                .baseUnit(BaseUnits.BYTES)
+                .register(registry);
+    }
+
+    //64-bit FNV-1a over the characters, finished with the murmur3 mixer so nearby ids spread over the bit set
+    private static long hash(String id) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < id.length(); i++) {
+            hash = (hash ^ id.charAt(i)) * 0x100000001B3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xFF51AFD7ED558CCDL;
+        value = (value ^ (value >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return value ^ (value >>> 33);
+    }
+}
\ No newline at end of file
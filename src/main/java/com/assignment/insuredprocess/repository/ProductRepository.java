@@ -1,32 +1,125 @@
 package com.assignment.insuredprocess.repository;
 
+import com.assignment.insuredprocess.config.IdFilterProperties;
+import com.assignment.insuredprocess.diagnostics.MemoryEstimates;
+import com.assignment.insuredprocess.dto.MemoryFootprint;
 import com.assignment.insuredprocess.model.Product;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import org.springframework.stereotype.Repository;
 
-import java.util.HashMap;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+//The catalog is a ConcurrentHashMap behind a volatile reference: readers never lock, and a single product write
+//is one put into the current map, so its cost doesn't grow with the catalog. A bulk reload builds a fresh map
+//off to the side and swaps the reference, so readers see the old catalog or the new one and never a mix. The
+//reload holds the write side of swapLock and single writes the read side, so no write lands in a dropped map.
 @Repository
-public class ProductRepository {
-    private final Map<String, Product> products = new HashMap<>();
+public class ProductRepository implements MeterBinder {
+    private volatile ConcurrentHashMap<String, Product> products = new ConcurrentHashMap<>();
+    //Bloom filter over the catalog ids, rebuilt with every reload so dropped products stop passing it
+    private volatile IdFilter knownIds;
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+    //Estimated size of the current catalog, maintained by the writers
+    private final LongAdder estimatedBytes = new LongAdder();
+
+    public ProductRepository(IdFilterProperties idFilterProperties) {
+        this.knownIds = IdFilter.forProducts(idFilterProperties);
+    }
 
     public Product save(Product product) {
-        products.put(product.getId(), product);
+        swapLock.readLock().lock();
+        try {
+            put(product);
+        } finally {
+            swapLock.readLock().unlock();
+        }
         return product;
     }
 
+    //Readers may see a batch partly applied; every product in it is whole
+    public void saveAll(Collection<Product> batch) {
+        swapLock.readLock().lock();
+        try {
+            batch.forEach(this::put);
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    public void replaceAll(Collection<Product> catalog) {
+        ConcurrentHashMap<String, Product> next = new ConcurrentHashMap<>(Math.max(16, catalog.size() * 4 / 3 + 1));
+        catalog.forEach(product -> next.put(product.getId(), product));
+        long nextBytes = next.values().stream().mapToLong(ProductRepository::bytesOf).sum();
+        swapLock.writeLock().lock();
+        try {
+            estimatedBytes.reset();
+            estimatedBytes.add(nextBytes);
+            IdFilter filter = knownIds.emptyCopy();
+            next.keySet().forEach(filter::add);
+            knownIds = filter;
+            products = next;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+    }
+
     public Optional<Product> findById(String id) {
+        if (id == null) {
+            return Optional.empty();
+        }
         return Optional.ofNullable(products.get(id));
     }
 
     //Preparation for additional functionality
     public List<Product> findAll() {
-        return products.values().stream().toList();
+        return List.copyOf(products.values());
     }
 
     public boolean existsById(String id) {
-        return products.containsKey(id);
+        return id != null && products.containsKey(id);
+    }
+
+    //True only when the product is not in the catalog; answered from the id filter without touching the catalog
+    public boolean isDefinitelyAbsent(String id) {
+        return id == null || !knownIds.mightContain(id);
+    }
+
+    public long count() {
+        return products.size();
+    }
+
+    public MemoryFootprint memoryFootprint() {
+        return MemoryFootprint.of(count(), estimatedBytes.sum(), Map.of());
+    }
+
+    public MemoryFootprint idFilterFootprint() {
+        return knownIds.footprint(count());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        IdFilter.bindTo(registry, "products", () -> knownIds);
+    }
+
+    private void put(Product product) {
+        knownIds.add(product.getId());
+        estimatedBytes.add(bytesOf(product) - bytesOf(products.put(product.getId(), product)));
+    }
+
+    //One table entry per product, plus the product and its strings
+    private static long bytesOf(Product product) {
+        if (product == null) {
+            return 0;
+        }
+        return MemoryEstimates.HASH_ENTRY + MemoryEstimates.object(3, 0) + MemoryEstimates.string(product.getId())
+                + MemoryEstimates.string(product.getName()) + MemoryEstimates.string(product.getDescription());
     }
 }
\ No newline at end of file
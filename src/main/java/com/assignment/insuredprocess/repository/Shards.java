@@ -0,0 +1,45 @@
+package com.assignment.insuredprocess.repository;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+//Fixed set of maps partitioned by clientId hash. Each shard is its own ConcurrentHashMap, so writes to
+//different clients never share a table resize or counter cell and reads never take a lock.
+final class Shards<V> {
+
+    private final ConcurrentHashMap<String, V>[] partitions;
+
+    Shards(int count) {
+        //Generic arrays can't be created, so the raw one is cast once here
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        ConcurrentHashMap<String, V>[] created = new ConcurrentHashMap[count];
+        partitions = created;
+        for (int i = 0; i < count; i++) {
+            partitions[i] = new ConcurrentHashMap<>();
+        }
+    }
+
+    ConcurrentHashMap<String, V> forKey(String key) {
+        return partitions[indexFor(key, partitions.length)];
+    }
+
+    //Weakly consistent like the shards themselves: sees every write completed before the call, maybe some later ones
+    void forEachValue(Consumer<? super V> action) {
+        for (ConcurrentHashMap<String, V> partition : partitions) {
+            partition.values().forEach(action);
+        }
+    }
+
+    long size() {
+        long size = 0;
+        for (ConcurrentHashMap<String, V> partition : partitions) {
+            size += partition.size();
+        }
+        return size;
+    }
+
+    static int indexFor(String key, int count) {
+        int hash = key.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), count);
+    }
+}
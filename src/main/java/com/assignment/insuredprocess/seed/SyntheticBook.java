@@ -0,0 +1,140 @@
+package com.assignment.insuredprocess.seed;
+
+import com.assignment.insuredprocess.model.ContactMethod;
+import com.assignment.insuredprocess.model.Product;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+//Deterministic description of a synthetic insurance book. Every client, product and ownership row is derived
+//from its index and the random seed alone, so the loader and an external load driver built with the same
+//parameters agree on ids, credentials and portfolios without sharing any state.
+public final class SyntheticBook {
+
+    private static final String[] LINES = {"Health", "Auto", "Life", "Home", "Travel", "Pet", "Dental", "Disability"};
+    private static final String[] TIERS = {"Basic", "Plus", "Premium", "Family", "Senior"};
+    private static final double PORTFOLIO_SIZE_TAIL = 1.5;
+
+    private final int clients;
+    private final int products;
+    private final int maxProductsPerClient;
+    private final double secondContactRatio;
+    private final long seed;
+    private final double[] productPopularity;
+
+    public SyntheticBook(int clients, int products, int maxProductsPerClient,
+                         double ownershipSkew, double secondContactRatio, long seed) {
+        if (clients < 0 || products < 1 || maxProductsPerClient < 0) {
+            throw new IllegalArgumentException("Synthetic book needs at least one product and non-negative sizes");
+        }
+        this.clients = clients;
+        this.products = products;
+        this.maxProductsPerClient = Math.min(maxProductsPerClient, products);
+        this.secondContactRatio = secondContactRatio;
+        this.seed = seed;
+        this.productPopularity = zipfDistribution(products, ownershipSkew);
+    }
+
+    public int clients() {
+        return clients;
+    }
+
+    public int products() {
+        return products;
+    }
+
+    public String clientId(int index) {
+        return "SC" + index;
+    }
+
+    //Inverse of clientId(); -1 for ids that are not part of this book
+    public int clientIndexOf(String clientId) {
+        if (clientId == null || clientId.length() < 3 || clientId.length() > 12 || !clientId.startsWith("SC")) {
+            return -1;
+        }
+        long index = 0;
+        for (int i = 2; i < clientId.length(); i++) {
+            char digit = clientId.charAt(i);
+            if (digit < '0' || digit > '9' || (i == 2 && digit == '0' && clientId.length() > 3)) {
+                return -1;
+            }
+            index = index * 10 + (digit - '0');
+        }
+        return index < clients ? (int) index : -1;
+    }
+
+    public String productId(int index) {
+        return "SP" + index;
+    }
+
+    public Product product(int index) {
+        String line = LINES[index % LINES.length];
+        String tier = TIERS[(index / LINES.length) % TIERS.length];
+        int variant = index / (LINES.length * TIERS.length);
+        String name = line + " Insurance " + tier + (variant > 0 ? " " + (variant + 1) : "");
+        String description = tier + " " + line.toLowerCase() + " coverage, synthetic variant " + index;
+        return new Product(productId(index), name, description);
+    }
+
+    public List<ContactMethod> contactMethods(int clientIndex) {
+        SplittableRandom random = randomFor(clientIndex, 1);
+        List<ContactMethod> contactMethods = new ArrayList<>(2);
+        contactMethods.add(new ContactMethod("email", "client" + clientIndex + "@example.com"));
+        if (random.nextDouble() < secondContactRatio) {
+            contactMethods.add(new ContactMethod("phone", "555-" + clientIndex));
+        }
+        return contactMethods;
+    }
+
+    //Portfolio sizes follow a Pareto tail (most clients own one or two products, a few own up to the maximum)
+    //and products are picked by Zipf popularity, so a handful of flagship products dominate ownership
+    public int[] ownedProductIndexes(int clientIndex) {
+        if (maxProductsPerClient == 0) {
+            return new int[0];
+        }
+        SplittableRandom random = randomFor(clientIndex, 2);
+        int size = (int) Math.min(maxProductsPerClient, Math.floor(Math.pow(1 - random.nextDouble(), -1 / PORTFOLIO_SIZE_TAIL)));
+        int[] owned = new int[size];
+        int count = 0;
+        for (int attempt = 0; count < size && attempt < size * 8; attempt++) {
+            int candidate = sampleProduct(random);
+            if (!contains(owned, count, candidate)) {
+                owned[count++] = candidate;
+            }
+        }
+        return count == size ? owned : Arrays.copyOf(owned, count);
+    }
+
+    private int sampleProduct(SplittableRandom random) {
+        int index = Arrays.binarySearch(productPopularity, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, products - 1);
+    }
+
+    private SplittableRandom randomFor(int clientIndex, int stream) {
+        return new SplittableRandom(seed ^ (clientIndex * 0x9E3779B97F4A7C15L) ^ ((long) stream << 56));
+    }
+
+    private static boolean contains(int[] values, int length, int value) {
+        for (int i = 0; i < length; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static double[] zipfDistribution(int size, double exponent) {
+        double[] cumulative = new double[size];
+        double total = 0;
+        for (int rank = 0; rank < size; rank++) {
+            total += 1 / Math.pow(rank + 1, exponent);
+            cumulative[rank] = total;
+        }
+        for (int rank = 0; rank < size; rank++) {
+            cumulative[rank] /= total;
+        }
+        return cumulative;
+    }
+}
\ No newline at end of file
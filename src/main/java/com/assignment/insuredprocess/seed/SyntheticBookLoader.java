@@ -0,0 +1,265 @@
+package com.assignment.insuredprocess.seed;
+
+import com.assignment.insuredprocess.config.SeedProperties;
+import com.assignment.insuredprocess.dto.PurchaseOrder;
+import com.assignment.insuredprocess.model.ContactMethod;
+import com.assignment.insuredprocess.model.Product;
+import com.assignment.insuredprocess.repository.ClientProductRepository;
+import com.assignment.insuredprocess.repository.ClientRepository;
+import com.assignment.insuredprocess.repository.ClientWarmup;
+import com.assignment.insuredprocess.service.ClientService;
+import com.assignment.insuredprocess.service.ProductService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Loads the synthetic book without holding up startup. Products are created up front (they are few and every
+//portfolio needs them); clients are split into id-range partitions that a fork/join pool loads in the
+//background. Until that finishes the loader is registered as the repositories' warm-up hook, so a request
+//for a client whose partition is still pending loads that partition on the spot instead of missing it.
+@Slf4j
+@Component
+public class SyntheticBookLoader implements ClientWarmup, MeterBinder, DisposableBean {
+
+    private static final int PENDING = 0;
+    private static final int LOADING = 1;
+    private static final int LOADED = 2;
+    private static final int FAILED = 3;
+    private static final ThreadLocal<Boolean> LOADING_THREAD = ThreadLocal.withInitial(() -> false);
+
+    private final ClientService clientService;
+    private final ProductService productService;
+    private final ClientRepository clientRepository;
+    private final ClientProductRepository clientProductRepository;
+    private final SyntheticBook book;
+    private final int partitionSize;
+    private final int parallelism;
+    private final AtomicIntegerArray partitionStates;
+    private final CountDownLatch[] partitionsDone;
+    private final AtomicInteger loadedPartitions = new AtomicInteger();
+    private final AtomicInteger failedPartitions = new AtomicInteger();
+    private final AtomicInteger lazilyLoadedPartitions = new AtomicInteger();
+    private final AtomicLong ownershipRows = new AtomicLong();
+    private volatile ForkJoinPool pool;
+
+    public SyntheticBookLoader(ClientService clientService, ProductService productService,
+                               ClientRepository clientRepository, ClientProductRepository clientProductRepository,
+                               SeedProperties properties) {
+        this.clientService = clientService;
+        this.productService = productService;
+        this.clientRepository = clientRepository;
+        this.clientProductRepository = clientProductRepository;
+        this.book = new SyntheticBook(properties.clients(), properties.products(), properties.maxProductsPerClient(),
+                properties.ownershipSkew(), properties.secondContactRatio(), properties.randomSeed());
+        this.partitionSize = Math.max(1, properties.partitionSize());
+        this.parallelism = properties.parallelism() > 0 ? properties.parallelism() : Runtime.getRuntime().availableProcessors();
+        int partitions = (int) ((properties.clients() + (long) partitionSize - 1) / partitionSize);
+        this.partitionStates = new AtomicIntegerArray(partitions);
+        this.partitionsDone = new CountDownLatch[partitions];
+        for (int i = 0; i < partitions; i++) {
+            partitionsDone[i] = new CountDownLatch(1);
+        }
+    }
+
+    public SyntheticBook book() {
+        return book;
+    }
+
+    //Returns once the catalog is in place; clients keep loading in the background
+    public void start() {
+        long started = System.nanoTime();
+        List<Product> catalog = new ArrayList<>(book.products());
+        for (int index = 0; index < book.products(); index++) {
+            catalog.add(book.product(index));
+        }
+        productService.createProducts(catalog);
+        if (partitionStates.length() == 0) {
+            return;
+        }
+        clientRepository.setWarmup(this);
+        clientProductRepository.setWarmup(this);
+        pool = new ForkJoinPool(parallelism);
+        pool.execute(new LoadPartitions(0, partitionStates.length(), true, started));
+        log.info("Synthetic book catalog of {} products ready, loading {} clients in {} partitions on {} threads",
+                book.products(), book.clients(), partitionStates.length(), parallelism);
+    }
+
+    public boolean isFullyLoaded() {
+        return loadedPartitions.get() == partitionStates.length();
+    }
+
+    //Every partition was either loaded or gave up; failed ones are counted separately and not retried
+    public boolean isFinished() {
+        return loadedPartitions.get() + failedPartitions.get() == partitionStates.length();
+    }
+
+    public int failedPartitions() {
+        return failedPartitions.get();
+    }
+
+    public void awaitFullyLoaded() throws InterruptedException {
+        for (CountDownLatch done : partitionsDone) {
+            done.await();
+        }
+    }
+
+    @Override
+    public boolean warmUp(String clientId) {
+        if (LOADING_THREAD.get()) {
+            return false;
+        }
+        int index = book.clientIndexOf(clientId);
+        if (index < 0) {
+            return false;
+        }
+        int partition = index / partitionSize;
+        if (partitionStates.get(partition) >= LOADED) {
+            return false;
+        }
+        if (loadPartition(partition)) {
+            lazilyLoadedPartitions.incrementAndGet();
+        }
+        try {
+            partitionsDone[partition].await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("insured.seed.partitions", partitionStates, AtomicIntegerArray::length)
+                .description("Client partitions of the synthetic book")
+                .tag("state", "total")
+                .register(registry);
+        Gauge.builder("insured.seed.partitions", loadedPartitions, AtomicInteger::get)
+                .description("Client partitions of the synthetic book")
+                .tag("state", "loaded")
+                .register(registry);
+        Gauge.builder("insured.seed.partitions", lazilyLoadedPartitions, AtomicInteger::get)
+                .description("Client partitions of the synthetic book")
+                .tag("state", "loaded-on-demand")
+                .register(registry);
+        Gauge.builder("insured.seed.partitions", failedPartitions, AtomicInteger::get)
+                .description("Client partitions of the synthetic book")
+                .tag("state", "failed")
+                .register(registry);
+        Gauge.builder("insured.seed.ready", this, loader -> loader.isFinished() ? 1 : 0)
+                .description("1 once every client partition of the synthetic book is loaded or failed")
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        ForkJoinPool current = pool;
+        if (current != null) {
+            current.shutdownNow();
+        }
+    }
+
+    //Claims the partition and loads it on the calling thread; false if another thread already claimed it
+    private boolean loadPartition(int partition) {
+        if (!partitionStates.compareAndSet(partition, PENDING, LOADING)) {
+            return false;
+        }
+        int from = partition * partitionSize;
+        int to = (int) Math.min((long) from + partitionSize, book.clients());
+        LOADING_THREAD.set(true);
+        try {
+            for (int index = from; index < to; index++) {
+                ownershipRows.addAndGet(loadClient(index));
+            }
+            partitionStates.set(partition, LOADED);
+            loadedPartitions.incrementAndGet();
+        } catch (RuntimeException e) {
+            partitionStates.set(partition, FAILED);
+            failedPartitions.incrementAndGet();
+            log.error("Loading synthetic clients {}..{} failed", from, to - 1, e);
+        } finally {
+            LOADING_THREAD.set(false);
+            partitionsDone[partition].countDown();
+        }
+        return true;
+    }
+
+    private int loadClient(int index) {
+        String clientId = book.clientId(index);
+        List<ContactMethod> contactMethods = book.contactMethods(index);
+        ContactMethod primary = contactMethods.get(0);
+        clientService.createClient(clientId, primary.getType(), primary.getValue());
+        for (ContactMethod additional : contactMethods.subList(1, contactMethods.size())) {
+            clientService.addContactMethod(clientId, additional.getType(), additional.getValue());
+        }
+
+        int[] owned = book.ownedProductIndexes(index);
+        if (owned.length == 0) {
+            return 0;
+        }
+        List<PurchaseOrder> orders = new ArrayList<>(owned.length);
+        for (int productIndex : owned) {
+            orders.add(new PurchaseOrder(clientId, book.productId(productIndex)));
+        }
+        productService.buyProducts(orders);
+        return owned.length;
+    }
+
+    private void finished(long started) {
+        clientRepository.setWarmup(ClientWarmup.NONE);
+        clientProductRepository.setWarmup(ClientWarmup.NONE);
+        log.info("Synthetic book loaded: {} products, {} clients, {} ownership rows in {} ms ({} partitions on demand)",
+                book.products(), book.clients(), ownershipRows.get(), (System.nanoTime() - started) / 1_000_000,
+                lazilyLoadedPartitions.get());
+        if (failedPartitions.get() > 0) {
+            log.warn("{} of {} synthetic client partitions failed to load", failedPartitions.get(), partitionStates.length());
+        }
+        pool.shutdown();
+    }
+
+    //Splits the partition range in halves down to single partitions; the root task reports completion
+    private final class LoadPartitions extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final boolean root;
+        private final long started;
+
+        LoadPartitions(int from, int to, boolean root, long started) {
+            this.from = from;
+            this.to = to;
+            this.root = root;
+            this.started = started;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                loadPartition(from);
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new LoadPartitions(from, middle, false, started), new LoadPartitions(middle, to, false, started));
+            }
+            if (root) {
+                try {
+                    awaitFullyLoaded();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                finished(started);
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,111 @@
+package com.assignment.insuredprocess.service;
+
+import com.assignment.insuredprocess.config.AuthProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Bounded cache of recent authentication outcomes (negative ones included), grouped per client so that
+//a change to the client's contact methods drops all of its entries at once
+@Component
+public class AuthenticationCache {
+
+    private final ConcurrentHashMap<String, Map<Credential, Outcome>> outcomesByClient = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicLong lastSweep = new AtomicLong(System.nanoTime());
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+
+    public AuthenticationCache(AuthProperties properties) {
+        this.maxEntries = properties.cache().maxEntries();
+        this.ttlNanos = properties.cache().ttl().toNanos();
+        this.negativeTtlNanos = properties.cache().negativeTtl().toNanos();
+    }
+
+    public Optional<Boolean> get(String clientId, String contactType, String contactValue) {
+        if (clientId == null || contactType == null || contactValue == null) {
+            return Optional.empty();
+        }
+        Map<Credential, Outcome> outcomes = outcomesByClient.get(clientId);
+        if (outcomes == null) {
+            return Optional.empty();
+        }
+        Outcome outcome = outcomes.get(new Credential(contactType, contactValue));
+        if (outcome == null || outcome.expiresAt() - System.nanoTime() < 0) {
+            return Optional.empty();
+        }
+        return Optional.of(outcome.authenticated());
+    }
+
+    //Version to read before the repository lookup and hand back to put(); an invalidation in between discards the put
+    public long version() {
+        return version.get();
+    }
+
+    public void put(String clientId, String contactType, String contactValue, boolean authenticated, long observedVersion) {
+        if (clientId == null || contactType == null || contactValue == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (size.get() >= maxEntries && !sweepExpired(now)) {
+            return;
+        }
+        Outcome outcome = new Outcome(authenticated, now + (authenticated ? ttlNanos : negativeTtlNanos));
+        Credential credential = new Credential(contactType, contactValue);
+        outcomesByClient.compute(clientId, (id, outcomes) -> {
+            Map<Credential, Outcome> target = outcomes != null ? outcomes : new ConcurrentHashMap<>();
+            if (target.put(credential, outcome) == null) {
+                size.incrementAndGet();
+            }
+            return target;
+        });
+        if (version.get() != observedVersion) {
+            invalidate(clientId);
+        }
+    }
+
+    public void invalidate(String clientId) {
+        version.incrementAndGet();
+        Map<Credential, Outcome> removed = outcomesByClient.remove(clientId);
+        if (removed != null) {
+            size.addAndGet(-removed.size());
+        }
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    //Full sweeps are O(n), so a full cache is swept at most once per negative TTL and otherwise just stops caching
+    private boolean sweepExpired(long now) {
+        long previous = lastSweep.get();
+        if (now - previous < negativeTtlNanos || !lastSweep.compareAndSet(previous, now)) {
+            return false;
+        }
+        for (String clientId : outcomesByClient.keySet()) {
+            outcomesByClient.computeIfPresent(clientId, (id, outcomes) -> {
+                outcomes.entrySet().removeIf(entry -> {
+                    boolean expired = entry.getValue().expiresAt() - now < 0;
+                    if (expired) {
+                        size.decrementAndGet();
+                    }
+                    return expired;
+                });
+                return outcomes.isEmpty() ? null : outcomes;
+            });
+        }
+        return size.get() < maxEntries;
+    }
+
+    private record Credential(String type, String value) {
+    }
+
+    private record Outcome(boolean authenticated, long expiresAt) {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,127 @@
+package com.assignment.insuredprocess.service;
+
+import com.assignment.insuredprocess.config.AuthProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Token buckets per client id and per source address, checked before an authentication attempt touches the repositories.
+//Buckets are kept as GCRA "theoretical arrival times", so consuming a token is a single CAS without locks.
+//Once maxBuckets keys are tracked, new keys share overflow buckets, striped by the key's hash, until the background
+//sweep has dropped the full (idle) buckets. Rotating ids neither cost a scan per attempt nor escape the throttle,
+//and a flood of them only crowds the stripes it lands in instead of locking out every new client at once.
+//Evicting tracked buckets instead would hand an attacker a fresh bucket for its target after enough new ids.
+@Component
+public class AuthenticationThrottle implements SmartLifecycle {
+
+    private static final long SWEEP_INTERVAL_MILLIS = 1_000;
+    private static final int OVERFLOW_STRIPES = 1024;
+
+    private final ConcurrentHashMap<String, TokenBucket> clientBuckets = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, TokenBucket> sourceBuckets = new ConcurrentHashMap<>();
+    private final TokenBucket[] clientOverflow = new TokenBucket[OVERFLOW_STRIPES];
+    private final TokenBucket[] sourceOverflow = new TokenBucket[OVERFLOW_STRIPES];
+    private final AuthProperties.Throttle settings;
+    private volatile ScheduledExecutorService sweeper;
+
+    public AuthenticationThrottle(AuthProperties properties) {
+        this.settings = properties.throttle();
+        long now = System.nanoTime();
+        for (int i = 0; i < OVERFLOW_STRIPES; i++) {
+            clientOverflow[i] = new TokenBucket(settings.clientCapacity(), settings.clientRefillPeriod().toNanos(), now);
+            sourceOverflow[i] = new TokenBucket(settings.sourceCapacity(), settings.sourceRefillPeriod().toNanos(), now);
+        }
+    }
+
+    public boolean tryAcquire(String clientId, String source) {
+        long now = System.nanoTime();
+        if (source != null && !tryConsume(sourceBuckets, sourceOverflow, source, settings.sourceCapacity(),
+                settings.sourceRefillPeriod().toNanos(), now)) {
+            return false;
+        }
+        return clientId == null || tryConsume(clientBuckets, clientOverflow, clientId, settings.clientCapacity(),
+                settings.clientRefillPeriod().toNanos(), now);
+    }
+
+    //Drops buckets that have refilled completely: a fresh bucket for the same key would behave the same
+    void sweep() {
+        long now = System.nanoTime();
+        clientBuckets.values().removeIf(bucket -> bucket.isFull(now));
+        sourceBuckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+
+    int trackedKeys() {
+        return clientBuckets.size() + sourceBuckets.size();
+    }
+
+    @Override
+    public void start() {
+        sweeper = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("auth-throttle-sweeper").daemon().factory());
+        sweeper.scheduleWithFixedDelay(this::sweep, SWEEP_INTERVAL_MILLIS, SWEEP_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService current = sweeper;
+        sweeper = null;
+        if (current != null) {
+            current.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return sweeper != null;
+    }
+
+    static int overflowStripe(String key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (OVERFLOW_STRIPES - 1);
+    }
+
+    private boolean tryConsume(ConcurrentHashMap<String, TokenBucket> buckets, TokenBucket[] overflow, String key,
+                               int capacity, long refillNanos, long now) {
+        TokenBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            //Concurrent first attempts may overshoot the limit by a few keys, never by more than the request threads
+            bucket = buckets.size() >= settings.maxBuckets()
+                    ? overflow[overflowStripe(key)]
+                    : buckets.computeIfAbsent(key, k -> new TokenBucket(capacity, refillNanos, now));
+        }
+        return bucket.tryConsume(now);
+    }
+
+    private static final class TokenBucket {
+        private final long refillNanos;
+        private final long burstNanos;
+        private final AtomicLong theoreticalArrival;
+
+        TokenBucket(int capacity, long refillNanos, long now) {
+            this.refillNanos = refillNanos;
+            this.burstNanos = refillNanos * (capacity - 1);
+            this.theoreticalArrival = new AtomicLong(now);
+        }
+
+        boolean tryConsume(long now) {
+            while (true) {
+                long current = theoreticalArrival.get();
+                long start = current - now > 0 ? current : now;
+                if (start - now > burstNanos) {
+                    return false;
+                }
+                if (theoreticalArrival.compareAndSet(current, start + refillNanos)) {
+                    return true;
+                }
+            }
+        }
+
+        boolean isFull(long now) {
+            return theoreticalArrival.get() - now <= 0;
+        }
+    }
+}
\ No newline at end of file
@@ -1,9 +1,16 @@
 package com.assignment.insuredprocess.service;
 
+import com.assignment.insuredprocess.diagnostics.AuthenticationEvent;
+import com.assignment.insuredprocess.diagnostics.HotKeys;
+import com.assignment.insuredprocess.event.ClientCreated;
+import com.assignment.insuredprocess.event.ClientRemoved;
+import com.assignment.insuredprocess.event.ContactMethodAdded;
 import com.assignment.insuredprocess.model.Client;
 import com.assignment.insuredprocess.model.ContactMethod;
+import com.assignment.insuredprocess.repository.ClientProductRepository;
 import com.assignment.insuredprocess.repository.ClientRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.Optional;
@@ -13,23 +20,99 @@ import java.util.Optional;
 public class ClientService {
 
     private final ClientRepository clientRepository;
+    private final ClientProductRepository clientProductRepository;
+    private final AuthenticationCache authenticationCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final HotKeys hotKeys;
+    private final WriteSequencer writeSequencer;
 
     public Client createClient(String id, String contactType, String contactValue) {
+        if (id == null) {
+            throw new IllegalArgumentException("Client ID is required");
+        }
         if (clientRepository.existsById(id)) {
             throw new IllegalArgumentException("Client with ID " + id + " already exists");
         }
 
-        Client client = new Client(id);
-        client.addContactMethod(new ContactMethod(contactType, contactValue));
-        return clientRepository.save(client);
+        Client client = new Client(id, new ContactMethod(contactType, contactValue));
+        writeSequencer.run(id, () -> {
+            if (!clientRepository.saveIfAbsent(client)) {
+                throw new IllegalArgumentException("Client with ID " + id + " already exists");
+            }
+            authenticationCache.invalidate(id);
+            eventPublisher.publishEvent(new ClientCreated(id, contactType, contactValue));
+        });
+        return client;
+    }
+
+    //Clients are immutable, so the new contact method goes into a copy that replaces the stored client in one
+    //atomic step; concurrent additions for the same client are applied one after the other
+    public Client addContactMethod(String id, String contactType, String contactValue) {
+        ContactMethod contactMethod = new ContactMethod(contactType, contactValue);
+        return writeSequencer.call(id, () -> {
+            Client updated = clientRepository.update(id, existing -> existing.withContactMethod(contactMethod))
+                    .orElseThrow(() -> new IllegalArgumentException("Client not found: " + id));
+            authenticationCache.invalidate(id);
+            eventPublisher.publishEvent(new ContactMethodAdded(id, contactType, contactValue));
+            return updated;
+        });
+    }
+
+    //Drops the client and its portfolio from this node, e.g. once another cluster node has taken it over
+    public boolean removeClient(String id) {
+        return writeSequencer.call(id, () -> {
+            boolean removed = clientRepository.deleteById(id);
+            clientProductRepository.deleteByClientId(id);
+            authenticationCache.invalidate(id);
+            if (removed) {
+                eventPublisher.publishEvent(new ClientRemoved(id));
+            }
+            return removed;
+        });
     }
 
     public boolean authenticateClient(String id, String contactType, String contactValue) {
+        long started = System.nanoTime();
+        AuthenticationEvent event = new AuthenticationEvent();
+        event.begin();
+        //Unknown ids are turned away before they take a cache entry or a hot-key slot
+        if (clientRepository.isDefinitelyAbsent(id)) {
+            event.record(id, false, false);
+            return false;
+        }
+        try {
+            return authenticate(id, contactType, contactValue, event);
+        } finally {
+            hotKeys.record(id, null, started);
+        }
+    }
+
+    private boolean authenticate(String id, String contactType, String contactValue, AuthenticationEvent event) {
+        Optional<Boolean> cached = authenticationCache.get(id, contactType, contactValue);
+        if (cached.isPresent()) {
+            event.record(id, true, cached.get());
+            return cached.get();
+        }
+
+        long cacheVersion = authenticationCache.version();
         Optional<Client> clientOpt = clientRepository.findById(id);
-        return clientOpt.isPresent() && clientOpt.get().hasContactMethod(contactType, contactValue);
+        boolean authenticated = clientOpt.isPresent() && clientOpt.get().hasContactMethod(contactType, contactValue);
+        authenticationCache.put(id, contactType, contactValue, authenticated, cacheVersion);
+        event.record(id, false, authenticated);
+        return authenticated;
     }
 
     public Optional<Client> findClientById(String id) {
-        return clientRepository.findById(id);
+        return clientRepository.isDefinitelyAbsent(id) ? Optional.empty() : clientRepository.findById(id);
+    }
+
+    //Presence only: a client in the cold tier is not read back into memory
+    public boolean exists(String id) {
+        return !clientRepository.isDefinitelyAbsent(id) && clientRepository.existsById(id);
+    }
+
+    //Cheap negative check from the id filter; false does not mean the client exists
+    public boolean isDefinitelyUnknown(String id) {
+        return clientRepository.isDefinitelyAbsent(id);
     }
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package com.assignment.insuredprocess.service;
+
+import com.assignment.insuredprocess.dto.CoalescingReport;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+//GET /actuator/coalescing lists the client id hashes with the most deduplicated portfolio reads,
+///actuator/coalescing/{clientIdHash} the count of one of them. Read-only on purpose: it is exposed over the web,
+//so the reset lives in CoalescingJmxExtension
+@Component
+@Endpoint(id = "coalescing")
+@RequiredArgsConstructor
+public class CoalescingEndpoint {
+
+    private static final int TOP_CLIENTS = 50;
+
+    private final PortfolioReads portfolioReads;
+
+    @ReadOperation
+    public CoalescingReport report() {
+        return portfolioReads.report(TOP_CLIENTS);
+    }
+
+    @ReadOperation
+    public Map<String, Long> client(@Selector String clientIdHash) {
+        return Map.of(clientIdHash, portfolioReads.coalescedForHash(clientIdHash));
+    }
+}
\ No newline at end of file
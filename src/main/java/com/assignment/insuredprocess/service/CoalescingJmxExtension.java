@@ -0,0 +1,21 @@
+package com.assignment.insuredprocess.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.jmx.annotation.EndpointJmxExtension;
+import org.springframework.stereotype.Component;
+
+//Clearing the per-client coalescing counts is offered over JMX only (spring.jmx.enabled plus coalescing in
+//management.endpoints.jmx.exposure.include)
+@Component
+@EndpointJmxExtension(endpoint = CoalescingEndpoint.class)
+@RequiredArgsConstructor
+public class CoalescingJmxExtension {
+
+    private final PortfolioReads portfolioReads;
+
+    @DeleteOperation
+    public void reset() {
+        portfolioReads.resetStatistics();
+    }
+}
\ No newline at end of file
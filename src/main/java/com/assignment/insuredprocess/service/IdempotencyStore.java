@@ -0,0 +1,185 @@
+package com.assignment.insuredprocess.service;
+
+import com.assignment.insuredprocess.config.IdempotencyProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+//Remembers the responses of write requests that carried an Idempotency-Key, so a retried request gets the
+//original response instead of running again. Keys are scoped to the client and stored with a fingerprint of
+//the request; reusing a key for a different request is answered with 422, a retry that arrives while the
+//original is still running with 409. Entries live in lock-striped insertion-ordered maps: a lookup locks one
+//stripe for an O(1) hash probe, and each stripe evicts its oldest finished entry once it holds its share of
+//maxEntries. Entries of requests still running are never evicted, so their retries keep getting 409.
+@Component
+public class IdempotencyStore implements MeterBinder {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final Stripe[] stripes;
+    private final long ttlNanos;
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder replayed = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder mismatches = new LongAdder();
+
+    public IdempotencyStore(IdempotencyProperties properties) {
+        int stripeCount = Integer.highestOneBit(Math.max(1, Math.min(properties.stripes(), properties.maxEntries())));
+        this.stripes = new Stripe[stripeCount];
+        int entriesPerStripe = Math.max(1, properties.maxEntries() / stripeCount);
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe(entriesPerStripe);
+        }
+        this.ttlNanos = properties.ttl().toNanos();
+    }
+
+    //Runs the action once per (client, key); without a key it simply runs. Only 2xx and 4xx answers are kept,
+    //anything else (or an exception) releases the key so the client can retry for real.
+    public <T> ResponseEntity<T> execute(String idempotencyKey, String clientId, String fingerprint,
+                                         Supplier<ResponseEntity<T>> action) {
+        if (idempotencyKey == null) {
+            return action.get();
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest().build();
+        }
+        String key = clientId + '\u0000' + idempotencyKey;
+        Stripe stripe = stripeFor(key);
+        Entry claimed = new Entry(fingerprint, System.nanoTime() + ttlNanos);
+        Entry existing = stripe.claim(key, claimed);
+        if (existing != null) {
+            return answerFor(existing, fingerprint);
+        }
+
+        ResponseEntity<T> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            stripe.release(key, claimed);
+            throw e;
+        }
+        executed.increment();
+        if (response.getStatusCode().is2xxSuccessful() || response.getStatusCode().is4xxClientError()) {
+            claimed.response = response;
+        } else {
+            stripe.release(key, claimed);
+        }
+        return response;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        counter(registry, executed, "executed");
+        counter(registry, replayed, "replayed");
+        counter(registry, conflicts, "in-progress");
+        counter(registry, mismatches, "mismatch");
+        Gauge.builder("insured.idempotency.entries", this, IdempotencyStore::size)
+                .description("Idempotency keys currently remembered")
+                .register(registry);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> ResponseEntity<T> answerFor(Entry entry, String fingerprint) {
+        if (!entry.fingerprint.equals(fingerprint)) {
+            mismatches.increment();
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).build();
+        }
+        ResponseEntity<?> response = entry.response;
+        if (response == null) {
+            conflicts.increment();
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        replayed.increment();
+        return (ResponseEntity<T>) ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .header(REPLAYED_HEADER, "true")
+                .body(response.getBody());
+    }
+
+    private Stripe stripeFor(String key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+
+    private static void counter(MeterRegistry registry, LongAdder adder, String result) {
+        FunctionCounter.builder("insured.idempotency.requests", adder, LongAdder::sum)
+                .description("Write requests carrying an Idempotency-Key, by how they were answered")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    //Null response while the original request is still running
+    private static final class Entry {
+        final String fingerprint;
+        final long expiresAt;
+        volatile ResponseEntity<?> response;
+
+        Entry(String fingerprint, long expiresAt) {
+            this.fingerprint = fingerprint;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static final class Stripe {
+        private final Map<String, Entry> entries = new LinkedHashMap<>();
+        private final int capacity;
+
+        Stripe(int capacity) {
+            this.capacity = capacity;
+        }
+
+        //Null if the caller now owns the key; otherwise the live entry someone else created
+        synchronized Entry claim(String key, Entry claimed) {
+            Entry existing = entries.get(key);
+            if (existing != null && existing.expiresAt - System.nanoTime() >= 0) {
+                return existing;
+            }
+            //re-inserting moves the key to the young end, so expired entries keep getting evicted first
+            entries.remove(key);
+            entries.put(key, claimed);
+            evict();
+            return null;
+        }
+
+        //Oldest first, skipping requests that are still running unless they outlived the ttl; running requests
+        //may keep a stripe over its capacity until they finish
+        private void evict() {
+            long now = System.nanoTime();
+            Iterator<Entry> oldest = entries.values().iterator();
+            while (entries.size() > capacity && oldest.hasNext()) {
+                Entry entry = oldest.next();
+                if (entry.response != null || entry.expiresAt - now < 0) {
+                    oldest.remove();
+                }
+            }
+        }
+
+        synchronized void release(String key, Entry claimed) {
+            entries.remove(key, claimed);
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+    }
+}
\ No newline at end of file
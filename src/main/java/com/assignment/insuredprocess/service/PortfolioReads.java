@@ -0,0 +1,196 @@
+package com.assignment.insuredprocess.service;
+
+import com.assignment.insuredprocess.config.CoalescingProperties;
+import com.assignment.insuredprocess.diagnostics.ClientIdHashes;
+import com.assignment.insuredprocess.dto.CoalescingReport;
+import com.assignment.insuredprocess.event.CatalogReloaded;
+import com.assignment.insuredprocess.event.ClientCreated;
+import com.assignment.insuredprocess.event.ClientRemoved;
+import com.assignment.insuredprocess.event.ProductCancelled;
+import com.assignment.insuredprocess.event.ProductPurchased;
+import com.assignment.insuredprocess.event.ProductUpdated;
+import com.assignment.insuredprocess.model.Product;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+//Single-flight portfolio reads: while one request computes a client's portfolio, identical requests for the
+//same client wait for that result instead of repeating the lookups. A caller only joins a computation that
+//started after the last write affecting the client (creation, purchase, cancellation or any product
+//update), so a read issued after a write completed never receives a portfolio computed before it.
+@Component
+public class PortfolioReads implements MeterBinder {
+
+    private static final int VERSION_STRIPES = 1024;
+
+    private final ProductService productService;
+    private final CoalescingProperties properties;
+    private final Map<String, Flight> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLongArray clientVersions = new AtomicLongArray(VERSION_STRIPES);
+    private final AtomicLong catalogVersion = new AtomicLong();
+    private final LongAdder computed = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final Map<String, LongAdder> coalescedByClient = new ConcurrentHashMap<>();
+
+    public PortfolioReads(ProductService productService, CoalescingProperties properties) {
+        this.productService = productService;
+        this.properties = properties;
+    }
+
+    //Empty when the client does not exist
+    public Optional<List<Product>> findPortfolio(String clientId) {
+        if (!properties.enabled() || clientId == null) {
+            return load(clientId);
+        }
+
+        long version = versionOf(clientId);
+        Flight flight = new Flight(version, new CompletableFuture<>());
+        while (true) {
+            Flight existing = inFlight.putIfAbsent(clientId, flight);
+            if (existing == null) {
+                break;
+            }
+            if (existing.version() >= version) {
+                recordCoalesced(clientId);
+                return await(existing);
+            }
+            //computation started before a write this caller must see; take the slot over
+            if (inFlight.replace(clientId, existing, flight)) {
+                break;
+            }
+        }
+
+        try {
+            Optional<List<Product>> portfolio = load(clientId);
+            flight.result().complete(portfolio);
+            return portfolio;
+        } catch (RuntimeException e) {
+            flight.result().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(clientId, flight);
+        }
+    }
+
+    @EventListener
+    public void onClientCreated(ClientCreated event) {
+        clientVersions.incrementAndGet(stripeOf(event.clientId()));
+    }
+
+    @EventListener
+    public void onClientRemoved(ClientRemoved event) {
+        clientVersions.incrementAndGet(stripeOf(event.clientId()));
+    }
+
+    @EventListener
+    public void onProductPurchased(ProductPurchased event) {
+        clientVersions.incrementAndGet(stripeOf(event.clientId()));
+    }
+
+    @EventListener
+    public void onProductCancelled(ProductCancelled event) {
+        clientVersions.incrementAndGet(stripeOf(event.clientId()));
+    }
+
+    //A product update changes the portfolio of every owner
+    @EventListener
+    public void onProductUpdated(ProductUpdated event) {
+        catalogVersion.incrementAndGet();
+    }
+
+    @EventListener
+    public void onCatalogReloaded(CatalogReloaded event) {
+        catalogVersion.incrementAndGet();
+    }
+
+    public CoalescingReport report(int top) {
+        Map<String, Long> topClients = new LinkedHashMap<>();
+        coalescedByClient.entrySet().stream()
+                .map(entry -> Map.entry(entry.getKey(), entry.getValue().sum()))
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()).thenComparing(Map.Entry.comparingByKey()))
+                .limit(top)
+                .forEachOrdered(entry -> topClients.put(ClientIdHashes.of(entry.getKey()), entry.getValue()));
+        return new CoalescingReport(computed.sum(), coalesced.sum(), inFlight.size(), coalescedByClient.size(), topClients);
+    }
+
+    //Looked up by the keyed hash the report lists, so the endpoint never takes a raw client id
+    public long coalescedForHash(String clientIdHash) {
+        return coalescedByClient.entrySet().stream()
+                .filter(entry -> ClientIdHashes.of(entry.getKey()).equals(clientIdHash))
+                .mapToLong(entry -> entry.getValue().sum())
+                .sum();
+    }
+
+    public void resetStatistics() {
+        coalescedByClient.clear();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("insured.portfolio.reads", computed, LongAdder::sum)
+                .description("Portfolio reads by whether they ran the lookups or shared another read's result")
+                .tag("result", "computed")
+                .register(registry);
+        FunctionCounter.builder("insured.portfolio.reads", coalesced, LongAdder::sum)
+                .description("Portfolio reads by whether they ran the lookups or shared another read's result")
+                .tag("result", "coalesced")
+                .register(registry);
+        Gauge.builder("insured.portfolio.reads.in-flight", inFlight, Map::size)
+                .description("Portfolio computations currently shared by concurrent readers")
+                .register(registry);
+    }
+
+    private Optional<List<Product>> load(String clientId) {
+        computed.increment();
+        return productService.findClientPortfolio(clientId);
+    }
+
+    private Optional<List<Product>> await(Flight flight) {
+        try {
+            return flight.result().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    //Per-client counts are kept for at most maxTrackedClients clients so the statistics stay bounded
+    private void recordCoalesced(String clientId) {
+        coalesced.increment();
+        LongAdder count = coalescedByClient.get(clientId);
+        if (count == null && coalescedByClient.size() < properties.maxTrackedClients()) {
+            count = coalescedByClient.computeIfAbsent(clientId, id -> new LongAdder());
+        }
+        if (count != null) {
+            count.increment();
+        }
+    }
+
+    private long versionOf(String clientId) {
+        return clientVersions.get(stripeOf(clientId)) + catalogVersion.get();
+    }
+
+    private static int stripeOf(String clientId) {
+        return (clientId.hashCode() & 0x7fffffff) % VERSION_STRIPES;
+    }
+
+    private record Flight(long version, CompletableFuture<Optional<List<Product>>> result) {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,289 @@
+package com.assignment.insuredprocess.service;
+
+import com.assignment.insuredprocess.diagnostics.MemoryEstimates;
+import com.assignment.insuredprocess.dto.MemoryFootprint;
+import com.assignment.insuredprocess.event.CatalogReloaded;
+import com.assignment.insuredprocess.event.ClientEvicted;
+import com.assignment.insuredprocess.event.ClientRemoved;
+import com.assignment.insuredprocess.event.ProductCancelled;
+import com.assignment.insuredprocess.event.ProductPurchased;
+import com.assignment.insuredprocess.event.ProductUpdated;
+import com.assignment.insuredprocess.model.ClientProduct;
+import com.assignment.insuredprocess.model.Product;
+import com.assignment.insuredprocess.repository.ClientProductRepository;
+import com.assignment.insuredprocess.repository.ClientRepository;
+import com.assignment.insuredprocess.repository.ProductRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+//Materialised portfolios: an immutable product list per client, built from the ownership store on the first
+//read and from then on kept current by the purchase, cancellation and product update events, so a read is a
+//single map lookup. Product updates reach the owners through a reverse index of product to viewing clients.
+//Views are rebuilt and patched inside compute() on the client's entry, and a client is registered as a viewer
+//before the product state is read, so an update either reaches the view or happened before it was read.
+//A catalog reload changes every product at once, so it drops all views by swapping in an empty generation;
+//a view built from the old catalog can only end up in the dropped generation.
+//Only clients held in memory keep a view: a cold client's portfolio is built for the one read, and a client's view
+//is dropped when it moves to the cold tier, so the views never outgrow the hot tier.
+//The ownership rows are read before the client's entry is locked, since a cold read may take the tier's stripe
+//lock, which the sweeper holds while it drops evicted views. Purchases, cancellations, removals and evictions bump
+//the client's version before touching its view, so a view built from rows read before such a write is discarded
+//and the read starts over, instead of caching a portfolio the write already changed or removed.
+@Component
+public class PortfolioViews implements MeterBinder {
+
+    private static final int VERSION_STRIPES = 1024;
+
+    private final ClientRepository clientRepository;
+    private final ClientProductRepository clientProductRepository;
+    private final ProductRepository productRepository;
+    private volatile Generation generation = new Generation();
+    private final LongAdder built = new LongAdder();
+    private final LongAdder patched = new LongAdder();
+    private final AtomicLongArray clientVersions = new AtomicLongArray(VERSION_STRIPES);
+
+    public PortfolioViews(ClientRepository clientRepository, ClientProductRepository clientProductRepository,
+                          ProductRepository productRepository) {
+        this.clientRepository = clientRepository;
+        this.clientProductRepository = clientProductRepository;
+        this.productRepository = productRepository;
+    }
+
+    //Empty when the client does not exist; the returned list is shared and must not be modified
+    public Optional<List<Product>> find(String clientId) {
+        if (clientId == null) {
+            return Optional.empty();
+        }
+        Generation current = generation;
+        List<Product> view = current.views.get(clientId);
+        if (view != null) {
+            return Optional.of(view);
+        }
+        while (true) {
+            long version = versionOf(clientId);
+            //presence alone, so that reading the rows is the one access the lookup counts
+            if (!clientRepository.contains(clientId)) {
+                return Optional.empty();
+            }
+            List<ClientProduct> rows = clientProductRepository.findByClientId(clientId);
+            if (!clientRepository.isInMemory(clientId)) {
+                if (versionOf(clientId) == version) {
+                    return Optional.of(productsOf(rows));
+                }
+                continue;
+            }
+            view = current.views.compute(clientId, (id, existing) -> {
+                if (existing != null) {
+                    return existing;
+                }
+                return versionOf(id) == version ? build(current, id, rows) : null;
+            });
+            if (view != null) {
+                return Optional.of(view);
+            }
+        }
+    }
+
+    @EventListener
+    public void onProductPurchased(ProductPurchased event) {
+        clientVersions.incrementAndGet(stripeOf(event.clientId()));
+        Generation current = generation;
+        current.views.computeIfPresent(event.clientId(), (clientId, view) -> {
+            if (indexOf(view, event.productId()) >= 0) {
+                return view;
+            }
+            current.addViewer(event.productId(), clientId);
+            Optional<Product> product = currentState(event.productId());
+            if (product.isEmpty()) {
+                return view;
+            }
+            List<Product> updated = new ArrayList<>(view.size() + 1);
+            updated.addAll(view);
+            updated.add(product.get());
+            patched.increment();
+            current.viewedProducts.increment();
+            return List.copyOf(updated);
+        });
+    }
+
+    @EventListener
+    public void onProductCancelled(ProductCancelled event) {
+        clientVersions.incrementAndGet(stripeOf(event.clientId()));
+        Generation current = generation;
+        current.views.computeIfPresent(event.clientId(), (clientId, view) -> {
+            current.removeViewer(event.productId(), clientId);
+            int index = indexOf(view, event.productId());
+            if (index < 0) {
+                return view;
+            }
+            List<Product> updated = new ArrayList<>(view);
+            updated.remove(index);
+            patched.increment();
+            current.viewedProducts.decrement();
+            return List.copyOf(updated);
+        });
+    }
+
+    @EventListener
+    public void onClientRemoved(ClientRemoved event) {
+        drop(event.clientId());
+    }
+
+    @EventListener
+    public void onClientEvicted(ClientEvicted event) {
+        drop(event.clientId());
+    }
+
+    //Each owner's view takes the product state current at the time it is patched, so when two updates of
+    //the same product fan out concurrently the later state wins in every view
+    @EventListener
+    public void onProductUpdated(ProductUpdated event) {
+        Generation current = generation;
+        Set<String> viewers = current.viewersByProduct.get(event.productId());
+        if (viewers == null) {
+            return;
+        }
+        for (String viewer : viewers) {
+            current.views.computeIfPresent(viewer, (clientId, view) -> {
+                int index = indexOf(view, event.productId());
+                Optional<Product> product = currentState(event.productId());
+                if (index < 0 || product.isEmpty() || sameState(view.get(index), product.get())) {
+                    return view;
+                }
+                List<Product> updated = new ArrayList<>(view);
+                updated.set(index, product.get());
+                patched.increment();
+                return List.copyOf(updated);
+            });
+        }
+    }
+
+    @EventListener
+    public void onCatalogReloaded(CatalogReloaded event) {
+        generation = new Generation();
+    }
+
+    public int size() {
+        return generation.views.size();
+    }
+
+    //Views hold their own product copies (the strings are shared with the catalog); the reverse index holds one
+    //key set per viewed product
+    public MemoryFootprint memoryFootprint() {
+        Generation current = generation;
+        long views = current.views.size();
+        long products = current.viewedProducts.sum();
+        long viewedProductIds = current.viewersByProduct.size();
+        long viewers = current.viewerEntries.sum();
+        long bytes = views * (MemoryEstimates.HASH_ENTRY + MemoryEstimates.object(1, 0) + MemoryEstimates.array(0, MemoryEstimates.REFERENCE))
+                + products * (MemoryEstimates.REFERENCE + MemoryEstimates.object(3, 0))
+                + viewedProductIds * (MemoryEstimates.HASH_ENTRY + MemoryEstimates.object(1, 0) + MemoryEstimates.object(10, 16))
+                + viewers * MemoryEstimates.HASH_ENTRY;
+        return MemoryFootprint.of(views, bytes, Map.of("viewedProducts", products, "viewedProductIds", viewedProductIds,
+                "viewerEntries", viewers));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("insured.portfolio.views", this, PortfolioViews::size)
+                .description("Materialised client portfolios")
+                .register(registry);
+        FunctionCounter.builder("insured.portfolio.views.changes", built, LongAdder::sum)
+                .description("Portfolio views built from the stores or patched by a write")
+                .tag("kind", "built")
+                .register(registry);
+        FunctionCounter.builder("insured.portfolio.views.changes", patched, LongAdder::sum)
+                .description("Portfolio views built from the stores or patched by a write")
+                .tag("kind", "patched")
+                .register(registry);
+    }
+
+    //Runs under the client's entry and only touches the product store, never the tiered client stores
+    private List<Product> build(Generation current, String clientId, List<ClientProduct> rows) {
+        rows.forEach(row -> current.addViewer(row.getProductId(), clientId));
+        List<Product> products = productsOf(rows);
+        built.increment();
+        current.viewedProducts.add(products.size());
+        return products;
+    }
+
+    private List<Product> productsOf(List<ClientProduct> rows) {
+        List<Product> products = new ArrayList<>(rows.size());
+        for (ClientProduct row : rows) {
+            currentState(row.getProductId()).ifPresent(products::add);
+        }
+        return List.copyOf(products);
+    }
+
+    private void drop(String clientId) {
+        clientVersions.incrementAndGet(stripeOf(clientId));
+        Generation current = generation;
+        current.views.computeIfPresent(clientId, (id, view) -> {
+            view.forEach(product -> current.removeViewer(product.getId(), id));
+            current.viewedProducts.add(-view.size());
+            return null;
+        });
+    }
+
+    //Products are immutable, so a view shares the stored instance
+    private Optional<Product> currentState(String productId) {
+        return productRepository.findById(productId);
+    }
+
+    private long versionOf(String clientId) {
+        return clientVersions.get(stripeOf(clientId));
+    }
+
+    private static int stripeOf(String clientId) {
+        return (clientId.hashCode() & 0x7fffffff) % VERSION_STRIPES;
+    }
+
+    private static boolean sameState(Product viewed, Product current) {
+        return Objects.equals(viewed.getName(), current.getName())
+                && Objects.equals(viewed.getDescription(), current.getDescription());
+    }
+
+    private static final class Generation {
+        private final Map<String, List<Product>> views = new ConcurrentHashMap<>();
+        private final Map<String, Set<String>> viewersByProduct = new ConcurrentHashMap<>();
+
+        private final LongAdder viewedProducts = new LongAdder();
+        private final LongAdder viewerEntries = new LongAdder();
+
+        void addViewer(String productId, String clientId) {
+            if (viewersByProduct.computeIfAbsent(productId, id -> ConcurrentHashMap.newKeySet()).add(clientId)) {
+                viewerEntries.increment();
+            }
+        }
+
+        void removeViewer(String productId, String clientId) {
+            Set<String> viewers = viewersByProduct.get(productId);
+            if (viewers != null && viewers.remove(clientId)) {
+                viewerEntries.decrement();
+            }
+        }
+    }
+
+    private static int indexOf(List<Product> view, String productId) {
+        for (int i = 0; i < view.size(); i++) {
+            if (view.get(i).getId().equals(productId)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
\ No newline at end of file
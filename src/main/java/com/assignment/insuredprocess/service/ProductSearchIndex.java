@@ -0,0 +1,372 @@
+package com.assignment.insuredprocess.service;
+
+import com.assignment.insuredprocess.diagnostics.MemoryEstimates;
+import com.assignment.insuredprocess.dto.MemoryFootprint;
+import com.assignment.insuredprocess.event.CatalogReloaded;
+import com.assignment.insuredprocess.event.ProductCreated;
+import com.assignment.insuredprocess.event.ProductUpdated;
+import com.assignment.insuredprocess.model.Product;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.LongAdder;
+
+//Inverted index over product name and description for type-ahead search. Terms of each field live in a sorted
+//map (a query token expands to the terms it prefixes with one range scan) and every posting list is kept in
+//ranking order, so a search walks the most selective query token tier by tier (name word, name prefix,
+//description word, description prefix) and stops as soon as no later candidate can make the top k.
+//Candidates are checked against their own indexed document, so postings that are briefly stale while a
+//product is re-indexed never produce a wrong hit. Writers are serialized; readers never lock. A catalog reload
+//builds a complete new generation of the index and swaps it in, so a search sees either generation in full.
+@Component
+public class ProductSearchIndex implements MeterBinder {
+
+    private static final int NAME_WORD = 4;
+    private static final int NAME_PREFIX = 3;
+    private static final int DESCRIPTION_WORD = 2;
+    private static final int DESCRIPTION_PREFIX = 1;
+    private static final long SELECTIVITY_BUDGET = 1024;
+    //Term map node, its key string (about 8 characters) and an empty posting set with its head index
+    private static final long TERM_BYTES = MemoryEstimates.SKIP_LIST_ENTRY + MemoryEstimates.string("12345678")
+            + MemoryEstimates.object(3, 0) + MemoryEstimates.object(9, 0) + MemoryEstimates.object(3, 4);
+    private static final Comparator<Hit> RANKING = Comparator.comparingInt(Hit::score).reversed().thenComparing(Hit::key);
+
+    private volatile Generation current = new Generation();
+    private final Object writeLock = new Object();
+
+    @EventListener
+    public void onProductCreated(ProductCreated event) {
+        index(event.productId(), event.name(), event.description());
+    }
+
+    @EventListener
+    public void onProductUpdated(ProductUpdated event) {
+        index(event.productId(), event.name(), event.description());
+    }
+
+    @EventListener
+    public void onCatalogReloaded(CatalogReloaded event) {
+        rebuild(event.products());
+    }
+
+    public void index(String productId, String name, String description) {
+        synchronized (writeLock) {
+            current.index(productId, name, description);
+        }
+    }
+
+    //The new generation is filled while searches keep using the current one; the write lock keeps single
+    //product updates from landing in the generation that is about to be dropped
+    public void rebuild(Collection<Product> products) {
+        synchronized (writeLock) {
+            Generation next = new Generation();
+            products.forEach(product -> next.index(product.getId(), product.getName(), product.getDescription()));
+            current = next;
+        }
+    }
+
+    //Every query token has to match a word or word prefix of the product; ids come back best match first
+    public List<String> search(String query, int limit) {
+        List<String> tokens = List.copyOf(tokenize(query));
+        if (tokens.isEmpty() || limit < 1) {
+            return List.of();
+        }
+
+        Generation index = current;
+        String driver = index.mostSelective(tokens);
+        int otherTokensBest = 0;
+        for (String token : tokens) {
+            otherTokensBest += token.equals(driver) ? 0 : index.bestPossibleScore(token);
+        }
+        PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1, RANKING.reversed());
+        Set<String> seen = new HashSet<>();
+        index.scan(exact(index.nameTerms, driver), NAME_WORD + otherTokensBest, tokens, limit, top, seen);
+        index.scan(prefixed(index.nameTerms, driver), NAME_PREFIX + otherTokensBest, tokens, limit, top, seen);
+        index.scan(exact(index.descriptionTerms, driver), DESCRIPTION_WORD + otherTokensBest, tokens, limit, top, seen);
+        index.scan(prefixed(index.descriptionTerms, driver), DESCRIPTION_PREFIX + otherTokensBest, tokens, limit, top, seen);
+
+        List<Hit> ranked = new ArrayList<>(top);
+        ranked.sort(RANKING);
+        return ranked.stream().map(hit -> hit.key().productId()).toList();
+    }
+
+    public int size() {
+        return current.documents.size();
+    }
+
+    //Counted by the writers as they link and unlink postings, so reading it never walks the term maps
+    public MemoryFootprint memoryFootprint() {
+        Generation index = current;
+        long terms = index.terms.sum();
+        long postings = index.postings.sum();
+        long bytes = index.documentBytes.sum() + terms * TERM_BYTES + postings * MemoryEstimates.SKIP_LIST_ENTRY;
+        return MemoryFootprint.of(index.documents.size(), bytes, Map.of("terms", terms, "postings", postings));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("insured.search.products", this, ProductSearchIndex::size)
+                .description("Products in the search index")
+                .register(registry);
+        Gauge.builder("insured.search.terms", this, index -> index.current.terms.sum())
+                .description("Distinct name and description terms in the search index")
+                .register(registry);
+    }
+
+    static Set<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return Set.of();
+        }
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static long countUpTo(NavigableMap<String, ConcurrentSkipListSet<RankKey>> terms, String token, long cap) {
+        long count = 0;
+        for (ConcurrentSkipListSet<RankKey> keys : terms.subMap(token, true, token + Character.MAX_VALUE, false).values()) {
+            for (Iterator<RankKey> iterator = keys.iterator(); iterator.hasNext() && count < cap; iterator.next()) {
+                count++;
+            }
+            if (count >= cap) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    private static Iterator<RankKey> exact(NavigableMap<String, ConcurrentSkipListSet<RankKey>> terms, String token) {
+        ConcurrentSkipListSet<RankKey> keys = terms.get(token);
+        return keys != null ? keys.iterator() : Collections.emptyIterator();
+    }
+
+    private static Iterator<RankKey> prefixed(NavigableMap<String, ConcurrentSkipListSet<RankKey>> terms, String token) {
+        return new MergedIterator(terms.subMap(token, false, token + Character.MAX_VALUE, false).values());
+    }
+
+    private static String sortName(String name) {
+        return name != null ? name.toLowerCase(Locale.ROOT) : "";
+    }
+
+    //One complete state of the index: term maps and the document each product was last indexed with
+    private static final class Generation {
+        private final ConcurrentSkipListMap<String, ConcurrentSkipListSet<RankKey>> nameTerms = new ConcurrentSkipListMap<>();
+        private final ConcurrentSkipListMap<String, ConcurrentSkipListSet<RankKey>> descriptionTerms = new ConcurrentSkipListMap<>();
+        private final Map<String, Document> documents = new ConcurrentHashMap<>();
+        private final LongAdder terms = new LongAdder();
+        private final LongAdder postings = new LongAdder();
+        private final LongAdder documentBytes = new LongAdder();
+
+        //New postings are linked before stale ones are dropped, so a concurrent search never misses the product
+        void index(String productId, String name, String description) {
+            Document document = new Document(new RankKey(sortName(name), productId), tokenize(name), tokenize(description));
+            link(nameTerms, document.key(), document.nameTokens());
+            link(descriptionTerms, document.key(), document.descriptionTokens());
+            Document previous = documents.put(productId, document);
+            documentBytes.add(document.estimatedBytes() - (previous != null ? previous.estimatedBytes() : 0));
+            if (previous != null) {
+                boolean sameKey = previous.key().equals(document.key());
+                unlink(nameTerms, previous.key(), previous.nameTokens(), sameKey ? document.nameTokens() : Set.of());
+                unlink(descriptionTerms, previous.key(), previous.descriptionTokens(), sameKey ? document.descriptionTokens() : Set.of());
+            }
+        }
+
+        private void link(Map<String, ConcurrentSkipListSet<RankKey>> field, RankKey key, Set<String> tokens) {
+            for (String token : tokens) {
+                ConcurrentSkipListSet<RankKey> keys = field.get(token);
+                if (keys == null) {
+                    keys = new ConcurrentSkipListSet<>();
+                    field.put(token, keys);
+                    terms.increment();
+                }
+                if (keys.add(key)) {
+                    postings.increment();
+                }
+            }
+        }
+
+        private void unlink(Map<String, ConcurrentSkipListSet<RankKey>> field, RankKey key, Set<String> tokens, Set<String> kept) {
+            for (String token : tokens) {
+                if (kept.contains(token)) {
+                    continue;
+                }
+                ConcurrentSkipListSet<RankKey> keys = field.get(token);
+                if (keys != null && keys.remove(key)) {
+                    postings.decrement();
+                    if (keys.isEmpty() && field.remove(token, keys)) {
+                        terms.decrement();
+                    }
+                }
+            }
+        }
+
+        //Candidates arrive in ranking order within a tier, so the first one that cannot beat the current k-th hit
+        //even with the best score the tier allows ends the tier
+        void scan(Iterator<RankKey> candidates, int bestScore, List<String> tokens, int limit,
+                          PriorityQueue<Hit> top, Set<String> seen) {
+            while (candidates.hasNext()) {
+                RankKey key = candidates.next();
+                if (top.size() == limit && RANKING.compare(new Hit(key, bestScore), top.peek()) >= 0) {
+                    return;
+                }
+                Document document = documents.get(key.productId());
+                if (document == null || !document.key().equals(key) || !seen.add(key.productId())) {
+                    continue;
+                }
+                int score = document.score(tokens);
+                if (score > 0) {
+                    top.offer(new Hit(key, score));
+                    if (top.size() > limit) {
+                        top.poll();
+                    }
+                }
+            }
+        }
+
+        //Counting stops at a fixed budget, so a search never pays for walking a huge posting list just to learn it
+        //is huge; when every token exceeds the budget the longest one drives
+        String mostSelective(List<String> tokens) {
+            List<String> byLength = new ArrayList<>(tokens);
+            byLength.sort(Comparator.comparingInt(String::length).reversed());
+            String driver = byLength.get(0);
+            if (tokens.size() == 1) {
+                return driver;
+            }
+            long fewest = SELECTIVITY_BUDGET;
+            for (String token : byLength) {
+                long postings = countUpTo(nameTerms, token, fewest);
+                postings += countUpTo(descriptionTerms, token, fewest - postings);
+                if (postings < fewest) {
+                    fewest = postings;
+                    driver = token;
+                }
+            }
+            return driver;
+        }
+
+        //Upper bound of what a token can add to any product's score, used to end a scan early
+        int bestPossibleScore(String token) {
+            if (nameTerms.containsKey(token)) {
+                return NAME_WORD;
+            }
+            String nameTerm = nameTerms.ceilingKey(token);
+            if (nameTerm != null && nameTerm.startsWith(token)) {
+                return NAME_PREFIX;
+            }
+            return descriptionTerms.containsKey(token) ? DESCRIPTION_WORD : DESCRIPTION_PREFIX;
+        }
+    }
+
+    //Position of a product among equally scored hits: by name, then id
+    private record RankKey(String sortName, String productId) implements Comparable<RankKey> {
+
+        @Override
+        public int compareTo(RankKey other) {
+            int byName = sortName.compareTo(other.sortName);
+            return byName != 0 ? byName : productId.compareTo(other.productId);
+        }
+    }
+
+    private record Document(RankKey key, Set<String> nameTokens, Set<String> descriptionTokens) {
+
+        //Name matches outrank description matches and whole words outrank prefixes; 0 if a token matches nothing
+        int score(List<String> queryTokens) {
+            int total = 0;
+            for (String token : queryTokens) {
+                int best = Math.max(match(nameTokens, token, NAME_WORD), match(descriptionTokens, token, DESCRIPTION_WORD));
+                if (best == 0) {
+                    return 0;
+                }
+                total += best;
+            }
+            return total;
+        }
+
+        long estimatedBytes() {
+            long bytes = MemoryEstimates.HASH_ENTRY + MemoryEstimates.object(3, 0) + MemoryEstimates.object(2, 0)
+                    + MemoryEstimates.string(key.sortName()) + MemoryEstimates.hashSet(nameTokens.size(), true)
+                    + MemoryEstimates.hashSet(descriptionTokens.size(), true);
+            for (String token : nameTokens) {
+                bytes += MemoryEstimates.string(token);
+            }
+            for (String token : descriptionTokens) {
+                bytes += MemoryEstimates.string(token);
+            }
+            return bytes;
+        }
+
+        private static int match(Set<String> tokens, String token, int wordScore) {
+            if (tokens.contains(token)) {
+                return wordScore;
+            }
+            for (String candidate : tokens) {
+                if (candidate.startsWith(token)) {
+                    return wordScore - 1;
+                }
+            }
+            return 0;
+        }
+    }
+
+    private record Hit(RankKey key, int score) {
+    }
+
+    //Walks several ranking-ordered posting lists as one ranking-ordered sequence
+    private static final class MergedIterator implements Iterator<RankKey> {
+        private final PriorityQueue<Head> heads = new PriorityQueue<>(Comparator.comparing(Head::key));
+
+        MergedIterator(Collection<ConcurrentSkipListSet<RankKey>> postings) {
+            for (ConcurrentSkipListSet<RankKey> keys : postings) {
+                advance(keys.iterator());
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heads.isEmpty();
+        }
+
+        @Override
+        public RankKey next() {
+            Head head = heads.poll();
+            if (head == null) {
+                throw new NoSuchElementException();
+            }
+            advance(head.rest());
+            return head.key();
+        }
+
+        private void advance(Iterator<RankKey> keys) {
+            if (keys.hasNext()) {
+                heads.offer(new Head(keys.next(), keys));
+            }
+        }
+
+        private record Head(RankKey key, Iterator<RankKey> rest) {
+        }
+    }
+}
\ No newline at end of file
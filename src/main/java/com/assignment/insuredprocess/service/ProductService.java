@@ -1,70 +1,378 @@
 package com.assignment.insuredprocess.service;
 
+import com.assignment.insuredprocess.diagnostics.HotKeys;
+import com.assignment.insuredprocess.diagnostics.PortfolioReadEvent;
+import com.assignment.insuredprocess.diagnostics.PurchaseBatchEvent;
+import com.assignment.insuredprocess.diagnostics.PurchaseEvent;
+import com.assignment.insuredprocess.dto.ProductUpdateOrder;
+import com.assignment.insuredprocess.dto.ProductUpdateOutcome;
+import com.assignment.insuredprocess.dto.PurchaseOrder;
+import com.assignment.insuredprocess.dto.PurchaseOutcome;
+import com.assignment.insuredprocess.event.CatalogReloaded;
+import com.assignment.insuredprocess.event.ProductCancelled;
+import com.assignment.insuredprocess.event.ProductCreated;
+import com.assignment.insuredprocess.event.ProductPurchased;
+import com.assignment.insuredprocess.event.ProductUpdated;
 import com.assignment.insuredprocess.model.ClientProduct;
 import com.assignment.insuredprocess.model.Product;
 import com.assignment.insuredprocess.repository.ClientProductRepository;
 import com.assignment.insuredprocess.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 @Service
 @RequiredArgsConstructor
 public class ProductService {
 
+    private static final int MAX_UPDATE_BATCH = 10_000;
+
     private final ProductRepository productRepository;
     private final ClientProductRepository clientProductRepository;
     private final ClientService clientService;
+    private final ProductSearchIndex productSearchIndex;
+    private final PortfolioViews portfolioViews;
+    private final ApplicationEventPublisher eventPublisher;
+    private final HotKeys hotKeys;
+    private final WriteSequencer writeSequencer;
+    //Single product writes share the read side (and order among themselves per product through the write
+    //sequencer); a reload takes the write side, so it never interleaves with an update between its save and its event
+    private final ReadWriteLock catalogLock = new ReentrantReadWriteLock();
 
     public List<Product> getClientProducts(String clientId) {
-        List<ClientProduct> clientProducts = clientProductRepository.findByClientId(clientId);
-        return clientProducts.stream()
-                .map(cp -> productRepository.findById(cp.getProductId()))
-                .filter(Optional::isPresent)
-                .map(Optional::get)
+        return findClientPortfolio(clientId).orElse(List.of());
+    }
+
+    //Empty when the client does not exist; served from the materialised view without touching the stores
+    public Optional<List<Product>> findClientPortfolio(String clientId) {
+        long started = System.nanoTime();
+        PortfolioReadEvent event = new PortfolioReadEvent();
+        event.begin();
+        boolean unknown = clientService.isDefinitelyUnknown(clientId);
+        Optional<List<Product>> portfolio = unknown ? Optional.empty() : portfolioViews.find(clientId);
+        event.record(clientId, portfolio.map(List::size).orElse(0), portfolio.isPresent());
+        if (!unknown) {
+            hotKeys.record(clientId, null, started);
+        }
+        return portfolio;
+    }
+
+    public List<Product> searchProducts(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query is required");
+        }
+        if (limit < 1 || limit > 100) {
+            throw new IllegalArgumentException("Search limit must be between 1 and 100");
+        }
+        return productSearchIndex.search(query, limit).stream()
+                .map(productRepository::findById)
+                .flatMap(Optional::stream)
                 .toList();
     }
 
     public Product buyProduct(String clientId, String productId) {
-        if (clientService.findClientById(clientId).isEmpty()) {
-            throw new IllegalArgumentException("Client not found: " + clientId);
-        }
+        return buyProduct(clientId, productId, true);
+    }
 
-        Optional<Product> productOpt = productRepository.findById(productId);
-        if (productOpt.isEmpty()) {
-            throw new IllegalArgumentException("Product not found: " + productId);
+    //For callers whose client id comes from a verified session token: the client existed when the token was
+    //issued, but may have been handed to another cluster node since, so only its presence is checked (without
+    //reading it) under the same write lock the handoff holds while it removes the client
+    public Product buyProductAsAuthenticated(String clientId, String productId) {
+        return buyProduct(clientId, productId, false);
+    }
+
+    private Product buyProduct(String clientId, String productId, boolean checkClient) {
+        long started = System.nanoTime();
+        PurchaseEvent event = new PurchaseEvent();
+        event.begin();
+        try {
+            Product product = purchase(clientId, productId, checkClient);
+            event.record(clientId, productId, true);
+            return product;
+        } catch (IllegalArgumentException e) {
+            event.record(clientId, productId, false);
+            throw e;
+        } finally {
+            hotKeys.record(trackedClientId(clientId), productId, started);
         }
+    }
 
-        if (clientProductRepository.existsByClientIdAndProductId(clientId, productId)) {
-            throw new IllegalArgumentException("Client already owns this product");
+    //Checked under the client's write lock, which a cluster handoff also holds while it drops the client, so a
+    //purchase never lands on a client that has just moved to another node
+    private Product purchase(String clientId, String productId, boolean checkClient) {
+        return writeSequencer.call(clientId, () -> {
+            if (checkClient ? clientService.findClientById(clientId).isEmpty() : !clientService.exists(clientId)) {
+                throw new IllegalArgumentException("Client not found: " + clientId);
+            }
+
+            Optional<Product> productOpt = findCatalogProduct(productId);
+            if (productOpt.isEmpty()) {
+                throw new IllegalArgumentException("Product not found: " + productId);
+            }
+
+            ClientProduct clientProduct = new ClientProduct(clientId, productId);
+            if (!clientProductRepository.saveIfAbsent(clientProduct)) {
+                throw new IllegalArgumentException("Client already owns this product");
+            }
+            eventPublisher.publishEvent(new ProductPurchased(clientId, productId, clientProduct.getPurchaseDate()));
+            return productOpt.get();
+        });
+    }
+
+    private Optional<Product> findCatalogProduct(String productId) {
+        return productRepository.isDefinitelyAbsent(productId) ? Optional.empty() : productRepository.findById(productId);
+    }
+
+    //Batch form of buyProduct used by the purchase pipeline: every order is validated first,
+    //then all valid ones are persisted with a single grouped write, all under the write locks of the batch's clients
+    public List<PurchaseOutcome> buyProducts(List<PurchaseOrder> orders) {
+        long started = System.nanoTime();
+        PurchaseBatchEvent event = new PurchaseBatchEvent();
+        event.begin();
+        Set<String> clientIds = new HashSet<>();
+        orders.forEach(order -> clientIds.add(order.clientId()));
+        PurchaseOutcome[] outcomes = new PurchaseOutcome[orders.size()];
+        int purchased = writeSequencer.call(clientIds, () -> purchaseAll(orders, outcomes));
+        event.record(orders.isEmpty() ? null : orders.get(0).clientId(), orders.size(), purchased);
+        //every order of the batch waited for the whole batch
+        orders.forEach(order -> hotKeys.record(trackedClientId(order.clientId()), order.productId(), started));
+        return List.of(outcomes);
+    }
+
+    private int purchaseAll(List<PurchaseOrder> orders, PurchaseOutcome[] outcomes) {
+        Map<String, Boolean> knownClients = new HashMap<>();
+        List<ClientProduct> reservations = new ArrayList<>();
+        List<Integer> reservedIndexes = new ArrayList<>();
+        List<Product> reservedProducts = new ArrayList<>();
+
+        for (int i = 0; i < orders.size(); i++) {
+            PurchaseOrder order = orders.get(i);
+            boolean clientExists = knownClients.computeIfAbsent(order.clientId(),
+                    id -> clientService.findClientById(id).isPresent());
+            if (!clientExists) {
+                outcomes[i] = PurchaseOutcome.failure("Client not found: " + order.clientId());
+                continue;
+            }
+            Optional<Product> productOpt = findCatalogProduct(order.productId());
+            if (productOpt.isEmpty()) {
+                outcomes[i] = PurchaseOutcome.failure("Product not found: " + order.productId());
+                continue;
+            }
+            reservations.add(new ClientProduct(order.clientId(), order.productId()));
+            reservedIndexes.add(i);
+            reservedProducts.add(productOpt.get());
         }
 
-        ClientProduct clientProduct = new ClientProduct(clientId, productId);
-        clientProductRepository.save(clientProduct);
-        return productOpt.get();
+        List<Boolean> saved = clientProductRepository.saveAllIfAbsent(reservations);
+        int purchased = 0;
+        for (int i = 0; i < saved.size(); i++) {
+            if (saved.get(i)) {
+                purchased++;
+                ClientProduct clientProduct = reservations.get(i);
+                eventPublisher.publishEvent(new ProductPurchased(clientProduct.getClientId(),
+                        clientProduct.getProductId(), clientProduct.getPurchaseDate()));
+                outcomes[reservedIndexes.get(i)] = PurchaseOutcome.success(reservedProducts.get(i));
+            } else {
+                outcomes[reservedIndexes.get(i)] = PurchaseOutcome.failure("Client already owns this product");
+            }
+        }
+        return purchased;
     }
 
     public void updateProduct(String clientId, String productId, String newName, String newDescription) {
-        if (!clientProductRepository.existsByClientIdAndProductId(clientId, productId)) {
+        long started = System.nanoTime();
+        try {
+            update(clientId, productId, newName, newDescription);
+        } finally {
+            hotKeys.record(trackedClientId(clientId), productId, started);
+        }
+    }
+
+    private void update(String clientId, String productId, String newName, String newDescription) {
+        if (clientService.isDefinitelyUnknown(clientId) || !clientProductRepository.existsByClientIdAndProductId(clientId, productId)) {
             throw new IllegalArgumentException("Client does not own this product");
         }
 
-        Optional<Product> productOpt = productRepository.findById(productId);
-        if (productOpt.isPresent()) {
-            Product product = productOpt.get();
-            if (newName != null) product.setName(newName);
-            if (newDescription != null) product.setDescription(newDescription);
-            productRepository.save(product);
+        catalogLock.readLock().lock();
+        try {
+            writeSequencer.run(productId, () -> {
+                Optional<Product> productOpt = productRepository.findById(productId);
+                if (productOpt.isPresent()) {
+                    //products are immutable, so the update stores a new instance
+                    Product current = productOpt.get();
+                    Product product = new Product(productId, newName != null ? newName : current.getName(),
+                            newDescription != null ? newDescription : current.getDescription());
+                    productRepository.save(product);
+                    eventPublisher.publishEvent(new ProductUpdated(productId, clientId, product.getName(), product.getDescription()));
+                }
+            });
+        } finally {
+            catalogLock.readLock().unlock();
+        }
+    }
+
+    //Batch form of updateProduct for sync jobs: ownership of every item is checked against one snapshot of the
+    //client's holdings, items are merged per product in request order (a later item wins field by field), and
+    //each product is then written and announced once. The result holds one outcome per item.
+    public List<ProductUpdateOutcome> updateProducts(String clientId, List<ProductUpdateOrder> orders) {
+        if (orders.size() > MAX_UPDATE_BATCH) {
+            throw new IllegalArgumentException("At most " + MAX_UPDATE_BATCH + " updates per batch");
+        }
+        long started = System.nanoTime();
+        boolean unknown = clientService.isDefinitelyUnknown(clientId);
+        Set<String> owned = unknown ? Set.of() : clientProductRepository.findProductIdsByClientId(clientId);
+        ProductUpdateOutcome[] outcomes = new ProductUpdateOutcome[orders.size()];
+        Map<String, List<Integer>> indexesByProduct = new LinkedHashMap<>();
+        for (int i = 0; i < orders.size(); i++) {
+            String productId = orders.get(i).productId();
+            if (productId == null || !owned.contains(productId)) {
+                outcomes[i] = ProductUpdateOutcome.failure(productId, "Client does not own this product");
+            } else {
+                indexesByProduct.computeIfAbsent(productId, id -> new ArrayList<>()).add(i);
+            }
+        }
+
+        catalogLock.readLock().lock();
+        try {
+            //the stripes of every product in the batch are held from the reads to the events, so a concurrent
+            //updateProduct of one of them lands entirely before or after the batch instead of being overwritten
+            writeSequencer.run(indexesByProduct.keySet(), () -> {
+                List<Product> updated = new ArrayList<>(indexesByProduct.size());
+                indexesByProduct.forEach((productId, indexes) -> {
+                    Optional<Product> current = productRepository.findById(productId);
+                    if (current.isEmpty()) {
+                        indexes.forEach(i -> outcomes[i] = ProductUpdateOutcome.failure(productId, "Product not found: " + productId));
+                        return;
+                    }
+                    String name = current.get().getName();
+                    String description = current.get().getDescription();
+                    for (int i : indexes) {
+                        ProductUpdateOrder order = orders.get(i);
+                        if (order.name() != null) name = order.name();
+                        if (order.description() != null) description = order.description();
+                        outcomes[i] = ProductUpdateOutcome.success(productId);
+                    }
+                    updated.add(new Product(productId, name, description));
+                });
+                productRepository.saveAll(updated);
+                updated.forEach(product -> eventPublisher.publishEvent(
+                        new ProductUpdated(product.getId(), clientId, product.getName(), product.getDescription())));
+            });
+        } finally {
+            catalogLock.readLock().unlock();
+        }
+        if (!unknown) {
+            hotKeys.record(clientId, null, started);
+        }
+        indexesByProduct.keySet().forEach(productId -> hotKeys.record(null, productId, started));
+        return List.of(outcomes);
+    }
+
+    public void cancelProduct(String clientId, String productId) {
+        long started = System.nanoTime();
+        try {
+            if (clientService.isDefinitelyUnknown(clientId)) {
+                throw new IllegalArgumentException("Client does not own this product");
+            }
+            writeSequencer.run(clientId, () -> {
+                if (!clientProductRepository.deleteByClientIdAndProductId(clientId, productId)) {
+                    throw new IllegalArgumentException("Client does not own this product");
+                }
+                eventPublisher.publishEvent(new ProductCancelled(clientId, productId));
+            });
+        } finally {
+            hotKeys.record(trackedClientId(clientId), productId, started);
         }
     }
 
     public Product createProduct(String id, String name, String description) {
-        if (productRepository.existsById(id)) {
-            throw new IllegalArgumentException("Product with ID " + id + " already exists");
+        if (id == null) {
+            throw new IllegalArgumentException("Product ID is required");
+        }
+        catalogLock.readLock().lock();
+        try {
+            return writeSequencer.call(id, () -> {
+                if (productRepository.existsById(id)) {
+                    throw new IllegalArgumentException("Product with ID " + id + " already exists");
+                }
+                Product product = productRepository.save(new Product(id, name, description));
+                eventPublisher.publishEvent(new ProductCreated(id, name, description));
+                return product;
+            });
+        } finally {
+            catalogLock.readLock().unlock();
         }
-        Product product = new Product(id, name, description);
-        return productRepository.save(product);
+    }
+
+    //Bulk form of createProduct for loaders: the catalog is copied once for the whole list instead of once per
+    //product. Nothing is stored if any id is missing, repeated or already taken.
+    public int createProducts(List<Product> products) {
+        Set<String> ids = new HashSet<>();
+        for (Product product : products) {
+            if (product == null || product.getId() == null) {
+                throw new IllegalArgumentException("Product ID is required");
+            }
+            if (!ids.add(product.getId())) {
+                throw new IllegalArgumentException("Duplicate product ID: " + product.getId());
+            }
+        }
+        catalogLock.writeLock().lock();
+        try {
+            for (String id : ids) {
+                if (productRepository.existsById(id)) {
+                    throw new IllegalArgumentException("Product with ID " + id + " already exists");
+                }
+            }
+            productRepository.saveAll(products);
+            products.forEach(product -> eventPublisher.publishEvent(
+                    new ProductCreated(product.getId(), product.getName(), product.getDescription())));
+        } finally {
+            catalogLock.writeLock().unlock();
+        }
+        return products.size();
+    }
+
+    //Replaces the whole catalog in one step; products missing from the list disappear from search and
+    //portfolios (ownership rows are kept, so a later load that brings a product back restores it)
+    public int reloadCatalog(List<Product> products) {
+        if (products == null || products.isEmpty()) {
+            throw new IllegalArgumentException("Catalog must contain at least one product");
+        }
+        Set<String> ids = new HashSet<>();
+        List<Product> catalog = new ArrayList<>(products.size());
+        for (Product product : products) {
+            if (product == null || product.getId() == null || product.getId().isBlank()) {
+                throw new IllegalArgumentException("Product ID is required");
+            }
+            if (!ids.add(product.getId())) {
+                throw new IllegalArgumentException("Duplicate product ID in catalog: " + product.getId());
+            }
+            catalog.add(product);
+        }
+
+        catalogLock.writeLock().lock();
+        try {
+            productRepository.replaceAll(catalog);
+            eventPublisher.publishEvent(new CatalogReloaded(List.copyOf(catalog)));
+        } finally {
+            catalogLock.writeLock().unlock();
+        }
+        return catalog.size();
+    }
+
+    //Ids the client filter rules out stay out of the hot keys, so a scan of made-up ids can't push real clients out
+    private String trackedClientId(String clientId) {
+        return clientService.isDefinitelyUnknown(clientId) ? null : clientId;
     }
 }
\ No newline at end of file
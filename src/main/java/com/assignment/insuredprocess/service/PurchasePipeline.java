@@ -0,0 +1,130 @@
+package com.assignment.insuredprocess.service;
+
+import com.assignment.insuredprocess.config.PurchaseProperties;
+import com.assignment.insuredprocess.dto.PurchaseOrder;
+import com.assignment.insuredprocess.dto.PurchaseOutcome;
+import com.assignment.insuredprocess.model.Product;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+//Asynchronous front of ProductService.buyProduct. Callers get a future right away; a single worker drains
+//whatever purchases are queued (up to batchSize), validates them, persists them in one grouped write and
+//then completes every future of the batch.
+@Slf4j
+@Component
+public class PurchasePipeline implements SmartLifecycle {
+
+    private final ProductService productService;
+    private final BlockingQueue<PendingPurchase> queue;
+    private final int batchSize;
+    //Offers hold the read side, stop() flips running under the write side, so nothing is queued after the final drain
+    private final ReadWriteLock admission = new ReentrantReadWriteLock();
+    private volatile Thread worker;
+    private volatile boolean running;
+
+    public PurchasePipeline(ProductService productService, PurchaseProperties properties) {
+        this.productService = productService;
+        this.queue = new ArrayBlockingQueue<>(properties.queueCapacity());
+        this.batchSize = properties.batchSize();
+    }
+
+    public CompletableFuture<Product> buyProductAsync(String clientId, String productId) {
+        PendingPurchase purchase = new PendingPurchase(new PurchaseOrder(clientId, productId), new CompletableFuture<>());
+        boolean queued;
+        admission.readLock().lock();
+        try {
+            queued = running && queue.offer(purchase);
+        } finally {
+            admission.readLock().unlock();
+        }
+        if (!queued) {
+            purchase.result().completeExceptionally(new RejectedExecutionException("Purchase pipeline is not accepting requests"));
+        }
+        return purchase.result();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        worker = Thread.ofPlatform().name("purchase-pipeline").daemon().start(this::drainLoop);
+    }
+
+    @Override
+    public void stop() {
+        admission.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            admission.writeLock().unlock();
+        }
+        Thread current = worker;
+        if (current != null) {
+            current.interrupt();
+            try {
+                current.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        List<PendingPurchase> abandoned = new ArrayList<>();
+        queue.drainTo(abandoned);
+        abandoned.forEach(purchase -> purchase.result()
+                .completeExceptionally(new RejectedExecutionException("Purchase pipeline stopped")));
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void drainLoop() {
+        List<PendingPurchase> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                PendingPurchase first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                process(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void process(List<PendingPurchase> batch) {
+        try {
+            List<PurchaseOutcome> outcomes = productService.buyProducts(batch.stream().map(PendingPurchase::order).toList());
+            for (int i = 0; i < batch.size(); i++) {
+                PurchaseOutcome outcome = outcomes.get(i);
+                if (outcome.isSuccess()) {
+                    batch.get(i).result().complete(outcome.product());
+                } else {
+                    batch.get(i).result().completeExceptionally(new IllegalArgumentException(outcome.failure()));
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Purchase batch of {} failed", batch.size(), e);
+            batch.forEach(purchase -> purchase.result().completeExceptionally(e));
+        }
+    }
+
+    private record PendingPurchase(PurchaseOrder order, CompletableFuture<Product> result) {
+    }
+}
\ No newline at end of file
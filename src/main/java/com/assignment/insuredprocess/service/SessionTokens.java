@@ -0,0 +1,165 @@
+package com.assignment.insuredprocess.service;
+
+import com.assignment.insuredprocess.config.SessionProperties;
+import com.assignment.insuredprocess.exception.SessionRejectedException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.util.Base64;
+import java.util.concurrent.atomic.LongAdder;
+
+//Stateless session tokens handed out by a successful authentication: base64url(clientId).expiry.signature,
+//signed with HMAC-SHA256. Checking one is a MAC over a few dozen bytes and a constant-time comparison, with
+//no repository access, so product calls carrying a token skip the per-request client lookup. A token stays
+//valid until it expires; there is no revocation list.
+@Component
+public class SessionTokens implements MeterBinder {
+
+    public static final String HEADER = "X-Session-Token";
+    public static final String BEARER = "Bearer ";
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final ThreadLocal<Mac> macs;
+    private final long ttlSeconds;
+    private final boolean required;
+    private final Clock clock;
+    private final LongAdder issued = new LongAdder();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    @Autowired
+    public SessionTokens(SessionProperties properties) {
+        this(properties, Clock.systemUTC());
+    }
+
+    SessionTokens(SessionProperties properties, Clock clock) {
+        byte[] secret = properties.secret().isEmpty() ? randomSecret() : properties.secret().getBytes(StandardCharsets.UTF_8);
+        SecretKeySpec key = new SecretKeySpec(secret, ALGORITHM);
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(ALGORITHM);
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HMAC-SHA256 is not available", e);
+            }
+        });
+        this.ttlSeconds = Math.max(1, properties.ttl().toSeconds());
+        this.required = properties.required();
+        this.clock = clock;
+    }
+
+    public String issue(String clientId) {
+        String payload = ENCODER.encodeToString(clientId.getBytes(StandardCharsets.UTF_8))
+                + '.' + (clock.instant().getEpochSecond() + ttlSeconds);
+        issued.increment();
+        return payload + '.' + ENCODER.encodeToString(sign(payload));
+    }
+
+    //The client a product call acts for: the token's client when an Authorization bearer token is sent (a
+    //clientId parameter must then name the same client), otherwise the clientId parameter unless tokens are required
+    public Caller callerOf(String authorization, String clientId) {
+        if (authorization == null || !authorization.startsWith(BEARER)) {
+            if (required) {
+                throw reject("Session token required");
+            }
+            if (clientId == null) {
+                throw new IllegalArgumentException("Client ID is required");
+            }
+            return new Caller(clientId, false);
+        }
+        String tokenClientId = verify(authorization.substring(BEARER.length()).trim());
+        if (clientId != null && !clientId.equals(tokenClientId)) {
+            throw reject("Session token was issued to another client");
+        }
+        accepted.increment();
+        return new Caller(tokenClientId, true);
+    }
+
+    //The client named in a token without checking it, for routing the request to the node that will check it
+    public static String unverifiedClientIdOf(String authorization) {
+        if (authorization == null || !authorization.startsWith(BEARER)) {
+            return null;
+        }
+        String token = authorization.substring(BEARER.length()).trim();
+        int dot = token.indexOf('.');
+        try {
+            return dot > 0 ? new String(DECODER.decode(token.substring(0, dot)), StandardCharsets.UTF_8) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        counter(registry, issued, "issued");
+        counter(registry, accepted, "accepted");
+        counter(registry, rejected, "rejected");
+    }
+
+    private String verify(String token) {
+        int signatureDot = token.lastIndexOf('.');
+        int expiryDot = signatureDot > 0 ? token.lastIndexOf('.', signatureDot - 1) : -1;
+        if (expiryDot <= 0) {
+            throw reject("Malformed session token");
+        }
+        String payload = token.substring(0, signatureDot);
+        byte[] signature;
+        long expiresAt;
+        try {
+            signature = DECODER.decode(token.substring(signatureDot + 1));
+            expiresAt = Long.parseLong(token.substring(expiryDot + 1, signatureDot));
+        } catch (IllegalArgumentException e) {
+            throw reject("Malformed session token");
+        }
+        if (!MessageDigest.isEqual(signature, sign(payload))) {
+            throw reject("Invalid session token");
+        }
+        if (expiresAt < clock.instant().getEpochSecond()) {
+            throw reject("Session token expired");
+        }
+        try {
+            return new String(DECODER.decode(token.substring(0, expiryDot)), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw reject("Malformed session token");
+        }
+    }
+
+    private byte[] sign(String payload) {
+        return macs.get().doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private SessionRejectedException reject(String message) {
+        rejected.increment();
+        return new SessionRejectedException(message);
+    }
+
+    private static byte[] randomSecret() {
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        return secret;
+    }
+
+    private static void counter(MeterRegistry registry, LongAdder adder, String result) {
+        FunctionCounter.builder("insured.session.tokens", adder, LongAdder::sum)
+                .description("Session tokens issued, and accepted or rejected on product calls")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    //authenticated is true when the client id comes from a verified token
+    public record Caller(String clientId, boolean authenticated) {
+    }
+}
\ No newline at end of file
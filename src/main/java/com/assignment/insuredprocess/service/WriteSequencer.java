@@ -0,0 +1,71 @@
+package com.assignment.insuredprocess.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+//Striped locks that keep a write and the publication of its event together. Listeners run on the publishing
+//thread, so the change feed (and the replication log read from it) lists the events of one client or product
+//in the order their writes took effect. Writes to different keys only wait for each other when they share a stripe.
+@Component
+public class WriteSequencer {
+
+    private static final int STRIPES = 1024;
+
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+
+    public WriteSequencer() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public <T> T call(String key, Supplier<T> write) {
+        ReentrantLock lock = stripes[stripeOf(key)];
+        lock.lock();
+        try {
+            return write.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void run(String key, Runnable write) {
+        call(key, () -> {
+            write.run();
+            return null;
+        });
+    }
+
+    //Holds the stripes of all keys at once; they are taken in stripe order so two batches never deadlock
+    public <T> T call(Collection<String> keys, Supplier<T> write) {
+        int[] indexes = keys.stream().mapToInt(WriteSequencer::stripeOf).distinct().sorted().toArray();
+        int locked = 0;
+        try {
+            for (int index : indexes) {
+                stripes[index].lock();
+                locked++;
+            }
+            return write.get();
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                stripes[indexes[i]].unlock();
+            }
+        }
+    }
+
+    public void run(Collection<String> keys, Runnable write) {
+        call(keys, () -> {
+            write.run();
+            return null;
+        });
+    }
+
+    private static int stripeOf(String key) {
+        int hash = Objects.hashCode(key);
+        return (hash ^ hash >>> 16) & (STRIPES - 1);
+    }
+}
\ No newline at end of file
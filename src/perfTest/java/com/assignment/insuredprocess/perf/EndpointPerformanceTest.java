@@ -0,0 +1,286 @@
+package com.assignment.insuredprocess.perf;
+
+import com.assignment.insuredprocess.InsuredProcessApplication;
+import com.assignment.insuredprocess.loadtest.LatencyHistogram;
+import com.assignment.insuredprocess.model.ContactMethod;
+import com.assignment.insuredprocess.perf.PerformanceBudget.OperationResult;
+import com.assignment.insuredprocess.seed.SyntheticBook;
+import com.assignment.insuredprocess.seed.SyntheticBookLoader;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.abort;
+
+//Drives each operation on its own against a small book of perf.smallClients clients and a large one of perf.clients
+//clients, both running in this JVM, with perf.threads closed-loop callers. Both books are warmed up before either is
+//measured, and the measuring order alternates between operations, so neither book pays for the JIT. Requests on
+//both books go to the same working set of perf.smallClients clients, so caches and views are as warm in either
+//and only the size of the stores differs. Each result is
+//held to the stored baseline and the large book to the scaling budget of the small one. 4xx answers (a product
+//bought twice) are business outcomes and count as completed requests; 5xx and transport failures fail the run.
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("Endpoint Performance Tests")
+class EndpointPerformanceTest {
+
+    private static final int CLIENTS = Integer.getInteger("perf.clients", 50_000);
+    private static final int SMALL_CLIENTS = Integer.getInteger("perf.smallClients", CLIENTS / 10);
+    private static final int PRODUCTS = Integer.getInteger("perf.products", 1000);
+    private static final int THREADS = Integer.getInteger("perf.threads", 8);
+    private static final Duration WARMUP = Duration.ofSeconds(Long.getLong("perf.warmup", 5));
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("perf.duration", 10));
+    private static final boolean UPDATE_BASELINE = Boolean.getBoolean("perf.updateBaseline");
+    private static final String SETUP = SMALL_CLIENTS + " and " + CLIENTS + " clients, " + PRODUCTS + " products, " + THREADS + " threads, "
+            + Runtime.getRuntime().availableProcessors() + " cpus";
+    private static final List<OperationResult> RESULTS = new ArrayList<>();
+
+    private static Instance small;
+    private static Instance large;
+
+    private final HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final PerformanceBudget budget;
+
+    EndpointPerformanceTest() throws IOException {
+        budget = new PerformanceBudget(baselineFile(), Double.parseDouble(System.getProperty("perf.maxLatencyRatio", "2.0")),
+                Double.parseDouble(System.getProperty("perf.minThroughputRatio", "0.6")),
+                Double.parseDouble(System.getProperty("perf.maxLatencyGrowth", "2.0")),
+                Double.parseDouble(System.getProperty("perf.minThroughputRetained", "0.6")));
+    }
+
+    @BeforeAll
+    static void startBooks() {
+        if (SMALL_CLIENTS < 1 || SMALL_CLIENTS >= CLIENTS) {
+            throw new IllegalArgumentException("perf.smallClients must be at least 1 and below perf.clients (" + CLIENTS + "), was " + SMALL_CLIENTS);
+        }
+        small = Instance.start(SMALL_CLIENTS);
+        large = Instance.start(CLIENTS);
+    }
+
+    @AfterAll
+    static void stopAndRecord() throws IOException {
+        try {
+            PerformanceBudget.write(Path.of(System.getProperty("perf.resultsFile", "build/perf/results.properties")), SETUP, RESULTS);
+            if (UPDATE_BASELINE) {
+                PerformanceBudget.write(baselineFile(), SETUP, RESULTS);
+            }
+        } finally {
+            if (large != null) {
+                large.context().close();
+            }
+            if (small != null) {
+                small.context().close();
+            }
+        }
+    }
+
+    @BeforeEach
+    void awaitBooks() throws InterruptedException {
+        small.loader().awaitFullyLoaded();
+        large.loader().awaitFullyLoaded();
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("Authentication should scale with the book within its budget")
+    void authenticate() throws Exception {
+        measure("authenticate", (instance, random) -> {
+            SyntheticBook book = instance.loader().book();
+            int client = instance.client(random);
+            List<ContactMethod> contactMethods = book.contactMethods(client);
+            ContactMethod contact = contactMethods.get(random.nextInt(contactMethods.size()));
+            return instance.request("/api/clients/authenticate")
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"clientId\":\"" + book.clientId(client) + "\",\"contactType\":\""
+                            + contact.getType() + "\",\"contactValue\":\"" + contact.getValue() + "\"}"))
+                    .build();
+        });
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("Portfolio listing should scale with the book within its budget")
+    void listPortfolio() throws Exception {
+        measure("list", (instance, random) -> {
+            SyntheticBook book = instance.loader().book();
+            return instance.request("/api/clients/" + book.clientId(instance.client(random)) + "/products")
+                    .GET()
+                    .build();
+        });
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("Purchases should scale with the book within their budget")
+    void buy() throws Exception {
+        measure("buy", (instance, random) -> {
+            SyntheticBook book = instance.loader().book();
+            return instance.request("/api/products/" + book.productId(random.nextInt(book.products()))
+                    + "/buy?clientId=" + book.clientId(instance.client(random)))
+                    .POST(HttpRequest.BodyPublishers.noBody())
+                    .build();
+        });
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("Product updates should scale with the book within their budget")
+    void update() throws Exception {
+        measure("update", (instance, random) -> {
+            SyntheticBook book = instance.loader().book();
+            int client;
+            int[] owned;
+            do {
+                client = instance.client(random);
+                owned = book.ownedProductIndexes(client);
+            } while (owned.length == 0);
+            return instance.request("/api/products/" + book.productId(owned[random.nextInt(owned.length)]) + "?clientId=" + book.clientId(client))
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString("{\"description\":\"Performance run revision " + random.nextInt(1_000_000) + "\"}"))
+                    .build();
+        });
+    }
+
+    private void measure(String operation, BiFunction<Instance, ThreadLocalRandom, HttpRequest> requests) throws Exception {
+        drive(operation, small, requests, WARMUP, null);
+        drive(operation, large, requests, WARMUP, null);
+        //every other operation measures the large book first
+        boolean largeFirst = RESULTS.size() / 2 % 2 == 1;
+        OperationResult atSmall;
+        OperationResult atLarge;
+        if (largeFirst) {
+            atLarge = measure(operation, large, requests);
+            atSmall = measure(operation, small, requests);
+        } else {
+            atSmall = measure(operation, small, requests);
+            atLarge = measure(operation, large, requests);
+        }
+
+        for (OperationResult result : List.of(atSmall, atLarge)) {
+            assertThat(result.errors()).as("%s server errors at %d clients", operation, result.clients()).isZero();
+            assertThat(result.requests()).as("%s requests at %d clients", operation, result.clients()).isPositive();
+        }
+        assertThat(budget.scalingViolations(atSmall, atLarge)).as("%s scaling budget violations", operation).isEmpty();
+        if (UPDATE_BASELINE) {
+            return;
+        }
+        if (!budget.hasBaseline(SETUP, atSmall) || !budget.hasBaseline(SETUP, atLarge)) {
+            //reported as skipped by the perfTest task, so a run without a matching baseline can't pass unnoticed
+            abort("No baseline for " + operation + " with " + SETUP + " in " + budget.baselineFile() + " (recorded: "
+                    + budget.baselineSetup() + "); record one with -Pperf.updateBaseline=true");
+        }
+        List<String> violations = new ArrayList<>(budget.baselineViolations(atSmall));
+        violations.addAll(budget.baselineViolations(atLarge));
+        assertThat(violations).as("%s baseline budget violations against %s", operation, budget.baselineFile()).isEmpty();
+    }
+
+    private OperationResult measure(String operation, Instance instance, BiFunction<Instance, ThreadLocalRandom, HttpRequest> requests)
+            throws InterruptedException {
+        LatencyHistogram latency = new LatencyHistogram();
+        LongAdder errors = new LongAdder();
+        //garbage left by the other book's run would otherwise be collected during this one
+        System.gc();
+        drive(operation, instance, requests, DURATION, (micros, status) -> {
+            latency.record(micros);
+            if (status < 200 || status >= 500) {
+                errors.increment();
+            }
+        });
+
+        OperationResult result = new OperationResult(operation, instance.clients(), latency.count(), errors.sum(),
+                latency.count() / (DURATION.toNanos() / 1e9), latency.percentile(0.50) / 1000.0, latency.percentile(0.99) / 1000.0);
+        RESULTS.add(result);
+        System.out.printf("%-13s %7d clients %10d requests %8.0f req/s  p50 %7.2f ms  p99 %7.2f ms  %d errors%n", operation,
+                result.clients(), result.requests(), result.throughput(), result.p50Millis(), result.p99Millis(), result.errors());
+        return result;
+    }
+
+    //Closed-loop callers for the given time; a null sink makes it a warm-up
+    private void drive(String operation, Instance instance, BiFunction<Instance, ThreadLocalRandom, HttpRequest> requests,
+                       Duration duration, ResponseSink sink) throws InterruptedException {
+        long runEnds = System.nanoTime() + duration.toNanos();
+        List<Thread> callers = new ArrayList<>(THREADS);
+        for (int i = 0; i < THREADS; i++) {
+            callers.add(Thread.ofPlatform().name("perf-" + operation + "-" + i).start(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < runEnds) {
+                    HttpRequest request = requests.apply(instance, random);
+                    long started = System.nanoTime();
+                    int status = send(request);
+                    if (sink != null) {
+                        sink.accept((System.nanoTime() - started) / 1_000, status);
+                    }
+                }
+            }));
+        }
+        for (Thread caller : callers) {
+            caller.join();
+        }
+    }
+
+    private int send(HttpRequest request) {
+        try {
+            return http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            return -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+    }
+
+    private static Path baselineFile() {
+        return Path.of(System.getProperty("perf.baselineFile", "src/perfTest/resources/perf-baseline.properties"));
+    }
+
+    @FunctionalInterface
+    private interface ResponseSink {
+        void accept(long latencyMicros, int status);
+    }
+
+    private record Instance(int clients, ConfigurableApplicationContext context, SyntheticBookLoader loader, int port) {
+
+        static Instance start(int clients) {
+            ConfigurableApplicationContext context = new SpringApplicationBuilder(InsuredProcessApplication.class).run(
+                    "--server.port=0",
+                    "--insured-process.seed.clients=" + clients,
+                    "--insured-process.seed.products=" + PRODUCTS,
+                    "--insured-process.auth.throttle.source-refill-period=0s",
+                    "--insured-process.auth.throttle.client-refill-period=0s",
+                    //measure the endpoints rather than the load shedding in front of them
+                    "--insured-process.admission.enabled=false");
+            return new Instance(clients, context, context.getBean(SyntheticBookLoader.class),
+                    ((ServletWebServerApplicationContext) context).getWebServer().getPort());
+        }
+
+        //A client of the working set shared by both books
+        int client(ThreadLocalRandom random) {
+            return random.nextInt(SMALL_CLIENTS);
+        }
+
+        HttpRequest.Builder request(String path) {
+            return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).timeout(Duration.ofSeconds(30));
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,108 @@
+package com.assignment.insuredprocess.perf;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+//Two budgets per operation. Against the stored baseline of the same setup (book sizes, threads and CPUs), p99 may
+//be at most maxLatencyRatio times and throughput must reach minThroughputRatio of the recorded run, which catches
+//a slowdown that hits every book size alike. Within the run, the large book may grow p99 at most maxLatencyGrowth
+//times and must keep minThroughputRetained of the small book's throughput, which catches a lookup that scans every
+//row even on hardware the baseline was not recorded on.
+final class PerformanceBudget {
+
+    private final Path baselineFile;
+    private final Properties baseline = new Properties();
+    private final double maxLatencyRatio;
+    private final double minThroughputRatio;
+    private final double maxLatencyGrowth;
+    private final double minThroughputRetained;
+
+    PerformanceBudget(Path baselineFile, double maxLatencyRatio, double minThroughputRatio, double maxLatencyGrowth,
+                      double minThroughputRetained) throws IOException {
+        this.baselineFile = baselineFile;
+        this.maxLatencyRatio = maxLatencyRatio;
+        this.minThroughputRatio = minThroughputRatio;
+        this.maxLatencyGrowth = maxLatencyGrowth;
+        this.minThroughputRetained = minThroughputRetained;
+        if (Files.exists(baselineFile)) {
+            try (Reader reader = Files.newBufferedReader(baselineFile)) {
+                baseline.load(reader);
+            }
+        }
+    }
+
+    //The baseline only holds for the setup it was recorded with
+    boolean hasBaseline(String setup, OperationResult result) {
+        return setup.equals(baseline.getProperty("setup")) && baseline.containsKey(keyOf(result) + ".p99Millis");
+    }
+
+    String baselineSetup() {
+        return baseline.getProperty("setup", "none");
+    }
+
+    Path baselineFile() {
+        return baselineFile;
+    }
+
+    List<String> baselineViolations(OperationResult result) {
+        List<String> violations = new ArrayList<>();
+        double p99Budget = Double.parseDouble(baseline.getProperty(keyOf(result) + ".p99Millis")) * maxLatencyRatio;
+        double throughputBudget = Double.parseDouble(baseline.getProperty(keyOf(result) + ".throughput")) * minThroughputRatio;
+        if (result.p99Millis() > p99Budget) {
+            violations.add(String.format("%s p99 %.2f ms at %d clients exceeds the baseline budget of %.2f ms", result.operation(),
+                    result.p99Millis(), result.clients(), p99Budget));
+        }
+        if (result.throughput() < throughputBudget) {
+            violations.add(String.format("%s throughput %.0f req/s at %d clients is below the baseline budget of %.0f req/s",
+                    result.operation(), result.throughput(), result.clients(), throughputBudget));
+        }
+        return violations;
+    }
+
+    List<String> scalingViolations(OperationResult small, OperationResult large) {
+        List<String> violations = new ArrayList<>();
+        double p99Budget = small.p99Millis() * maxLatencyGrowth;
+        double throughputBudget = small.throughput() * minThroughputRetained;
+        if (large.p99Millis() > p99Budget) {
+            violations.add(String.format("%s p99 %.2f ms at %d clients exceeds %.1f times the %.2f ms at %d clients", large.operation(),
+                    large.p99Millis(), large.clients(), maxLatencyGrowth, small.p99Millis(), small.clients()));
+        }
+        if (large.throughput() < throughputBudget) {
+            violations.add(String.format("%s throughput %.0f req/s at %d clients is below %.2f of the %.0f req/s at %d clients", large.operation(),
+                    large.throughput(), large.clients(), minThroughputRetained, small.throughput(), small.clients()));
+        }
+        return violations;
+    }
+
+    static void write(Path file, String setup, List<OperationResult> results) throws IOException {
+        Map<String, String> lines = new TreeMap<>();
+        results.forEach(result -> {
+            lines.put(keyOf(result) + ".throughput", String.format("%.0f", result.throughput()));
+            lines.put(keyOf(result) + ".p50Millis", String.format("%.2f", result.p50Millis()));
+            lines.put(keyOf(result) + ".p99Millis", String.format("%.2f", result.p99Millis()));
+        });
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        try (Writer writer = Files.newBufferedWriter(file)) {
+            writer.write("#Recorded by ./gradlew perfTest -Pperf.updateBaseline=true; keys are <operation>.<clients>, latencies in ms, throughput in req/s\n");
+            writer.write("setup=" + setup + "\n");
+            for (Map.Entry<String, String> line : lines.entrySet()) {
+                writer.write(line.getKey() + "=" + line.getValue() + "\n");
+            }
+        }
+    }
+
+    private static String keyOf(OperationResult result) {
+        return result.operation() + "." + result.clients();
+    }
+
+    record OperationResult(String operation, int clients, long requests, long errors, double throughput, double p50Millis, double p99Millis) {
+    }
+}
\ No newline at end of file
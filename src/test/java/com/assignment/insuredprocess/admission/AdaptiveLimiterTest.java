@@ -0,0 +1,110 @@
+package com.assignment.insuredprocess.admission;
+
+import com.assignment.insuredprocess.admission.AdaptiveLimiter.Lane;
+import com.assignment.insuredprocess.config.AdmissionProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+@DisplayName("AdaptiveLimiter Tests")
+class AdaptiveLimiterTest {
+
+    private static final long SECOND = Duration.ofSeconds(1).toNanos();
+
+    private static AdaptiveLimiter limiter(int initialLimit) {
+        return new AdaptiveLimiter(new AdmissionProperties(true, initialLimit, 2, 100, Duration.ofMillis(100),
+                0.8, 0.8, 0.5, Duration.ofSeconds(1)));
+    }
+
+    @Test
+    @DisplayName("Should keep the share above the bulk and normal lanes free for critical requests")
+    void shouldReserveHeadroomForHigherLanes() {
+        AdaptiveLimiter limiter = limiter(10);
+
+        int bulk = 0;
+        while (limiter.tryAcquire(Lane.BULK)) {
+            bulk++;
+        }
+        int normal = 0;
+        while (limiter.tryAcquire(Lane.NORMAL)) {
+            normal++;
+        }
+        int critical = 0;
+        while (limiter.tryAcquire(Lane.CRITICAL)) {
+            critical++;
+        }
+
+        assertThat(bulk).isEqualTo(5);
+        assertThat(normal).isEqualTo(3);
+        assertThat(critical).isEqualTo(2);
+        assertThat(limiter.inflight()).isEqualTo(10);
+        assertThat(limiter.rejected(Lane.BULK)).isEqualTo(1);
+        assertThat(limiter.admitted(Lane.CRITICAL)).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should back off once per burst of slow requests")
+    void shouldBackOffOncePerBurst() {
+        AdaptiveLimiter limiter = limiter(10);
+        long started = System.nanoTime();
+        for (int i = 0; i < 4; i++) {
+            limiter.tryAcquire(Lane.CRITICAL);
+        }
+
+        for (int i = 0; i < 4; i++) {
+            limiter.release(Lane.CRITICAL, started, started + SECOND);
+        }
+        assertThat(limiter.limit()).isEqualTo(8.0);
+
+        limiter.tryAcquire(Lane.CRITICAL);
+        limiter.release(Lane.CRITICAL, started + 2 * SECOND, started + 3 * SECOND);
+        assertThat(limiter.limit()).isCloseTo(6.4, offset(1e-9));
+        assertThat(limiter.inflight()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should grow while fast requests fill the limit and stay put when it is not in use")
+    void shouldGrowOnlyUnderLoad() {
+        AdaptiveLimiter limiter = limiter(4);
+        long started = System.nanoTime();
+
+        limiter.tryAcquire(Lane.CRITICAL);
+        limiter.release(Lane.CRITICAL, started, started + 1);
+        assertThat(limiter.limit()).isEqualTo(4.0);
+
+        for (int round = 0; round < 50; round++) {
+            int admitted = 0;
+            while (limiter.tryAcquire(Lane.CRITICAL)) {
+                admitted++;
+            }
+            for (int i = 0; i < admitted; i++) {
+                limiter.release(Lane.CRITICAL, started, started + 1);
+            }
+        }
+        assertThat(limiter.limit()).isGreaterThan(10).isLessThanOrEqualTo(100);
+    }
+
+    @Test
+    @DisplayName("Should neither cut nor raise the limit on bulk requests")
+    void shouldIgnoreBulkLatency() {
+        AdaptiveLimiter limiter = limiter(10);
+        long started = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire(Lane.BULK);
+        }
+
+        limiter.release(Lane.BULK, started, started + SECOND);
+        limiter.release(Lane.BULK, started + 2 * SECOND, started + 3 * SECOND);
+        for (int i = 0; i < 3; i++) {
+            limiter.release(Lane.BULK, started, started + 1);
+        }
+
+        assertThat(limiter.limit()).isEqualTo(10.0);
+        assertThat(limiter.allowed(Lane.CRITICAL)).isEqualTo(10);
+        assertThat(limiter.inflight()).isZero();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,52 @@
+package com.assignment.insuredprocess.admission;
+
+import com.assignment.insuredprocess.admission.AdaptiveLimiter.Lane;
+import com.assignment.insuredprocess.config.AdmissionProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("LoadSheddingFilter Tests")
+class LoadSheddingFilterTest {
+
+    @Test
+    @DisplayName("Should put authentication and reads in the critical lane and bulk calls in the bulk lane")
+    void shouldClassifyRequests() {
+        assertThat(LoadSheddingFilter.laneOf("POST", "/api/clients/authenticate")).isEqualTo(Lane.CRITICAL);
+        assertThat(LoadSheddingFilter.laneOf("GET", "/api/clients/C001/products")).isEqualTo(Lane.CRITICAL);
+        assertThat(LoadSheddingFilter.laneOf("POST", "/api/products/P001/buy")).isEqualTo(Lane.NORMAL);
+        assertThat(LoadSheddingFilter.laneOf("PUT", "/api/catalog/updates")).isEqualTo(Lane.BULK);
+        assertThat(LoadSheddingFilter.laneOf("PUT", "/api/catalog")).isEqualTo(Lane.BULK);
+        assertThat(LoadSheddingFilter.laneOf("PUT", "/api/products/batch")).isEqualTo(Lane.NORMAL);
+        assertThat(LoadSheddingFilter.laneOf("GET", "/api/changes")).isEqualTo(Lane.BULK);
+    }
+
+    @Test
+    @DisplayName("Should answer requests over the limit with 503 and Retry-After and let others through")
+    void shouldShedExcessRequests() throws Exception {
+        LoadSheddingFilter filter = new LoadSheddingFilter(new AdmissionProperties(true, 2, 1, 10, Duration.ofSeconds(1),
+                0.8, 0.8, 0.5, Duration.ofSeconds(2)));
+        filter.limiter().tryAcquire(Lane.BULK);
+
+        MockHttpServletResponse bulk = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("PUT", "/api/catalog"), bulk, new MockFilterChain());
+        MockHttpServletResponse read = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/clients/C001/products"), read, new MockFilterChain());
+        MockHttpServletResponse stream = new MockHttpServletResponse();
+        filter.limiter().tryAcquire(Lane.CRITICAL);
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/changes/stream"), stream, new MockFilterChain());
+
+        assertThat(bulk.getStatus()).isEqualTo(503);
+        assertThat(bulk.getHeader("Retry-After")).isEqualTo("2");
+        assertThat(read.getStatus()).isEqualTo(200);
+        assertThat(stream.getStatus()).isEqualTo(200);
+        assertThat(filter.limiter().rejected(Lane.BULK)).isEqualTo(1);
+        assertThat(filter.limiter().inflight()).isEqualTo(2);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,108 @@
+package com.assignment.insuredprocess.cluster;
+
+import com.assignment.insuredprocess.config.ClusterProperties;
+import com.assignment.insuredprocess.config.IdFilterProperties;
+import com.assignment.insuredprocess.config.StorageProperties;
+import com.assignment.insuredprocess.model.Client;
+import com.assignment.insuredprocess.model.ClientProduct;
+import com.assignment.insuredprocess.model.ContactMethod;
+import com.assignment.insuredprocess.replication.ReplicaApplier;
+import com.assignment.insuredprocess.repository.ClientProductRepository;
+import com.assignment.insuredprocess.repository.ClientRepository;
+import com.assignment.insuredprocess.service.ClientService;
+import com.assignment.insuredprocess.service.WriteSequencer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("ClusterRebalancer Tests")
+class ClusterRebalancerTest {
+
+    private static final IdFilterProperties ID_FILTER = new IdFilterProperties(true, 1000, 100, 0.01, DataSize.ofKilobytes(64));
+    private static final String OWNER = "http://node-b:8080";
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private ClientRepository clientRepository;
+    private ClientProductRepository clientProductRepository;
+    private ClusterClient clusterClient;
+    private ClientService clientService;
+    private ClusterRebalancer rebalancer;
+    private final List<List<String>> posted = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        clientRepository = new ClientRepository(new StorageProperties(4), ID_FILTER);
+        clientProductRepository = new ClientProductRepository(new StorageProperties(4));
+        ClusterMembership membership = mock(ClusterMembership.class);
+        when(membership.self()).thenReturn("http://node-a:8080");
+        clusterClient = mock(ClusterClient.class);
+        clientService = mock(ClientService.class);
+        ClusterProperties properties = new ClusterProperties(true, "http://node-a:8080", List.of(), "secret", 8,
+                Duration.ofSeconds(1), 3, Duration.ofSeconds(5), Duration.ofHours(1), 500);
+        rebalancer = new ClusterRebalancer(membership, clusterClient, clientRepository, clientProductRepository, clientService,
+                new WriteSequencer(), mock(ReplicaApplier.class), objectMapper, properties);
+
+        clientRepository.save(new Client("C001", new ContactMethod("email", "john@example.com")));
+        clientProductRepository.save(new ClientProduct("C001", "P001"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        rebalancer.destroy();
+    }
+
+    @Test
+    @DisplayName("Should send writes made while a batch was on its way before dropping the client")
+    void shouldCatchUpClientsWrittenDuringHandoff() throws Exception {
+        doAnswer(invocation -> {
+            List<ClusterEvent> events = invocation.getArgument(2);
+            posted.add(events.stream().map(event -> event.type() + ":" + event.payload().path("productId").asText()).toList());
+            if (posted.size() == 1) {
+                clientProductRepository.save(new ClientProduct("C001", "P002"));
+                clientProductRepository.deleteByClientIdAndProductId("C001", "P001");
+            }
+            return null;
+        }).when(clusterClient).post(eq(OWNER), eq("/internal/cluster/handoff"), anyList());
+
+        rebalancer.onRingChanged(new ClusterRingChanged(new HashRing(Set.of(OWNER), 8), true));
+
+        assertThat(posted).hasSize(2);
+        assertThat(posted.get(0)).containsExactly("ClientCreated:", "ProductPurchased:P001");
+        assertThat(posted.get(1)).containsExactly("ClientCreated:", "ProductPurchased:P002", "ProductCancelled:P001");
+        verify(clientService).removeClient("C001");
+    }
+
+    @Test
+    @DisplayName("Should keep a client whose catch-up could not be delivered")
+    void shouldKeepClientWhenCatchUpFails() throws Exception {
+        doAnswer(invocation -> {
+            clientProductRepository.save(new ClientProduct("C001", "P002"));
+            doThrow(new IOException("owner down")).when(clusterClient).post(eq(OWNER), eq("/internal/cluster/handoff"), anyList());
+            return null;
+        }).when(clusterClient).post(eq(OWNER), eq("/internal/cluster/handoff"), anyList());
+
+        rebalancer.onRingChanged(new ClusterRingChanged(new HashRing(Set.of(OWNER), 8), true));
+
+        verify(clientService, never()).removeClient("C001");
+    }
+}
\ No newline at end of file
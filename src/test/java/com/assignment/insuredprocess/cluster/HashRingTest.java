@@ -0,0 +1,69 @@
+package com.assignment.insuredprocess.cluster;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("HashRing Tests")
+class HashRingTest {
+
+    private static final List<String> NODES = List.of("http://node-a:8080", "http://node-b:8080", "http://node-c:8080");
+    private static final int KEYS = 30_000;
+
+    @Test
+    @DisplayName("Should give every key the same owner regardless of the order nodes are listed in")
+    void shouldBeDeterministic() {
+        HashRing ring = new HashRing(NODES, 128);
+        HashRing reordered = new HashRing(List.of(NODES.get(2), NODES.get(0), NODES.get(1)), 128);
+
+        assertThat(IntStream.range(0, KEYS).mapToObj(i -> "C" + i)
+                .allMatch(key -> ring.ownerOf(key).equals(reordered.ownerOf(key)))).isTrue();
+        assertThat(ring.nodes()).containsExactlyInAnyOrderElementsOf(NODES);
+    }
+
+    @Test
+    @DisplayName("Should spread keys roughly evenly over the nodes")
+    void shouldSpreadKeysEvenly() {
+        HashRing ring = new HashRing(NODES, 128);
+        Map<String, Integer> owned = new HashMap<>();
+        IntStream.range(0, KEYS).forEach(i -> owned.merge(ring.ownerOf("C" + i), 1, Integer::sum));
+
+        assertThat(owned).hasSize(3);
+        assertThat(owned.values()).allSatisfy(count -> assertThat(count).isBetween(KEYS / 3 * 8 / 10, KEYS / 3 * 12 / 10));
+    }
+
+    @Test
+    @DisplayName("Should only move keys to a joining node")
+    void shouldMoveOnlyKeysOfJoiningNode() {
+        HashRing before = new HashRing(NODES, 128);
+        String joining = "http://node-d:8080";
+        HashRing after = new HashRing(List.of(NODES.get(0), NODES.get(1), NODES.get(2), joining), 128);
+
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            String key = "C" + i;
+            if (!before.ownerOf(key).equals(after.ownerOf(key))) {
+                assertThat(after.ownerOf(key)).isEqualTo(joining);
+                moved++;
+            }
+        }
+        assertThat(moved).isBetween(KEYS / 4 * 7 / 10, KEYS / 4 * 13 / 10);
+    }
+
+    @Test
+    @DisplayName("Should give a single node every key and reject an empty ring")
+    void shouldHandleSingleNodeAndRejectEmptyRing() {
+        HashRing single = new HashRing(Set.of("http://node-a:8080"), 16);
+
+        assertThat(single.ownerOf("anything")).isEqualTo("http://node-a:8080");
+        assertThatThrownBy(() -> new HashRing(Set.of(), 16)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
\ No newline at end of file
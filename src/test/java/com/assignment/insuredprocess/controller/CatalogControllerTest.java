@@ -0,0 +1,83 @@
+package com.assignment.insuredprocess.controller;
+
+import com.assignment.insuredprocess.config.AdmissionProperties;
+import com.assignment.insuredprocess.config.SessionProperties;
+import com.assignment.insuredprocess.dto.ProductUpdateOrder;
+import com.assignment.insuredprocess.dto.ProductUpdateOutcome;
+import com.assignment.insuredprocess.service.ProductService;
+import com.assignment.insuredprocess.service.SessionTokens;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(CatalogController.class)
+@Import(SessionTokens.class)
+@EnableConfigurationProperties({AdmissionProperties.class, SessionProperties.class})
+@DisplayName("CatalogController Tests")
+class CatalogControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private ProductService productService;
+
+    @Test
+    @DisplayName("Should reload the catalog from a product list")
+    void shouldReloadCatalog() throws Exception {
+        when(productService.reloadCatalog(anyList())).thenReturn(2);
+
+        mockMvc.perform(put("/api/catalog")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"id\":\"P001\",\"name\":\"Health Insurance\"},{\"id\":\"P002\",\"name\":\"Car Insurance\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("Catalog reloaded with 2 products"));
+
+        verify(productService).reloadCatalog(argThat(products -> products.size() == 2 && products.get(1).getId().equals("P002")));
+    }
+
+    @Test
+    @DisplayName("Should return bad request for an invalid catalog")
+    void shouldReturnBadRequestForInvalidCatalog() throws Exception {
+        when(productService.reloadCatalog(anyList())).thenThrow(new IllegalArgumentException("Duplicate product ID in catalog: P001"));
+
+        mockMvc.perform(put("/api/catalog")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"id\":\"P001\"},{\"id\":\"P001\"}]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Duplicate product ID in catalog: P001"));
+    }
+
+    @Test
+    @DisplayName("Should answer a batch update with one outcome per item")
+    void shouldUpdateProductsInBatch() throws Exception {
+        when(productService.updateProducts(eq("C001"), anyList())).thenReturn(List.of(
+                ProductUpdateOutcome.success("P001"), ProductUpdateOutcome.failure("P003", "Client does not own this product")));
+
+        mockMvc.perform(put("/api/catalog/updates")
+                        .param("clientId", "C001")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"productId\":\"P001\",\"description\":\"Nightly sync\"},{\"productId\":\"P003\",\"name\":\"Other\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].productId").value("P001"))
+                .andExpect(jsonPath("$[0].success").value(true))
+                .andExpect(jsonPath("$[1].failure").value("Client does not own this product"));
+
+        verify(productService).updateProducts("C001", List.of(
+                new ProductUpdateOrder("P001", null, "Nightly sync"), new ProductUpdateOrder("P003", "Other", null)));
+    }
+}
\ No newline at end of file
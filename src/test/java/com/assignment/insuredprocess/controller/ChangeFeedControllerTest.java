@@ -0,0 +1,101 @@
+package com.assignment.insuredprocess.controller;
+
+import com.assignment.insuredprocess.config.AdmissionProperties;
+import com.assignment.insuredprocess.config.ChangeFeedProperties;
+import com.assignment.insuredprocess.dto.ChangeFeedPage;
+import com.assignment.insuredprocess.event.ChangeEvent;
+import com.assignment.insuredprocess.event.ChangeFeed;
+import com.assignment.insuredprocess.event.ChangeFeedStreams;
+import com.assignment.insuredprocess.event.ClientCreated;
+import com.assignment.insuredprocess.event.ContactMethodAdded;
+import com.assignment.insuredprocess.event.ProductPurchased;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ChangeFeedController.class)
+@EnableConfigurationProperties({AdmissionProperties.class, ChangeFeedProperties.class})
+@DisplayName("ChangeFeedController Tests")
+class ChangeFeedControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private ChangeFeed changeFeed;
+
+    @MockitoBean
+    private ChangeFeedStreams changeFeedStreams;
+
+    @Test
+    @DisplayName("Should return a page of changes from the requested offset")
+    void shouldReturnChangesPage() throws Exception {
+        ChangeEvent change = new ChangeEvent(5, "ProductPurchased", Instant.now(), new ProductPurchased("C001", "P001", null));
+        when(changeFeed.read(5, 10)).thenReturn(new ChangeFeedPage(List.of(change), 6, 0, false));
+
+        mockMvc.perform(get("/api/changes").param("fromOffset", "5").param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.events[0].offset").value(5))
+                .andExpect(jsonPath("$.events[0].type").value("ProductPurchased"))
+                .andExpect(jsonPath("$.events[0].payload.clientId").value("C001"))
+                .andExpect(jsonPath("$.nextOffset").value(6));
+    }
+
+    @Test
+    @DisplayName("Should leave contact values out of the public feed")
+    void shouldRedactContactValues() throws Exception {
+        ChangeEvent created = new ChangeEvent(0, "ClientCreated", Instant.now(), new ClientCreated("C001", "email", "john@example.com"));
+        ChangeEvent added = new ChangeEvent(1, "ContactMethodAdded", Instant.now(), new ContactMethodAdded("C001", "phone", "555-1234"));
+        when(changeFeed.read(0, 256)).thenReturn(new ChangeFeedPage(List.of(created, added), 2, 0, false));
+
+        mockMvc.perform(get("/api/changes"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.events[0].payload.clientId").value("C001"))
+                .andExpect(jsonPath("$.events[0].payload.contactType").value("email"))
+                .andExpect(jsonPath("$.events[0].payload.contactValue").doesNotExist())
+                .andExpect(jsonPath("$.events[1].payload.contactType").value("phone"))
+                .andExpect(jsonPath("$.events[1].payload.contactValue").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("Should reject a negative offset")
+    void shouldRejectNegativeOffset() throws Exception {
+        mockMvc.perform(get("/api/changes").param("fromOffset", "-1"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(changeFeed);
+    }
+
+    @Test
+    @DisplayName("Should resume a stream after the Last-Event-ID")
+    void shouldResumeStreamAfterLastEventId() throws Exception {
+        when(changeFeedStreams.subscribe(43L)).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/api/changes/stream").header("Last-Event-ID", "42"))
+                .andExpect(request().asyncStarted());
+
+        verify(changeFeedStreams).subscribe(43L);
+    }
+
+    @Test
+    @DisplayName("Should answer 503 when the subscriber limit is reached")
+    void shouldRejectStreamOverSubscriberLimit() throws Exception {
+        when(changeFeedStreams.subscribe(null)).thenThrow(new RejectedExecutionException("Too many change feed subscribers"));
+
+        mockMvc.perform(get("/api/changes/stream"))
+                .andExpect(status().isServiceUnavailable());
+    }
+}
\ No newline at end of file
@@ -1,15 +1,26 @@
 package com.assignment.insuredprocess.controller;
 
+import com.assignment.insuredprocess.config.AdmissionProperties;
+import com.assignment.insuredprocess.config.CoalescingProperties;
+import com.assignment.insuredprocess.config.SessionProperties;
 import com.assignment.insuredprocess.model.Client;
 import com.assignment.insuredprocess.model.Product;
+import com.assignment.insuredprocess.service.AuthenticationThrottle;
 import com.assignment.insuredprocess.service.ClientService;
+import com.assignment.insuredprocess.service.PortfolioReads;
 import com.assignment.insuredprocess.service.ProductService;
+import com.assignment.insuredprocess.service.SessionTokens;
+import com.assignment.insuredprocess.dto.ClientAuthRequest;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
@@ -17,16 +28,24 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.util.List;
 import java.util.Optional;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(ClientController.class)
+@Import({PortfolioReads.class, SessionTokens.class})
+@EnableConfigurationProperties({AdmissionProperties.class, CoalescingProperties.class, SessionProperties.class})
 @DisplayName("ClientController Tests")
 class ClientControllerTest {
 
+    private static final CBORMapper CBOR = new CBORMapper();
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -36,6 +55,9 @@ class ClientControllerTest {
     @MockitoBean
     private ProductService productService;
 
+    @MockitoBean
+    private AuthenticationThrottle authenticationThrottle;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -49,6 +71,7 @@ class ClientControllerTest {
                 .productId("P001")
                 .productName("Health Insurance")
                 .build();
+        when(authenticationThrottle.tryAcquire(any(), any())).thenReturn(true);
     }
 
     @Test
@@ -84,6 +107,7 @@ class ClientControllerTest {
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(testData.createAuthRequestJson()))
                 .andExpect(status().isOk())
+                .andExpect(header().exists(SessionTokens.HEADER))
                 .andExpect(content().string("Client authenticated successfully"));
     }
 
@@ -99,11 +123,24 @@ class ClientControllerTest {
                 .andExpect(content().string("Authentication failed"));
     }
 
+    @Test
+    @DisplayName("Should reject throttled authentication before reaching the service")
+    void shouldRejectThrottledAuthentication() throws Exception {
+        when(authenticationThrottle.tryAcquire(any(), any())).thenReturn(false);
+
+        mockMvc.perform(post("/api/clients/authenticate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(testData.createAuthRequestJson()))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(content().string("Too many authentication attempts"));
+
+        verify(clientService, never()).authenticateClient(anyString(), anyString(), anyString());
+    }
+
     @Test
     @DisplayName("Should return client products")
     void shouldReturnClientProducts() throws Exception {
-        when(clientService.findClientById(testData.clientId)).thenReturn(Optional.of(testData.createClient()));
-        when(productService.getClientProducts(testData.clientId)).thenReturn(List.of(testData.createProduct()));
+        when(productService.findClientPortfolio(testData.clientId)).thenReturn(Optional.of(List.of(testData.createProduct())));
 
         mockMvc.perform(get("/api/clients/{clientId}/products", testData.clientId))
                 .andExpect(status().isOk())
@@ -115,7 +152,7 @@ class ClientControllerTest {
     @Test
     @DisplayName("Should return not found for non-existing client")
     void shouldReturnNotFoundForNonExistingClient() throws Exception {
-        when(clientService.findClientById(testData.clientId)).thenReturn(Optional.empty());
+        when(productService.findClientPortfolio(testData.clientId)).thenReturn(Optional.empty());
 
         mockMvc.perform(get("/api/clients/{clientId}/products", testData.clientId))
                 .andExpect(status().isNotFound());
@@ -124,8 +161,7 @@ class ClientControllerTest {
     @Test
     @DisplayName("Should return empty list when client has no products")
     void shouldReturnEmptyListWhenClientHasNoProducts() throws Exception {
-        when(clientService.findClientById(testData.clientId)).thenReturn(Optional.of(testData.createClient()));
-        when(productService.getClientProducts(testData.clientId)).thenReturn(List.of());
+        when(productService.findClientPortfolio(testData.clientId)).thenReturn(Optional.of(List.of()));
 
         mockMvc.perform(get("/api/clients/{clientId}/products", testData.clientId))
                 .andExpect(status().isOk())
@@ -133,6 +169,47 @@ class ClientControllerTest {
                 .andExpect(jsonPath("$").isEmpty());
     }
 
+    @Test
+    @DisplayName("Should authenticate a CBOR request and answer in CBOR")
+    void shouldAuthenticateCborRequest() throws Exception {
+        when(clientService.authenticateClient(testData.clientId, "email", testData.email)).thenReturn(true);
+
+        byte[] body = mockMvc.perform(post("/api/clients/authenticate")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(CBOR.writeValueAsBytes(testData.createAuthRequest())))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertThat(CBOR.readValue(body, String.class)).isEqualTo("Client authenticated successfully");
+    }
+
+    @Test
+    @DisplayName("Should return client products in CBOR when asked for it")
+    void shouldReturnClientProductsInCbor() throws Exception {
+        when(productService.findClientPortfolio(testData.clientId)).thenReturn(Optional.of(List.of(testData.createProduct())));
+
+        byte[] body = mockMvc.perform(get("/api/clients/{clientId}/products", testData.clientId)
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertThat(CBOR.readValue(body, new TypeReference<List<Product>>() { })).containsExactly(testData.createProduct());
+    }
+
+    @Test
+    @DisplayName("Should keep answering JSON when the client accepts anything")
+    void shouldPreferJsonForWildcardAccept() throws Exception {
+        when(productService.findClientPortfolio(testData.clientId)).thenReturn(Optional.of(List.of(testData.createProduct())));
+
+        mockMvc.perform(get("/api/clients/{clientId}/products", testData.clientId)
+                        .accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
     private static class TestDataBuilder {
         private String clientId;
         private String email;
@@ -175,6 +252,10 @@ class ClientControllerTest {
             return new Product(productId, productName, "Test description");
         }
 
+        ClientAuthRequest createAuthRequest() {
+            return new ClientAuthRequest(clientId, "email", email);
+        }
+
         String createAuthRequestJson() {
             return String.format("""
                     {
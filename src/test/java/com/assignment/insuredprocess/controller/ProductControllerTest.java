@@ -1,24 +1,41 @@
 package com.assignment.insuredprocess.controller;
 
+import com.assignment.insuredprocess.config.AdmissionProperties;
+import com.assignment.insuredprocess.config.IdempotencyProperties;
+import com.assignment.insuredprocess.config.SessionProperties;
 import com.assignment.insuredprocess.model.Product;
+import com.assignment.insuredprocess.service.IdempotencyStore;
 import com.assignment.insuredprocess.service.ProductService;
+import com.assignment.insuredprocess.service.PurchasePipeline;
+import com.assignment.insuredprocess.service.SessionTokens;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(ProductController.class)
+@Import({IdempotencyStore.class, SessionTokens.class})
+@EnableConfigurationProperties({AdmissionProperties.class, IdempotencyProperties.class, SessionProperties.class})
 @DisplayName("ProductController Tests")
 class ProductControllerTest {
 
@@ -28,9 +45,15 @@ class ProductControllerTest {
     @MockitoBean
     private ProductService productService;
 
+    @MockitoBean
+    private PurchasePipeline purchasePipeline;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private SessionTokens sessionTokens;
+
     private TestDataBuilder testData;
 
     @BeforeEach
@@ -56,6 +79,51 @@ class ProductControllerTest {
                 .andExpect(jsonPath("$.name").value(testData.productName));
     }
 
+    @Test
+    @DisplayName("Should cancel an owned product")
+    void shouldCancelOwnedProduct() throws Exception {
+        mockMvc.perform(post("/api/products/{productId}/cancel", testData.productId)
+                        .param("clientId", testData.clientId))
+                .andExpect(status().isOk())
+                .andExpect(content().string("Product cancelled successfully"));
+
+        verify(productService).cancelProduct(testData.clientId, testData.productId);
+    }
+
+    @Test
+    @DisplayName("Should return bad request when cancelling a product that is not owned")
+    void shouldReturnBadRequestWhenCancellingNotOwnedProduct() throws Exception {
+        doThrow(new IllegalArgumentException("Client does not own this product"))
+                .when(productService).cancelProduct(testData.clientId, testData.productId);
+
+        mockMvc.perform(post("/api/products/{productId}/cancel", testData.productId)
+                        .param("clientId", testData.clientId))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Client does not own this product"));
+    }
+
+    @Test
+    @DisplayName("Should return search results")
+    void shouldReturnSearchResults() throws Exception {
+        when(productService.searchProducts("heal", 5)).thenReturn(List.of(testData.createProduct()));
+
+        mockMvc.perform(get("/api/products/search")
+                        .param("q", "heal")
+                        .param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(testData.productId));
+    }
+
+    @Test
+    @DisplayName("Should return bad request for an invalid search")
+    void shouldReturnBadRequestForInvalidSearch() throws Exception {
+        when(productService.searchProducts(" ", 10)).thenThrow(new IllegalArgumentException("Search query is required"));
+
+        mockMvc.perform(get("/api/products/search")
+                        .param("q", " "))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @DisplayName("Should return bad request when product creation fails")
     void shouldReturnBadRequestWhenCreationFails() throws Exception {
@@ -91,6 +159,105 @@ class ProductControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    @DisplayName("Should buy for the client of a session token without a client lookup")
+    void shouldBuyWithSessionToken() throws Exception {
+        when(productService.buyProductAsAuthenticated(testData.clientId, testData.productId)).thenReturn(testData.createProduct());
+
+        mockMvc.perform(post("/api/products/{productId}/buy", testData.productId)
+                        .header(HttpHeaders.AUTHORIZATION, SessionTokens.BEARER + sessionTokens.issue(testData.clientId)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(testData.productId));
+
+        verify(productService, never()).buyProduct(anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("Should reject a tampered session token or one used for another client")
+    void shouldRejectInvalidSessionToken() throws Exception {
+        String token = sessionTokens.issue(testData.clientId);
+
+        mockMvc.perform(post("/api/products/{productId}/buy", testData.productId)
+                        .header(HttpHeaders.AUTHORIZATION, SessionTokens.BEARER + token.substring(0, token.length() - 2) + "xx"))
+                .andExpect(status().isUnauthorized())
+                .andExpect(header().string(HttpHeaders.WWW_AUTHENTICATE, "Bearer"));
+        mockMvc.perform(put("/api/products/{productId}", testData.productId)
+                        .param("clientId", "C002")
+                        .header(HttpHeaders.AUTHORIZATION, SessionTokens.BEARER + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(testData.createUpdateRequestJson()))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.message").value("Session token was issued to another client"));
+
+        verifyNoInteractions(productService);
+    }
+
+    @Test
+    @DisplayName("Should replay the original purchase for a retried idempotency key")
+    void shouldReplayRetriedPurchase() throws Exception {
+        when(productService.buyProduct(testData.clientId, testData.productId))
+                .thenReturn(testData.createProduct())
+                .thenThrow(new IllegalArgumentException("Client already owns this product"));
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            mockMvc.perform(post("/api/products/{productId}/buy", testData.productId)
+                            .param("clientId", testData.clientId)
+                            .header(IdempotencyStore.HEADER, "buy-retry-1"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.id").value(testData.productId));
+        }
+
+        verify(productService, times(1)).buyProduct(testData.clientId, testData.productId);
+    }
+
+    @Test
+    @DisplayName("Should reject an idempotency key reused for a different request")
+    void shouldRejectIdempotencyKeyReusedForDifferentRequest() throws Exception {
+        when(productService.buyProduct(anyString(), anyString())).thenReturn(testData.createProduct());
+
+        mockMvc.perform(post("/api/products/{productId}/buy", testData.productId)
+                        .param("clientId", testData.clientId)
+                        .header(IdempotencyStore.HEADER, "buy-reused-1"))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/products/{productId}/buy", "P002")
+                        .param("clientId", testData.clientId)
+                        .header(IdempotencyStore.HEADER, "buy-reused-1"))
+                .andExpect(status().isUnprocessableEntity());
+
+        verify(productService, never()).buyProduct(testData.clientId, "P002");
+    }
+
+    @Test
+    @DisplayName("Should buy product asynchronously")
+    void shouldBuyProductAsynchronously() throws Exception {
+        when(purchasePipeline.buyProductAsync(testData.clientId, testData.productId))
+                .thenReturn(CompletableFuture.completedFuture(testData.createProduct()));
+
+        MvcResult result = mockMvc.perform(post("/api/products/{productId}/buy-async", testData.productId)
+                        .param("clientId", testData.clientId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(testData.productId));
+    }
+
+    @Test
+    @DisplayName("Should return bad request when asynchronous buy fails")
+    void shouldReturnBadRequestWhenAsyncBuyFails() throws Exception {
+        when(purchasePipeline.buyProductAsync(testData.clientId, testData.productId))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalArgumentException("Client already owns this product")));
+
+        MvcResult result = mockMvc.perform(post("/api/products/{productId}/buy-async", testData.productId)
+                        .param("clientId", testData.clientId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @DisplayName("Should update product successfully")
     void shouldUpdateProductSuccessfully() throws Exception {
@@ -104,6 +271,22 @@ class ProductControllerTest {
                 .andExpect(content().string("Product updated successfully"));
     }
 
+    @Test
+    @DisplayName("Should apply an update retried with the same idempotency key once")
+    void shouldApplyRetriedUpdateOnce() throws Exception {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            mockMvc.perform(put("/api/products/{productId}", testData.productId)
+                            .param("clientId", testData.clientId)
+                            .header(IdempotencyStore.HEADER, "update-retry-1")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(testData.createUpdateRequestJson()))
+                    .andExpect(status().isOk())
+                    .andExpect(content().string("Product updated successfully"));
+        }
+
+        verify(productService, times(1)).updateProduct(anyString(), anyString(), anyString(), anyString());
+    }
+
     @Test
     @DisplayName("Should return bad request when update fails")
     void shouldReturnBadRequestWhenUpdateFails() throws Exception {
@@ -0,0 +1,79 @@
+package com.assignment.insuredprocess.diagnostics;
+
+import com.assignment.insuredprocess.config.HotKeysProperties;
+import com.assignment.insuredprocess.dto.HotKeyReport;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("HotKeys Tests")
+class HotKeysTest {
+
+    private static HotKeys hotKeys(Duration window) {
+        return new HotKeys(new HotKeysProperties(true, 20, window, 1024, 4));
+    }
+
+    @Test
+    @DisplayName("Should single out hot keys in a long tail of cold ones")
+    void shouldFindHotKeysInLongTail() {
+        HotKeys hotKeys = hotKeys(Duration.ofHours(1));
+        for (int i = 0; i < 20_000; i++) {
+            hotKeys.record("C" + i, "P" + (i % 500), System.nanoTime());
+            if (i % 20 == 0) {
+                hotKeys.record("CORP-1", "P-FLAGSHIP", System.nanoTime());
+            }
+            if (i % 40 == 0) {
+                hotKeys.record("CORP-2", "P-FLAGSHIP", System.nanoTime());
+            }
+        }
+
+        HotKeyReport.Window current = hotKeys.report(3).current();
+
+        assertThat(current.clients()).extracting(HotKeyReport.Key::id).startsWith(ClientIdHashes.of("CORP-1"), ClientIdHashes.of("CORP-2"));
+        assertThat(current.clients().get(0).id()).matches("[0-9a-f]{16}").isNotEqualTo(Integer.toString("CORP-1".hashCode()));
+        assertThat(current.clients().get(0).requests()).isBetween(1_000L, 1_100L);
+        assertThat(current.products().get(0).id()).isEqualTo("P-FLAGSHIP");
+        assertThat(current.products().get(0).requests()).isGreaterThanOrEqualTo(1_500L);
+        assertThat(current.clientRequests()).isEqualTo(21_500);
+        assertThat(current.products()).hasSize(3);
+    }
+
+    @Test
+    @DisplayName("Should report per-key rates and latency")
+    void shouldReportRatesAndLatency() {
+        HotKeys hotKeys = hotKeys(Duration.ofHours(1));
+        for (int i = 0; i < 10; i++) {
+            hotKeys.record("C001", null, System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(5));
+        }
+
+        HotKeyReport.Key key = hotKeys.report(1).current().clients().get(0);
+
+        assertThat(key.requests()).isEqualTo(10);
+        assertThat(key.requestsPerSecond()).isPositive();
+        assertThat(key.averageLatencyMillis()).isGreaterThanOrEqualTo(5.0);
+        assertThat(key.maxLatencyMillis()).isGreaterThanOrEqualTo(key.averageLatencyMillis());
+    }
+
+    @Test
+    @DisplayName("Should start every window from scratch and keep the last completed one")
+    void shouldRollWindows() throws InterruptedException {
+        HotKeys hotKeys = hotKeys(Duration.ofMillis(100));
+        hotKeys.record("C001", "P001", System.nanoTime());
+        Thread.sleep(150);
+        hotKeys.record("C002", null, System.nanoTime());
+
+        HotKeyReport report = hotKeys.report(10);
+
+        assertThat(report.previous().clients()).extracting(HotKeyReport.Key::id).containsExactly(ClientIdHashes.of("C001"));
+        assertThat(report.previous().products()).extracting(HotKeyReport.Key::id).containsExactly("P001");
+        assertThat(report.current().clients()).extracting(HotKeyReport.Key::id).containsExactly(ClientIdHashes.of("C002"));
+        assertThat(report.current().products()).isEmpty();
+
+        hotKeys.reset();
+        assertThat(hotKeys.report(10).previous()).isNull();
+    }
+}
\ No newline at end of file
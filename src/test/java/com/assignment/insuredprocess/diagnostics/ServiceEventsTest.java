@@ -0,0 +1,148 @@
+package com.assignment.insuredprocess.diagnostics;
+
+import com.assignment.insuredprocess.config.IdFilterProperties;
+import com.assignment.insuredprocess.config.StorageProperties;
+import com.assignment.insuredprocess.model.Client;
+import com.assignment.insuredprocess.model.ContactMethod;
+import com.assignment.insuredprocess.model.Product;
+import com.assignment.insuredprocess.repository.ClientProductRepository;
+import com.assignment.insuredprocess.repository.ClientRepository;
+import com.assignment.insuredprocess.repository.ProductRepository;
+import com.assignment.insuredprocess.service.AuthenticationCache;
+import com.assignment.insuredprocess.service.ClientService;
+import com.assignment.insuredprocess.service.PortfolioViews;
+import com.assignment.insuredprocess.service.ProductSearchIndex;
+import com.assignment.insuredprocess.service.ProductService;
+import com.assignment.insuredprocess.service.WriteSequencer;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Flight Recorder Service Event Tests")
+class ServiceEventsTest {
+
+    private static final IdFilterProperties ID_FILTER = new IdFilterProperties(true, 1000, 100, 0.01, DataSize.ofKilobytes(64));
+
+    @TempDir
+    Path tempDir;
+
+    private final ClientRepository clientRepository = new ClientRepository(new StorageProperties(4), ID_FILTER);
+    private final ClientProductRepository clientProductRepository = new ClientProductRepository(new StorageProperties(4));
+    private final ProductRepository productRepository = new ProductRepository(ID_FILTER);
+    private final AuthenticationCache authenticationCache = mock(AuthenticationCache.class);
+    private final PortfolioViews portfolioViews = mock(PortfolioViews.class);
+    private ClientService clientService;
+    private ProductService productService;
+    private Recording recording;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationEventPublisher publisher = mock(ApplicationEventPublisher.class);
+        clientService = new ClientService(clientRepository, clientProductRepository, authenticationCache, publisher, mock(HotKeys.class),
+                new WriteSequencer());
+        productService = new ProductService(productRepository, clientProductRepository, clientService,
+                mock(ProductSearchIndex.class), portfolioViews, publisher, mock(HotKeys.class), new WriteSequencer());
+        clientRepository.save(new Client("C001", new ContactMethod("email", "test@example.com")));
+        productRepository.save(new Product("P001", "Health Insurance", "Basic health coverage"));
+
+        recording = new Recording();
+        for (String name : List.of("insured.Authenticate", "insured.BuyProduct", "insured.ClientProducts")) {
+            recording.enable(name).withThreshold(Duration.ZERO);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        recording.close();
+    }
+
+    @Test
+    @DisplayName("Should record service calls with hashed client id, outcome and portfolio size")
+    void shouldRecordServiceCalls() throws IOException {
+        when(portfolioViews.find("C001")).thenReturn(Optional.of(List.of(productRepository.findById("P001").orElseThrow())));
+        recording.start();
+
+        clientService.authenticateClient("C001", "email", "test@example.com");
+        clientService.authenticateClient("C001", "email", "wrong@example.com");
+        productService.buyProduct("C001", "P001");
+        assertThatThrownBy(() -> productService.buyProduct("C404", "P001")).isInstanceOf(IllegalArgumentException.class);
+        productService.getClientProducts("C001");
+        productService.getClientProducts("C404");
+
+        List<RecordedEvent> events = stop();
+        assertThat(events).extracting(event -> event.getEventType().getName() + ":" + event.getString("outcome"))
+                .containsExactly(
+                        "insured.Authenticate:authenticated",
+                        "insured.Authenticate:rejected",
+                        "insured.BuyProduct:purchased",
+                        "insured.BuyProduct:rejected",
+                        "insured.ClientProducts:found",
+                        "insured.ClientProducts:client-not-found");
+        assertThat(events.get(0).getString("clientIdHash")).isEqualTo(ClientIdHashes.of("C001"));
+        assertThat(events.get(0).getBoolean("cached")).isFalse();
+        assertThat(events.get(2).getString("productId")).isEqualTo("P001");
+        assertThat(events.get(4).getInt("portfolioSize")).isEqualTo(1);
+        assertThat(events).allSatisfy(event -> assertThat(event.getStackTrace()).isNull());
+    }
+
+    @Test
+    @DisplayName("Should leave service calls faster than the default threshold out of the recording")
+    void shouldApplyDefaultThreshold() throws IOException {
+        recording.close();
+        recording = new Recording();
+        recording.enable("insured.Authenticate");
+        recording.start();
+
+        clientService.authenticateClient("C001", "email", "test@example.com");
+
+        assertThat(stop()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should emit repository sizes periodically while enabled")
+    void shouldEmitRepositorySizes() throws IOException {
+        RepositorySizesRecorder recorder = new RepositorySizesRecorder(clientRepository, clientProductRepository, productRepository);
+        try {
+            recording.enable("insured.RepositorySizes").with("period", "endChunk");
+            recording.start();
+
+            List<RecordedEvent> events = stop().stream()
+                    .filter(event -> event.getEventType().getName().equals("insured.RepositorySizes"))
+                    .toList();
+
+            //application contexts cached by other tests register their own hooks, so look for this recorder's event
+            assertThat(events)
+                    .extracting(event -> List.of(event.getLong("clients"), event.getLong("clientsWithProducts"), event.getLong("products")))
+                    .contains(List.of(1L, 0L, 1L));
+        } finally {
+            recorder.destroy();
+        }
+    }
+
+    private List<RecordedEvent> stop() throws IOException {
+        recording.stop();
+        Path file = tempDir.resolve("service-events.jfr");
+        recording.dump(file);
+        return RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().startsWith("insured."))
+                .toList();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,57 @@
+package com.assignment.insuredprocess.event;
+
+import com.assignment.insuredprocess.config.ChangeFeedProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ChangeFeedStreams Tests")
+class ChangeFeedStreamsTest {
+
+    private final ChangeFeedProperties properties = new ChangeFeedProperties(64, 16, 5, Duration.ofMinutes(1), Duration.ofSeconds(15));
+    private final ChangeFeedStreams streams = new ChangeFeedStreams(new ChangeFeed(properties), properties);
+
+    @AfterEach
+    void tearDown() {
+        streams.destroy();
+    }
+
+    @Test
+    @DisplayName("Should never admit more subscribers than the limit under concurrent subscribes")
+    void shouldHoldSubscriberLimitUnderConcurrency() throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger admitted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Thread> subscribers = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            subscribers.add(Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                    streams.subscribe(null);
+                    admitted.incrementAndGet();
+                } catch (RejectedExecutionException e) {
+                    rejected.incrementAndGet();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+        }
+        start.countDown();
+        for (Thread subscriber : subscribers) {
+            subscriber.join();
+        }
+
+        assertThat(admitted.get()).isEqualTo(5);
+        assertThat(rejected.get()).isEqualTo(27);
+        assertThat(streams.subscribers()).isLessThanOrEqualTo(5);
+    }
+}
\ No newline at end of file
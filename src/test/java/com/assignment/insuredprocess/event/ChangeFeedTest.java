@@ -0,0 +1,94 @@
+package com.assignment.insuredprocess.event;
+
+import com.assignment.insuredprocess.config.ChangeFeedProperties;
+import com.assignment.insuredprocess.dto.ChangeFeedPage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ChangeFeed Tests")
+class ChangeFeedTest {
+
+    @Test
+    @DisplayName("Should assign consecutive offsets and read from any offset")
+    void shouldReadFromOffset() {
+        ChangeFeed feed = createFeed(8);
+        feed.append(new ProductCreated("P001", "Health Insurance", "Comprehensive health coverage"));
+        feed.append(new ProductPurchased("C001", "P001", null));
+        feed.append(new ProductUpdated("P001", "C001", "Health Insurance", "Updated"));
+
+        ChangeFeedPage page = feed.read(1, 10);
+
+        assertThat(page.events()).extracting(ChangeEvent::offset).containsExactly(1L, 2L);
+        assertThat(page.events()).extracting(ChangeEvent::type).containsExactly("ProductPurchased", "ProductUpdated");
+        assertThat(page.nextOffset()).isEqualTo(3);
+        assertThat(page.gap()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should limit the page size")
+    void shouldLimitPageSize() {
+        ChangeFeed feed = createFeed(8);
+        for (int i = 0; i < 5; i++) {
+            feed.append(new ProductCreated("P" + i, "Product", "Description"));
+        }
+
+        ChangeFeedPage page = feed.read(0, 2);
+
+        assertThat(page.events()).extracting(ChangeEvent::offset).containsExactly(0L, 1L);
+        assertThat(page.nextOffset()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should report a gap when the consumer fell behind the ring")
+    void shouldReportGapForOverwrittenEvents() {
+        ChangeFeed feed = createFeed(4);
+        for (int i = 0; i < 10; i++) {
+            feed.append(new ProductCreated("P" + i, "Product", "Description"));
+        }
+
+        ChangeFeedPage page = feed.read(2, 10);
+
+        assertThat(page.gap()).isTrue();
+        assertThat(page.oldestOffset()).isEqualTo(6);
+        assertThat(page.events()).extracting(ChangeEvent::offset).containsExactly(6L, 7L, 8L, 9L);
+    }
+
+    @Test
+    @DisplayName("Should restart from the oldest event for an offset beyond the head")
+    void shouldRestartForOffsetBeyondHead() {
+        ChangeFeed feed = createFeed(4);
+        feed.append(new ProductCreated("P001", "Product", "Description"));
+
+        ChangeFeedPage page = feed.read(42, 10);
+
+        assertThat(page.gap()).isTrue();
+        assertThat(page.events()).extracting(ChangeEvent::offset).containsExactly(0L);
+    }
+
+    @Test
+    @DisplayName("Should wake a waiting consumer when an event is appended")
+    void shouldWakeWaitingConsumer() throws Exception {
+        ChangeFeed feed = createFeed(4);
+        assertThat(feed.awaitOffset(0, Duration.ofMillis(10))).isFalse();
+
+        Thread writer = Thread.ofVirtual().start(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            feed.append(new ProductCreated("P001", "Product", "Description"));
+        });
+
+        assertThat(feed.awaitOffset(0, Duration.ofSeconds(5))).isTrue();
+        writer.join();
+    }
+
+    private ChangeFeed createFeed(int capacity) {
+        return new ChangeFeed(new ChangeFeedProperties(capacity, 256, 10, Duration.ofMinutes(1), Duration.ofSeconds(1)));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,149 @@
+package com.assignment.insuredprocess.integration;
+
+import com.assignment.insuredprocess.InsuredProcessApplication;
+import com.assignment.insuredprocess.cluster.ClusterMembership;
+import com.assignment.insuredprocess.repository.ClientRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//Two cluster nodes as application contexts in this JVM, talking to each other over localhost HTTP
+@DisplayName("Cluster Integration Tests")
+class ClusterIntegrationTest {
+
+    private static final int CLIENTS = 40;
+    private static final String SECRET = "cluster-test-secret";
+
+    private final HttpClient http = HttpClient.newHttpClient();
+    private final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+
+    @AfterEach
+    void stopNodes() {
+        nodes.forEach(ConfigurableApplicationContext::close);
+    }
+
+    @Test
+    @DisplayName("Should partition clients across nodes, serve them through any node and hand them over on leave")
+    void shouldPartitionForwardAndRebalance() throws Exception {
+        int firstPort = freePort();
+        int secondPort = freePort();
+        ConfigurableApplicationContext first = startNode(firstPort, secondPort);
+        ConfigurableApplicationContext second = startNode(secondPort, firstPort);
+        awaitTrue(() -> first.getBean(ClusterMembership.class).ring().nodes().size() == 2
+                && second.getBean(ClusterMembership.class).ring().nodes().size() == 2);
+
+        for (int i = 0; i < CLIENTS; i++) {
+            HttpResponse<String> created = post(firstPort, "/api/clients",
+                    "{\"clientId\":\"K" + i + "\",\"contactType\":\"email\",\"contactValue\":\"k" + i + "@example.com\"}");
+            assertThat(created.statusCode()).isEqualTo(201);
+            assertThat(post(firstPort, "/api/products/P001/buy?clientId=K" + i, "").statusCode()).isEqualTo(200);
+        }
+
+        ClientRepository firstClients = first.getBean(ClientRepository.class);
+        ClientRepository secondClients = second.getBean(ClientRepository.class);
+        ClusterMembership membership = first.getBean(ClusterMembership.class);
+        for (int i = 0; i < CLIENTS; i++) {
+            String clientId = "K" + i;
+            boolean ownedByFirst = membership.ownerOf(clientId).equals(membership.self());
+            assertThat(firstClients.existsById(clientId)).isEqualTo(ownedByFirst);
+            assertThat(secondClients.existsById(clientId)).isEqualTo(!ownedByFirst);
+            HttpResponse<String> products = get(secondPort, "/api/clients/" + clientId + "/products");
+            assertThat(products.statusCode()).isEqualTo(200);
+            assertThat(products.body()).contains("\"P001\"");
+            assertThat(post(secondPort, "/api/clients/authenticate",
+                    "{\"clientId\":\"" + clientId + "\",\"contactType\":\"email\",\"contactValue\":\"k" + i + "@example.com\"}")
+                    .statusCode()).isEqualTo(200);
+        }
+        assertThat(firstClients.count()).isPositive();
+        assertThat(secondClients.count()).isPositive();
+
+        //catalog writes reach every node
+        assertThat(post(secondPort, "/api/products", "{\"id\":\"P900\",\"name\":\"Cluster Insurance\",\"description\":\"Everywhere\"}")
+                .statusCode()).isEqualTo(201);
+        awaitTrue(() -> get(firstPort, "/api/products/search?q=cluster").body().contains("P900"));
+
+        second.close();
+        nodes.remove(second);
+        //the stopping node hands its clients over before it announces that it leaves
+        awaitTrue(() -> firstClients.count() >= CLIENTS && membership.ring().nodes().size() == 1);
+        for (int i = 0; i < CLIENTS; i++) {
+            assertThat(get(firstPort, "/api/clients/K" + i + "/products").body()).contains("\"P001\"");
+        }
+    }
+
+    @Test
+    @DisplayName("Should refuse internal calls and ignore forwarding headers without the cluster secret")
+    void shouldRequireClusterSecret() throws Exception {
+        int port = freePort();
+        startNode(port, freePort());
+
+        assertThat(post(port, "/internal/cluster/join?member=http://attacker:1", "").statusCode()).isEqualTo(401);
+        assertThat(get(port, "/internal/cluster/members").statusCode()).isEqualTo(401);
+        assertThat(send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/internal/cluster/members"))
+                .header("X-Cluster-Secret", SECRET).GET().build()).statusCode()).isEqualTo(200);
+        assertThat(send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/internal/cluster/members"))
+                .header("X-Cluster-Secret", "guess").GET().build()).statusCode()).isEqualTo(401);
+    }
+
+    private ConfigurableApplicationContext startNode(int port, int otherPort) {
+        ConfigurableApplicationContext node = new SpringApplicationBuilder(InsuredProcessApplication.class).run(
+                "--server.port=" + port,
+                "--insured-process.cluster.enabled=true",
+                "--insured-process.cluster.secret=" + SECRET,
+                "--insured-process.cluster.self-url=http://localhost:" + port,
+                "--insured-process.cluster.members=http://localhost:" + otherPort,
+                "--insured-process.cluster.probe-interval=200ms");
+        nodes.add(node);
+        return node;
+    }
+
+    private HttpResponse<String> get(int port, String path) {
+        return send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET().build());
+    }
+
+    private HttpResponse<String> post(int port, String path, String json) {
+        return send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build());
+    }
+
+    private HttpResponse<String> send(HttpRequest request) {
+        try {
+            return http.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + 20_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("cluster did not converge in time").isLessThan(deadline);
+            Thread.sleep(50);
+        }
+    }
+}
\ No newline at end of file
@@ -1,6 +1,8 @@
 package com.assignment.insuredprocess.integration;
 
+import com.assignment.insuredprocess.diagnostics.ClientIdHashes;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,7 +11,9 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import static org.hamcrest.Matchers.greaterThan;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -222,4 +226,190 @@ class InsuredProcessIntegrationTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[?(@.id == 'P999')]").exists());
     }
+
+    @Test
+    @DisplayName("Should buy product through the asynchronous pipeline")
+    void shouldBuyProductThroughAsyncPipeline() throws Exception {
+        MvcResult purchase = mockMvc.perform(post("/api/products/P002/buy-async")
+                        .param("clientId", "C002"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(purchase))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value("P002"));
+
+        MvcResult duplicate = mockMvc.perform(post("/api/products/P002/buy-async")
+                        .param("clientId", "C002"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(duplicate))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/api/clients/C002/products"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    @DisplayName("Should publish purchases and updates to the change feed")
+    void shouldPublishChangesToFeed() throws Exception {
+        MvcResult head = mockMvc.perform(get("/api/changes").param("fromOffset", "0"))
+                .andExpect(status().isOk())
+                .andReturn();
+        long fromOffset = objectMapper.readTree(head.getResponse().getContentAsString()).get("nextOffset").asLong();
+
+        mockMvc.perform(post("/api/products/P003/buy")
+                        .param("clientId", "C001"))
+                .andExpect(status().isOk());
+        mockMvc.perform(put("/api/products/P003")
+                        .param("clientId", "C001")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                    "description": "Revised life coverage"
+                                }
+                                """))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/changes").param("fromOffset", String.valueOf(fromOffset)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.events.length()").value(2))
+                .andExpect(jsonPath("$.events[0].type").value("ProductPurchased"))
+                .andExpect(jsonPath("$.events[0].payload.productId").value("P003"))
+                .andExpect(jsonPath("$.events[1].type").value("ProductUpdated"))
+                .andExpect(jsonPath("$.events[1].payload.description").value("Revised life coverage"))
+                .andExpect(jsonPath("$.nextOffset").value(fromOffset + 2));
+    }
+
+    @Test
+    @DisplayName("Should find created and updated products by search")
+    void shouldSearchCreatedAndUpdatedProducts() throws Exception {
+        mockMvc.perform(post("/api/products")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                    "id": "P010",
+                                    "name": "Pet Insurance",
+                                    "description": "Veterinary coverage for dogs and cats"
+                                }
+                                """))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/products/search").param("q", "veter"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value("P010"));
+
+        mockMvc.perform(post("/api/products/P001/buy").param("clientId", "C001"))
+                .andExpect(status().isOk());
+        mockMvc.perform(put("/api/products/P001")
+                        .param("clientId", "C001")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                    "name": "Wellness Plan"
+                                }
+                                """))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/products/search").param("q", "wellness"))
+                .andExpect(jsonPath("$[0].id").value("P001"));
+        mockMvc.perform(get("/api/products/search").param("q", "health insurance"))
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    @DisplayName("Should report portfolio read coalescing statistics by client id hash, and not reset them over the web")
+    void shouldReportCoalescingStatistics() throws Exception {
+        mockMvc.perform(get("/api/clients/C001/products"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/coalescing"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.computed").value(1))
+                .andExpect(jsonPath("$.coalesced").value(0));
+        String hash = ClientIdHashes.of("C001");
+        mockMvc.perform(get("/actuator/coalescing/" + hash))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$." + hash).value(0));
+        mockMvc.perform(delete("/actuator/coalescing"))
+                .andExpect(status().isMethodNotAllowed());
+    }
+
+    @Test
+    @DisplayName("Should report the estimated memory of stores and indexes")
+    void shouldReportMemoryFootprint() throws Exception {
+        MvcResult before = mockMvc.perform(get("/actuator/memory"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.repositories.clients.entries").value(greaterThan(0)))
+                .andExpect(jsonPath("$.repositories.clients.averageEntryBytes").value(greaterThan(0)))
+                .andExpect(jsonPath("$.repositories.clients.details.contactMethods").value(greaterThan(0)))
+                .andExpect(jsonPath("$.repositories.products.estimatedBytes").value(greaterThan(0)))
+                .andExpect(jsonPath("$.indexes.productSearch.details.terms").value(greaterThan(0)))
+                .andExpect(jsonPath("$.indexes.clientIdFilter.estimatedBytes").value(greaterThan(0)))
+                .andReturn();
+        int rowsBefore = JsonPath.read(before.getResponse().getContentAsString(), "$.repositories.ownership.entries");
+
+        mockMvc.perform(post("/api/products/P001/buy").param("clientId", "C002"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/memory"))
+                .andExpect(jsonPath("$.repositories.ownership.entries").value(rowsBefore + 1));
+    }
+
+    @Test
+    @DisplayName("Should list the hottest client id hashes and product ids, and not reset them over the web")
+    void shouldReportHotKeys() throws Exception {
+        mockMvc.perform(delete("/actuator/hotkeys"))
+                .andExpect(status().isMethodNotAllowed());
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(get("/api/clients/C001/products"))
+                    .andExpect(status().isOk());
+        }
+        mockMvc.perform(post("/api/products/P001/buy").param("clientId", "C002"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/hotkeys").param("top", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.current.clients.length()").value(1))
+                .andExpect(jsonPath("$.current.clients[0].id").value(ClientIdHashes.of("C001")))
+                .andExpect(jsonPath("$.current.clients[0].requests").value(5))
+                .andExpect(jsonPath("$.current.products[0].id").value("P001"))
+                .andExpect(jsonPath("$.current.products[0].averageLatencyMillis").value(greaterThan(0.0)));
+    }
+
+    @Test
+    @DisplayName("Should keep the portfolio current across purchase, update and cancellation")
+    void shouldKeepPortfolioCurrent() throws Exception {
+        mockMvc.perform(get("/api/clients/C002/products"))
+                .andExpect(jsonPath("$.length()").value(0));
+
+        mockMvc.perform(post("/api/products/P001/buy").param("clientId", "C002"))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/products/P001/buy").param("clientId", "C001"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/clients/C002/products"))
+                .andExpect(jsonPath("$[0].name").value("Health Insurance"));
+
+        mockMvc.perform(put("/api/products/P001")
+                        .param("clientId", "C001")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                    "name": "Health Insurance Plus"
+                                }
+                                """))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/clients/C002/products"))
+                .andExpect(jsonPath("$[0].name").value("Health Insurance Plus"));
+
+        mockMvc.perform(post("/api/products/P001/cancel").param("clientId", "C002"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/clients/C002/products"))
+                .andExpect(jsonPath("$.length()").value(0));
+        mockMvc.perform(post("/api/products/P001/cancel").param("clientId", "C002"))
+                .andExpect(status().isBadRequest());
+    }
 }
\ No newline at end of file
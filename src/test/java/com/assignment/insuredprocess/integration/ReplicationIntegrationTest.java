@@ -0,0 +1,151 @@
+package com.assignment.insuredprocess.integration;
+
+import com.assignment.insuredprocess.InsuredProcessApplication;
+import com.assignment.insuredprocess.model.Product;
+import com.assignment.insuredprocess.replication.ReplicationFollower;
+import com.assignment.insuredprocess.replication.ReplicationLeader;
+import com.assignment.insuredprocess.service.ClientService;
+import com.assignment.insuredprocess.service.ProductService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+//Leader and follower run as two application contexts in this JVM, connected over a real localhost socket
+@DisplayName("Replication Integration Tests")
+class ReplicationIntegrationTest {
+
+    private static final String SECRET = "replication-test-secret";
+
+    private static ConfigurableApplicationContext leader;
+    private static ConfigurableApplicationContext follower;
+
+    @BeforeAll
+    static void startLeaderAndFollower() {
+        leader = new SpringApplicationBuilder(InsuredProcessApplication.class).run(
+                "--server.port=0",
+                "--insured-process.replication.role=leader",
+                "--insured-process.replication.port=0",
+                "--insured-process.replication.secret=" + SECRET,
+                "--insured-process.replication.heartbeat=200ms");
+        follower = new SpringApplicationBuilder(InsuredProcessApplication.class).run(
+                "--server.port=0",
+                "--insured-process.replication.role=follower",
+                "--insured-process.replication.leader-port=" + leader.getBean(ReplicationLeader.class).port(),
+                "--insured-process.replication.secret=" + SECRET,
+                "--insured-process.replication.heartbeat=200ms",
+                "--insured-process.replication.reconnect-delay=100ms");
+    }
+
+    @AfterAll
+    static void stop() {
+        if (follower != null) {
+            follower.close();
+        }
+        if (leader != null) {
+            leader.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Should replicate the leader's state and its later changes to the follower")
+    void shouldReplicateSnapshotAndChanges() throws Exception {
+        ClientService followerClients = follower.getBean(ClientService.class);
+        ProductService followerProducts = follower.getBean(ProductService.class);
+
+        //sample data created by the leader before the follower connected arrives with the snapshot
+        awaitTrue(() -> followerClients.authenticateClient("C001", "email", "john@example.com"));
+
+        leader.getBean(ClientService.class).createClient("R001", "email", "replica@example.com");
+        ProductService leaderProducts = leader.getBean(ProductService.class);
+        leaderProducts.buyProduct("R001", "P001");
+        leaderProducts.buyProduct("R001", "P002");
+        leaderProducts.updateProduct("R001", "P001", "Health Insurance Plus", null);
+        leaderProducts.cancelProduct("R001", "P002");
+
+        //the follower may report no lag between two events, so also wait for the last change to show
+        awaitTrue(() -> follower.getBean(ReplicationFollower.class).lagEvents() == 0
+                && followerProducts.findClientPortfolio("R001").map(List::size).orElse(0) == 1
+                && followerProducts.findClientPortfolio("R001").orElseThrow().get(0).getName().equals("Health Insurance Plus"));
+        assertThat(followerClients.authenticateClient("R001", "email", "replica@example.com")).isTrue();
+        assertThat(followerProducts.findClientPortfolio("R001").orElseThrow())
+                .extracting(Product::getId, Product::getName)
+                .containsExactly(tuple("P001", "Health Insurance Plus"));
+
+        MeterRegistry followerMetrics = follower.getBean(MeterRegistry.class);
+        assertThat(followerMetrics.get("insured.replication.connected").gauge().value()).isEqualTo(1.0);
+        assertThat(followerMetrics.get("insured.replication.applied").tag("kind", "event").functionCounter().count())
+                .isGreaterThanOrEqualTo(5.0);
+        assertThat(leader.getBean(MeterRegistry.class).get("insured.replication.followers").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should serve authentication on the follower but reject writes")
+    void shouldRejectWritesOnFollower() throws Exception {
+        awaitTrue(() -> follower.getBean(ClientService.class).authenticateClient("C001", "email", "john@example.com"));
+        HttpClient http = HttpClient.newHttpClient();
+        String baseUrl = "http://localhost:" + ((ServletWebServerApplicationContext) follower).getWebServer().getPort();
+
+        HttpResponse<String> authenticate = http.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/clients/authenticate"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"clientId\":\"C001\",\"contactType\":\"email\",\"contactValue\":\"john@example.com\"}"))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> buy = http.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/products/P003/buy?clientId=C001"))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build(), HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> products = http.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/clients/C001/products"))
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+
+        assertThat(authenticate.statusCode()).isEqualTo(200);
+        assertThat(buy.statusCode()).isEqualTo(403);
+        assertThat(products.statusCode()).isEqualTo(200);
+        assertThat(leader.getBean(ProductService.class).getClientProducts("C001")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should disconnect a follower that cannot answer the challenge before streaming anything")
+    void shouldRejectUnauthenticatedFollower() throws Exception {
+        try (Socket socket = new Socket("localhost", leader.getBean(ReplicationLeader.class).port())) {
+            socket.setSoTimeout(5_000);
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+            out.write("{\"kind\":\"HELLO\",\"offset\":-1,\"head\":-1}\n");
+            out.flush();
+            assertThat(in.readLine()).contains("\"kind\":\"HELLO\"");
+
+            out.write("{\"kind\":\"AUTH\",\"offset\":-1,\"head\":-1,\"type\":\"not-the-proof\"}\n");
+            out.flush();
+
+            assertThat(in.readLine()).isNull();
+        }
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + 20_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("replication did not catch up in time").isLessThan(deadline);
+            Thread.sleep(50);
+        }
+    }
+}
\ No newline at end of file
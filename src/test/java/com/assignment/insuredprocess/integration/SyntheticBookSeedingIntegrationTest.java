@@ -0,0 +1,56 @@
+package com.assignment.insuredprocess.integration;
+
+import com.assignment.insuredprocess.model.ContactMethod;
+import com.assignment.insuredprocess.seed.SyntheticBook;
+import com.assignment.insuredprocess.seed.SyntheticBookLoader;
+import com.assignment.insuredprocess.service.ClientService;
+import com.assignment.insuredprocess.service.ProductService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "insured-process.seed.clients=2000",
+        "insured-process.seed.products=50",
+        "insured-process.seed.partition-size=100",
+        "insured-process.seed.parallelism=2"
+})
+@DisplayName("Synthetic Book Seeding Integration Tests")
+class SyntheticBookSeedingIntegrationTest {
+
+    @Autowired
+    private SyntheticBookLoader loader;
+
+    @Autowired
+    private ClientService clientService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    @DisplayName("Should serve clients of any partition while the book is still loading")
+    void shouldServeClientsWhileLoading() throws Exception {
+        SyntheticBook book = loader.book();
+        int lastClient = book.clients() - 1;
+        ContactMethod contact = book.contactMethods(lastClient).get(0);
+
+        assertThat(clientService.authenticateClient(book.clientId(lastClient), contact.getType(), contact.getValue())).isTrue();
+        assertThat(productService.getClientProducts(book.clientId(lastClient)))
+                .hasSize(book.ownedProductIndexes(lastClient).length);
+
+        loader.awaitFullyLoaded();
+
+        assertThat(loader.isFullyLoaded()).isTrue();
+        assertThat(IntStream.range(0, book.clients()).allMatch(index -> clientService.findClientById(book.clientId(index)).isPresent())).isTrue();
+        assertThat(meterRegistry.get("insured.seed.partitions").tag("state", "loaded").gauge().value()).isEqualTo(20.0);
+    }
+}
\ No newline at end of file
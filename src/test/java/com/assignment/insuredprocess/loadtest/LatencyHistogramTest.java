@@ -0,0 +1,69 @@
+package com.assignment.insuredprocess.loadtest;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@DisplayName("LatencyHistogram Tests")
+class LatencyHistogramTest {
+
+    @Test
+    @DisplayName("Should report exact percentiles below the linear limit")
+    void shouldBeExactForSmallValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        LongStream.rangeClosed(1, 1000).forEach(histogram::record);
+
+        assertThat(histogram.count()).isEqualTo(1000);
+        assertThat(histogram.percentile(0.50)).isEqualTo(500);
+        assertThat(histogram.percentile(0.99)).isEqualTo(990);
+        assertThat(histogram.percentile(1.0)).isEqualTo(1000);
+        assertThat(histogram.max()).isEqualTo(1000);
+    }
+
+    @Test
+    @DisplayName("Should stay within its relative error for large values")
+    void shouldBoundRelativeError() {
+        for (long value : new long[]{1_024, 5_000, 123_456, 7_654_321, 60_000_000_000L}) {
+            LatencyHistogram histogram = new LatencyHistogram();
+            histogram.record(value);
+            histogram.record(value * 2);
+
+            assertThat((double) histogram.percentile(0.5)).isCloseTo(value, within(value * 0.002 + 1));
+        }
+    }
+
+    @Test
+    @DisplayName("Should map every value into a bucket whose upper bound covers it")
+    void shouldKeepBucketsOrdered() {
+        long previousIndex = -1;
+        for (long value = 0; value < 10_000_000; value = value * 3 / 2 + 1) {
+            int index = LatencyHistogram.indexOf(value);
+            assertThat(index).isGreaterThanOrEqualTo((int) previousIndex);
+            assertThat(LatencyHistogram.upperBoundOf(index)).isGreaterThanOrEqualTo(value);
+            previousIndex = index;
+        }
+    }
+
+    @Test
+    @DisplayName("Should merge counts and maxima and treat an empty histogram as zero")
+    void shouldMergeHistograms() {
+        LatencyHistogram empty = new LatencyHistogram();
+        LatencyHistogram fast = new LatencyHistogram();
+        LatencyHistogram slow = new LatencyHistogram();
+        LongStream.range(0, 99).forEach(i -> fast.record(10));
+        slow.record(-5);
+        slow.record(50_000);
+
+        fast.addAll(slow);
+
+        assertThat(empty.percentile(0.99)).isZero();
+        assertThat(fast.count()).isEqualTo(101);
+        assertThat(fast.percentile(0.5)).isEqualTo(10);
+        assertThat(fast.percentile(1.0)).isEqualTo(50_000);
+        assertThat(fast.max()).isEqualTo(50_000);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,67 @@
+package com.assignment.insuredprocess.loadtest;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpRequest;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("LoadDriver Tests")
+class LoadDriverTest {
+
+    @Test
+    @DisplayName("Should parse the operation mix in order and pick operations by weight")
+    void shouldPickOperationsByWeight() {
+        LoadDriver.Settings settings = settings("authenticate=40, list=40,BUY=15,update=5");
+
+        assertThat(settings.mix()).containsExactly(Map.entry(LoadDriver.Operation.AUTHENTICATE, 40),
+                Map.entry(LoadDriver.Operation.LIST, 40), Map.entry(LoadDriver.Operation.BUY, 15),
+                Map.entry(LoadDriver.Operation.UPDATE, 5));
+        assertThat(settings.totalWeight()).isEqualTo(100);
+        assertThat(settings.pick(0)).isEqualTo(LoadDriver.Operation.AUTHENTICATE);
+        assertThat(settings.pick(39)).isEqualTo(LoadDriver.Operation.AUTHENTICATE);
+        assertThat(settings.pick(40)).isEqualTo(LoadDriver.Operation.LIST);
+        assertThat(settings.pick(94)).isEqualTo(LoadDriver.Operation.BUY);
+        assertThat(settings.pick(99)).isEqualTo(LoadDriver.Operation.UPDATE);
+        assertThatThrownBy(() -> settings.pick(100)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    @DisplayName("Should reject a mix without positive weight or with unknown operations")
+    void shouldRejectInvalidMix() {
+        assertThatThrownBy(() -> LoadDriver.Settings.parseMix("list=0")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> LoadDriver.Settings.parseMix("delete=10")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Should address clients and products of the synthetic book")
+    void shouldBuildRequestsForTheBook() {
+        LoadDriver driver = new LoadDriver(settings("list=1"));
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        HttpRequest list = driver.requestFor(LoadDriver.Operation.LIST, random);
+        HttpRequest buy = driver.requestFor(LoadDriver.Operation.BUY, random);
+        HttpRequest update = driver.requestFor(LoadDriver.Operation.UPDATE, random);
+        HttpRequest authenticate = driver.requestFor(LoadDriver.Operation.AUTHENTICATE, random);
+        HttpRequest search = driver.requestFor(LoadDriver.Operation.SEARCH, random);
+
+        assertThat(list.method()).isEqualTo("GET");
+        assertThat(list.uri().toString()).matches("http://localhost:9/api/clients/SC\\d+/products");
+        assertThat(buy.method()).isEqualTo("POST");
+        assertThat(buy.uri().toString()).matches("http://localhost:9/api/products/SP\\d+/buy\\?clientId=SC\\d+");
+        assertThat(update.method()).isEqualTo("PUT");
+        assertThat(update.uri().toString()).matches("http://localhost:9/api/products/SP\\d+\\?clientId=SC\\d+");
+        assertThat(authenticate.uri().getPath()).isEqualTo("/api/clients/authenticate");
+        assertThat(authenticate.headers().firstValue("Content-Type")).hasValue("application/json");
+        assertThat(search.uri().toString()).startsWith("http://localhost:9/api/products/search?limit=10&q=");
+    }
+
+    private static LoadDriver.Settings settings(String mix) {
+        return new LoadDriver.Settings("http://localhost:9", 1, 0, 1, LoadDriver.Settings.parseMix(mix),
+                0.1, 100, 20, 5, 1.1, 0.3, 42);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,52 @@
+package com.assignment.insuredprocess.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Client Tests")
+class ClientTest {
+
+    @Test
+    @DisplayName("Should add contact methods to a copy and leave the original untouched")
+    void shouldAddContactMethodsToCopy() {
+        Client client = new Client("C001", new ContactMethod("email", "test@example.com"));
+
+        Client updated = client.withContactMethod(new ContactMethod("phone", "555-0001"));
+
+        assertThat(client.contactMethodCount()).isEqualTo(1);
+        assertThat(client.hasContactMethod("phone", "555-0001")).isFalse();
+        assertThat(updated.getContactMethods()).containsExactly(new ContactMethod("email", "test@example.com"),
+                new ContactMethod("phone", "555-0001"));
+        assertThat(updated.hasContactMethod("phone", "555-0001")).isTrue();
+        assertThat(new Client("C002").withContactMethod(new ContactMethod("email", "a@example.com")))
+                .isEqualTo(new Client("C002", new ContactMethod("email", "a@example.com")));
+        assertThatThrownBy(() -> updated.getContactMethods().clear()).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    @DisplayName("Should share one canonical string per contact type")
+    void shouldShareCanonicalContactTypes() {
+        ContactMethod first = new ContactMethod(new String("email"), "a@example.com");
+        ContactMethod second = new ContactMethod(new String("email"), "b@example.com");
+        ContactMethod custom = new ContactMethod(new String("fax"), "555-0002");
+
+        assertThat(first.getType()).isSameAs(second.getType());
+        assertThat(new ContactMethod(new String("fax"), "555-0003").getType()).isSameAs(custom.getType());
+    }
+
+    @Test
+    @DisplayName("Should keep the JSON shape of clients and products")
+    void shouldKeepJsonShape() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        Client client = new Client("C001", new ContactMethod("email", "test@example.com"));
+        Product product = new Product("P001", "Health Insurance", "Basic health coverage");
+
+        assertThat(objectMapper.writeValueAsString(client))
+                .isEqualTo("{\"id\":\"C001\",\"contactMethods\":[{\"type\":\"email\",\"value\":\"test@example.com\"}]}");
+        assertThat(objectMapper.readValue(objectMapper.writeValueAsString(product), Product.class)).isEqualTo(product);
+    }
+}
\ No newline at end of file
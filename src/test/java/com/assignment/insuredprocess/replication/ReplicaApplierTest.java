@@ -0,0 +1,158 @@
+package com.assignment.insuredprocess.replication;
+
+import com.assignment.insuredprocess.config.AuthProperties;
+import com.assignment.insuredprocess.config.IdFilterProperties;
+import com.assignment.insuredprocess.config.StorageProperties;
+import com.assignment.insuredprocess.event.CatalogReloaded;
+import com.assignment.insuredprocess.event.ClientCreated;
+import com.assignment.insuredprocess.event.ClientRemoved;
+import com.assignment.insuredprocess.event.ContactMethodAdded;
+import com.assignment.insuredprocess.event.DomainEvent;
+import com.assignment.insuredprocess.event.ProductCancelled;
+import com.assignment.insuredprocess.event.ProductCreated;
+import com.assignment.insuredprocess.event.ProductPurchased;
+import com.assignment.insuredprocess.event.ProductUpdated;
+import com.assignment.insuredprocess.model.ClientProduct;
+import com.assignment.insuredprocess.model.Product;
+import com.assignment.insuredprocess.repository.ClientProductRepository;
+import com.assignment.insuredprocess.repository.ClientRepository;
+import com.assignment.insuredprocess.repository.ProductRepository;
+import com.assignment.insuredprocess.service.AuthenticationCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DisplayName("ReplicaApplier Tests")
+class ReplicaApplierTest {
+
+    private static final IdFilterProperties ID_FILTER = new IdFilterProperties(true, 1000, 100, 0.01, DataSize.ofKilobytes(64));
+
+    private ClientRepository clientRepository;
+    private ProductRepository productRepository;
+    private ClientProductRepository clientProductRepository;
+    private List<Object> published;
+    private ReplicaApplier applier;
+
+    @BeforeEach
+    void setUp() {
+        clientRepository = new ClientRepository(new StorageProperties(4), ID_FILTER);
+        productRepository = new ProductRepository(ID_FILTER);
+        clientProductRepository = new ClientProductRepository(new StorageProperties(4));
+        AuthenticationCache authenticationCache = new AuthenticationCache(new AuthProperties(
+                new AuthProperties.Cache(100, Duration.ofSeconds(30), Duration.ofSeconds(5)),
+                new AuthProperties.Throttle(10, Duration.ofSeconds(6), 100, Duration.ofMillis(100), 1000)));
+        published = new ArrayList<>();
+        applier = new ReplicaApplier(clientRepository, productRepository, clientProductRepository, authenticationCache, published::add);
+    }
+
+    @Test
+    @DisplayName("Should apply every kind of event and publish it locally")
+    void shouldApplyEvents() {
+        LocalDateTime purchaseDate = LocalDateTime.of(2024, 1, 15, 10, 30);
+        List<DomainEvent> events = List.of(
+                new ProductCreated("P001", "Health Insurance", "Comprehensive health coverage"),
+                new ClientCreated("C001", "email", "john@example.com"),
+                new ContactMethodAdded("C001", "phone", "555-1234"),
+                new ProductPurchased("C001", "P001", purchaseDate),
+                new ProductUpdated("P001", "C001", "Health Insurance Plus", "Extended coverage"));
+
+        events.forEach(event -> assertThat(applier.apply(event)).isTrue());
+
+        assertThat(clientRepository.findById("C001").orElseThrow().getContactMethods()).hasSize(2);
+        assertThat(productRepository.findById("P001").orElseThrow().getName()).isEqualTo("Health Insurance Plus");
+        assertThat(clientProductRepository.findByClientId("C001"))
+                .extracting(ClientProduct::getProductId, ClientProduct::getPurchaseDate)
+                .containsExactly(tuple("P001", purchaseDate));
+        assertThat(published).containsExactlyElementsOf(events);
+
+        assertThat(applier.apply(new ProductCancelled("C001", "P001"))).isTrue();
+        assertThat(clientProductRepository.findByClientId("C001")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should treat events already reflected in the local state as no-ops")
+    void shouldIgnoreRepeatedEvents() {
+        List<DomainEvent> events = List.of(
+                new ProductCreated("P001", "Health Insurance", "Comprehensive health coverage"),
+                new ClientCreated("C001", "email", "john@example.com"),
+                new ProductPurchased("C001", "P001", LocalDateTime.now()));
+        events.forEach(applier::apply);
+        published.clear();
+
+        events.forEach(event -> assertThat(applier.apply(event)).isFalse());
+        assertThat(applier.apply(new ContactMethodAdded("C001", "email", "john@example.com"))).isFalse();
+        assertThat(applier.apply(new ProductCancelled("C002", "P001"))).isFalse();
+
+        assertThat(published).isEmpty();
+        assertThat(clientRepository.findById("C001").orElseThrow().getContactMethods()).hasSize(1);
+        assertThat(clientProductRepository.findByClientId("C001")).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Should converge when events overlapping a snapshot are replayed on top of it")
+    void shouldConvergeWhenReplayingOverSnapshot() {
+        //snapshot taken after the purchase and cancellation already happened on the leader
+        applier.apply(new ProductCreated("P001", "Health Insurance Plus", "Extended coverage"));
+        applier.apply(new ClientCreated("C001", "email", "john@example.com"));
+
+        applier.apply(new ProductUpdated("P001", "C001", "Health Insurance", "Comprehensive health coverage"));
+        applier.apply(new ProductPurchased("C001", "P001", LocalDateTime.now()));
+        applier.apply(new ProductUpdated("P001", "C001", "Health Insurance Plus", "Extended coverage"));
+        applier.apply(new ProductCancelled("C001", "P001"));
+
+        assertThat(productRepository.findById("P001").orElseThrow().getName()).isEqualTo("Health Insurance Plus");
+        assertThat(clientProductRepository.existsByClientIdAndProductId("C001", "P001")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should replace the catalog on a reload and ignore the same reload replayed")
+    void shouldApplyCatalogReloadOnce() {
+        applier.apply(new ProductCreated("P001", "Health Insurance", "Comprehensive health coverage"));
+        CatalogReloaded reloaded = new CatalogReloaded(List.of(
+                new Product("P001", "Health Insurance Plus", "Extended coverage"),
+                new Product("P002", "Car Insurance", "Full coverage for your vehicle")));
+
+        assertThat(applier.apply(reloaded)).isTrue();
+        assertThat(applier.apply(reloaded)).isFalse();
+
+        assertThat(productRepository.findAll()).extracting(Product::getId, Product::getName)
+                .containsExactlyInAnyOrder(tuple("P001", "Health Insurance Plus"), tuple("P002", "Car Insurance"));
+        assertThat(published).containsOnlyOnce(reloaded);
+    }
+
+    @Test
+    @DisplayName("Should drop local state a snapshot does not re-create")
+    void shouldDropStateMissingFromSnapshot() {
+        applier.apply(new ProductCreated("P001", "Health Insurance", "Comprehensive health coverage"));
+        applier.apply(new ProductCreated("P009", "Pet Insurance", "Removed on the leader meanwhile"));
+        applier.apply(new ClientCreated("C001", "email", "john@example.com"));
+        applier.apply(new ClientCreated("C009", "email", "gone@example.com"));
+        applier.apply(new ProductPurchased("C001", "P001", LocalDateTime.now()));
+        applier.apply(new ProductPurchased("C001", "P009", LocalDateTime.now()));
+        applier.apply(new ProductPurchased("C009", "P001", LocalDateTime.now()));
+        published.clear();
+
+        ReplicaApplier.Snapshot snapshot = applier.beginSnapshot();
+        snapshot.apply(new ProductCreated("P001", "Health Insurance", "Comprehensive health coverage"));
+        snapshot.apply(new ClientCreated("C001", "email", "john@example.com"));
+        snapshot.apply(new ProductPurchased("C001", "P001", LocalDateTime.now()));
+        snapshot.finish();
+
+        assertThat(clientRepository.findById("C009")).isEmpty();
+        assertThat(clientRepository.findById("C001")).isPresent();
+        assertThat(productRepository.findAll()).extracting(Product::getId).containsExactly("P001");
+        assertThat(clientProductRepository.findByClientId("C001")).extracting(ClientProduct::getProductId).containsExactly("P001");
+        assertThat(clientProductRepository.findByClientId("C009")).isEmpty();
+        assertThat(published).containsExactly(new ClientRemoved("C009"), new ProductCancelled("C001", "P009"),
+                new CatalogReloaded(List.of(new Product("P001", "Health Insurance", "Comprehensive health coverage"))));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,132 @@
+package com.assignment.insuredprocess.repository;
+
+import com.assignment.insuredprocess.config.StorageProperties;
+import com.assignment.insuredprocess.model.ClientProduct;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ClientProductRepository Tests")
+class ClientProductRepositoryTest {
+
+    private final ClientProductRepository repository = new ClientProductRepository(new StorageProperties(4));
+
+    @Test
+    @DisplayName("Should keep purchase order per client")
+    void shouldKeepPurchaseOrderPerClient() {
+        repository.save(new ClientProduct("C001", "P002"));
+        repository.save(new ClientProduct("C001", "P001"));
+        repository.save(new ClientProduct("C002", "P003"));
+
+        assertThat(repository.findByClientId("C001"))
+                .extracting(ClientProduct::getProductId)
+                .containsExactly("P002", "P001");
+        assertThat(repository.existsByClientIdAndProductId("C002", "P003")).isTrue();
+        assertThat(repository.existsByClientIdAndProductId("C002", "P001")).isFalse();
+        assertThat(repository.findByClientId("UNKNOWN")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should account ownership rows and their size as they are written and removed")
+    void shouldAccountMemoryIncrementally() {
+        repository.save(new ClientProduct("C001", "P001"));
+        repository.saveAllIfAbsent(List.of(new ClientProduct("C001", "P002"), new ClientProduct("C002", "P001"),
+                new ClientProduct("C001", "P001")));
+        long bytesWithThreeRows = repository.memoryFootprint().estimatedBytes();
+
+        assertThat(repository.memoryFootprint().entries()).isEqualTo(3);
+        assertThat(repository.memoryFootprint().details()).containsEntry("clients", 2L).containsEntry("rowsPerClient", 1.5);
+
+        repository.deleteByClientIdAndProductId("C001", "P002");
+        assertThat(repository.memoryFootprint().entries()).isEqualTo(2);
+        assertThat(repository.memoryFootprint().estimatedBytes()).isPositive().isLessThan(bytesWithThreeRows);
+
+        repository.deleteByClientId("C001");
+        repository.deleteByClientIdAndProductId("C002", "P001");
+        assertThat(repository.memoryFootprint().entries()).isZero();
+        assertThat(repository.memoryFootprint().estimatedBytes()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should leave earlier snapshots unchanged while purchases append to the shared rows")
+    void shouldIsolateSnapshotsFromLaterPurchases() {
+        for (int i = 0; i < 1_000; i++) {
+            repository.saveIfAbsent(new ClientProduct("C001", "P" + i));
+        }
+        List<ClientProduct> before = repository.findByClientId("C001");
+        Set<String> ownedBefore = repository.findProductIdsByClientId("C001");
+
+        repository.saveIfAbsent(new ClientProduct("C001", "P1000"));
+        repository.deleteByClientIdAndProductId("C001", "P0");
+        repository.saveIfAbsent(new ClientProduct("C001", "P1001"));
+
+        assertThat(before).hasSize(1_000).first().extracting(ClientProduct::getProductId).isEqualTo("P0");
+        assertThat(ownedBefore).hasSize(1_000).contains("P0").doesNotContain("P1000");
+        assertThat(repository.findProductIdsByClientId("C001")).hasSize(1_001).contains("P1000", "P1001").doesNotContain("P0");
+        assertThat(repository.findByClientId("C001")).last().extracting(ClientProduct::getProductId).isEqualTo("P1001");
+    }
+
+    @Test
+    @DisplayName("Should list each owned product once, in purchase order, without counting the rows again")
+    void shouldListDistinctProductIds() {
+        repository.save(new ClientProduct("C001", "P1"));
+        repository.save(new ClientProduct("C001", "P2"));
+        repository.save(new ClientProduct("C001", "P1"));
+        Set<String> owned = repository.findProductIdsByClientId("C001");
+
+        repository.save(new ClientProduct("C001", "P3"));
+
+        assertThat(owned).hasSize(2).containsExactly("P1", "P2");
+        assertThat(repository.findProductIdsByClientId("C001")).hasSize(3).containsExactly("P1", "P2", "P3");
+        repository.deleteByClientIdAndProductId("C001", "P1");
+        assertThat(repository.findProductIdsByClientId("C001")).hasSize(2).containsExactly("P2", "P3");
+    }
+
+    @Test
+    @DisplayName("Should let exactly one of concurrent duplicate purchases win")
+    void shouldLetOneConcurrentDuplicateWin() throws Exception {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return repository.saveIfAbsent(new ClientProduct("C001", "P001"));
+                }));
+            }
+            start.countDown();
+
+            int wins = 0;
+            for (Future<Boolean> result : results) {
+                wins += result.get() ? 1 : 0;
+            }
+            assertThat(wins).isEqualTo(1);
+            assertThat(repository.findByClientId("C001")).hasSize(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should remove ownership")
+    void shouldRemoveOwnership() {
+        repository.save(new ClientProduct("C001", "P001"));
+        repository.save(new ClientProduct("C001", "P002"));
+
+        repository.deleteByClientIdAndProductId("C001", "P001");
+
+        assertThat(repository.existsByClientIdAndProductId("C001", "P001")).isFalse();
+        assertThat(repository.findByClientId("C001")).hasSize(1);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,51 @@
+package com.assignment.insuredprocess.repository;
+
+import com.assignment.insuredprocess.config.IdFilterProperties;
+import com.assignment.insuredprocess.config.StorageProperties;
+import com.assignment.insuredprocess.model.Client;
+import com.assignment.insuredprocess.model.ContactMethod;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ClientRepository Tests")
+class ClientRepositoryTest {
+
+    private final ClientRepository repository = new ClientRepository(new StorageProperties(4),
+            new IdFilterProperties(true, 1000, 100, 0.01, DataSize.ofKilobytes(64)));
+
+    @Test
+    @DisplayName("Should apply every concurrent update of the same client")
+    void shouldApplyConcurrentUpdates() throws InterruptedException {
+        repository.save(new Client("C001", new ContactMethod("email", "c001@example.com")));
+        List<Thread> writers = new ArrayList<>();
+        for (int writer = 0; writer < 8; writer++) {
+            int offset = writer * 100;
+            writers.add(Thread.ofPlatform().start(() -> {
+                for (int i = offset; i < offset + 100; i++) {
+                    ContactMethod phone = new ContactMethod("phone", "555-" + i);
+                    repository.update("C001", client -> client.withContactMethod(phone));
+                }
+            }));
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        assertThat(repository.findById("C001")).hasValueSatisfying(client -> assertThat(client.contactMethodCount()).isEqualTo(801));
+        assertThat(repository.memoryFootprint().details()).containsEntry("contactMethods", 801L);
+    }
+
+    @Test
+    @DisplayName("Should not create a client by updating it")
+    void shouldNotUpdateMissingClient() {
+        assertThat(repository.update("C404", client -> client.withContactMethod(new ContactMethod("email", "x")))).isEmpty();
+        assertThat(repository.update(null, client -> client)).isEmpty();
+        assertThat(repository.count()).isZero();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,207 @@
+package com.assignment.insuredprocess.repository;
+
+import com.assignment.insuredprocess.config.ColdTierProperties;
+import com.assignment.insuredprocess.config.IdFilterProperties;
+import com.assignment.insuredprocess.config.StorageProperties;
+import com.assignment.insuredprocess.event.ClientEvicted;
+import com.assignment.insuredprocess.model.Client;
+import com.assignment.insuredprocess.model.ClientProduct;
+import com.assignment.insuredprocess.model.ContactMethod;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ClientTiering Tests")
+class ClientTieringTest {
+
+    private static final LocalDateTime PURCHASED = LocalDateTime.of(2024, 5, 1, 10, 30, 15, 123_456_789);
+
+    @TempDir
+    Path directory;
+
+    private ClientRepository clientRepository;
+    private ClientProductRepository clientProductRepository;
+    private ClientTiering tiering;
+    private List<Object> events;
+
+    @BeforeEach
+    void setUp() {
+        clientRepository = new ClientRepository(new StorageProperties(4),
+                new IdFilterProperties(true, 1000, 100, 0.01, DataSize.ofKilobytes(64)));
+        clientProductRepository = new ClientProductRepository(new StorageProperties(4));
+        events = new ArrayList<>();
+        //Creating a client and buying its product count as two accesses, so a cold read on top stays below five
+        tiering = new ClientTiering(clientRepository, clientProductRepository,
+                new ColdTierProperties(true, 10, 5, directory.toString(), Duration.ofHours(1), DataSize.ofBytes(1)), events::add);
+        tiering.start();
+        for (int i = 0; i < 20; i++) {
+            clientRepository.save(new Client("C" + i, new ContactMethod("email", "c" + i + "@example.com")));
+            clientProductRepository.save(new ClientProduct("C" + i, "P" + i, PURCHASED));
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        tiering.destroy();
+    }
+
+    @Test
+    @DisplayName("Should move the least used clients out of memory and still find them")
+    void shouldEvictLeastUsedClients() {
+        for (int i = 0; i < 9; i++) {
+            for (int read = 0; read < 3; read++) {
+                clientRepository.findById("C" + i);
+            }
+        }
+
+        tiering.sweep();
+
+        assertThat(clientRepository.hotCount()).isEqualTo(9);
+        assertThat(tiering.coldClients()).isEqualTo(11);
+        for (int i = 0; i < 9; i++) {
+            assertThat(clientRepository.hot("C" + i)).isNotNull();
+        }
+        assertThat(clientRepository.count()).isEqualTo(20);
+        assertThat(clientProductRepository.countClients()).isEqualTo(20);
+        assertThat(clientRepository.findById("C15")).hasValueSatisfying(client ->
+                assertThat(client.hasContactMethod("email", "c15@example.com")).isTrue());
+        assertThat(clientRepository.existsById("C16")).isTrue();
+        assertThat(clientProductRepository.findByClientId("C17"))
+                .containsExactly(new ClientProduct("C17", "P17", PURCHASED));
+        assertThat(clientProductRepository.existsByClientIdAndProductId("C18", "P18")).isTrue();
+        assertThat(events).hasSize(11).contains(new ClientEvicted("C15"));
+    }
+
+    @Test
+    @DisplayName("Should not count a presence check of a cold client as an access")
+    void shouldNotCountPresenceChecks() {
+        tiering.sweep();
+        String coldId = coldClientId();
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(clientRepository.contains(coldId)).isTrue();
+        }
+        clientRepository.findById(coldId);
+        clientRepository.findById(coldId);
+
+        assertThat(clientRepository.isInMemory(coldId)).isFalse();
+        clientRepository.findById(coldId);
+        assertThat(clientRepository.isInMemory(coldId)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should move a cold client back into memory only once it is read often enough")
+    void shouldAdmitFrequentlyReadClients() {
+        tiering.sweep();
+        String coldId = coldClientId();
+
+        assertThat(clientRepository.findById(coldId)).isPresent();
+        assertThat(clientRepository.hot(coldId)).isNull();
+
+        clientRepository.findById(coldId);
+        clientRepository.findById(coldId);
+
+        assertThat(clientRepository.hot(coldId)).isNotNull();
+        assertThat(clientProductRepository.hotRows(coldId)).hasSize(1);
+        assertThat(clientRepository.count()).isEqualTo(20);
+    }
+
+    @Test
+    @DisplayName("Should bring a cold client back before writing to it")
+    void shouldAdmitOnWrite() {
+        tiering.sweep();
+        String coldId = coldClientId();
+
+        assertThat(clientProductRepository.saveIfAbsent(new ClientProduct(coldId, "P99"))).isTrue();
+        assertThat(clientProductRepository.saveIfAbsent(new ClientProduct(coldId, "P99"))).isFalse();
+
+        assertThat(tiering.isCold(coldId)).isFalse();
+        assertThat(clientRepository.hot(coldId)).isNotNull();
+        assertThat(clientProductRepository.findProductIdsByClientId(coldId)).contains("P99", "P" + coldId.substring(1));
+    }
+
+    @Test
+    @DisplayName("Should visit cold clients and their rows")
+    void shouldVisitColdClients() {
+        tiering.sweep();
+
+        Set<String> clientIds = new HashSet<>();
+        clientRepository.forEach(client -> clientIds.add(client.getId()));
+        List<ClientProduct> rows = new ArrayList<>();
+        clientProductRepository.forEach(rows::add);
+
+        assertThat(clientIds).hasSize(20);
+        assertThat(rows).hasSize(20).contains(new ClientProduct("C5", "P5", PURCHASED));
+    }
+
+    @Test
+    @DisplayName("Should keep cold clients readable after the file is compacted")
+    void shouldCompactColdFile() {
+        tiering.sweep();
+        List<String> coldIds = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            if (clientRepository.hot("C" + i) == null) {
+                coldIds.add("C" + i);
+            }
+        }
+        List<String> deleted = coldIds.subList(0, coldIds.size() - 2);
+        deleted.forEach(clientRepository::deleteById);
+        long before = coldFileBytes();
+
+        tiering.sweep();
+
+        assertThat(coldFileBytes()).isLessThan(before);
+        assertThat(tiering.coldClients()).isEqualTo(2);
+        deleted.forEach(clientId -> assertThat(clientRepository.findById(clientId)).isEmpty());
+        coldIds.subList(coldIds.size() - 2, coldIds.size()).forEach(clientId ->
+                assertThat(clientProductRepository.findByClientId(clientId)).hasSize(1));
+        assertThat(clientRepository.count()).isEqualTo(20 - deleted.size());
+    }
+
+    @Test
+    @DisplayName("Should keep values over 64 KB in a cold record")
+    void shouldRoundTripLongValues() {
+        String value = "x".repeat(70_000) + "\u00e9";
+        Client client = new Client("C-LONG", new ContactMethod("note", value));
+
+        ClientTier.ColdClient decoded = ColdStore.decode(ColdStore.encode(client, List.of(new ClientProduct("C-LONG", "P1", PURCHASED))));
+
+        assertThat(decoded.client().getContactMethods()).containsExactly(new ContactMethod("note", value));
+        assertThat(decoded.rows()).containsExactly(new ClientProduct("C-LONG", "P1", PURCHASED));
+    }
+
+    private String coldClientId() {
+        for (int i = 0; i < 20; i++) {
+            if (clientRepository.hot("C" + i) == null) {
+                return "C" + i;
+            }
+        }
+        throw new AssertionError("No client was moved to the cold tier");
+    }
+
+    private long coldFileBytes() {
+        long[] bytes = new long[1];
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> bytes[0] += file.toFile().length());
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+        return bytes[0];
+    }
+}
\ No newline at end of file
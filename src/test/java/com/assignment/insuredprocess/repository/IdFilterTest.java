@@ -0,0 +1,80 @@
+package com.assignment.insuredprocess.repository;
+
+import com.assignment.insuredprocess.config.IdFilterProperties;
+import com.assignment.insuredprocess.config.StorageProperties;
+import com.assignment.insuredprocess.model.Client;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("IdFilter Tests")
+class IdFilterTest {
+
+    @Test
+    @DisplayName("Should never rule out an added id and stay close to the configured false positive rate")
+    void shouldKeepFalsePositiveRate() {
+        IdFilter filter = IdFilter.sized(10_000, 0.01, 1 << 20);
+        IntStream.range(0, 10_000).forEach(i -> filter.add("C" + i));
+
+        assertThat(IntStream.range(0, 10_000).allMatch(i -> filter.mightContain("C" + i))).isTrue();
+        long falsePositives = IntStream.range(0, 100_000).filter(i -> filter.mightContain("unknown-" + i)).count();
+        assertThat(falsePositives).isLessThan(2_000);
+        assertThat(filter.estimatedFalsePositiveRate()).isBetween(0.005, 0.02);
+    }
+
+    @Test
+    @DisplayName("Should stay within the memory budget at the cost of more false positives")
+    void shouldRespectMemoryBudget() {
+        IdFilter filter = IdFilter.sized(1_000_000, 0.01, 1024);
+        IntStream.range(0, 2_000).forEach(i -> filter.add("C" + i));
+
+        assertThat(filter.memoryBytes()).isEqualTo(1024);
+        assertThat(IntStream.range(0, 2_000).allMatch(i -> filter.mightContain("C" + i))).isTrue();
+        assertThat(filter.estimatedFalsePositiveRate()).isGreaterThan(0.01);
+    }
+
+    @Test
+    @DisplayName("Should keep every id added concurrently")
+    void shouldAcceptConcurrentAdds() throws InterruptedException {
+        IdFilter filter = IdFilter.sized(40_000, 0.01, 1 << 20);
+        List<Thread> writers = new ArrayList<>();
+        for (int writer = 0; writer < 8; writer++) {
+            int offset = writer * 5_000;
+            writers.add(Thread.ofPlatform().start(() -> IntStream.range(offset, offset + 5_000).forEach(i -> filter.add("C" + i))));
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        assertThat(IntStream.range(0, 40_000).allMatch(i -> filter.mightContain("C" + i))).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should rule out unknown clients only once no warm-up is pending")
+    void shouldDeferToPendingWarmup() {
+        ClientRepository repository = new ClientRepository(new StorageProperties(4),
+                new IdFilterProperties(true, 1000, 100, 0.01, DataSize.ofKilobytes(64)));
+        repository.save(new Client("C001"));
+
+        assertThat(repository.isDefinitelyAbsent("C001")).isFalse();
+        assertThat(repository.isDefinitelyAbsent("C999")).isTrue();
+        assertThat(repository.isDefinitelyAbsent(null)).isTrue();
+
+        repository.setWarmup(clientId -> false);
+        assertThat(repository.isDefinitelyAbsent("C999")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should pass every id when the filter is disabled")
+    void shouldPassEverythingWhenDisabled() {
+        ProductRepository repository = new ProductRepository(new IdFilterProperties(false, 1000, 100, 0.01, DataSize.ofKilobytes(64)));
+
+        assertThat(repository.isDefinitelyAbsent("P001")).isFalse();
+    }
+}
\ No newline at end of file
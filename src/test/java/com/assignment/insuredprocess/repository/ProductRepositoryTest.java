@@ -0,0 +1,94 @@
+package com.assignment.insuredprocess.repository;
+
+import com.assignment.insuredprocess.config.IdFilterProperties;
+import com.assignment.insuredprocess.model.Product;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ProductRepository Tests")
+class ProductRepositoryTest {
+
+    private static final IdFilterProperties ID_FILTER = new IdFilterProperties(true, 1000, 100, 0.01, DataSize.ofKilobytes(64));
+
+    private final ProductRepository repository = new ProductRepository(ID_FILTER);
+
+    @Test
+    @DisplayName("Should replace the whole catalog, dropping products that are not reloaded")
+    void shouldReplaceCatalog() {
+        repository.save(new Product("P001", "Health Insurance", "Comprehensive health coverage"));
+        repository.save(new Product("P002", "Car Insurance", "Full coverage for your vehicle"));
+
+        repository.replaceAll(List.of(new Product("P002", "Car Insurance Plus", "Extended"), new Product("P003", "Life Insurance", null)));
+
+        assertThat(repository.existsById("P001")).isFalse();
+        assertThat(repository.findById("P002").orElseThrow().getName()).isEqualTo("Car Insurance Plus");
+        assertThat(repository.findAll()).extracting(Product::getId).containsExactlyInAnyOrder("P002", "P003");
+        assertThat(repository.count()).isEqualTo(2);
+        assertThat(repository.isDefinitelyAbsent("P001")).isTrue();
+        assertThat(repository.isDefinitelyAbsent("P003")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should write single products into the reloaded catalog and account for them")
+    void shouldSaveIntoReloadedCatalog() {
+        repository.replaceAll(catalog(0));
+        long before = repository.memoryFootprint().estimatedBytes();
+
+        repository.save(new Product("P-NEW", "New Product", "Added after the reload"));
+        repository.save(new Product("P0", "Product 0", "revision 1"));
+
+        assertThat(repository.count()).isEqualTo(501);
+        assertThat(repository.findById("P-NEW")).isPresent();
+        assertThat(repository.findById("P0").orElseThrow().getDescription()).isEqualTo("revision 1");
+        assertThat(repository.isDefinitelyAbsent("P-NEW")).isFalse();
+        assertThat(repository.memoryFootprint().estimatedBytes()).isGreaterThan(before);
+    }
+
+    @Test
+    @DisplayName("Should never show a reader a mix of two catalogs")
+    void shouldSwapCatalogAtomically() throws InterruptedException {
+        repository.replaceAll(catalog(0));
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger mixedReads = new AtomicInteger();
+        AtomicInteger reads = new AtomicInteger();
+        Thread reader = Thread.ofPlatform().start(() -> {
+            while (running.get()) {
+                Set<String> revisions = repository.findAll().stream()
+                        .map(Product::getDescription)
+                        .collect(Collectors.toSet());
+                if (revisions.size() != 1) {
+                    mixedReads.incrementAndGet();
+                }
+                reads.incrementAndGet();
+            }
+        });
+
+        for (int revision = 1; revision <= 200; revision++) {
+            repository.replaceAll(catalog(revision));
+        }
+        while (reads.get() < 100) {
+            Thread.onSpinWait();
+        }
+        running.set(false);
+        reader.join();
+
+        assertThat(mixedReads).hasValue(0);
+        assertThat(repository.findById("P0").orElseThrow().getDescription()).isEqualTo("revision 200");
+    }
+
+    private static List<Product> catalog(int revision) {
+        return IntStream.range(0, 500)
+                .mapToObj(i -> new Product("P" + i, "Product " + i, "revision " + revision))
+                .toList();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,68 @@
+package com.assignment.insuredprocess.seed;
+
+import com.assignment.insuredprocess.config.SeedProperties;
+import com.assignment.insuredprocess.repository.ClientProductRepository;
+import com.assignment.insuredprocess.repository.ClientRepository;
+import com.assignment.insuredprocess.repository.ClientWarmup;
+import com.assignment.insuredprocess.service.ClientService;
+import com.assignment.insuredprocess.service.ProductService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SyntheticBookLoader Tests")
+class SyntheticBookLoaderTest {
+
+    @Mock
+    private ClientService clientService;
+
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private ClientRepository clientRepository;
+
+    @Mock
+    private ClientProductRepository clientProductRepository;
+
+    private SyntheticBookLoader loader;
+
+    @AfterEach
+    void tearDown() {
+        loader.destroy();
+    }
+
+    @Test
+    @DisplayName("Should finish loading and report a partition that failed")
+    void shouldFinishWithFailedPartition() throws InterruptedException {
+        lenient().when(clientService.createClient(eq("SC150"), anyString(), anyString())).thenThrow(new IllegalStateException("disk full"));
+        loader = new SyntheticBookLoader(clientService, productService, clientRepository, clientProductRepository,
+                new SeedProperties(300, 5, 0, 1.1, 0.0, 42, 100, 2));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        loader.bindTo(registry);
+
+        loader.start();
+        loader.awaitFullyLoaded();
+
+        assertThat(loader.isFinished()).isTrue();
+        assertThat(loader.isFullyLoaded()).isFalse();
+        assertThat(loader.failedPartitions()).isEqualTo(1);
+        assertThat(registry.get("insured.seed.partitions").tag("state", "failed").gauge().value()).isEqualTo(1.0);
+        assertThat(registry.get("insured.seed.partitions").tag("state", "loaded").gauge().value()).isEqualTo(2.0);
+        assertThat(registry.get("insured.seed.ready").gauge().value()).isEqualTo(1.0);
+        verify(clientRepository, timeout(5_000)).setWarmup(ClientWarmup.NONE);
+        verify(clientProductRepository, timeout(5_000)).setWarmup(ClientWarmup.NONE);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,54 @@
+package com.assignment.insuredprocess.seed;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("SyntheticBook Tests")
+class SyntheticBookTest {
+
+    private final SyntheticBook book = new SyntheticBook(10_000, 500, 40, 1.1, 0.3, 42);
+
+    @Test
+    @DisplayName("Should derive the same book from the same parameters")
+    void shouldBeDeterministic() {
+        SyntheticBook sameBook = new SyntheticBook(10_000, 500, 40, 1.1, 0.3, 42);
+
+        assertThat(sameBook.contactMethods(1234)).isEqualTo(book.contactMethods(1234));
+        assertThat(sameBook.ownedProductIndexes(1234)).isEqualTo(book.ownedProductIndexes(1234));
+        assertThat(sameBook.product(77)).isEqualTo(book.product(77));
+    }
+
+    @Test
+    @DisplayName("Should give every client distinct products within the portfolio limit")
+    void shouldGenerateDistinctBoundedPortfolios() {
+        IntStream.range(0, 2_000).forEach(client -> {
+            int[] owned = book.ownedProductIndexes(client);
+            assertThat(owned.length).isBetween(1, 40);
+            assertThat(Arrays.stream(owned).distinct().count()).isEqualTo(owned.length);
+            assertThat(Arrays.stream(owned).allMatch(product -> product >= 0 && product < 500)).isTrue();
+        });
+    }
+
+    @Test
+    @DisplayName("Should skew ownership towards popular products")
+    void shouldSkewOwnership() {
+        long[] owners = new long[500];
+        IntStream.range(0, 10_000).forEach(client -> Arrays.stream(book.ownedProductIndexes(client)).forEach(product -> owners[product]++));
+
+        assertThat(owners[0]).isGreaterThan(20 * Math.max(1, owners[499]));
+    }
+
+    @Test
+    @DisplayName("Should give some clients a second contact method")
+    void shouldMixContactMethods() {
+        long withPhone = IntStream.range(0, 1_000).filter(client -> book.contactMethods(client).size() == 2).count();
+
+        assertThat(book.contactMethods(7).get(0).getValue()).isEqualTo("client7@example.com");
+        assertThat(withPhone).isBetween(200L, 400L);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,71 @@
+package com.assignment.insuredprocess.service;
+
+import com.assignment.insuredprocess.config.AuthProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("AuthenticationCache Tests")
+class AuthenticationCacheTest {
+
+    @Test
+    @DisplayName("Should return cached positive and negative outcomes")
+    void shouldReturnCachedOutcomes() {
+        AuthenticationCache cache = createCache(10, Duration.ofMinutes(1));
+
+        cache.put("C001", "email", "john@example.com", true, cache.version());
+        cache.put("C404", "email", "bot@example.com", false, cache.version());
+
+        assertThat(cache.get("C001", "email", "john@example.com")).contains(true);
+        assertThat(cache.get("C404", "email", "bot@example.com")).contains(false);
+        assertThat(cache.get("C001", "email", "other@example.com")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should drop all outcomes of a client on invalidation")
+    void shouldInvalidateClientOutcomes() {
+        AuthenticationCache cache = createCache(10, Duration.ofMinutes(1));
+        cache.put("C001", "email", "john@example.com", false, cache.version());
+        cache.put("C001", "phone", "555-1234", false, cache.version());
+
+        cache.invalidate("C001");
+
+        assertThat(cache.get("C001", "email", "john@example.com")).isEmpty();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should discard outcome computed before a concurrent invalidation")
+    void shouldDiscardStaleOutcome() {
+        AuthenticationCache cache = createCache(10, Duration.ofMinutes(1));
+        long version = cache.version();
+
+        cache.invalidate("C999");
+        cache.put("C999", "email", "new@example.com", false, version);
+
+        assertThat(cache.get("C999", "email", "new@example.com")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should not grow beyond max entries")
+    void shouldBoundEntries() {
+        AuthenticationCache cache = createCache(2, Duration.ofMinutes(1));
+
+        cache.put("C001", "email", "a", false, cache.version());
+        cache.put("C002", "email", "b", false, cache.version());
+        cache.put("C003", "email", "c", false, cache.version());
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get("C003", "email", "c")).isEmpty();
+    }
+
+    private AuthenticationCache createCache(int maxEntries, Duration ttl) {
+        AuthProperties properties = new AuthProperties(
+                new AuthProperties.Cache(maxEntries, ttl, ttl),
+                new AuthProperties.Throttle(10, Duration.ofSeconds(6), 100, Duration.ofMillis(100), 1000));
+        return new AuthenticationCache(properties);
+    }
+}
\ No newline at end of file
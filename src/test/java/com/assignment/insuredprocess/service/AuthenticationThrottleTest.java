@@ -0,0 +1,100 @@
+package com.assignment.insuredprocess.service;
+
+import com.assignment.insuredprocess.config.AuthProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("AuthenticationThrottle Tests")
+class AuthenticationThrottleTest {
+
+    private static final Duration NO_REFILL = Duration.ofHours(1);
+
+    @Test
+    @DisplayName("Should shed attempts for a client once its bucket is empty")
+    void shouldShedAttemptsPerClient() {
+        AuthenticationThrottle throttle = createThrottle(3, 100, 100);
+
+        assertThat(throttle.tryAcquire("C001", "10.0.0.1")).isTrue();
+        assertThat(throttle.tryAcquire("C001", "10.0.0.2")).isTrue();
+        assertThat(throttle.tryAcquire("C001", "10.0.0.3")).isTrue();
+        assertThat(throttle.tryAcquire("C001", "10.0.0.4")).isFalse();
+        assertThat(throttle.tryAcquire("C002", "10.0.0.4")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should shed attempts from one source across many client ids")
+    void shouldShedAttemptsPerSource() {
+        AuthenticationThrottle throttle = createThrottle(100, 2, 100);
+
+        assertThat(throttle.tryAcquire("BOGUS1", "10.0.0.1")).isTrue();
+        assertThat(throttle.tryAcquire("BOGUS2", "10.0.0.1")).isTrue();
+        assertThat(throttle.tryAcquire("BOGUS3", "10.0.0.1")).isFalse();
+        assertThat(throttle.tryAcquire("BOGUS3", "10.0.0.2")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should share striped overflow buckets between new keys when bucket limit is reached")
+    void shouldBoundTrackedKeys() {
+        AuthenticationThrottle throttle = createThrottle(1, 100, 2);
+        String sameStripe = "C003";
+        for (int i = 0; AuthenticationThrottle.overflowStripe(sameStripe) != AuthenticationThrottle.overflowStripe("C003")
+                || sameStripe.equals("C003"); i++) {
+            sameStripe = "X" + i;
+        }
+
+        assertThat(throttle.tryAcquire("C001", null)).isTrue();
+        assertThat(throttle.tryAcquire("C002", null)).isTrue();
+        assertThat(throttle.tryAcquire("C003", null)).isTrue();
+        assertThat(throttle.tryAcquire("C003", null)).isFalse();
+        assertThat(throttle.tryAcquire(sameStripe, null)).isFalse();
+        assertThat(throttle.tryAcquire("C004", null)).isTrue();
+        assertThat(throttle.tryAcquire("C001", null)).isFalse();
+        assertThat(throttle.trackedKeys()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should keep most new clients authenticating while a flood of new ids fills the overflow")
+    void shouldSpreadFloodOverOverflowStripes() {
+        AuthenticationThrottle throttle = createThrottle(10, 100, 1);
+        throttle.tryAcquire("TRACKED", null);
+        for (int i = 0; i < 100; i++) {
+            throttle.tryAcquire("FLOOD" + (i % 10), null);
+        }
+
+        int admitted = 0;
+        for (int i = 0; i < 100; i++) {
+            if (throttle.tryAcquire("NEW" + i, null)) {
+                admitted++;
+            }
+        }
+        assertThat(admitted).isGreaterThanOrEqualTo(90);
+    }
+
+    @Test
+    @DisplayName("Should make room for new keys once idle buckets are swept")
+    void shouldSweepRefilledBuckets() {
+        AuthProperties properties = new AuthProperties(
+                new AuthProperties.Cache(100, Duration.ofSeconds(30), Duration.ofSeconds(5)),
+                new AuthProperties.Throttle(1, Duration.ofNanos(1), 100, NO_REFILL, 1));
+        AuthenticationThrottle throttle = new AuthenticationThrottle(properties);
+        assertThat(throttle.tryAcquire("C001", null)).isTrue();
+        assertThat(throttle.trackedKeys()).isEqualTo(1);
+
+        throttle.sweep();
+
+        assertThat(throttle.trackedKeys()).isZero();
+        assertThat(throttle.tryAcquire("C002", null)).isTrue();
+        assertThat(throttle.trackedKeys()).isEqualTo(1);
+    }
+
+    private AuthenticationThrottle createThrottle(int clientCapacity, int sourceCapacity, int maxBuckets) {
+        AuthProperties properties = new AuthProperties(
+                new AuthProperties.Cache(100, Duration.ofSeconds(30), Duration.ofSeconds(5)),
+                new AuthProperties.Throttle(clientCapacity, NO_REFILL, sourceCapacity, NO_REFILL, maxBuckets));
+        return new AuthenticationThrottle(properties);
+    }
+}
\ No newline at end of file
@@ -1,5 +1,8 @@
 package com.assignment.insuredprocess.service;
 
+import com.assignment.insuredprocess.diagnostics.HotKeys;
+import com.assignment.insuredprocess.event.ClientCreated;
+import com.assignment.insuredprocess.event.ContactMethodAdded;
 import com.assignment.insuredprocess.model.Client;
 import com.assignment.insuredprocess.model.ContactMethod;
 import com.assignment.insuredprocess.repository.ClientRepository;
@@ -9,13 +12,17 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.Optional;
+import java.util.function.UnaryOperator;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -25,6 +32,18 @@ class ClientServiceTest {
     @Mock
     private ClientRepository clientRepository;
 
+    @Mock
+    private AuthenticationCache authenticationCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private HotKeys hotKeys;
+
+    @Spy
+    private WriteSequencer writeSequencer = new WriteSequencer();
+
     @InjectMocks
     private ClientService clientService;
 
@@ -68,10 +87,8 @@ class ClientServiceTest {
         }
 
         Client createClient() {
-            Client client = new Client(clientId);
-            client.addContactMethod(new ContactMethod("email", email));
-            client.addContactMethod(new ContactMethod("phone", phone));
-            return client;
+            return new Client(clientId, new ContactMethod("email", email))
+                    .withContactMethod(new ContactMethod("phone", phone));
         }
     }
 
@@ -79,7 +96,7 @@ class ClientServiceTest {
     @DisplayName("Should create client successfully with valid data")
     void shouldCreateClientSuccessfully() {
         when(clientRepository.existsById(testData.clientId)).thenReturn(false);
-        when(clientRepository.save(any(Client.class))).thenReturn(testData.createClient());
+        when(clientRepository.saveIfAbsent(any(Client.class))).thenReturn(true);
 
         Client result = clientService.createClient(testData.clientId, "email", testData.email);
 
@@ -87,7 +104,9 @@ class ClientServiceTest {
         assertThat(result.getId()).isEqualTo(testData.clientId);
         assertThat(result.hasContactMethod("email", testData.email)).isTrue();
         verify(clientRepository).existsById(testData.clientId);
-        verify(clientRepository).save(any(Client.class));
+        verify(clientRepository).saveIfAbsent(any(Client.class));
+        verify(authenticationCache).invalidate(testData.clientId);
+        verify(eventPublisher).publishEvent(new ClientCreated(testData.clientId, "email", testData.email));
     }
 
     @Test
@@ -100,7 +119,21 @@ class ClientServiceTest {
                 .hasMessage("Client with ID " + testData.clientId + " already exists");
 
         verify(clientRepository).existsById(testData.clientId);
-        verify(clientRepository, never()).save(any(Client.class));
+        verify(clientRepository, never()).saveIfAbsent(any(Client.class));
+    }
+
+    @Test
+    @DisplayName("Should throw exception when concurrent create wins the race")
+    void shouldThrowExceptionWhenConcurrentCreateWins() {
+        when(clientRepository.existsById(testData.clientId)).thenReturn(false);
+        when(clientRepository.saveIfAbsent(any(Client.class))).thenReturn(false);
+
+        assertThatThrownBy(() -> clientService.createClient(testData.clientId, "email", testData.email))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Client with ID " + testData.clientId + " already exists");
+
+        verify(authenticationCache, never()).invalidate(any());
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
@@ -136,6 +169,70 @@ class ClientServiceTest {
         verify(clientRepository).findById(testData.clientId);
     }
 
+    @Test
+    @DisplayName("Should turn away a client ruled out by the id filter before the cache and the store")
+    void shouldRejectUnknownClientFromIdFilter() {
+        when(clientRepository.isDefinitelyAbsent("BOGUS")).thenReturn(true);
+
+        boolean result = clientService.authenticateClient("BOGUS", "email", testData.email);
+
+        assertThat(result).isFalse();
+        assertThat(clientService.findClientById("BOGUS")).isEmpty();
+        verify(clientRepository, never()).findById(any());
+        verifyNoInteractions(authenticationCache, hotKeys);
+    }
+
+    @Test
+    @DisplayName("Should answer authentication from cache without repository lookup")
+    void shouldAnswerAuthenticationFromCache() {
+        when(authenticationCache.get(testData.clientId, "email", testData.email)).thenReturn(Optional.of(false));
+
+        boolean result = clientService.authenticateClient(testData.clientId, "email", testData.email);
+
+        assertThat(result).isFalse();
+        verify(clientRepository, never()).findById(any());
+    }
+
+    @Test
+    @DisplayName("Should cache negative authentication outcome")
+    void shouldCacheNegativeAuthenticationOutcome() {
+        when(authenticationCache.version()).thenReturn(7L);
+        when(clientRepository.findById(testData.clientId)).thenReturn(Optional.empty());
+
+        clientService.authenticateClient(testData.clientId, "email", testData.email);
+
+        verify(authenticationCache).put(testData.clientId, "email", testData.email, false, 7L);
+    }
+
+    @Test
+    @DisplayName("Should add a contact method through an atomic repository update")
+    void shouldAddContactMethodAtomically() {
+        Client stored = new Client(testData.clientId, new ContactMethod("email", testData.email));
+        when(clientRepository.update(eq(testData.clientId), any())).thenAnswer(invocation -> {
+            UnaryOperator<Client> change = invocation.getArgument(1);
+            return Optional.of(change.apply(stored));
+        });
+
+        Client result = clientService.addContactMethod(testData.clientId, "phone", testData.phone);
+
+        assertThat(result.hasContactMethod("email", testData.email)).isTrue();
+        assertThat(result.hasContactMethod("phone", testData.phone)).isTrue();
+        verify(clientRepository, never()).save(any(Client.class));
+        verify(authenticationCache).invalidate(testData.clientId);
+        verify(eventPublisher).publishEvent(new ContactMethodAdded(testData.clientId, "phone", testData.phone));
+    }
+
+    @Test
+    @DisplayName("Should reject a contact method for an unknown client")
+    void shouldRejectContactMethodForUnknownClient() {
+        when(clientRepository.update(eq("C404"), any())).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> clientService.addContactMethod("C404", "phone", "555"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Client not found: C404");
+        verifyNoInteractions(eventPublisher);
+    }
+
     @Test
     @DisplayName("Should find existing client")
     void shouldFindExistingClient() {
@@ -0,0 +1,142 @@
+package com.assignment.insuredprocess.service;
+
+import com.assignment.insuredprocess.config.IdempotencyProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("IdempotencyStore Tests")
+class IdempotencyStoreTest {
+
+    private final IdempotencyStore store = new IdempotencyStore(new IdempotencyProperties(1000, Duration.ofMinutes(5), 4));
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @Test
+    @DisplayName("Should run the action once per client and key and replay the stored response")
+    void shouldReplayStoredResponse() {
+        ResponseEntity<String> first = store.execute("K1", "C001", "buy P001", () -> respond(HttpStatus.OK, "bought"));
+        ResponseEntity<String> retry = store.execute("K1", "C001", "buy P001", () -> respond(HttpStatus.BAD_REQUEST, "owned"));
+        ResponseEntity<String> otherClient = store.execute("K1", "C002", "buy P001", () -> respond(HttpStatus.OK, "bought"));
+
+        assertThat(first.getBody()).isEqualTo("bought");
+        assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(retry.getBody()).isEqualTo("bought");
+        assertThat(retry.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(otherClient.getHeaders().containsKey(IdempotencyStore.REPLAYED_HEADER)).isFalse();
+        assertThat(executions).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Should run every request without a key")
+    void shouldRunRequestsWithoutKey() {
+        store.execute(null, "C001", "buy P001", () -> respond(HttpStatus.OK, "bought"));
+        store.execute(null, "C001", "buy P001", () -> respond(HttpStatus.OK, "bought"));
+
+        assertThat(executions).hasValue(2);
+        assertThat(store.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should reject a key reused for a different request and invalid keys")
+    void shouldRejectMismatchedAndInvalidKeys() {
+        store.execute("K1", "C001", "buy P001", () -> respond(HttpStatus.OK, "bought"));
+
+        assertThat(store.execute("K1", "C001", "buy P002", () -> respond(HttpStatus.OK, "bought")).getStatusCode())
+                .isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        assertThat(store.execute(" ", "C001", "buy P001", () -> respond(HttpStatus.OK, "bought")).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(store.execute("K".repeat(256), "C001", "buy P001", () -> respond(HttpStatus.OK, "bought")).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Should answer a retry that arrives while the original is running with conflict")
+    void shouldRejectConcurrentRetry() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread original = Thread.ofPlatform().start(() -> store.execute("K1", "C001", "buy P001", () -> {
+            started.countDown();
+            await(release);
+            return respond(HttpStatus.OK, "bought");
+        }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        ResponseEntity<String> retry = store.execute("K1", "C001", "buy P001", () -> respond(HttpStatus.OK, "bought"));
+        release.countDown();
+        original.join();
+
+        assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(store.execute("K1", "C001", "buy P001", () -> respond(HttpStatus.OK, "again")).getBody()).isEqualTo("bought");
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Should forget server errors and exceptions so the request can be retried")
+    void shouldReleaseKeyOnServerErrorAndException() {
+        store.execute("K1", "C001", "buy P001", () -> respond(HttpStatus.SERVICE_UNAVAILABLE, null));
+        assertThatThrownBy(() -> store.execute("K2", "C001", "buy P001", () -> {
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(store.execute("K1", "C001", "buy P001", () -> respond(HttpStatus.OK, "bought")).getBody()).isEqualTo("bought");
+        assertThat(store.execute("K2", "C001", "buy P001", () -> respond(HttpStatus.OK, "bought")).getBody()).isEqualTo("bought");
+        assertThat(executions).hasValue(3);
+    }
+
+    @Test
+    @DisplayName("Should stay within its bound and forget expired keys")
+    void shouldBoundAndExpireEntries() {
+        IdempotencyStore small = new IdempotencyStore(new IdempotencyProperties(8, Duration.ofMinutes(5), 2));
+        for (int i = 0; i < 100; i++) {
+            small.execute("K" + i, "C001", "buy P001", () -> respond(HttpStatus.OK, "bought"));
+        }
+        assertThat(small.size()).isLessThanOrEqualTo(8);
+
+        IdempotencyStore expiring = new IdempotencyStore(new IdempotencyProperties(8, Duration.ZERO, 2));
+        expiring.execute("K1", "C001", "buy P001", () -> respond(HttpStatus.OK, "bought"));
+        assertThat(expiring.execute("K1", "C001", "buy P001", () -> respond(HttpStatus.OK, "again")).getBody()).isEqualTo("again");
+    }
+
+    @Test
+    @DisplayName("Should not evict the key of a request that is still running")
+    void shouldKeepRunningRequestsOnEviction() {
+        IdempotencyStore single = new IdempotencyStore(new IdempotencyProperties(1, Duration.ofMinutes(5), 1));
+
+        ResponseEntity<String> original = single.execute("K1", "C001", "buy P001", () -> {
+            single.execute("K2", "C001", "buy P002", () -> respond(HttpStatus.OK, "bought P002"));
+            single.execute("K3", "C001", "buy P003", () -> respond(HttpStatus.OK, "bought P003"));
+            ResponseEntity<String> retry = single.execute("K1", "C001", "buy P001", () -> respond(HttpStatus.OK, "twice"));
+            assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+            return respond(HttpStatus.OK, "bought P001");
+        });
+
+        assertThat(original.getBody()).isEqualTo("bought P001");
+        assertThat(executions).hasValue(3);
+        assertThat(single.size()).isEqualTo(2);
+        single.execute("K4", "C001", "buy P004", () -> respond(HttpStatus.OK, "bought P004"));
+        assertThat(single.size()).isEqualTo(1);
+    }
+
+    private ResponseEntity<String> respond(HttpStatus status, String body) {
+        executions.incrementAndGet();
+        return ResponseEntity.status(status).body(body);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,102 @@
+package com.assignment.insuredprocess.service;
+
+import com.assignment.insuredprocess.config.CoalescingProperties;
+import com.assignment.insuredprocess.diagnostics.ClientIdHashes;
+import com.assignment.insuredprocess.event.ProductPurchased;
+import com.assignment.insuredprocess.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PortfolioReads Tests")
+class PortfolioReadsTest {
+
+    @Mock
+    private ProductService productService;
+
+    private PortfolioReads portfolioReads;
+
+    @BeforeEach
+    void setUp() {
+        portfolioReads = new PortfolioReads(productService, new CoalescingProperties(true, 100));
+    }
+
+    @Test
+    @DisplayName("Should share one computation between concurrent reads of the same client")
+    void shouldCoalesceConcurrentReads() throws Exception {
+        CountDownLatch computing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(productService.findClientPortfolio("C001")).thenAnswer(invocation -> {
+            computing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(List.of(new Product("P001", "Health Insurance", "Comprehensive health coverage")));
+        });
+
+        CompletableFuture<Optional<List<Product>>> leader = CompletableFuture.supplyAsync(() -> portfolioReads.findPortfolio("C001"));
+        assertThat(computing.await(5, TimeUnit.SECONDS)).isTrue();
+        List<CompletableFuture<Optional<List<Product>>>> followers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            followers.add(CompletableFuture.supplyAsync(() -> portfolioReads.findPortfolio("C001"), runnable -> Thread.ofVirtual().start(runnable)));
+        }
+        while (portfolioReads.report(10).coalesced() < 3) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        assertThat(leader.get(5, TimeUnit.SECONDS).orElseThrow()).hasSize(1);
+        for (CompletableFuture<Optional<List<Product>>> follower : followers) {
+            assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo(leader.get());
+        }
+        verify(productService, times(1)).findClientPortfolio("C001");
+        assertThat(portfolioReads.coalescedForHash(ClientIdHashes.of("C001"))).isEqualTo(3);
+        assertThat(portfolioReads.report(10).topClients()).containsEntry(ClientIdHashes.of("C001"), 3L);
+    }
+
+    @Test
+    @DisplayName("Should not join a computation that started before a purchase of the client")
+    void shouldNotJoinComputationOlderThanWrite() throws Exception {
+        CountDownLatch computing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(productService.findClientPortfolio("C001"))
+                .thenAnswer(invocation -> {
+                    computing.countDown();
+                    release.await(5, TimeUnit.SECONDS);
+                    return Optional.of(List.of());
+                })
+                .thenReturn(Optional.of(List.of(new Product("P001", "Health Insurance", "Comprehensive health coverage"))));
+
+        CompletableFuture<Optional<List<Product>>> stale = CompletableFuture.supplyAsync(() -> portfolioReads.findPortfolio("C001"));
+        assertThat(computing.await(5, TimeUnit.SECONDS)).isTrue();
+        portfolioReads.onProductPurchased(new ProductPurchased("C001", "P001", null));
+
+        Optional<List<Product>> fresh = portfolioReads.findPortfolio("C001");
+        release.countDown();
+
+        assertThat(fresh.orElseThrow()).hasSize(1);
+        assertThat(stale.get(5, TimeUnit.SECONDS).orElseThrow()).isEmpty();
+        verify(productService, times(2)).findClientPortfolio("C001");
+        assertThat(portfolioReads.coalescedForHash(ClientIdHashes.of("C001"))).isZero();
+    }
+
+    @Test
+    @DisplayName("Should return empty for an unknown client")
+    void shouldReturnEmptyForUnknownClient() {
+        when(productService.findClientPortfolio("NONEXISTENT")).thenReturn(Optional.empty());
+
+        assertThat(portfolioReads.findPortfolio("NONEXISTENT")).isEmpty();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,171 @@
+package com.assignment.insuredprocess.service;
+
+import com.assignment.insuredprocess.config.IdFilterProperties;
+import com.assignment.insuredprocess.config.StorageProperties;
+import com.assignment.insuredprocess.event.CatalogReloaded;
+import com.assignment.insuredprocess.event.ClientEvicted;
+import com.assignment.insuredprocess.event.ClientRemoved;
+import com.assignment.insuredprocess.event.ProductCancelled;
+import com.assignment.insuredprocess.event.ProductPurchased;
+import com.assignment.insuredprocess.event.ProductUpdated;
+import com.assignment.insuredprocess.model.Client;
+import com.assignment.insuredprocess.model.ClientProduct;
+import com.assignment.insuredprocess.model.Product;
+import com.assignment.insuredprocess.repository.ClientProductRepository;
+import com.assignment.insuredprocess.repository.ClientRepository;
+import com.assignment.insuredprocess.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("PortfolioViews Tests")
+class PortfolioViewsTest {
+
+    private static final IdFilterProperties ID_FILTER = new IdFilterProperties(true, 1000, 100, 0.01, DataSize.ofKilobytes(64));
+
+    private ClientRepository clientRepository;
+    private ClientProductRepository clientProductRepository;
+    private ProductRepository productRepository;
+    private PortfolioViews portfolioViews;
+
+    @BeforeEach
+    void setUp() {
+        clientRepository = new ClientRepository(new StorageProperties(4), ID_FILTER);
+        clientProductRepository = new ClientProductRepository(new StorageProperties(4));
+        productRepository = new ProductRepository(ID_FILTER);
+        portfolioViews = new PortfolioViews(clientRepository, clientProductRepository, productRepository);
+
+        clientRepository.save(new Client("C001"));
+        clientRepository.save(new Client("C002"));
+        productRepository.save(new Product("P001", "Health Insurance", "Comprehensive health coverage"));
+        productRepository.save(new Product("P002", "Car Insurance", "Full coverage for your vehicle"));
+        clientProductRepository.save(new ClientProduct("C001", "P001"));
+    }
+
+    @Test
+    @DisplayName("Should build the view on first read and return the same instance afterwards")
+    void shouldBuildViewOnce() {
+        List<Product> first = portfolioViews.find("C001").orElseThrow();
+
+        assertThat(first).extracting(Product::getId).containsExactly("P001");
+        assertThat(portfolioViews.find("C001").orElseThrow()).isSameAs(first);
+        assertThat(portfolioViews.find("NONEXISTENT")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should drop every view on a catalog reload and rebuild it from the new catalog")
+    void shouldRebuildViewsAfterCatalogReload() {
+        List<Product> before = portfolioViews.find("C001").orElseThrow();
+        List<Product> catalog = List.of(new Product("P001", "Health Insurance Plus", "Extended coverage"));
+
+        productRepository.replaceAll(catalog);
+        portfolioViews.onCatalogReloaded(new CatalogReloaded(catalog));
+
+        assertThat(portfolioViews.size()).isZero();
+        List<Product> after = portfolioViews.find("C001").orElseThrow();
+        assertThat(after).isNotSameAs(before);
+        assertThat(after).extracting(Product::getName).containsExactly("Health Insurance Plus");
+
+        productRepository.save(new Product("P001", "Health Insurance Max", "Extended coverage"));
+        portfolioViews.onProductUpdated(new ProductUpdated("P001", "C001", "Health Insurance Max", "Extended coverage"));
+        assertThat(portfolioViews.find("C001").orElseThrow()).extracting(Product::getName).containsExactly("Health Insurance Max");
+    }
+
+    @Test
+    @DisplayName("Should drop the view of a client moved to the cold tier")
+    void shouldDropViewOnEviction() {
+        List<Product> before = portfolioViews.find("C001").orElseThrow();
+        portfolioViews.find("C002");
+
+        portfolioViews.onClientEvicted(new ClientEvicted("C001"));
+
+        assertThat(portfolioViews.size()).isEqualTo(1);
+        assertThat(portfolioViews.memoryFootprint().details()).containsEntry("viewedProducts", 0L).containsEntry("viewerEntries", 0L);
+        assertThat(portfolioViews.find("C001").orElseThrow()).isNotSameAs(before).extracting(Product::getId).containsExactly("P001");
+    }
+
+    @Test
+    @DisplayName("Should add purchases to and remove cancellations from a built view")
+    void shouldPatchViewOnPurchaseAndCancellation() {
+        portfolioViews.find("C001");
+
+        clientProductRepository.save(new ClientProduct("C001", "P002"));
+        portfolioViews.onProductPurchased(new ProductPurchased("C001", "P002", null));
+        assertThat(portfolioViews.find("C001").orElseThrow()).extracting(Product::getId).containsExactly("P001", "P002");
+
+        clientProductRepository.deleteByClientIdAndProductId("C001", "P001");
+        portfolioViews.onProductCancelled(new ProductCancelled("C001", "P001"));
+        assertThat(portfolioViews.find("C001").orElseThrow()).extracting(Product::getId).containsExactly("P002");
+    }
+
+    @Test
+    @DisplayName("Should fan product updates out to the views of its owners only")
+    void shouldFanOutProductUpdatesToOwners() {
+        clientProductRepository.save(new ClientProduct("C002", "P002"));
+        List<Product> otherView = portfolioViews.find("C002").orElseThrow();
+        portfolioViews.find("C001");
+
+        Product stored = productRepository.findById("P001").orElseThrow();
+        productRepository.save(new Product("P001", "Wellness Plan", stored.getDescription()));
+        portfolioViews.onProductUpdated(new ProductUpdated("P001", "C001", "Wellness Plan", stored.getDescription()));
+
+        assertThat(portfolioViews.find("C001").orElseThrow()).extracting(Product::getName).containsExactly("Wellness Plan");
+        assertThat(portfolioViews.find("C002").orElseThrow()).isSameAs(otherView);
+    }
+
+    @Test
+    @DisplayName("Should share stored products, which changes replace rather than modify")
+    void shouldShareImmutableStoredProducts() {
+        Product viewed = portfolioViews.find("C001").orElseThrow().get(0);
+        assertThat(viewed).isSameAs(productRepository.findById("P001").orElseThrow());
+
+        productRepository.save(new Product("P001", "Changed without an event", viewed.getDescription()));
+
+        assertThat(viewed.getName()).isEqualTo("Health Insurance");
+    }
+
+    @Test
+    @DisplayName("Should not keep a view of a client removed while its rows were read")
+    void shouldNotCacheViewOfRemovedClient() {
+        portfolioViews = new PortfolioViews(clientRepository, duringRead("C002", () -> {
+            clientRepository.deleteById("C002");
+            portfolioViews.onClientRemoved(new ClientRemoved("C002"));
+        }), productRepository);
+
+        assertThat(portfolioViews.find("C002")).isEmpty();
+        assertThat(portfolioViews.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should rebuild a view whose rows were read before a purchase of the client")
+    void shouldRebuildViewReadBeforePurchase() {
+        portfolioViews = new PortfolioViews(clientRepository, duringRead("C001", () -> {
+            clientProductRepository.save(new ClientProduct("C001", "P002"));
+            portfolioViews.onProductPurchased(new ProductPurchased("C001", "P002", null));
+        }), productRepository);
+
+        assertThat(portfolioViews.find("C001").orElseThrow()).extracting(Product::getId).containsExactly("P001", "P002");
+    }
+
+    //Reads the rows through the shared store, running the write once right after the first read of the client
+    private ClientProductRepository duringRead(String clientId, Runnable write) {
+        return new ClientProductRepository(new StorageProperties(4)) {
+            private boolean written;
+
+            @Override
+            public List<ClientProduct> findByClientId(String id) {
+                List<ClientProduct> rows = clientProductRepository.findByClientId(id);
+                if (id.equals(clientId) && !written) {
+                    written = true;
+                    write.run();
+                }
+                return rows;
+            }
+        };
+    }
+}
\ No newline at end of file
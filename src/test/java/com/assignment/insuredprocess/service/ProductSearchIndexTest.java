@@ -0,0 +1,79 @@
+package com.assignment.insuredprocess.service;
+
+import com.assignment.insuredprocess.event.CatalogReloaded;
+import com.assignment.insuredprocess.event.ProductCreated;
+import com.assignment.insuredprocess.event.ProductUpdated;
+import com.assignment.insuredprocess.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ProductSearchIndex Tests")
+class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex();
+        index.onProductCreated(new ProductCreated("P001", "Health Insurance", "Comprehensive health coverage"));
+        index.onProductCreated(new ProductCreated("P002", "Car Insurance", "Full coverage for your vehicle"));
+        index.onProductCreated(new ProductCreated("P003", "Life Insurance", "Life protection for your family"));
+    }
+
+    @Test
+    @DisplayName("Should replace the whole index with a reloaded catalog")
+    void shouldRebuildOnCatalogReload() {
+        index.onCatalogReloaded(new CatalogReloaded(List.of(
+                new Product("P001", "Health Insurance Premium", "Comprehensive health coverage"),
+                new Product("P004", "Travel Insurance", "Coverage abroad"))));
+
+        assertThat(index.search("insurance", 10)).containsExactly("P001", "P004");
+        assertThat(index.search("premium", 10)).containsExactly("P001");
+        assertThat(index.search("car", 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should find products by word prefix")
+    void shouldFindByPrefix() {
+        assertThat(index.search("heal", 10)).containsExactly("P001");
+        assertThat(index.search("VEH", 10)).containsExactly("P002");
+    }
+
+    @Test
+    @DisplayName("Should require every query word to match")
+    void shouldIntersectQueryWords() {
+        assertThat(index.search("insurance fam", 10)).containsExactly("P003");
+        assertThat(index.search("car family", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should rank name matches above description matches and cut at the limit")
+    void shouldRankAndLimit() {
+        index.onProductCreated(new ProductCreated("P004", "Travel Insurance", "Includes car rental coverage"));
+
+        assertThat(index.search("car", 10)).containsExactly("P002", "P004");
+        assertThat(index.search("insurance", 2)).containsExactly("P002", "P001");
+    }
+
+    @Test
+    @DisplayName("Should re-index a product when it is updated")
+    void shouldReindexOnUpdate() {
+        index.onProductUpdated(new ProductUpdated("P002", "C001", "Motor Insurance", "Full coverage for your vehicle"));
+
+        assertThat(index.search("car", 10)).isEmpty();
+        assertThat(index.search("motor", 10)).containsExactly("P002");
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should return nothing for a blank query")
+    void shouldIgnoreBlankQuery() {
+        assertThat(index.search("  - ", 10)).isEmpty();
+    }
+}
\ No newline at end of file
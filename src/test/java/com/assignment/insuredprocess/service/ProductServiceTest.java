@@ -1,5 +1,15 @@
 package com.assignment.insuredprocess.service;
 
+import com.assignment.insuredprocess.diagnostics.HotKeys;
+import com.assignment.insuredprocess.dto.ProductUpdateOrder;
+import com.assignment.insuredprocess.dto.ProductUpdateOutcome;
+import com.assignment.insuredprocess.dto.PurchaseOrder;
+import com.assignment.insuredprocess.dto.PurchaseOutcome;
+import com.assignment.insuredprocess.event.CatalogReloaded;
+import com.assignment.insuredprocess.event.ProductCancelled;
+import com.assignment.insuredprocess.event.ProductCreated;
+import com.assignment.insuredprocess.event.ProductPurchased;
+import com.assignment.insuredprocess.event.ProductUpdated;
 import com.assignment.insuredprocess.model.Client;
 import com.assignment.insuredprocess.model.ClientProduct;
 import com.assignment.insuredprocess.model.Product;
@@ -11,14 +21,19 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -34,6 +49,21 @@ class ProductServiceTest {
     @Mock
     private ClientService clientService;
 
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+
+    @Mock
+    private PortfolioViews portfolioViews;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private HotKeys hotKeys;
+
+    @Spy
+    private WriteSequencer writeSequencer = new WriteSequencer();
+
     @InjectMocks
     private ProductService productService;
 
@@ -52,29 +82,95 @@ class ProductServiceTest {
     @Test
     @DisplayName("Should return client products")
     void shouldReturnClientProducts() {
-        when(clientProductRepository.findByClientId(testData.clientId))
-                .thenReturn(List.of(testData.createClientProduct()));
-        when(productRepository.findById(testData.productId))
-                .thenReturn(Optional.of(testData.createProduct()));
+        when(portfolioViews.find(testData.clientId)).thenReturn(Optional.of(List.of(testData.createProduct())));
 
         List<Product> result = productService.getClientProducts(testData.clientId);
 
         assertThat(result).hasSize(1);
         assertThat(result.get(0).getId()).isEqualTo(testData.productId);
-        verify(clientProductRepository).findByClientId(testData.clientId);
-        verify(productRepository).findById(testData.productId);
+        verify(portfolioViews).find(testData.clientId);
+        verifyNoInteractions(clientProductRepository, productRepository);
     }
 
     @Test
     @DisplayName("Should return empty list when client has no products")
     void shouldReturnEmptyListWhenNoProducts() {
-        when(clientProductRepository.findByClientId(testData.clientId)).thenReturn(List.of());
+        when(portfolioViews.find(testData.clientId)).thenReturn(Optional.of(List.of()));
 
         List<Product> result = productService.getClientProducts(testData.clientId);
 
         assertThat(result).isEmpty();
-        verify(clientProductRepository).findByClientId(testData.clientId);
-        verify(productRepository, never()).findById(any());
+        verify(portfolioViews).find(testData.clientId);
+    }
+
+    @Test
+    @DisplayName("Should cancel an owned product")
+    void shouldCancelOwnedProduct() {
+        when(clientProductRepository.deleteByClientIdAndProductId(testData.clientId, testData.productId)).thenReturn(true);
+
+        productService.cancelProduct(testData.clientId, testData.productId);
+
+        verify(eventPublisher).publishEvent(new ProductCancelled(testData.clientId, testData.productId));
+    }
+
+    @Test
+    @DisplayName("Should throw exception when cancelling a product the client does not own")
+    void shouldThrowExceptionWhenCancellingNotOwnedProduct() {
+        when(clientProductRepository.deleteByClientIdAndProductId(testData.clientId, testData.productId)).thenReturn(false);
+
+        assertThatThrownBy(() -> productService.cancelProduct(testData.clientId, testData.productId))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Client does not own this product");
+
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Should resolve search hits to products in ranking order")
+    void shouldSearchProducts() {
+        when(productSearchIndex.search("health", 5)).thenReturn(List.of(testData.productId, "REMOVED"));
+        when(productRepository.findById(testData.productId)).thenReturn(Optional.of(testData.createProduct()));
+        when(productRepository.findById("REMOVED")).thenReturn(Optional.empty());
+
+        List<Product> result = productService.searchProducts("health", 5);
+
+        assertThat(result).extracting(Product::getId).containsExactly(testData.productId);
+    }
+
+    @Test
+    @DisplayName("Should reject a blank search query")
+    void shouldRejectBlankSearchQuery() {
+        assertThatThrownBy(() -> productService.searchProducts(" ", 5))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Search query is required");
+
+        verifyNoInteractions(productSearchIndex);
+    }
+
+    @Test
+    @DisplayName("Should buy for a session-authenticated client with a presence check instead of a client lookup")
+    void shouldBuyProductAsAuthenticatedWithoutClientLookup() {
+        when(clientService.exists(testData.clientId)).thenReturn(true);
+        when(productRepository.findById(testData.productId)).thenReturn(Optional.of(testData.createProduct()));
+        when(clientProductRepository.saveIfAbsent(any(ClientProduct.class))).thenReturn(true);
+
+        Product result = productService.buyProductAsAuthenticated(testData.clientId, testData.productId);
+
+        assertThat(result.getId()).isEqualTo(testData.productId);
+        verify(clientService, never()).findClientById(any());
+        verify(eventPublisher).publishEvent(any(ProductPurchased.class));
+    }
+
+    @Test
+    @DisplayName("Should not buy for a session-authenticated client that was removed after the token was issued")
+    void shouldRejectAuthenticatedPurchaseForRemovedClient() {
+        when(clientService.exists(testData.clientId)).thenReturn(false);
+
+        assertThatThrownBy(() -> productService.buyProductAsAuthenticated(testData.clientId, testData.productId))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Client not found: " + testData.clientId);
+
+        verifyNoInteractions(clientProductRepository, eventPublisher);
     }
 
     @Test
@@ -82,8 +178,7 @@ class ProductServiceTest {
     void shouldBuyProductSuccessfully() {
         when(clientService.findClientById(testData.clientId)).thenReturn(Optional.of(testData.createClient()));
         when(productRepository.findById(testData.productId)).thenReturn(Optional.of(testData.createProduct()));
-        when(clientProductRepository.existsByClientIdAndProductId(testData.clientId, testData.productId)).thenReturn(false);
-        when(clientProductRepository.save(any(ClientProduct.class))).thenReturn(testData.createClientProduct());
+        when(clientProductRepository.saveIfAbsent(any(ClientProduct.class))).thenReturn(true);
 
         Product result = productService.buyProduct(testData.clientId, testData.productId);
 
@@ -91,8 +186,9 @@ class ProductServiceTest {
         assertThat(result.getId()).isEqualTo(testData.productId);
         verify(clientService).findClientById(testData.clientId);
         verify(productRepository).findById(testData.productId);
-        verify(clientProductRepository).existsByClientIdAndProductId(testData.clientId, testData.productId);
-        verify(clientProductRepository).save(any(ClientProduct.class));
+        verify(clientProductRepository).saveIfAbsent(any(ClientProduct.class));
+        verify(eventPublisher).publishEvent(any(ProductPurchased.class));
+        verify(hotKeys).record(eq(testData.clientId), eq(testData.productId), anyLong());
     }
 
     @Test
@@ -121,19 +217,62 @@ class ProductServiceTest {
         verify(productRepository).findById(testData.productId);
     }
 
+    @Test
+    @DisplayName("Should rule out unknown products and clients from the id filters without a lookup")
+    void shouldRejectIdsRuledOutByIdFilters() {
+        when(clientService.findClientById(testData.clientId)).thenReturn(Optional.of(testData.createClient()));
+        when(productRepository.isDefinitelyAbsent("BOGUS")).thenReturn(true);
+        when(clientService.isDefinitelyUnknown(anyString())).thenAnswer(invocation -> "GHOST".equals(invocation.getArgument(0)));
+
+        assertThatThrownBy(() -> productService.buyProduct(testData.clientId, "BOGUS"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Product not found: BOGUS");
+        assertThatThrownBy(() -> productService.updateProduct("GHOST", testData.productId, "New Name", null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Client does not own this product");
+        assertThat(productService.findClientPortfolio("GHOST")).isEmpty();
+
+        verify(productRepository, never()).findById(any());
+        verifyNoInteractions(clientProductRepository, portfolioViews);
+        verify(hotKeys, never()).record(eq("GHOST"), any(), anyLong());
+        verify(hotKeys).record(isNull(), eq(testData.productId), anyLong());
+    }
+
     @Test
     @DisplayName("Should throw exception when client already owns product")
     void shouldThrowExceptionWhenClientAlreadyOwnsProduct() {
         when(clientService.findClientById(testData.clientId)).thenReturn(Optional.of(testData.createClient()));
         when(productRepository.findById(testData.productId)).thenReturn(Optional.of(testData.createProduct()));
-        when(clientProductRepository.existsByClientIdAndProductId(testData.clientId, testData.productId)).thenReturn(true);
+        when(clientProductRepository.saveIfAbsent(any(ClientProduct.class))).thenReturn(false);
 
         assertThatThrownBy(() -> productService.buyProduct(testData.clientId, testData.productId))
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessage("Client already owns this product");
 
-        verify(clientProductRepository).existsByClientIdAndProductId(testData.clientId, testData.productId);
+        verify(clientProductRepository).saveIfAbsent(any(ClientProduct.class));
         verify(clientProductRepository, never()).save(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Should validate a purchase batch and persist it in one write")
+    void shouldBuyProductsInOneWrite() {
+        when(clientService.findClientById(testData.clientId)).thenReturn(Optional.of(testData.createClient()));
+        when(clientService.findClientById("UNKNOWN")).thenReturn(Optional.empty());
+        when(productRepository.findById(testData.productId)).thenReturn(Optional.of(testData.createProduct()));
+        when(clientProductRepository.saveAllIfAbsent(anyList())).thenReturn(List.of(true, false));
+
+        List<PurchaseOutcome> outcomes = productService.buyProducts(List.of(
+                new PurchaseOrder(testData.clientId, testData.productId),
+                new PurchaseOrder("UNKNOWN", testData.productId),
+                new PurchaseOrder(testData.clientId, testData.productId)));
+
+        assertThat(outcomes.get(0).product().getId()).isEqualTo(testData.productId);
+        assertThat(outcomes.get(1).failure()).isEqualTo("Client not found: UNKNOWN");
+        assertThat(outcomes.get(2).failure()).isEqualTo("Client already owns this product");
+        verify(clientService, times(1)).findClientById(testData.clientId);
+        verify(clientProductRepository).saveAllIfAbsent(anyList());
+        verify(eventPublisher, times(1)).publishEvent(any(ProductPurchased.class));
     }
 
     @Test
@@ -147,6 +286,38 @@ class ProductServiceTest {
         verify(clientProductRepository).existsByClientIdAndProductId(testData.clientId, testData.productId);
         verify(productRepository).findById(testData.productId);
         verify(productRepository).save(any(Product.class));
+        verify(eventPublisher).publishEvent(new ProductUpdated(testData.productId, testData.clientId, "New Name", "New Description"));
+    }
+
+    @Test
+    @DisplayName("Should apply a batch of updates with one ownership lookup and one write and event per product")
+    void shouldUpdateProductsInOneWrite() {
+        when(clientProductRepository.findProductIdsByClientId(testData.clientId)).thenReturn(Set.of("P001", "P002", "P404"));
+        when(productRepository.findById("P001")).thenReturn(Optional.of(new Product("P001", "Health Insurance", "Old")));
+        when(productRepository.findById("P002")).thenReturn(Optional.of(new Product("P002", "Car Insurance", "Old")));
+        when(productRepository.findById("P404")).thenReturn(Optional.empty());
+
+        List<ProductUpdateOutcome> outcomes = productService.updateProducts(testData.clientId, List.of(
+                new ProductUpdateOrder("P001", "Health Plus", null),
+                new ProductUpdateOrder("P002", null, "Full coverage"),
+                new ProductUpdateOrder("P003", null, "Not mine"),
+                new ProductUpdateOrder("P001", null, "Nightly sync"),
+                new ProductUpdateOrder("P404", null, "Gone")));
+
+        assertThat(outcomes).containsExactly(
+                ProductUpdateOutcome.success("P001"),
+                ProductUpdateOutcome.success("P002"),
+                ProductUpdateOutcome.failure("P003", "Client does not own this product"),
+                ProductUpdateOutcome.success("P001"),
+                ProductUpdateOutcome.failure("P404", "Product not found: P404"));
+        verify(clientProductRepository).findProductIdsByClientId(testData.clientId);
+        verify(clientProductRepository, never()).existsByClientIdAndProductId(any(), any());
+        verify(productRepository).saveAll(List.of(new Product("P001", "Health Plus", "Nightly sync"), new Product("P002", "Car Insurance", "Full coverage")));
+        verify(productRepository, never()).save(any());
+        verify(eventPublisher).publishEvent(new ProductUpdated("P001", testData.clientId, "Health Plus", "Nightly sync"));
+        verify(eventPublisher).publishEvent(new ProductUpdated("P002", testData.clientId, "Car Insurance", "Full coverage"));
+        verify(eventPublisher, times(2)).publishEvent(any(ProductUpdated.class));
+        verify(writeSequencer).run(eq(Set.of("P001", "P002", "P404")), any(Runnable.class));
     }
 
     @Test
@@ -174,6 +345,7 @@ class ProductServiceTest {
         assertThat(result.getId()).isEqualTo(testData.productId);
         verify(productRepository).existsById(testData.productId);
         verify(productRepository).save(any(Product.class));
+        verify(eventPublisher).publishEvent(new ProductCreated(testData.productId, testData.productName, testData.productDescription));
     }
 
     @Test
@@ -189,6 +361,63 @@ class ProductServiceTest {
         verify(productRepository, never()).save(any());
     }
 
+    @Test
+    @DisplayName("Should create a list of products with one catalog write")
+    void shouldCreateProductsInOneWrite() {
+        List<Product> products = List.of(new Product("P100", "Travel Insurance", "Trips abroad"),
+                new Product("P101", "Pet Insurance", "Vet bills"));
+
+        assertThat(productService.createProducts(products)).isEqualTo(2);
+
+        verify(productRepository).saveAll(products);
+        verify(productRepository, never()).save(any());
+        verify(eventPublisher).publishEvent(new ProductCreated("P100", "Travel Insurance", "Trips abroad"));
+        verify(eventPublisher).publishEvent(new ProductCreated("P101", "Pet Insurance", "Vet bills"));
+    }
+
+    @Test
+    @DisplayName("Should store nothing when any product of the list already exists")
+    void shouldRejectProductsWithTakenId() {
+        when(productRepository.existsById(anyString())).thenAnswer(invocation -> "P101".equals(invocation.getArgument(0)));
+
+        assertThatThrownBy(() -> productService.createProducts(List.of(new Product("P100", "Travel Insurance", "Trips abroad"),
+                new Product("P101", "Pet Insurance", "Vet bills"))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Product with ID P101 already exists");
+
+        verify(productRepository, never()).saveAll(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Should replace the catalog in one step and publish the reloaded catalog")
+    void shouldReloadCatalog() {
+        List<Product> catalog = List.of(testData.createProduct(), new Product("P002", "Car Insurance", "Full coverage"));
+
+        int loaded = productService.reloadCatalog(catalog);
+
+        assertThat(loaded).isEqualTo(2);
+        verify(productRepository).replaceAll(argThat(products -> products.size() == 2));
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof CatalogReloaded reloaded
+                && reloaded.products().equals(catalog) && reloaded.products().get(0) == catalog.get(0)));
+    }
+
+    @Test
+    @DisplayName("Should reject an empty catalog or one with missing or duplicate product IDs")
+    void shouldRejectInvalidCatalog() {
+        assertThatThrownBy(() -> productService.reloadCatalog(List.of()))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> productService.reloadCatalog(List.of(new Product(null, "Nameless", null))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Product ID is required");
+        assertThatThrownBy(() -> productService.reloadCatalog(List.of(testData.createProduct(), testData.createProduct())))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Duplicate product ID in catalog: P001");
+
+        verify(productRepository, never()).replaceAll(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
     private static class TestDataBuilder {
         private String clientId;
         private String productId;
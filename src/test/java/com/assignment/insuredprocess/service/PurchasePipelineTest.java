@@ -0,0 +1,106 @@
+package com.assignment.insuredprocess.service;
+
+import com.assignment.insuredprocess.config.PurchaseProperties;
+import com.assignment.insuredprocess.dto.PurchaseOrder;
+import com.assignment.insuredprocess.dto.PurchaseOutcome;
+import com.assignment.insuredprocess.model.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PurchasePipeline Tests")
+class PurchasePipelineTest {
+
+    @Mock
+    private ProductService productService;
+
+    private PurchasePipeline pipeline;
+
+    @AfterEach
+    void tearDown() {
+        if (pipeline != null) {
+            pipeline.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Should complete futures with the outcome of their batch")
+    void shouldCompleteFuturesWithBatchOutcome() throws Exception {
+        Product product = new Product("P001", "Health Insurance", "Comprehensive health coverage");
+        when(productService.buyProducts(anyList())).thenAnswer(invocation -> {
+            List<PurchaseOrder> orders = invocation.getArgument(0);
+            return orders.stream()
+                    .map(order -> order.clientId().equals("C001")
+                            ? PurchaseOutcome.success(product)
+                            : PurchaseOutcome.failure("Client not found: " + order.clientId()))
+                    .toList();
+        });
+        pipeline = new PurchasePipeline(productService, new PurchaseProperties(16, 100));
+        pipeline.start();
+
+        CompletableFuture<Product> success = pipeline.buyProductAsync("C001", "P001");
+        CompletableFuture<Product> failure = pipeline.buyProductAsync("C404", "P001");
+
+        assertThat(success.get(5, TimeUnit.SECONDS)).isEqualTo(product);
+        assertThat(failure).failsWithin(5, TimeUnit.SECONDS)
+                .withThrowableOfType(Exception.class)
+                .withCauseInstanceOf(IllegalArgumentException.class)
+                .withMessageContaining("Client not found: C404");
+    }
+
+    @Test
+    @DisplayName("Should reject purchases when the pipeline is not running")
+    void shouldRejectPurchasesWhenNotRunning() {
+        pipeline = new PurchasePipeline(productService, new PurchaseProperties(16, 100));
+
+        CompletableFuture<Product> result = pipeline.buyProductAsync("C001", "P001");
+
+        assertThat(result).isCompletedExceptionally();
+        assertThat(result).failsWithin(0, TimeUnit.SECONDS)
+                .withThrowableOfType(Exception.class)
+                .withCauseInstanceOf(RejectedExecutionException.class);
+    }
+
+    @Test
+    @DisplayName("Should complete every purchase offered while the pipeline stops")
+    void shouldCompletePurchasesRacingStop() throws Exception {
+        lenient().when(productService.buyProducts(anyList())).thenAnswer(invocation -> {
+            List<PurchaseOrder> orders = invocation.getArgument(0);
+            return orders.stream().map(order -> PurchaseOutcome.failure("rejected")).toList();
+        });
+        pipeline = new PurchasePipeline(productService, new PurchaseProperties(16, 100_000));
+        pipeline.start();
+        List<CompletableFuture<Product>> results = new CopyOnWriteArrayList<>();
+        List<Thread> buyers = new ArrayList<>();
+        for (int buyer = 0; buyer < 4; buyer++) {
+            buyers.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < 2_000; i++) {
+                    results.add(pipeline.buyProductAsync("C" + i, "P001"));
+                }
+            }));
+        }
+
+        pipeline.stop();
+        for (Thread buyer : buyers) {
+            buyer.join();
+        }
+
+        assertThat(results).hasSize(8_000).allMatch(CompletableFuture::isDone);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,70 @@
+package com.assignment.insuredprocess.service;
+
+import com.assignment.insuredprocess.config.SessionProperties;
+import com.assignment.insuredprocess.exception.SessionRejectedException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("SessionTokens Tests")
+class SessionTokensTest {
+
+    private static final String SECRET = "a-test-secret-of-at-least-32-characters";
+    private static final Instant NOW = Instant.parse("2026-01-15T10:00:00Z");
+
+    private final SessionTokens tokens = tokensAt(NOW, false);
+
+    @Test
+    @DisplayName("Should accept its own token and resolve the client from it")
+    void shouldAcceptIssuedToken() {
+        String token = tokens.issue("C001");
+
+        assertThat(tokens.callerOf(SessionTokens.BEARER + token, null)).isEqualTo(new SessionTokens.Caller("C001", true));
+        assertThat(tokens.callerOf(SessionTokens.BEARER + token, "C001")).isEqualTo(new SessionTokens.Caller("C001", true));
+        assertThat(SessionTokens.unverifiedClientIdOf(SessionTokens.BEARER + token)).isEqualTo("C001");
+    }
+
+    @Test
+    @DisplayName("Should fall back to the clientId parameter when no token is sent, unless tokens are required")
+    void shouldFallBackToClientIdParameter() {
+        assertThat(tokens.callerOf(null, "C001")).isEqualTo(new SessionTokens.Caller("C001", false));
+        assertThatThrownBy(() -> tokens.callerOf(null, null)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> tokensAt(NOW, true).callerOf(null, "C001"))
+                .isInstanceOf(SessionRejectedException.class)
+                .hasMessage("Session token required");
+    }
+
+    @Test
+    @DisplayName("Should reject tampered, foreign, malformed and expired tokens")
+    void shouldRejectInvalidTokens() {
+        String token = tokens.issue("C001");
+        String otherClientsToken = tokens.issue("C002");
+        String forged = otherClientsToken.substring(0, otherClientsToken.indexOf('.')) + token.substring(token.indexOf('.'));
+        SessionTokens otherSecret = new SessionTokens(new SessionProperties("another-secret-of-at-least-32-characters",
+                Duration.ofMinutes(30), false), Clock.fixed(NOW, ZoneOffset.UTC));
+
+        assertRejected(tokens, forged, null, "Invalid session token");
+        assertRejected(otherSecret, token, null, "Invalid session token");
+        assertRejected(tokens, token, "C002", "Session token was issued to another client");
+        assertRejected(tokens, "not-a-token", null, "Malformed session token");
+        assertRejected(tokens, "QzAwMQ.soon.c2ln", null, "Malformed session token");
+        assertRejected(tokensAt(NOW.plus(Duration.ofMinutes(31)), false), token, null, "Session token expired");
+    }
+
+    private static void assertRejected(SessionTokens tokens, String token, String clientId, String message) {
+        assertThatThrownBy(() -> tokens.callerOf(SessionTokens.BEARER + token, clientId))
+                .isInstanceOf(SessionRejectedException.class)
+                .hasMessage(message);
+    }
+
+    private static SessionTokens tokensAt(Instant now, boolean required) {
+        return new SessionTokens(new SessionProperties(SECRET, Duration.ofMinutes(30), required), Clock.fixed(now, ZoneOffset.UTC));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,70 @@
+package com.assignment.insuredprocess.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("WriteSequencer Tests")
+class WriteSequencerTest {
+
+    private final WriteSequencer writeSequencer = new WriteSequencer();
+
+    @Test
+    @DisplayName("Should publish the writes of one key in the order they took effect")
+    void shouldKeepCommitOrderPerKey() throws Exception {
+        AtomicLong version = new AtomicLong();
+        Queue<Long> published = new ConcurrentLinkedQueue<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                writers.add(executor.submit(() -> {
+                    for (int j = 0; j < 2_000; j++) {
+                        writeSequencer.run("C001", () -> {
+                            long committed = version.incrementAndGet();
+                            Thread.yield();
+                            published.add(committed);
+                        });
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get(30, TimeUnit.SECONDS);
+            }
+        }
+
+        assertThat(List.copyOf(published)).hasSize(16_000).isSorted();
+    }
+
+    @Test
+    @DisplayName("Should hold every key of a batch until the batch is done")
+    void shouldHoldAllKeysOfBatch() throws Exception {
+        CountDownLatch written = new CountDownLatch(1);
+        Thread[] writer = new Thread[1];
+
+        boolean writtenDuringBatch = writeSequencer.call(List.of("C001", "C002"), () -> {
+            writer[0] = Thread.ofPlatform().start(() -> writeSequencer.run("C002", written::countDown));
+            try {
+                return written.await(200, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return true;
+            }
+        });
+
+        assertThat(writtenDuringBatch).isFalse();
+        assertThat(written.await(5, TimeUnit.SECONDS)).isTrue();
+        writer[0].join();
+    }
+}
\ No newline at end of file